@@ -42,4 +42,69 @@ public class Activation {
     public static double sigmoid(double x) {
         return 1.0 / (1.0 + Math.exp(-x));
     }
+
+    /**
+     * Applies one activation function to a run of values. The activation type is
+     * resolved once for the whole run instead of once per value.
+     * @param type the activation function to apply (ELU uses an alpha of 1.0)
+     * @param src the array holding the input values
+     * @param srcOffset the index of the first input value in src
+     * @param dst the array the activated values are written to
+     * @param dstOffset the index in dst where the first activated value is written
+     * @param length the number of values to activate
+     */
+    public static void activate(ActivationType type, double[] src, int srcOffset,
+    double[] dst, int dstOffset, int length) {
+        switch (type) {
+            case ELU:
+                for (int i = 0; i < length; i++) {
+                    dst[dstOffset + i] = elu(src[srcOffset + i], 1.0);
+                }
+                break;
+            case RELU:
+                for (int i = 0; i < length; i++) {
+                    dst[dstOffset + i] = relu(src[srcOffset + i]);
+                }
+                break;
+            case SIGMOID:
+                for (int i = 0; i < length; i++) {
+                    dst[dstOffset + i] = sigmoid(src[srcOffset + i]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported activation type " + type);
+        }
+    }
+
+    /**
+     * Multiplies gradients by the derivative of an activation function, in place: turns the
+     * gradient of the loss with respect to activated values into the gradient with respect
+     * to the values before activation. ELU is taken with an alpha of 1.
+     * @param type the activation function
+     * @param inputs the values before activation
+     * @param outputs the activated values
+     * @param gradients the gradients to scale, one per value
+     * @param length the number of values
+     */
+    static void backward(ActivationType type, double[] inputs, double[] outputs, double[] gradients, int length) {
+        switch (type) {
+            case ELU:
+                for (int i = 0; i < length; i++) {
+                    gradients[i] *= (inputs[i] > 0) ? 1.0 : outputs[i] + 1.0;
+                }
+                break;
+            case RELU:
+                for (int i = 0; i < length; i++) {
+                    gradients[i] *= (inputs[i] > 0) ? 1.0 : 0.0;
+                }
+                break;
+            case SIGMOID:
+                for (int i = 0; i < length; i++) {
+                    gradients[i] *= outputs[i] * (1.0 - outputs[i]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported activation type " + type);
+        }
+    }
 }
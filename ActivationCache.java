@@ -0,0 +1,260 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of activated feature matrices. The activation functions of a Model
+ * are applied to the raw input features, which never change, so the activated copy of
+ * a FeatureMatrix can be computed once and shared by every epoch, every Model with the
+ * same activation, and every batch prediction over it.
+ *
+ * Entries are keyed by the identity of the FeatureMatrix, the ActivationType and the
+ * alpha of ELU, and are evicted least recently used first once their total size goes
+ * over the byte budget. Because the key is the identity of the matrix, not its values,
+ * a cache cannot tell that the matrix changed: writing into the array returned by
+ * Dataset.getFeatures() (or changing the file under a MappedDataset) after the matrix
+ * was cached leaves a stale entry, and every Model using the cache then silently trains
+ * and predicts on the old values. Call invalidate after changing a matrix in place.
+ * A cached matrix is also kept reachable until it is evicted or invalidated.
+ *
+ * For that reason the shared cache every Model and Ensemble starts with is off (its
+ * budget is 0) unless the JVM runs with -Dperceptron.activationCache=true, which gives
+ * it DEFAULT_CAPACITY_BYTES, or with -Dperceptron.activationCache.bytes set to a budget.
+ * A cache can also be turned on for some Models only, with Model.setActivationCache.
+ *
+ * The cache is safe to use from several threads. Each entry is computed only once,
+ * by the first thread that asks for it, without blocking lookups of other entries.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class ActivationCache {
+    /** The byte budget of the shared cache when it is turned on, unless -Dperceptron.activationCache.bytes is set. */
+    public static final long DEFAULT_CAPACITY_BYTES = 64L << 20;
+
+    private static final ActivationCache SHARED = new ActivationCache(Long.getLong("perceptron.activationCache.bytes",
+        Boolean.getBoolean("perceptron.activationCache") ? DEFAULT_CAPACITY_BYTES : 0));
+
+    /** The most features one activated matrix can hold, the largest array length every JVM allows. */
+    private static final long MAX_ELEMENTS = Integer.MAX_VALUE - 8;
+
+    private final long capacityBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor for the ActivationCache class.
+     * @param capacityBytes the most bytes of activated matrices to keep; 0 disables caching
+     */
+    public ActivationCache(long capacityBytes) {
+        if (capacityBytes < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative, was " + capacityBytes);
+        }
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Returns the cache every Model uses unless it is given another one. It caches nothing
+     * unless turned on with -Dperceptron.activationCache=true or -Dperceptron.activationCache.bytes.
+     * @return the shared cache
+     */
+    public static ActivationCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the activated copy of a FeatureMatrix, computing and caching it on a miss.
+     * @param data the raw rows
+     * @param type the activation function to apply
+     * @param alpha the alpha of ELU; ignored by the other activation functions
+     * @return a Dataset with the activated features and the same labels, or null if the
+     * activated matrix is larger than the whole cache or than one array can hold, or the
+     * cache is disabled
+     */
+    public Dataset get(FeatureMatrix data, ActivationType type, double alpha) {
+        if (this.capacityBytes == 0) {
+            return null;
+        }
+        Key key = new Key(data, type, (type == ActivationType.ELU) ? alpha : 0.0);
+        Entry entry;
+        synchronized (this) {
+            entry = this.entries.get(key);
+            if (entry != null) {
+                this.hits.increment();
+            } else {
+                this.misses.increment();
+                long bytes = (long) data.getRows() * (Double.BYTES * (long) data.getWidth() + Integer.BYTES);
+                if (bytes > this.capacityBytes || (long) data.getRows() * data.getWidth() > MAX_ELEMENTS) {
+                    return null;
+                }
+                entry = new Entry(bytes);
+                this.entries.put(key, entry);
+                this.sizeBytes += bytes;
+                evict();
+            }
+        }
+        return entry.get(data, type, alpha);
+    }
+
+    /**
+     * Drops every entry computed from a FeatureMatrix, for example after its values were changed.
+     * @param data the raw rows whose activated copies should be dropped
+     */
+    public synchronized void invalidate(FeatureMatrix data) {
+        Iterator<Map.Entry<Key, Entry>> it = this.entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> next = it.next();
+            if (next.getKey().data == data) {
+                this.sizeBytes -= next.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops every entry. The hit, miss and eviction counters are kept.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.sizeBytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Entry> it = this.entries.values().iterator();
+        while (this.sizeBytes > this.capacityBytes) {
+            Entry eldest = it.next();
+            this.sizeBytes -= eldest.bytes;
+            it.remove();
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * Getter method for the number of lookups that found their entry.
+     * @return returns the number of cache hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Getter method for the number of lookups that did not find their entry.
+     * @return returns the number of cache misses, including matrices too large to cache; a
+     * disabled cache counts none
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Getter method for the number of entries evicted to stay within the byte budget.
+     * @return returns the number of evictions
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * Getter method for the number of entries.
+     * @return returns the number of activated matrices currently cached
+     */
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Getter method for the size of the cached entries.
+     * @return returns the bytes of features and labels currently cached
+     */
+    public synchronized long getSizeBytes() {
+        return this.sizeBytes;
+    }
+
+    /**
+     * Getter method for the byte budget.
+     * @return returns the most bytes the cache keeps
+     */
+    public long getCapacityBytes() {
+        return this.capacityBytes;
+    }
+
+    /**
+     * Identifies an activated matrix by the identity of its source and the activation applied.
+     */
+    private static final class Key {
+        private final FeatureMatrix data;
+        private final ActivationType type;
+        private final double alpha;
+
+        Key(FeatureMatrix data, ActivationType type, double alpha) {
+            this.data = data;
+            this.type = type;
+            this.alpha = alpha;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return this.data == key.data && this.type == key.type
+                && Double.compare(this.alpha, key.alpha) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(this.data) * 31 + this.type.hashCode()) * 31
+                + Double.hashCode(this.alpha);
+        }
+    }
+
+    /**
+     * One cached matrix, computed on first use by whichever thread gets there first.
+     */
+    private static final class Entry {
+        private final long bytes;
+        private Dataset activated;
+
+        Entry(long bytes) {
+            this.bytes = bytes;
+        }
+
+        synchronized Dataset get(FeatureMatrix data, ActivationType type, double alpha) {
+            if (this.activated == null) {
+                this.activated = activate(data, type, alpha);
+            }
+            return this.activated;
+        }
+
+        private static Dataset activate(FeatureMatrix data, ActivationType type, double alpha) {
+            int rows = data.getRows();
+            int width = data.getWidth();
+            double[] features = new double[rows * width];
+            int[] labels;
+            if (data instanceof Dataset) {
+                labels = ((Dataset) data).getLabels();
+            } else {
+                labels = new int[rows];
+                for (int r = 0; r < rows; r++) {
+                    labels[r] = data.getLabel(r);
+                }
+            }
+            for (int r = 0; r < rows; r++) {
+                data.copyRow(r, features, r * width);
+            }
+            if (type == ActivationType.ELU && alpha != 1.0) {
+                for (int i = 0; i < features.length; i++) {
+                    features[i] = Activation.elu(features[i], alpha);
+                }
+            } else {
+                Activation.activate(type, features, 0, features, 0, features.length);
+            }
+            return new Dataset(features, labels, width);
+        }
+    }
+}
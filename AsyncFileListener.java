@@ -0,0 +1,146 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A TrainingListener that writes every report as a line of text to a file, on a
+ * background thread. The training thread only formats the line and offers it to a
+ * bounded queue; if the writer falls behind and the queue is full, the line is dropped
+ * and counted rather than slowing training down. Batch reports are indented under
+ * their epoch. Close the listener to flush the remaining lines and release the file.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class AsyncFileListener implements TrainingListener, AutoCloseable {
+    /** The number of lines that can wait for the writer before new ones are dropped. */
+    public static final int QUEUE_CAPACITY = 4096;
+
+    private static final String END = new String("end of log");
+
+    private final long batchInterval;
+    private final BlockingQueue<String> lines = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder dropped = new LongAdder();
+    private final BufferedWriter writer;
+    private final Thread thread;
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Constructor for the AsyncFileListener class, with epoch reports only.
+     * @param file the file to write, replaced if it exists
+     * @throws IOException if the file cannot be opened
+     */
+    public AsyncFileListener(Path file) throws IOException {
+        this(file, 0);
+    }
+
+    /**
+     * Constructor for the AsyncFileListener class.
+     * @param file the file to write, replaced if it exists
+     * @param batchInterval the number of rows between batch reports, or 0 for none
+     * @throws IOException if the file cannot be opened
+     */
+    public AsyncFileListener(Path file, long batchInterval) throws IOException {
+        if (batchInterval < 0) {
+            throw new IllegalArgumentException("Batch interval must not be negative, was " + batchInterval);
+        }
+        this.batchInterval = batchInterval;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.thread = new Thread(this::drain, "training-log-" + file.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void onEpoch(TrainingMetrics metrics) {
+        offer(metrics.toString());
+    }
+
+    @Override
+    public void onBatch(TrainingMetrics metrics) {
+        offer("  " + metrics);
+    }
+
+    @Override
+    public long getBatchInterval() {
+        return this.batchInterval;
+    }
+
+    private void offer(String line) {
+        if (!this.lines.offer(line)) {
+            this.dropped.increment();
+        }
+    }
+
+    /**
+     * Writes lines until the end marker, flushing whenever the queue runs dry so the
+     * file can be followed while training runs. After a write fails, lines are still
+     * taken from the queue, but discarded, so close() never waits on a full queue.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                String line = this.lines.take();
+                if (line == END) {
+                    break;
+                }
+                if (this.failure != null) {
+                    continue;
+                }
+                try {
+                    this.writer.write(line);
+                    this.writer.newLine();
+                    if (this.lines.isEmpty()) {
+                        this.writer.flush();
+                    }
+                } catch (IOException e) {
+                    this.failure = e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Getter method for the number of dropped lines.
+     * @return returns the number of reports dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Writes the lines still queued, stops the writer thread and closes the file.
+     * @throws IOException if writing or closing the file failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.lines.put(END);
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event spanning one call to Model.predictBatch, with the number of
+ * rows it scored. Outside a recording the event is never committed, and creating it costs
+ * next to nothing.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+@Name("perceptron.BatchScored")
+@Label("Batch Scored")
+@Category("Perceptron")
+@Description("One call to Model.predictBatch")
+final class BatchScoredEvent extends Event {
+    @Label("Model ID")
+    int modelId;
+
+    @Label("Rows")
+    int rows;
+
+    /**
+     * Ends the event and commits it with its fields filled in, if it is being recorded.
+     */
+    void finish(int modelId, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.modelId = modelId;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * The state of a Model part way through training: its id, activation type, fast math
+ * setting, weights and bias, the number of epochs completed, the state of the generator
+ * that orders the rows and the optimizer state, which for
+ * plain stochastic gradient descent is its learning rate. Taking a Checkpoint copies the
+ * weights, so training can carry on while it is written. The generator state is the seed
+ * of the EpochIterator of a shuffled run, since the order of an epoch depends only on the
+ * seed and the epoch, and 0 when the rows are taken in order.
+ *
+ * The file format is little-endian: magic "PCKP", short version, short flags (bit 0 is fast
+ * math), int id, int width, int epoch, byte activation type, 3 unused bytes, long random
+ * state, double learning rate, double bias, a CRC32C checksum of every other byte of the
+ * file, and the weights as doubles.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class Checkpoint {
+    static final int MAGIC = 0x504B4350;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 56;
+    private static final int CHECKSUM_POSITION = 48;
+
+    private final int id;
+    private final ActivationType activationType;
+    private final boolean fastMath;
+    private final double[] weights;
+    private final double bias;
+    private final int epoch;
+    private final long randomState;
+    private final double learningRate;
+
+    /**
+     * Copies the parameters of a Model.
+     * @param model the Model being trained
+     * @param epoch the number of epochs the Model has completed
+     * @param learningRate the learning rate of the training run
+     * @param randomState the seed of the EpochIterator that orders the rows, or 0 for none
+     */
+    Checkpoint(Model model, int epoch, double learningRate, long randomState) {
+        this(model.getID(), model.getActivationType(), model.isFastMath(), model.getWeights().clone(),
+            model.getBias(), epoch, learningRate, randomState);
+    }
+
+    private Checkpoint(int id, ActivationType activationType, boolean fastMath, double[] weights, double bias,
+    int epoch, double learningRate, long randomState) {
+        this.id = id;
+        this.activationType = activationType;
+        this.fastMath = fastMath;
+        this.weights = weights;
+        this.bias = bias;
+        this.epoch = epoch;
+        this.learningRate = learningRate;
+        this.randomState = randomState;
+    }
+
+    /**
+     * Writes the checkpoint to a file. It is written to a temporary file next to the target,
+     * forced to disk and moved over the target, so a crash leaves either the previous
+     * checkpoint or this one, never a partly written file.
+     * @param path the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        int size = HEADER_BYTES + Double.BYTES * this.weights.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) (this.fastMath ? 1 : 0));
+        buffer.putInt(this.id).putInt(this.weights.length).putInt(this.epoch);
+        buffer.put((byte) this.activationType.ordinal()).put((byte) 0).put((byte) 0).put((byte) 0);
+        buffer.putLong(this.randomState).putDouble(this.learningRate).putDouble(this.bias);
+        buffer.position(HEADER_BYTES);
+        for (double weight : this.weights) {
+            buffer.putDouble(weight);
+        }
+        buffer.putLong(CHECKSUM_POSITION, checksum(buffer.array()));
+        buffer.position(0);
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a checkpoint file and validates its header, size and checksum.
+     * @param path the file to read
+     * @return the checkpoint
+     * @throws IOException if the file cannot be read or is not a valid, intact checkpoint
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a training checkpoint");
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported version " + version);
+        }
+        int width = buffer.getInt(12);
+        int type = buffer.get(20);
+        if (width < 1 || bytes.length != HEADER_BYTES + (long) Double.BYTES * width
+            || type < 0 || type >= ActivationType.values().length) {
+            throw new IOException(path + " has an invalid header for a checkpoint of " + bytes.length + " bytes");
+        }
+        if (checksum(bytes) != buffer.getLong(CHECKSUM_POSITION)) {
+            throw new IOException(path + " is corrupt: its checksum does not match");
+        }
+        double[] weights = new double[width];
+        for (int j = 0; j < width; j++) {
+            weights[j] = buffer.getDouble(HEADER_BYTES + j * Double.BYTES);
+        }
+        return new Checkpoint(buffer.getInt(8), ActivationType.values()[type], (buffer.getShort(6) & 1) != 0,
+            weights, buffer.getDouble(40), buffer.getInt(16), buffer.getDouble(32), buffer.getLong(24));
+    }
+
+    /**
+     * Sums every byte of the file except the checksum itself.
+     */
+    private static long checksum(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, CHECKSUM_POSITION);
+        crc.update(bytes, CHECKSUM_POSITION + Long.BYTES, bytes.length - CHECKSUM_POSITION - Long.BYTES);
+        return crc.getValue();
+    }
+
+    /**
+     * Getter method for the instance field of id.
+     * @return returns the id of the Model
+     */
+    public int getID() {
+        return this.id;
+    }
+
+    /**
+     * Getter method for the instance field of activationType.
+     * @return returns the activation type of the Model
+     */
+    public ActivationType getActivationType() {
+        return this.activationType;
+    }
+
+    /**
+     * Getter method for the instance field of fastMath.
+     * @return returns whether the Model was trained with FastActivation
+     */
+    public boolean isFastMath() {
+        return this.fastMath;
+    }
+
+    /**
+     * Getter method for the instance field of weights.
+     * @return returns a copy of the weights of the Model
+     */
+    public double[] getWeights() {
+        return this.weights.clone();
+    }
+
+    /**
+     * Getter method for the instance field of bias.
+     * @return returns the bias of the Model
+     */
+    public double getBias() {
+        return this.bias;
+    }
+
+    /**
+     * Getter method for the instance field of epoch.
+     * @return returns the number of epochs completed when the checkpoint was taken
+     */
+    public int getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Getter method for the instance field of randomState.
+     * @return returns the seed of the EpochIterator that ordered the rows, or 0 when rows are taken in order
+     */
+    public long getRandomState() {
+        return this.randomState;
+    }
+
+    /**
+     * Getter method for the instance field of learningRate.
+     * @return returns the learning rate of the training run
+     */
+    public double getLearningRate() {
+        return this.learningRate;
+    }
+
+    /**
+     * Copies the saved parameters into a Model.
+     * @param model the Model to restore, with the same activation type and width
+     */
+    void restore(Model model) {
+        System.arraycopy(this.weights, 0, model.getWeights(), 0, this.weights.length);
+        model.setBias(this.bias);
+        model.setFastMath(this.fastMath);
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint of model " + this.id + " after epoch " + this.epoch + " (" + this.weights.length +
+            " weights, " + this.activationType + ")";
+    }
+}
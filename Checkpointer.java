@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes Checkpoints of a training run to one file, on a background thread. A checkpoint is
+ * due every epochInterval epochs, or once millisInterval milliseconds have passed since the
+ * last one, and after the last epoch. The training thread only copies the weights and hands
+ * the copy over; it never waits for the disk. If the writer is still busy when the next
+ * checkpoint is due, the one waiting is replaced by the newer one and counted as skipped.
+ * Every write replaces the file atomically. Close the Checkpointer to write the checkpoint
+ * still waiting and stop the thread.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class Checkpointer implements AutoCloseable {
+    private final Path path;
+    private final int epochInterval;
+    private final long nanosInterval;
+    private final Thread thread;
+    private long lastNanos;
+    private int lastEpoch;
+    private Checkpoint pending;
+    private boolean closing;
+    private long written;
+    private long skipped;
+    private volatile IOException failure;
+
+    /**
+     * Constructor for the Checkpointer class.
+     * @param path the checkpoint file, created or replaced by every write
+     * @param epochInterval the number of epochs between checkpoints, or 0 to go by time only
+     * @param millisInterval the milliseconds between checkpoints, or 0 to go by epochs only
+     */
+    public Checkpointer(Path path, int epochInterval, long millisInterval) {
+        if (epochInterval < 0 || millisInterval < 0 || (epochInterval == 0 && millisInterval == 0)) {
+            throw new IllegalArgumentException("Checkpoint intervals must not be negative and one must be positive, " +
+                "were " + epochInterval + " epochs and " + millisInterval + " ms");
+        }
+        this.path = path;
+        this.epochInterval = epochInterval;
+        this.nanosInterval = millisInterval * 1_000_000L;
+        this.lastNanos = System.nanoTime();
+        this.thread = new Thread(this::drain, "checkpoint-" + path.getFileName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Starts counting the intervals of a training run. Called by the training thread only.
+     * @param epoch the number of epochs already completed, 0 unless the run is resumed
+     */
+    synchronized void begin(int epoch) {
+        this.lastEpoch = epoch;
+        this.lastNanos = System.nanoTime();
+    }
+
+    /**
+     * Tells whether a checkpoint is due after an epoch. Called by the training thread only.
+     * @param epoch the number of epochs completed
+     * @param last whether it was the last epoch of the run
+     * @return true if a checkpoint should be taken now
+     */
+    boolean isDue(int epoch, boolean last) {
+        return last || (this.epochInterval > 0 && epoch - this.lastEpoch >= this.epochInterval)
+            || (this.nanosInterval > 0 && System.nanoTime() - this.lastNanos >= this.nanosInterval);
+    }
+
+    /**
+     * Hands a checkpoint to the writer thread without waiting for it to be written.
+     * @param checkpoint the checkpoint to write
+     */
+    synchronized void submit(Checkpoint checkpoint) {
+        if (this.closing) {
+            throw new IllegalStateException("The checkpointer for " + this.path + " is closed");
+        }
+        if (this.pending != null) {
+            this.skipped++;
+        }
+        this.pending = checkpoint;
+        this.lastEpoch = checkpoint.getEpoch();
+        this.lastNanos = System.nanoTime();
+        notifyAll();
+    }
+
+    /**
+     * Writes checkpoints as they are handed over until the checkpointer is closed. After a
+     * write fails, later checkpoints are still tried, so a full disk that frees up recovers.
+     */
+    private void drain() {
+        while (true) {
+            Checkpoint next;
+            synchronized (this) {
+                while (this.pending == null && !this.closing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (this.pending == null) {
+                    return;
+                }
+                next = this.pending;
+                this.pending = null;
+            }
+            try {
+                next.write(this.path);
+                synchronized (this) {
+                    this.written++;
+                }
+                this.failure = null;
+            } catch (IOException e) {
+                this.failure = e;
+            }
+        }
+    }
+
+    /**
+     * Reads the checkpoint file, if there is one.
+     * @return the last checkpoint written, or null if the file does not exist
+     * @throws IOException if the file cannot be read or is not a valid, intact checkpoint
+     */
+    public Checkpoint readLatest() throws IOException {
+        return Files.exists(this.path) ? Checkpoint.read(this.path) : null;
+    }
+
+    /**
+     * Getter method for the instance field of path.
+     * @return returns the checkpoint file
+     */
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * Getter method for the number of checkpoints written.
+     * @return returns the number of checkpoints written to the file so far
+     */
+    public synchronized long getWrittenCount() {
+        return this.written;
+    }
+
+    /**
+     * Getter method for the number of skipped checkpoints.
+     * @return returns the number of checkpoints replaced by a newer one before they could be written
+     */
+    public synchronized long getSkippedCount() {
+        return this.skipped;
+    }
+
+    /**
+     * Writes the checkpoint still waiting, if any, and stops the writer thread.
+     * @throws IOException if the last write failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            this.closing = true;
+            notifyAll();
+        }
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+}
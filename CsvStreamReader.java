@@ -0,0 +1,307 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads labelled rows out of CSV text in fixed-size chunks, parsing numbers directly
+ * from a reusable byte buffer instead of splitting every line into Strings. Memory use
+ * is bounded by the buffer size whatever the size of the input, so this can read a log
+ * that is still growing (for example through a pipe) without ever holding the dataset.
+ *
+ * Every line holds the features of one row followed by its label (0 or 1), separated
+ * by commas. Blank lines are skipped, and so is a first line that does not start with
+ * a number (a header). A line may not be longer than the buffer.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class CsvStreamReader implements AutoCloseable {
+    /** The default size of the read buffer, and so the longest line that can be read. */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 16;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private final String source;
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private long lineNumber;
+    private double[] row;
+    private int label;
+
+    /**
+     * Constructor for the CsvStreamReader class.
+     * @param in the stream to read; it is closed by close()
+     * @param bufferBytes the size of the reusable read buffer, which is also the longest line allowed
+     * @param source a name for the input, used in error messages
+     */
+    public CsvStreamReader(InputStream in, int bufferBytes, String source) {
+        if (bufferBytes < 16) {
+            throw new IllegalArgumentException("Buffer must be at least 16 bytes, was " + bufferBytes);
+        }
+        this.in = in;
+        this.buffer = new byte[bufferBytes];
+        this.source = source;
+    }
+
+    /**
+     * Opens a CSV file with the default buffer size.
+     * @param path the file to read
+     * @return a reader positioned before the first row
+     * @throws IOException if the file cannot be opened
+     */
+    public static CsvStreamReader open(Path path) throws IOException {
+        return new CsvStreamReader(Files.newInputStream(path), DEFAULT_BUFFER_BYTES, path.toString());
+    }
+
+    /**
+     * Moves to the next row. Its features and label are then available from getRow()
+     * and getLabel() until the next call.
+     * @return true if a row was read, false at the end of the input
+     * @throws IOException if the input cannot be read or a line is malformed
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = findLineEnd();
+            if (end < 0) {
+                return false;
+            }
+            int start = this.position;
+            this.position = Math.min(end + 1, this.limit);
+            this.lineNumber++;
+            int stop = end;
+            if (stop > start && this.buffer[stop - 1] == '\r') {
+                stop--;
+            }
+            start = skipBlanks(start, stop);
+            if (start == stop) {
+                continue;
+            }
+            if (this.lineNumber == 1 && !startsNumber(this.buffer[start])) {
+                continue;
+            }
+            parseLine(start, stop);
+            return true;
+        }
+    }
+
+    /**
+     * Getter method for the features of the current row. The same array is reused for every row.
+     * @return returns the features of the current row
+     */
+    public double[] getRow() {
+        return this.row;
+    }
+
+    /**
+     * Getter method for the label of the current row.
+     * @return returns the label (0 or 1) of the current row
+     */
+    public int getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Getter method for the number of features in each row.
+     * @return returns the width of the rows, or -1 before the first row has been read
+     */
+    public int getWidth() {
+        return (this.row == null) ? -1 : this.row.length;
+    }
+
+    /**
+     * Getter method for the number of lines read so far.
+     * @return returns the number of lines read, including skipped ones
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * Makes sure a whole line is in the buffer, refilling it as needed.
+     * @return the index of the newline ending the line (or the end of the data for a
+     * last line without one), or -1 if there is no more input
+     */
+    private int findLineEnd() throws IOException {
+        int scan = this.position;
+        while (true) {
+            for (int i = scan; i < this.limit; i++) {
+                if (this.buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            if (this.endOfInput) {
+                return (this.position < this.limit) ? this.limit : -1;
+            }
+            if (this.position == 0 && this.limit == this.buffer.length) {
+                throw new IOException(this.source + ":" + (this.lineNumber + 1) +
+                ": line is longer than the " + this.buffer.length + " byte buffer");
+            }
+            int kept = this.limit - this.position;
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, kept);
+            this.position = 0;
+            this.limit = kept;
+            scan = kept;
+            int read = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+            if (read < 0) {
+                this.endOfInput = true;
+            } else {
+                this.limit += read;
+            }
+        }
+    }
+
+    private void parseLine(int start, int stop) throws IOException {
+        if (this.row == null) {
+            int fields = 1;
+            for (int i = start; i < stop; i++) {
+                if (this.buffer[i] == ',') {
+                    fields++;
+                }
+            }
+            if (fields < 2) {
+                throw error("expected features and a label");
+            }
+            this.row = new double[fields - 1];
+        }
+        int field = 0;
+        int from = start;
+        for (int i = start; i <= stop; i++) {
+            if (i == stop || this.buffer[i] == ',') {
+                if (field > this.row.length) {
+                    throw error("expected " + (this.row.length + 1) + " fields but found more");
+                }
+                double value = parseNumber(from, i);
+                if (field < this.row.length) {
+                    this.row[field] = value;
+                } else if (value == 0.0 || value == 1.0) {
+                    this.label = (int) value;
+                } else {
+                    throw error("label must be 0 or 1");
+                }
+                field++;
+                from = i + 1;
+            }
+        }
+        if (field != this.row.length + 1) {
+            throw error("expected " + (this.row.length + 1) + " fields but found " + field);
+        }
+    }
+
+    /**
+     * Parses a decimal number such as -12.5e-3 straight from the buffer. Numbers of up to
+     * 15 significant digits with a small exponent are computed exactly with one multiply or
+     * divide by an exact power of ten, which is correctly rounded; anything else is handed
+     * to Double.parseDouble.
+     */
+    private double parseNumber(int from, int to) throws IOException {
+        from = skipBlanks(from, to);
+        while (to > from && (this.buffer[to - 1] == ' ' || this.buffer[to - 1] == '\t')) {
+            to--;
+        }
+        if (from == to) {
+            throw error("empty field");
+        }
+        int i = from;
+        boolean negative = false;
+        if (this.buffer[i] == '-' || this.buffer[i] == '+') {
+            negative = this.buffer[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        boolean exact = true;
+        while (i < to && isDigit(this.buffer[i])) {
+            any = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (this.buffer[i] - '0');
+                if (mantissa > 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+                exact = false;
+            }
+            i++;
+        }
+        if (i < to && this.buffer[i] == '.') {
+            i++;
+            while (i < to && isDigit(this.buffer[i])) {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (this.buffer[i] - '0');
+                    if (mantissa > 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+                i++;
+            }
+        }
+        if (any && i < to && (this.buffer[i] == 'e' || this.buffer[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (this.buffer[i] == '-' || this.buffer[i] == '+')) {
+                negativeExponent = this.buffer[i] == '-';
+                i++;
+            }
+            int value = 0;
+            boolean anyExponent = false;
+            while (i < to && isDigit(this.buffer[i])) {
+                anyExponent = true;
+                value = Math.min(value * 10 + (this.buffer[i] - '0'), 100_000);
+                i++;
+            }
+            if (!anyExponent) {
+                any = false;
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (any && i == to && exact && digits <= 15 && exponent >= -22 && exponent <= 22) {
+            double value = (exponent >= 0) ? mantissa * POWERS_OF_TEN[exponent] :
+                mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        try {
+            return Double.parseDouble(new String(this.buffer, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            throw error("'" + new String(this.buffer, from, to - from, StandardCharsets.UTF_8) +
+            "' is not a number");
+        }
+    }
+
+    private int skipBlanks(int from, int to) {
+        while (from < to && (this.buffer[from] == ' ' || this.buffer[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean startsNumber(byte b) {
+        return isDigit(b) || b == '-' || b == '+' || b == '.';
+    }
+
+    private IOException error(String message) {
+        return new IOException(this.source + ":" + this.lineNumber + ": " + message);
+    }
+}
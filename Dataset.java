@@ -0,0 +1,123 @@
+/**
+ * A columnar (struct-of-arrays) collection of labelled rows. All features
+ * live in one contiguous row-major array and all labels in a parallel int
+ * array, so training and prediction can walk the data without touching a
+ * Person object per row.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class Dataset implements FeatureMatrix {
+    private final double[] features;
+    private final int[] labels;
+    private final int width;
+    private final int rows;
+
+    /**
+     * Constructor for the Dataset class. The arrays are used directly, not copied.
+     * @param features the row-major feature matrix, rows * width values long
+     * @param labels the label (0 or 1) of each row
+     * @param width the number of features in each row
+     */
+    public Dataset(double[] features, int[] labels, int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be at least 1, was " + width);
+        }
+        if ((long) labels.length * width != features.length) {
+            throw new IllegalArgumentException("Expected " + ((long) labels.length * width) +
+            " feature values for " + labels.length + " rows, found " + features.length);
+        }
+        this.features = features;
+        this.labels = labels;
+        this.width = width;
+        this.rows = labels.length;
+    }
+
+    /**
+     * Builds a Dataset by copying the features and labels out of an array of Person objects.
+     * @param data contains the Person objects
+     * @return a Dataset holding the same rows in the same order
+     */
+    public static Dataset fromPeople(Person[] data) {
+        int width = (data.length == 0) ? 5 : data[0].getFeatures().length;
+        double[] features = new double[data.length * width];
+        int[] labels = new int[data.length];
+        for (int i = 0; i < data.length; i++) {
+            double[] row = data[i].getFeatures();
+            if (row.length != width) {
+                throw new IllegalArgumentException("Person " + i + " has " + row.length +
+                " features, expected " + width);
+            }
+            System.arraycopy(row, 0, features, i * width, width);
+            labels[i] = data[i].getLabel();
+        }
+        return new Dataset(features, labels, width);
+    }
+
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows in the Dataset
+     */
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the instance field of width.
+     * @return returns the number of features in each row
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Getter method for the instance field of features. The array is not a copy; after writing into
+     * it, invalidate the Dataset in any ActivationCache it was used with, which would otherwise keep
+     * returning the activated old values.
+     * @return returns the row-major feature matrix backing the Dataset
+     */
+    public double[] getFeatures() {
+        return this.features;
+    }
+
+    /**
+     * Getter method for the instance field of labels.
+     * @return returns the labels backing the Dataset
+     */
+    public int[] getLabels() {
+        return this.labels;
+    }
+
+    /**
+     * Returns a single feature of a single row.
+     * @param row the index of the row
+     * @param column the index of the feature within the row
+     * @return the feature value
+     */
+    public double getFeature(int row, int column) {
+        return this.features[row * this.width + column];
+    }
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row
+     * @return the label (0 or 1) of the row
+     */
+    @Override
+    public int getLabel(int row) {
+        return this.labels[row];
+    }
+
+    /**
+     * Copies the features of a single row into an array.
+     * @param row the index of the row
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    @Override
+    public void copyRow(int row, double[] dst, int offset) {
+        System.arraycopy(this.features, row * this.width, dst, offset, this.width);
+    }
+}
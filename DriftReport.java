@@ -0,0 +1,96 @@
+/**
+ * How far the predictions of a QuantizedModel drift from the double-precision Model it
+ * was made from, over a set of rows, and how much memory the quantization saves.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class DriftReport {
+    private final Precision precision;
+    private final int rows;
+    private final long agreedLabels;
+    private final double maxError;
+    private final double meanError;
+    private final long referenceBytes;
+    private final long quantizedBytes;
+
+    /**
+     * Constructor for the DriftReport class.
+     * @param precision the format of the quantized weights
+     * @param rows the number of rows compared
+     * @param agreedLabels the number of rows both Models gave the same label
+     * @param maxError the largest absolute difference between the two probabilities of a row
+     * @param meanError the mean absolute difference between the two probabilities of a row
+     * @param referenceBytes the bytes of parameters of the double-precision Model
+     * @param quantizedBytes the bytes of parameters of the quantized Model
+     */
+    public DriftReport(Precision precision, int rows, long agreedLabels, double maxError, double meanError,
+    long referenceBytes, long quantizedBytes) {
+        this.precision = precision;
+        this.rows = rows;
+        this.agreedLabels = agreedLabels;
+        this.maxError = maxError;
+        this.meanError = meanError;
+        this.referenceBytes = referenceBytes;
+        this.quantizedBytes = quantizedBytes;
+    }
+
+    /**
+     * Getter method for the instance field of precision.
+     * @return returns the format of the quantized weights
+     */
+    public Precision getPrecision() {
+        return this.precision;
+    }
+
+    /**
+     * Getter method for the instance field of rows.
+     * @return returns the number of rows compared
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the fraction of rows that kept their label.
+     * @return the fraction of rows both Models gave the same label, or 1 if there were none
+     */
+    public double getLabelAgreement() {
+        return (this.rows == 0) ? 1.0 : (double) this.agreedLabels / this.rows;
+    }
+
+    /**
+     * Getter method for the instance field of maxError.
+     * @return returns the largest absolute difference between the two probabilities of a row
+     */
+    public double getMaxError() {
+        return this.maxError;
+    }
+
+    /**
+     * Getter method for the instance field of meanError.
+     * @return returns the mean absolute difference between the two probabilities of a row
+     */
+    public double getMeanError() {
+        return this.meanError;
+    }
+
+    /**
+     * Returns how many times smaller the quantized parameters are.
+     * @return the bytes of the double-precision parameters over those of the quantized ones
+     */
+    public double getCompression() {
+        return (double) this.referenceBytes / this.quantizedBytes;
+    }
+
+    /**
+     * Returns a formatted String summarising the drift.
+     * @return a String with the details of the comparison
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %.2f%% of %d labels unchanged, probability error max %.2e mean %.2e, " +
+        "%.1fx smaller", this.precision, 100.0 * getLabelAgreement(), this.rows, this.maxError, this.meanError,
+        getCompression());
+    }
+}
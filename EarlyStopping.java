@@ -0,0 +1,174 @@
+/**
+ * The settings used by the early-stopping training mode of Model. Training watches a loss
+ * after every epoch: the loss on a held-out validation split of the data, or, without a
+ * split, the mean loss of the training pass itself, accumulated while the pass runs. An
+ * epoch counts as an improvement when it lowers the best loss so far by more than minDelta;
+ * after patience epochs in a row without one, training stops. The defaults keep the
+ * learning rate of the per-sample training loop (0.01) and hold nothing out. The split takes
+ * the last rows of the data as they are, unless shuffle is set, in which case the rows are
+ * put in a random order drawn from seed before the split, and trained on in that order.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class EarlyStopping {
+    private double validationFraction;
+    private int patience;
+    private double minDelta;
+    private boolean restoreBestWeights;
+    private LearningRateSchedule schedule;
+    private boolean shuffle;
+    private long seed;
+
+    /**
+     * No-arg constructor for the EarlyStopping class, which uses the default settings.
+     */
+    public EarlyStopping() {
+        this.validationFraction = 0.0;
+        this.patience = 5;
+        this.minDelta = 1e-4;
+        this.restoreBestWeights = true;
+        this.schedule = LearningRateSchedule.constant(0.01);
+        this.shuffle = false;
+        this.seed = 0L;
+    }
+
+    /**
+     * Copy constructor for the EarlyStopping class.
+     * @param other the other EarlyStopping object, whose settings will be copied
+     */
+    public EarlyStopping(EarlyStopping other) {
+        this.validationFraction = other.validationFraction;
+        this.patience = other.patience;
+        this.minDelta = other.minDelta;
+        this.restoreBestWeights = other.restoreBestWeights;
+        this.schedule = other.schedule;
+        this.shuffle = other.shuffle;
+        this.seed = other.seed;
+    }
+
+    /**
+     * Getter method for the instance field of validationFraction.
+     * @return returns the fraction of rows, taken from the end of the data or of its shuffled order, that are held out
+     */
+    public double getValidationFraction() {
+        return this.validationFraction;
+    }
+
+    /**
+     * Getter method for the instance field of patience.
+     * @return returns the number of epochs in a row without improvement after which training stops
+     */
+    public int getPatience() {
+        return this.patience;
+    }
+
+    /**
+     * Getter method for the instance field of minDelta.
+     * @return returns the smallest drop in the loss that counts as an improvement
+     */
+    public double getMinDelta() {
+        return this.minDelta;
+    }
+
+    /**
+     * Getter method for the instance field of restoreBestWeights.
+     * @return returns true if the Model is left with the weights of its best epoch
+     */
+    public boolean isRestoreBestWeights() {
+        return this.restoreBestWeights;
+    }
+
+    /**
+     * Getter method for the instance field of schedule.
+     * @return returns the learning rate of every epoch
+     */
+    public LearningRateSchedule getSchedule() {
+        return this.schedule;
+    }
+
+    /**
+     * Getter method for the instance field of shuffle.
+     * @return returns true if the rows are shuffled before the validation split
+     */
+    public boolean isShuffle() {
+        return this.shuffle;
+    }
+
+    /**
+     * Getter method for the instance field of seed.
+     * @return returns the seed of the shuffle before the validation split
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Setter method for the validationFraction instance field. The last rows of the data are
+     * held out, so the data should be shuffled beforehand, or shuffle set, if it is ordered.
+     * @param validationFraction the fraction of rows held out, from 0 (none) up to but excluding 1
+     */
+    public void setValidationFraction(double validationFraction) {
+        if (!(validationFraction >= 0.0 && validationFraction < 1.0)) {
+            throw new IllegalArgumentException("Validation fraction must be in [0, 1), was " + validationFraction);
+        }
+        this.validationFraction = validationFraction;
+    }
+
+    /**
+     * Setter method for the patience instance field.
+     * @param patience the number of epochs without improvement to tolerate, at least 1
+     */
+    public void setPatience(int patience) {
+        if (patience < 1) {
+            throw new IllegalArgumentException("Patience must be at least 1, was " + patience);
+        }
+        this.patience = patience;
+    }
+
+    /**
+     * Setter method for the minDelta instance field.
+     * @param minDelta the smallest drop in the loss that counts as an improvement, not negative
+     */
+    public void setMinDelta(double minDelta) {
+        if (!(minDelta >= 0.0) || Double.isInfinite(minDelta)) {
+            throw new IllegalArgumentException("Minimum delta must not be negative, was " + minDelta);
+        }
+        this.minDelta = minDelta;
+    }
+
+    /**
+     * Setter method for the restoreBestWeights instance field.
+     * @param restoreBestWeights true to end with the weights of the best epoch, false to keep the last ones
+     */
+    public void setRestoreBestWeights(boolean restoreBestWeights) {
+        this.restoreBestWeights = restoreBestWeights;
+    }
+
+    /**
+     * Setter method for the schedule instance field.
+     * @param schedule the learning rate of every epoch
+     */
+    public void setSchedule(LearningRateSchedule schedule) {
+        if (schedule == null) {
+            throw new IllegalArgumentException("A learning rate schedule is required");
+        }
+        this.schedule = schedule;
+    }
+
+    /**
+     * Setter method for the shuffle instance field.
+     * @param shuffle true to shuffle the rows, with seed, before the validation split
+     */
+    public void setShuffle(boolean shuffle) {
+        this.shuffle = shuffle;
+    }
+
+    /**
+     * Setter method for the seed instance field.
+     * @param seed the seed of the shuffle before the validation split
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
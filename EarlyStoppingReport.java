@@ -0,0 +1,112 @@
+/**
+ * The outcome of an early-stopping training run: how many epochs it took, which one was
+ * best, and why it stopped.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class EarlyStoppingReport {
+    /**
+     * Why an early-stopping run ended.
+     */
+    public enum StopReason {
+        /** Every allowed epoch ran. */
+        MAX_EPOCHS,
+        /** The loss stopped moving: it stayed within minDelta of the best loss for patience epochs. */
+        CONVERGED,
+        /** The loss rose above the best loss by more than minDelta, as a validation loss does when the Model overfits. */
+        NO_IMPROVEMENT
+    }
+
+    private final int epochs;
+    private final int maxEpochs;
+    private final int bestEpoch;
+    private final double bestLoss;
+    private final StopReason reason;
+    private final double[] losses;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor for the EarlyStoppingReport class.
+     * @param maxEpochs the largest number of epochs the run was allowed
+     * @param bestEpoch the epoch with the lowest loss, counted from 0
+     * @param reason why the run ended
+     * @param losses the monitored loss after every epoch that ran
+     * @param elapsedNanos the wall-clock duration of the run in nanoseconds
+     */
+    public EarlyStoppingReport(int maxEpochs, int bestEpoch, StopReason reason, double[] losses, long elapsedNanos) {
+        this.epochs = losses.length;
+        this.maxEpochs = maxEpochs;
+        this.bestEpoch = bestEpoch;
+        this.bestLoss = losses[bestEpoch];
+        this.reason = reason;
+        this.losses = losses.clone();
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Getter method for the instance field of epochs.
+     * @return returns the number of epochs that ran
+     */
+    public int getEpochs() {
+        return this.epochs;
+    }
+
+    /**
+     * Getter method for the instance field of maxEpochs.
+     * @return returns the largest number of epochs the run was allowed
+     */
+    public int getMaxEpochs() {
+        return this.maxEpochs;
+    }
+
+    /**
+     * Getter method for the instance field of bestEpoch.
+     * @return returns the epoch with the lowest loss, counted from 0
+     */
+    public int getBestEpoch() {
+        return this.bestEpoch;
+    }
+
+    /**
+     * Getter method for the instance field of bestLoss.
+     * @return returns the lowest monitored loss of the run
+     */
+    public double getBestLoss() {
+        return this.bestLoss;
+    }
+
+    /**
+     * Getter method for the instance field of reason.
+     * @return returns why the run ended
+     */
+    public StopReason getReason() {
+        return this.reason;
+    }
+
+    /**
+     * Getter method for the instance field of losses.
+     * @return returns a copy of the monitored loss after every epoch that ran
+     */
+    public double[] getLosses() {
+        return this.losses.clone();
+    }
+
+    /**
+     * Getter method for the instance field of elapsedNanos.
+     * @return returns the wall-clock duration of the run in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns a formatted String summarising the run.
+     * @return a String with the details of the run
+     */
+    @Override
+    public String toString() {
+        return String.format("Stopped after %d of %d epochs (%s) in %.3f s, best loss %.4f at epoch %d",
+        this.epochs, this.maxEpochs, this.reason, this.elapsedNanos / 1e9, this.bestLoss, this.bestEpoch);
+    }
+}
@@ -0,0 +1,335 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Scores rows against many Models at once. The weights and biases of every Model are
+ * packed into one contiguous matrix, grouped by ActivationType and fast math mode, so a
+ * block of rows is activated once per group (not once per Model) and then multiplied against
+ * the weights of the whole group in one pass, with the activated row kept in registers
+ * across several Models. The per-Model outputs are combined by majority vote or by
+ * averaging the probabilities.
+ *
+ * An Ensemble holds a snapshot of the weights and of the fast math mode taken when it is
+ * built; training the Models afterwards does not change it. Activations go through the
+ * batched Kernels, or FastActivation for Models in fast math mode, so every per-Model
+ * output is bit-identical to Model.predictBatch with the scalar kernels and within
+ * Kernels.ULP_TOLERANCE of it with the SIMD ones. Like Model, the Ensemble never caches a
+ * RowView or a SparseMatrix in its ActivationCache. Scoring can run on any
+ * number of threads at once; like Model.predictBatch, it does not touch the prediction
+ * counters or the Model history.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class Ensemble {
+    /**
+     * How the outputs of the Models are combined into the score of a row. Either way,
+     * a row is labelled 1 when its score is greater than 0.5.
+     */
+    public enum Combiner {
+        /** The score is the fraction of Models that predict 1, so ties go to 0. */
+        MAJORITY_VOTE,
+        /** The score is the mean of the probabilities of the Models. */
+        MEAN_PROBABILITY
+    }
+
+    private static final int BLOCK_ROWS = 256;
+
+    private final int width;
+    private final int size;
+    private final int[] ids;
+    private final double[] weights;
+    private final double[] biases;
+    private final ActivationType[] groupTypes;
+    private final boolean[] groupFast;
+    private final int[] groupStarts;
+    private final boolean anyFast;
+    private final ThreadLocal<double[]> block;
+    private ActivationCache activationCache = ActivationCache.getShared();
+
+    /**
+     * Constructor for the Ensemble class.
+     * @param models the Models to score with, which must all have the same number of weights
+     */
+    public Ensemble(Collection<Model> models) {
+        if (models.isEmpty()) {
+            throw new IllegalArgumentException("An ensemble needs at least one model");
+        }
+        this.size = models.size();
+        this.width = models.iterator().next().getWeights().length;
+        this.ids = new int[this.size];
+        this.weights = new double[this.size * this.width];
+        this.biases = new double[this.size];
+        List<ActivationType> types = new ArrayList<>();
+        List<Boolean> fast = new ArrayList<>();
+        List<Integer> starts = new ArrayList<>();
+        int next = 0;
+        for (ActivationType type : ActivationType.values()) {
+            for (boolean fastMath : new boolean[]{false, true}) {
+                int start = next;
+                for (Model model : models) {
+                    if (model.getActivationType() != type || model.isFastMath() != fastMath) {
+                        continue;
+                    }
+                    if (model.getWeights().length != this.width) {
+                        throw new IllegalArgumentException("Model " + model.getID() + " has " +
+                        model.getWeights().length + " weights, expected " + this.width);
+                    }
+                    this.ids[next] = model.getID();
+                    System.arraycopy(model.getWeights(), 0, this.weights, next * this.width, this.width);
+                    this.biases[next] = model.getBias();
+                    next++;
+                }
+                if (next > start) {
+                    types.add(type);
+                    fast.add(fastMath);
+                    starts.add(start);
+                }
+            }
+        }
+        this.groupTypes = types.toArray(new ActivationType[0]);
+        this.groupFast = new boolean[fast.size()];
+        this.groupStarts = new int[starts.size() + 1];
+        for (int g = 0; g < starts.size(); g++) {
+            this.groupFast[g] = fast.get(g);
+            this.groupStarts[g] = starts.get(g);
+        }
+        this.groupStarts[starts.size()] = this.size;
+        this.anyFast = fast.contains(true);
+        int scratch = 2 * BLOCK_ROWS * this.width + BLOCK_ROWS * this.size;
+        this.block = ThreadLocal.withInitial(() -> new double[scratch]);
+    }
+
+    /**
+     * Computes the probability of every Model for a block of rows.
+     * @param data the rows to score, which must have as many features as the Models have weights
+     * @param fromRow the first row to score, inclusive
+     * @param toRow the last row to score, exclusive
+     * @param probabilities receives the probability of model getIds()[k] for row fromRow + i
+     * at index i * size() + k
+     */
+    public void probabilities(FeatureMatrix data, int fromRow, int toRow, double[] probabilities) {
+        score(data, fromRow, toRow, this.activationCache, null, null, null, probabilities);
+    }
+
+    /**
+     * Scores and labels a block of rows with the combined output of all the Models.
+     * @param data the rows to score, which must have as many features as the Models have weights
+     * @param fromRow the first row to score, inclusive
+     * @param toRow the last row to score, exclusive
+     * @param combiner how the outputs of the Models are combined
+     * @param labels receives the label of row fromRow + i at index i, or null if not needed
+     * @param scores receives the combined score of row fromRow + i at index i, or null if not needed
+     */
+    public void predictBatch(FeatureMatrix data, int fromRow, int toRow, Combiner combiner,
+    int[] labels, double[] scores) {
+        score(data, fromRow, toRow, this.activationCache, combiner, labels, scores, null);
+    }
+
+    /**
+     * Predicts whether a Person is a fan of ChatGPT with the combined output of all the Models.
+     * @param p the Person to make the prediction for
+     * @param combiner how the outputs of the Models are combined
+     * @return the integer value of 1 or 0, indicating whether they are a fan of ChatGPT
+     */
+    public int predict(Person p, Combiner combiner) {
+        int[] label = new int[1];
+        double[] features = p.getFeatures();
+        score(new Dataset(features, new int[]{p.getLabel()}, features.length), 0, 1, null, combiner, label, null, null);
+        return label[0];
+    }
+
+    /**
+     * Scores a block of rows into per-Model probabilities and, if a combiner is given, combined
+     * labels and scores. The activated rows come from the cache when it is not null and they fit,
+     * unless the data is a RowView or a SparseMatrix, which are never cached; as in Model, cached
+     * rows are exact even for a fast math group.
+     */
+    private void score(FeatureMatrix data, int fromRow, int toRow, ActivationCache cache, Combiner combiner,
+    int[] labels, double[] scores, double[] probabilities) {
+        if (data.getWidth() != this.width) {
+            throw new IllegalArgumentException("The ensemble expects " + this.width +
+            " features per row, but the data has " + data.getWidth());
+        }
+        if (fromRow < 0 || toRow > data.getRows() || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Rows " + fromRow + " to " + toRow +
+            " are out of range for " + data.getRows() + " rows");
+        }
+        Kernels kernels = Kernels.get();
+        double[] block = this.block.get();
+        int activatedStart = BLOCK_ROWS * this.width;
+        int sums = 2 * BLOCK_ROWS * this.width;
+        boolean cacheable = cache != null && !(data instanceof RowView) && !(data instanceof SparseMatrix);
+        Dataset[] cached = new Dataset[this.groupTypes.length];
+        for (int g = 0; g < cached.length; g++) {
+            cached[g] = cacheable ? cache.get(data, this.groupTypes[g], 1.0) : null;
+        }
+        double[] raw = (data instanceof Dataset) ? ((Dataset) data).getFeatures() : null;
+
+        for (int start = fromRow; start < toRow; start += BLOCK_ROWS) {
+            int count = Math.min(BLOCK_ROWS, toRow - start);
+            boolean copied = false;
+            for (int g = 0; g < this.groupTypes.length; g++) {
+                double[] activated;
+                int offset;
+                if (cached[g] != null) {
+                    activated = cached[g].getFeatures();
+                    offset = start * this.width;
+                } else {
+                    double[] source = raw;
+                    int sourceOffset = start * this.width;
+                    if (source == null) {
+                        if (!copied) {
+                            for (int i = 0; i < count; i++) {
+                                data.copyRow(start + i, block, i * this.width);
+                            }
+                            copied = true;
+                        }
+                        source = block;
+                        sourceOffset = 0;
+                    }
+                    if (this.groupFast[g]) {
+                        FastActivation.activate(this.groupTypes[g], source, sourceOffset, block, activatedStart,
+                            count * this.width);
+                    } else {
+                        kernels.activate(this.groupTypes[g], source, sourceOffset, block, activatedStart,
+                            count * this.width);
+                    }
+                    activated = block;
+                    offset = activatedStart;
+                }
+                multiply(activated, offset, count, this.groupStarts[g], this.groupStarts[g + 1], block, sums);
+            }
+            if (this.anyFast) {
+                outputSigmoid(kernels, block, sums, count);
+            } else {
+                kernels.activate(ActivationType.SIGMOID, block, sums, block, sums, count * this.size);
+            }
+            int out = start - fromRow;
+            if (probabilities != null) {
+                System.arraycopy(block, sums, probabilities, out * this.size, count * this.size);
+            }
+            if (combiner != null) {
+                combine(block, sums, count, combiner, labels, scores, out);
+            }
+        }
+    }
+
+    /**
+     * Computes the weighted sums plus biases of models [from, to) for a block of activated rows,
+     * four models at a time so each activated feature is loaded once per four models. Every sum
+     * still adds its features in order, exactly as Model does.
+     */
+    private void multiply(double[] activated, int offset, int rows, int from, int to, double[] sums, int sumsOffset) {
+        int width = this.width;
+        double[] w = this.weights;
+        for (int r = 0; r < rows; r++) {
+            int a = offset + r * width;
+            int out = sumsOffset + r * this.size;
+            int k = from;
+            for (; k + 4 <= to; k += 4) {
+                int w0 = k * width;
+                int w1 = w0 + width;
+                int w2 = w1 + width;
+                int w3 = w2 + width;
+                double s0 = 0;
+                double s1 = 0;
+                double s2 = 0;
+                double s3 = 0;
+                for (int j = 0; j < width; j++) {
+                    double x = activated[a + j];
+                    s0 += (w[w0 + j] * x);
+                    s1 += (w[w1 + j] * x);
+                    s2 += (w[w2 + j] * x);
+                    s3 += (w[w3 + j] * x);
+                }
+                sums[out + k] = s0 + this.biases[k];
+                sums[out + k + 1] = s1 + this.biases[k + 1];
+                sums[out + k + 2] = s2 + this.biases[k + 2];
+                sums[out + k + 3] = s3 + this.biases[k + 3];
+            }
+            for (; k < to; k++) {
+                double s = 0;
+                for (int j = 0, base = k * width; j < width; j++) {
+                    s += (w[base + j] * activated[a + j]);
+                }
+                sums[out + k] = s + this.biases[k];
+            }
+        }
+    }
+
+    /**
+     * Applies the output sigmoid to the sums of a block of rows, group by group, with
+     * FastActivation for the groups in fast math mode.
+     */
+    private void outputSigmoid(Kernels kernels, double[] block, int sums, int rows) {
+        for (int r = 0; r < rows; r++) {
+            int row = sums + r * this.size;
+            for (int g = 0; g < this.groupTypes.length; g++) {
+                int from = row + this.groupStarts[g];
+                int length = this.groupStarts[g + 1] - this.groupStarts[g];
+                if (this.groupFast[g]) {
+                    FastActivation.activate(ActivationType.SIGMOID, block, from, block, from, length);
+                } else {
+                    kernels.activate(ActivationType.SIGMOID, block, from, block, from, length);
+                }
+            }
+        }
+    }
+
+    private void combine(double[] block, int sums, int count, Combiner combiner,
+    int[] labels, double[] scores, int out) {
+        for (int i = 0; i < count; i++) {
+            int row = sums + i * this.size;
+            double score = 0;
+            if (combiner == Combiner.MAJORITY_VOTE) {
+                int votes = 0;
+                for (int k = 0; k < this.size; k++) {
+                    if (block[row + k] > 0.5) {
+                        votes++;
+                    }
+                }
+                score = (double) votes / this.size;
+            } else {
+                for (int k = 0; k < this.size; k++) {
+                    score += block[row + k];
+                }
+                score /= this.size;
+            }
+            if (labels != null) {
+                labels[out + i] = (score > 0.5) ? 1 : 0;
+            }
+            if (scores != null) {
+                scores[out + i] = score;
+            }
+        }
+    }
+
+    /**
+     * Getter method for the ids of the Models, in the order of the columns of probabilities().
+     * @return returns the ids of the Models, grouped by ActivationType and, within a type, exact
+     * before fast math
+     */
+    public int[] getIds() {
+        return this.ids.clone();
+    }
+
+    /**
+     * Getter method for the number of Models.
+     * @return returns the number of Models in the ensemble
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Setter method for the activationCache instance field. An Ensemble shares
+     * ActivationCache.getShared(), which is off unless turned on by a system property, unless
+     * given another cache.
+     * @param activationCache the cache of activated features to use, or null to activate every block
+     */
+    public void setActivationCache(ActivationCache activationCache) {
+        this.activationCache = activationCache;
+    }
+}
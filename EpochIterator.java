@@ -0,0 +1,318 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Walks the rows of a FeatureMatrix for a number of epochs, in a new random order every
+ * epoch, one mini-batch at a time. The rows themselves never move: each epoch shuffles an
+ * index permutation, and a background thread gathers the rows of the next batch into the
+ * second of two batch buffers while the caller works on the first. For a MappedDataset
+ * or an OffHeapDataset the reads and page faults of the gather overlap with training.
+ *
+ * The order of an epoch depends only on the seed and the epoch number, so the same seed
+ * always gives the same batches. getStallNanos() tells how long the caller waited for a
+ * batch that was not ready yet; close to 0 means the gather keeps up with the training.
+ * The thread starts on the first call to next(). Close the iterator to stop it early.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class EpochIterator implements AutoCloseable {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final FeatureMatrix data;
+    private final int epochs;
+    private final int batchSize;
+    private final long seed;
+    private final BlockingQueue<Batch> empty = new ArrayBlockingQueue<>(2);
+    private final BlockingQueue<Batch> full = new ArrayBlockingQueue<>(3);
+    private final Batch end;
+    private Thread thread;
+    private Batch current;
+    private ActivationType activationType;
+    private boolean fastMath;
+    private int firstEpoch;
+    private long stallNanos;
+    private long batches;
+    private volatile long gatherNanos;
+    private volatile RuntimeException failure;
+    private boolean finished;
+
+    /**
+     * Constructor for the EpochIterator class.
+     * @param data the rows to walk; a SparseMatrix is not supported, since its rows would be gathered dense
+     * @param epochs the number of passes over the rows
+     * @param batchSize the number of rows in every batch but the last of each epoch
+     * @param seed the seed of the row order
+     */
+    public EpochIterator(FeatureMatrix data, int epochs, int batchSize, long seed) {
+        if (data instanceof SparseMatrix) {
+            throw new IllegalArgumentException("An EpochIterator does not support a SparseMatrix, whose rows would " +
+                "become dense");
+        }
+        if (epochs < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Epochs and batch size must be positive, were " + epochs + " and " +
+                batchSize);
+        }
+        this.data = data;
+        this.epochs = epochs;
+        this.batchSize = Math.min(batchSize, Math.max(1, data.getRows()));
+        this.seed = seed;
+        this.end = new Batch(0, 0);
+        for (int i = 0; i < 2; i++) {
+            this.empty.add(new Batch(this.batchSize, data.getWidth()));
+        }
+    }
+
+    /**
+     * Has the background thread apply an activation function to every gathered row, so
+     * that work leaves the caller too. Must be called before the first call to next().
+     * @param activationType the activation to apply
+     * @param fastMath whether to use FastActivation rather than Activation
+     */
+    void activateWith(ActivationType activationType, boolean fastMath) {
+        if (this.thread != null) {
+            throw new IllegalStateException("The iterator has already started");
+        }
+        this.activationType = activationType;
+        this.fastMath = fastMath;
+    }
+
+    /**
+     * Skips the first epochs, so a resumed run walks the same batches the rest of the original
+     * run would have. Must be called before the first call to next().
+     * @param epoch the number of epochs already completed, from 0 to getEpochs()
+     */
+    void startAt(int epoch) {
+        if (this.thread != null) {
+            throw new IllegalStateException("The iterator has already started");
+        }
+        if (epoch < 0 || epoch > this.epochs) {
+            throw new IllegalArgumentException("Cannot start at epoch " + epoch + " of " + this.epochs);
+        }
+        this.firstEpoch = epoch;
+    }
+
+    /**
+     * Returns the next batch. The batch stays valid until the following call, which hands
+     * its buffer back to the background thread.
+     * @return the next batch, or null once every epoch has been walked
+     */
+    public Batch next() {
+        if (this.finished) {
+            return null;
+        }
+        if (this.thread == null) {
+            this.thread = new Thread(this::gather, "epoch-iterator");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        if (this.current != null) {
+            this.empty.add(this.current);
+            this.current = null;
+        }
+        long started = System.nanoTime();
+        Batch batch;
+        try {
+            batch = this.full.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a batch", e);
+        }
+        this.stallNanos += System.nanoTime() - started;
+        if (batch == this.end) {
+            this.finished = true;
+            if (this.failure != null) {
+                throw this.failure;
+            }
+            return null;
+        }
+        this.batches++;
+        this.current = batch;
+        return batch;
+    }
+
+    /**
+     * Shuffles the row order of every epoch and fills empty buffers with the rows of the
+     * next batch, until every epoch is done or the iterator is closed.
+     */
+    private void gather() {
+        int rows = this.data.getRows();
+        int width = this.data.getWidth();
+        int[] order = new int[rows];
+        try {
+            for (int epoch = this.firstEpoch; epoch < this.epochs; epoch++) {
+                shuffle(order, this.seed + epoch * GOLDEN_GAMMA);
+                for (int start = 0; start < rows; start += this.batchSize) {
+                    Batch batch = this.empty.take();
+                    long started = System.nanoTime();
+                    int size = Math.min(this.batchSize, rows - start);
+                    for (int i = 0; i < size; i++) {
+                        int row = order[start + i];
+                        this.data.copyRow(row, batch.features, i * width);
+                        batch.labels[i] = this.data.getLabel(row);
+                        batch.rows[i] = row;
+                    }
+                    if (this.activationType != null && this.fastMath) {
+                        FastActivation.activate(this.activationType, batch.features, 0, batch.features, 0, size * width);
+                    } else if (this.activationType != null) {
+                        Activation.activate(this.activationType, batch.features, 0, batch.features, 0, size * width);
+                    }
+                    batch.epoch = epoch;
+                    batch.size = size;
+                    this.gatherNanos += System.nanoTime() - started;
+                    this.full.put(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (RuntimeException e) {
+            this.failure = e;
+        }
+        this.full.add(this.end);
+    }
+
+    /**
+     * Fills order with a uniformly random permutation of its indices (Fisher-Yates).
+     */
+    static void shuffle(int[] order, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    /**
+     * Getter method for the rows being walked.
+     * @return returns the FeatureMatrix the batches are gathered from
+     */
+    public FeatureMatrix getData() {
+        return this.data;
+    }
+
+    /**
+     * Getter method for the instance field of epochs.
+     * @return returns the number of passes over the rows
+     */
+    public int getEpochs() {
+        return this.epochs;
+    }
+
+    /**
+     * Getter method for the instance field of seed.
+     * @return returns the seed of the row order
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Getter method for the time spent waiting for batches.
+     * @return returns the nanoseconds next() spent waiting for the background thread
+     */
+    public long getStallNanos() {
+        return this.stallNanos;
+    }
+
+    /**
+     * Getter method for the time spent gathering batches.
+     * @return returns the nanoseconds the background thread spent copying (and activating) rows
+     */
+    public long getGatherNanos() {
+        return this.gatherNanos;
+    }
+
+    /**
+     * Getter method for the number of batches returned.
+     * @return returns the number of batches next() has returned so far
+     */
+    public long getBatchCount() {
+        return this.batches;
+    }
+
+    /**
+     * Stops the background thread, if it is still gathering.
+     */
+    @Override
+    public void close() {
+        this.finished = true;
+        if (this.thread != null) {
+            this.thread.interrupt();
+            try {
+                this.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d batches, stalled %.2f ms, gathered in %.2f ms", this.batches, this.stallNanos / 1e6,
+            this.gatherNanos / 1e6);
+    }
+
+    /**
+     * One mini-batch: the features of its rows, row-major, their labels and their indices in
+     * the FeatureMatrix. Only the first getSize() rows of the arrays are part of the batch.
+     */
+    public static final class Batch {
+        private final double[] features;
+        private final int[] labels;
+        private final int[] rows;
+        private int size;
+        private int epoch;
+
+        private Batch(int capacity, int width) {
+            this.features = new double[capacity * width];
+            this.labels = new int[capacity];
+            this.rows = new int[capacity];
+        }
+
+        /**
+         * Getter method for the number of rows in the batch.
+         * @return returns the number of rows in the batch
+         */
+        public int getSize() {
+            return this.size;
+        }
+
+        /**
+         * Getter method for the epoch of the batch.
+         * @return returns the epoch, counting from 0, the batch belongs to
+         */
+        public int getEpoch() {
+            return this.epoch;
+        }
+
+        /**
+         * Getter method for the features of the batch.
+         * @return returns the features of the rows, row-major, activated when training a Model
+         */
+        public double[] getFeatures() {
+            return this.features;
+        }
+
+        /**
+         * Getter method for the labels of the batch.
+         * @return returns the label of each row
+         */
+        public int[] getLabels() {
+            return this.labels;
+        }
+
+        /**
+         * Getter method for the row indices of the batch.
+         * @return returns the index in the FeatureMatrix of each row
+         */
+        public int[] getRows() {
+            return this.rows;
+        }
+    }
+}
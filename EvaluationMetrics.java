@@ -0,0 +1,261 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classification metrics gathered in one streaming pass: the confusion matrix at a 0.5
+ * threshold and everything derived from it (accuracy, precision, recall, F1), the mean
+ * log-loss, and ROC-AUC. No predictions are kept: AUC comes from histograms of the
+ * probabilities of the positive and negative rows, in BINS equal-width bins, so memory
+ * is fixed whatever the number of rows. Pairs of rows in the same bin count as ties, so
+ * the AUC is off by at most half the fraction of positive-negative pairs sharing a bin.
+ *
+ * An instance is not thread-safe; give each thread its own and merge them afterwards,
+ * as evaluate() does. Merging is exact for every count.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class EvaluationMetrics {
+    /** The number of probability bins of the AUC histograms. */
+    public static final int BINS = 4096;
+
+    private static final int BLOCK_ROWS = 4096;
+    private static final int TASK_ROWS = 1 << 16;
+
+    private long truePositives;
+    private long falsePositives;
+    private long trueNegatives;
+    private long falseNegatives;
+    private double lossSum;
+    private final long[] positives = new long[BINS];
+    private final long[] negatives = new long[BINS];
+
+    /**
+     * Scores every row of a FeatureMatrix with a Model and gathers the metrics, splitting the
+     * rows across a fork-join pool. Like Model.predictBatch, it does not touch the prediction
+     * counters or the Model history.
+     * @param model the Model to evaluate
+     * @param data the rows to score, which must have as many features as the Model has weights
+     * @param parallelism the number of worker threads, at least 1
+     * @return the metrics over all rows
+     */
+    public static EvaluationMetrics evaluate(Model model, FeatureMatrix data, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        if (data.getWidth() != model.getWeights().length) {
+            throw new IllegalArgumentException("Model " + model.getID() + " expects " +
+            model.getWeights().length + " features per row, but the data has " + data.getWidth());
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new Slice(model, data, 0, data.getRows()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Adds one prediction.
+     * @param label the true label (0 or 1) of the row
+     * @param probability the predicted probability that the label is 1
+     */
+    public void add(int label, double probability) {
+        boolean predicted = probability > 0.5;
+        if (label == 1) {
+            if (predicted) {
+                this.truePositives++;
+            } else {
+                this.falseNegatives++;
+            }
+            this.positives[bin(probability)]++;
+        } else {
+            if (predicted) {
+                this.falsePositives++;
+            } else {
+                this.trueNegatives++;
+            }
+            this.negatives[bin(probability)]++;
+        }
+        this.lossSum += TrainingMonitor.logLoss(probability, label);
+    }
+
+    /**
+     * Adds the predictions of another instance to this one.
+     * @param other the metrics to merge in, which are left unchanged
+     * @return this instance
+     */
+    public EvaluationMetrics merge(EvaluationMetrics other) {
+        this.truePositives += other.truePositives;
+        this.falsePositives += other.falsePositives;
+        this.trueNegatives += other.trueNegatives;
+        this.falseNegatives += other.falseNegatives;
+        this.lossSum += other.lossSum;
+        for (int i = 0; i < BINS; i++) {
+            this.positives[i] += other.positives[i];
+            this.negatives[i] += other.negatives[i];
+        }
+        return this;
+    }
+
+    private static int bin(double probability) {
+        return Math.min(BINS - 1, Math.max(0, (int) (probability * BINS)));
+    }
+
+    /**
+     * Getter method for the number of predictions added.
+     * @return returns the number of rows evaluated
+     */
+    public long getCount() {
+        return this.truePositives + this.falsePositives + this.trueNegatives + this.falseNegatives;
+    }
+
+    /**
+     * Getter method for the number of true positives.
+     * @return returns the number of rows labelled 1 and predicted 1
+     */
+    public long getTruePositives() {
+        return this.truePositives;
+    }
+
+    /**
+     * Getter method for the number of false positives.
+     * @return returns the number of rows labelled 0 but predicted 1
+     */
+    public long getFalsePositives() {
+        return this.falsePositives;
+    }
+
+    /**
+     * Getter method for the number of true negatives.
+     * @return returns the number of rows labelled 0 and predicted 0
+     */
+    public long getTrueNegatives() {
+        return this.trueNegatives;
+    }
+
+    /**
+     * Getter method for the number of false negatives.
+     * @return returns the number of rows labelled 1 but predicted 0
+     */
+    public long getFalseNegatives() {
+        return this.falseNegatives;
+    }
+
+    /**
+     * Returns the fraction of rows predicted correctly.
+     * @return the accuracy, or 0 if there are no rows
+     */
+    public double getAccuracy() {
+        return ratio(this.truePositives + this.trueNegatives, getCount());
+    }
+
+    /**
+     * Returns the fraction of rows predicted 1 that are labelled 1.
+     * @return the precision, or 0 if no row was predicted 1
+     */
+    public double getPrecision() {
+        return ratio(this.truePositives, this.truePositives + this.falsePositives);
+    }
+
+    /**
+     * Returns the fraction of rows labelled 1 that are predicted 1.
+     * @return the recall, or 0 if no row is labelled 1
+     */
+    public double getRecall() {
+        return ratio(this.truePositives, this.truePositives + this.falseNegatives);
+    }
+
+    /**
+     * Returns the harmonic mean of precision and recall.
+     * @return the F1 score, or 0 if precision and recall are both 0
+     */
+    public double getF1() {
+        return ratio(2 * this.truePositives, 2 * this.truePositives + this.falsePositives + this.falseNegatives);
+    }
+
+    /**
+     * Returns the mean log-loss (binary cross-entropy) of the predictions.
+     * @return the mean log-loss, or 0 if there are no rows
+     */
+    public double getLogLoss() {
+        long count = getCount();
+        return (count == 0) ? 0.0 : this.lossSum / count;
+    }
+
+    /**
+     * Returns the area under the ROC curve from the probability histograms: the chance that a
+     * random positive row gets a higher probability than a random negative one, ties counting half.
+     * @return the ROC-AUC, or 0.5 if there are no positive or no negative rows
+     */
+    public double getAuc() {
+        long totalPositives = this.truePositives + this.falseNegatives;
+        long totalNegatives = this.trueNegatives + this.falsePositives;
+        if (totalPositives == 0 || totalNegatives == 0) {
+            return 0.5;
+        }
+        long negativesBelow = 0;
+        double above = 0;
+        for (int i = 0; i < BINS; i++) {
+            above += this.positives[i] * (negativesBelow + this.negatives[i] * 0.5);
+            negativesBelow += this.negatives[i];
+        }
+        return above / ((double) totalPositives * totalNegatives);
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return (denominator == 0) ? 0.0 : (double) numerator / denominator;
+    }
+
+    /**
+     * Returns a formatted String with every metric.
+     * @return a String with the confusion matrix and the derived metrics
+     */
+    @Override
+    public String toString() {
+        return String.format("%d rows: TP %d, FP %d, TN %d, FN %d; accuracy %.4f, precision %.4f, " +
+        "recall %.4f, F1 %.4f, log-loss %.4f, AUC %.4f", getCount(), this.truePositives, this.falsePositives,
+        this.trueNegatives, this.falseNegatives, getAccuracy(), getPrecision(), getRecall(), getF1(),
+        getLogLoss(), getAuc());
+    }
+
+    /**
+     * Evaluates a range of rows, splitting it in halves down to TASK_ROWS rows and merging the
+     * metrics of the halves on the way back up.
+     */
+    private static final class Slice extends RecursiveTask<EvaluationMetrics> {
+        private static final long serialVersionUID = 1L;
+        private final Model model;
+        private final FeatureMatrix data;
+        private final int from;
+        private final int to;
+
+        Slice(Model model, FeatureMatrix data, int from, int to) {
+            this.model = model;
+            this.data = data;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected EvaluationMetrics compute() {
+            if (this.to - this.from > TASK_ROWS) {
+                int middle = (this.from + this.to) >>> 1;
+                Slice left = new Slice(this.model, this.data, this.from, middle);
+                left.fork();
+                EvaluationMetrics right = new Slice(this.model, this.data, middle, this.to).compute();
+                return left.join().merge(right);
+            }
+            EvaluationMetrics metrics = new EvaluationMetrics();
+            double[] probabilities = new double[Math.min(BLOCK_ROWS, this.to - this.from)];
+            for (int start = this.from; start < this.to; start += BLOCK_ROWS) {
+                int end = Math.min(this.to, start + BLOCK_ROWS);
+                this.model.predictBatch(this.data, start, end, null, probabilities);
+                for (int r = start; r < end; r++) {
+                    metrics.add(this.data.getLabel(r), probabilities[r - start]);
+                }
+            }
+            return metrics;
+        }
+    }
+}
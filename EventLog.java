@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed-capacity, lock-free ring buffer of ModelEvents. Recording claims a
+ * sequence number with a single atomic increment and overwrites the oldest
+ * slot, so the log never grows and writers never wait for each other.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class EventLog {
+    private final AtomicReferenceArray<ModelEvent> slots;
+    private final AtomicLong next = new AtomicLong();
+    private final int mask;
+
+    /**
+     * Constructor for the EventLog class.
+     * @param capacity the number of most recent events kept, rounded up to a power of two
+     */
+    public EventLog(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, was " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Records an event, overwriting the oldest one once the log is full.
+     * @param modelId the id of the Model the event is about
+     * @param kind what the Model did
+     * @param rowCount the number of rows involved
+     * @param epochs the number of epochs trained, or 0 for predictions
+     */
+    public void record(int modelId, ModelEvent.Kind kind, long rowCount, int epochs) {
+        record(modelId, kind, rowCount, epochs, null);
+    }
+
+    /**
+     * Records an event about one named row, overwriting the oldest one once the log is full.
+     * @param modelId the id of the Model the event is about
+     * @param kind what the Model did
+     * @param rowCount the number of rows involved
+     * @param epochs the number of epochs trained, or 0 for predictions
+     * @param subject the name of the Person predicted for, or null if the event is not about one
+     */
+    public void record(int modelId, ModelEvent.Kind kind, long rowCount, int epochs, String subject) {
+        long sequence = this.next.getAndIncrement();
+        this.slots.set((int) (sequence & this.mask),
+            new ModelEvent(sequence, modelId, kind, rowCount, epochs, System.currentTimeMillis(), subject));
+    }
+
+    /**
+     * Returns the events currently held, oldest first. Events still being written by
+     * another thread while the snapshot is taken may be left out.
+     * @return an immutable list of the most recent events
+     */
+    public List<ModelEvent> snapshot() {
+        long end = this.next.get();
+        long start = Math.max(0, end - this.slots.length());
+        List<ModelEvent> events = new ArrayList<>((int) (end - start));
+        for (long s = start; s < end; s++) {
+            ModelEvent event = this.slots.get((int) (s & this.mask));
+            if (event != null && event.getSequence() == s) {
+                events.add(event);
+            }
+        }
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Getter method for the number of events ever recorded.
+     * @return returns the total number of events recorded, including overwritten ones
+     */
+    public long getRecordedCount() {
+        return this.next.get();
+    }
+
+    /**
+     * Getter method for the capacity of the log.
+     * @return returns the number of most recent events the log keeps
+     */
+    public int getCapacity() {
+        return this.slots.length();
+    }
+}
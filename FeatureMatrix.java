@@ -0,0 +1,36 @@
+/**
+ * Read-only access to a table of labelled rows, whatever it is stored in. Model
+ * can train on and score anything that implements this interface, from the
+ * in-memory Dataset to memory-mapped files larger than the heap.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public interface FeatureMatrix {
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows in the matrix
+     */
+    int getRows();
+
+    /**
+     * Getter method for the number of features in each row.
+     * @return returns the number of features in each row
+     */
+    int getWidth();
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row
+     * @return the label (0 or 1) of the row
+     */
+    int getLabel(int row);
+
+    /**
+     * Copies the features of a single row into an array.
+     * @param row the index of the row
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    void copyRow(int row, double[] dst, int offset);
+}
@@ -0,0 +1,143 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Lock-free asynchronous ("Hogwild") stochastic gradient descent for a Model. Several
+ * threads each run per-sample updates over their own slice of the rows against one shared
+ * parameter vector. Reads and writes go through opaque VarHandle accesses and no locks are
+ * taken, so updates from different threads may overwrite each other; with sparse, noisy
+ * gradients this costs little accuracy and removes all coordination between threads.
+ * Results are therefore not reproducible from run to run. Rows are read from the
+ * ActivationCache of the Model when they fit in it. The threads never wait for each
+ * other between epochs, so the TrainingListener of the Model gets a single epoch report
+ * covering the whole run, numbered as the last epoch, and no batch reports.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+class HogwildTrainer {
+    private static final VarHandle PARAMETERS = MethodHandles.arrayElementVarHandle(double[].class);
+
+    private HogwildTrainer() {
+    }
+
+    /**
+     * Trains the model in place.
+     * @param model the Model whose weights and bias are updated
+     * @param data the rows to train on, already checked to match the width of the model
+     * @param epochs the number of passes every thread makes over its slice
+     * @param config the learning rate and number of threads to use
+     * @return a report with the per-thread throughput and the final loss
+     */
+    static TrainingReport train(Model model, FeatureMatrix data, int epochs, TrainingConfig config) {
+        int width = data.getWidth();
+        int threads = Math.max(1, Math.min(config.getParallelism(), data.getRows()));
+        double[] weights = model.getWeights();
+        double[] shared = new double[width + 1];
+        System.arraycopy(weights, 0, shared, 0, width);
+        shared[width] = model.getBias();
+
+        Thread[] workers = new Thread[threads];
+        long[] rows = new long[threads];
+        long[] nanos = new long[threads];
+        TrainingListener listener = model.getTrainingListener();
+        double[] losses = (listener == TrainingListener.NONE) ? null : new double[threads];
+        Throwable[] failure = new Throwable[1];
+        Dataset cached = model.cachedActivations(data);
+        FeatureMatrix source = (cached == null) ? data : cached;
+        ActivationType type = (cached == null) ? model.getActivationType() : null;
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            int from = (int) ((long) data.getRows() * t / threads);
+            int to = (int) ((long) data.getRows() * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                long begin = System.nanoTime();
+                rows[index] = run(model.getID(), type, model.isFastMath(), source, from, to, epochs,
+                    config.getLearningRate(), shared, losses, index);
+                nanos[index] = System.nanoTime() - begin;
+            }, "hogwild-" + t);
+            workers[t].setUncaughtExceptionHandler((thread, e) -> failure[0] = e);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while training", e);
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        if (failure[0] != null) {
+            throw new IllegalStateException("A training thread failed", failure[0]);
+        }
+
+        System.arraycopy(shared, 0, weights, 0, width);
+        model.setBias(shared[width]);
+        long total = 0;
+        double[] rowsPerSecond = new double[threads];
+        for (int t = 0; t < threads; t++) {
+            total += rows[t];
+            rowsPerSecond[t] = (nanos[t] == 0) ? 0.0 : rows[t] * 1e9 / nanos[t];
+        }
+        if (losses != null) {
+            double loss = 0;
+            for (double threadLoss : losses) {
+                loss += threadLoss;
+            }
+            listener.onEpoch(new TrainingMetrics(epochs - 1, total, (total == 0) ? 0.0 : loss / total, elapsed));
+        }
+        return new TrainingReport(epochs, total, elapsed, model.loss(data), rowsPerSecond);
+    }
+
+    /**
+     * Runs per-sample updates over one slice of the rows. A null activation type means
+     * the rows are already activated; in fast math mode FastActivation replaces Activation.
+     * Unless losses is null, the log-loss of every row before its update is summed in a local and
+     * stored into losses[index] once, at the end, so the threads never write next to each other's
+     * slots while they train.
+     * Each pass over the slice is one TrainingEpochEvent of the calling thread.
+     * @return the number of row updates made
+     */
+    private static long run(int modelId, ActivationType type, boolean fastMath, FeatureMatrix data, int from,
+    int to, int epochs, double learningRate, double[] shared, double[] losses, int index) {
+        int width = data.getWidth();
+        double[] activated = new double[width];
+        double loss = 0;
+        for (int i = 0; i < epochs; i++) {
+            TrainingEpochEvent event = new TrainingEpochEvent();
+            event.begin();
+            for (int r = from; r < to; r++) {
+                data.copyRow(r, activated, 0);
+                if (type != null && fastMath) {
+                    FastActivation.activate(type, activated, 0, activated, 0, width);
+                } else if (type != null) {
+                    Activation.activate(type, activated, 0, activated, 0, width);
+                }
+                double weightedSum = 0;
+                for (int j = 0; j < width; j++) {
+                    weightedSum += ((double) PARAMETERS.getOpaque(shared, j)) * activated[j];
+                }
+                weightedSum += (double) PARAMETERS.getOpaque(shared, width);
+                double predicted_value = fastMath ? FastActivation.sigmoid(weightedSum) : Activation.sigmoid(weightedSum);
+                double error_value = data.getLabel(r) - predicted_value;
+                if (losses != null) {
+                    loss += TrainingMonitor.logLoss(predicted_value, data.getLabel(r));
+                }
+
+                for (int j = 0; j < width; j++) {
+                    double weight = (double) PARAMETERS.getOpaque(shared, j);
+                    PARAMETERS.setOpaque(shared, j, weight + (learningRate * error_value * activated[j]));
+                }
+                double bias = (double) PARAMETERS.getOpaque(shared, width);
+                PARAMETERS.setOpaque(shared, width, bias + (learningRate * error_value));
+            }
+            event.finish(modelId, "hogwild", i, to - from);
+        }
+        if (losses != null) {
+            losses[index] = loss;
+        }
+        return (long) epochs * (to - from);
+    }
+}
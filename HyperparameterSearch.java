@@ -0,0 +1,239 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Picks the activation type, number of epochs and learning rate of a Model by k-fold
+ * cross-validation, trying a grid or a random sample of combinations in parallel on a
+ * work-stealing pool. Every fold of every trial is its own task, so a few slow trials
+ * (many epochs) do not hold up the rest.
+ *
+ * All trials read the same rows: the folds are RowViews over one shuffled index array,
+ * and a Model looks through a RowView into the ActivationCache, so each activation type
+ * activates the data once for the whole search. The search uses an ActivationCache of its
+ * own, dropped when it returns, so it caches even when the shared cache is off; the rows
+ * must not change while a search runs. Trials train with the per-sample updates
+ * of Model.train, through train(FeatureMatrix, int, EarlyStopping), so an EarlyStopping
+ * template (without a validation split) can cut long trials short. Results do not depend
+ * on the parallelism or on thread scheduling.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class HyperparameterSearch {
+    private final KFold folds;
+    private final long seed;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private EarlyStopping earlyStopping;
+
+    /**
+     * Constructor for the HyperparameterSearch class. Trials run exactly their number of
+     * epochs unless an EarlyStopping template is set.
+     * @param data the rows to cross-validate on; a SparseMatrix is not supported, since the folds
+     * would read its rows dense
+     * @param k the number of folds
+     * @param seed the seed of the fold shuffle, of the starting weights and of random search
+     */
+    public HyperparameterSearch(FeatureMatrix data, int k, long seed) {
+        if (data instanceof SparseMatrix) {
+            throw new IllegalArgumentException("Hyperparameter search does not support a SparseMatrix, whose rows " +
+                "would become dense");
+        }
+        this.folds = new KFold(data, k, seed);
+        this.seed = seed;
+        this.earlyStopping = new EarlyStopping();
+        this.earlyStopping.setPatience(Integer.MAX_VALUE);
+        this.earlyStopping.setRestoreBestWeights(false);
+    }
+
+    /**
+     * Setter method for the parallelism instance field.
+     * @param parallelism the number of worker threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Setter method for the earlyStopping instance field. Its patience and minimum delta apply to
+     * every fold of every trial; its schedule is replaced by the learning rate of the trial.
+     * @param earlyStopping the template, which must not hold out a validation split of its own
+     */
+    public void setEarlyStopping(EarlyStopping earlyStopping) {
+        if (earlyStopping.getValidationFraction() != 0.0) {
+            throw new IllegalArgumentException("The folds already hold out validation rows");
+        }
+        this.earlyStopping = new EarlyStopping(earlyStopping);
+    }
+
+    /**
+     * Tries every combination of the given hyperparameters.
+     * @param types the activation types to try
+     * @param epochs the numbers of epochs to try
+     * @param learningRates the learning rates to try
+     * @return the leaderboard: one result per combination, best (lowest mean validation loss) first
+     */
+    public List<TrialResult> grid(ActivationType[] types, int[] epochs, double[] learningRates) {
+        List<Trial> trials = new ArrayList<>();
+        for (ActivationType type : types) {
+            for (int e : epochs) {
+                for (double rate : learningRates) {
+                    trials.add(new Trial(trials.size(), type, e, rate));
+                }
+            }
+        }
+        return run(trials);
+    }
+
+    /**
+     * Tries random combinations: a uniform activation type and number of epochs, and a
+     * log-uniform learning rate.
+     * @param count the number of combinations to try
+     * @param types the activation types to pick from
+     * @param minEpochs the smallest number of epochs, at least 1
+     * @param maxEpochs the largest number of epochs
+     * @param minRate the smallest learning rate, which must be positive
+     * @param maxRate the largest learning rate
+     * @return the leaderboard: one result per combination, best (lowest mean validation loss) first
+     */
+    public List<TrialResult> random(int count, ActivationType[] types, int minEpochs, int maxEpochs,
+    double minRate, double maxRate) {
+        if (minEpochs < 1 || minEpochs > maxEpochs || !(minRate > 0.0) || minRate > maxRate) {
+            throw new IllegalArgumentException("Invalid search space: epochs " + minEpochs + " to " + maxEpochs +
+            ", learning rate " + minRate + " to " + maxRate);
+        }
+        Random rand = new Random(this.seed);
+        List<Trial> trials = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ActivationType type = types[rand.nextInt(types.length)];
+            int epochs = minEpochs + rand.nextInt(maxEpochs - minEpochs + 1);
+            double rate = minRate * Math.pow(maxRate / minRate, rand.nextDouble());
+            trials.add(new Trial(i, type, epochs, rate));
+        }
+        return run(trials);
+    }
+
+    private List<TrialResult> run(List<Trial> trials) {
+        if (trials.isEmpty()) {
+            throw new IllegalArgumentException("The search space is empty");
+        }
+        ActivationCache cache = new ActivationCache(ActivationCache.DEFAULT_CAPACITY_BYTES);
+        List<FoldTask> tasks = new ArrayList<>();
+        for (Trial trial : trials) {
+            for (int f = 0; f < this.folds.getFolds(); f++) {
+                tasks.add(new FoldTask(trial, f, cache));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        List<TrialResult> leaderboard = new ArrayList<>();
+        int k = this.folds.getFolds();
+        for (Trial trial : trials) {
+            double[] losses = new double[k];
+            long correct = 0;
+            long rows = 0;
+            long epochs = 0;
+            long nanos = 0;
+            for (int f = 0; f < k; f++) {
+                FoldTask task = tasks.get(trial.index * k + f);
+                losses[f] = task.loss;
+                correct += task.correct;
+                rows += this.folds.validation(f).getRows();
+                epochs += task.epochsRun;
+                nanos += task.nanos;
+            }
+            leaderboard.add(new TrialResult(trial.index, trial.type, trial.epochs, trial.learningRate, losses,
+                (double) correct / rows, (double) epochs / k, nanos));
+        }
+        leaderboard.sort(Comparator.comparingDouble(TrialResult::getMeanLoss)
+            .thenComparing(Comparator.comparingDouble(TrialResult::getAccuracy).reversed())
+            .thenComparingInt(TrialResult::getTrial));
+        return leaderboard;
+    }
+
+    /**
+     * One combination of hyperparameters.
+     */
+    private static final class Trial {
+        private final int index;
+        private final ActivationType type;
+        private final int epochs;
+        private final double learningRate;
+
+        Trial(int index, ActivationType type, int epochs, double learningRate) {
+            if (epochs < 1 || !(learningRate > 0.0) || Double.isInfinite(learningRate)) {
+                throw new IllegalArgumentException("Invalid trial: " + epochs + " epochs at learning rate " +
+                learningRate);
+            }
+            this.index = index;
+            this.type = type;
+            this.epochs = epochs;
+            this.learningRate = learningRate;
+        }
+    }
+
+    /**
+     * Trains a fresh Model on the training rows of one fold and scores it on the validation rows.
+     */
+    private final class FoldTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Trial trial;
+        private final int fold;
+        private final ActivationCache cache;
+        private double loss;
+        private long correct;
+        private int epochsRun;
+        private long nanos;
+
+        FoldTask(Trial trial, int fold, ActivationCache cache) {
+            this.trial = trial;
+            this.fold = fold;
+            this.cache = cache;
+        }
+
+        @Override
+        protected void compute() {
+            long started = System.nanoTime();
+            RowView training = folds.training(this.fold);
+            Model model = new Model(this.trial.index, this.trial.type, training.getWidth(),
+                seed + this.trial.index);
+            model.setActivationCache(this.cache);
+            EarlyStopping stopping = new EarlyStopping(earlyStopping);
+            stopping.setSchedule(LearningRateSchedule.constant(this.trial.learningRate));
+            this.epochsRun = model.train(training, this.trial.epochs, stopping).getEpochs();
+
+            RowView validation = folds.validation(this.fold);
+            int rows = validation.getRows();
+            int[] labels = new int[rows];
+            double[] probabilities = new double[rows];
+            model.predictBatch(validation, 0, rows, labels, probabilities);
+            double total = 0;
+            for (int r = 0; r < rows; r++) {
+                int label = validation.getLabel(r);
+                total += TrainingMonitor.logLoss(probabilities[r], label);
+                if (labels[r] == label) {
+                    this.correct++;
+                }
+            }
+            this.loss = total / rows;
+            this.nanos = System.nanoTime() - started;
+        }
+    }
+}
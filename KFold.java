@@ -0,0 +1,74 @@
+import java.util.Random;
+
+/**
+ * Splits the rows of a FeatureMatrix into k folds for cross-validation, without copying
+ * them. The rows are shuffled once into a single index array, and fold f is the f-th
+ * contiguous run of it; its training rows are the rest of the array. Every view returned
+ * shares that one array, so k folds cost one int per row, however many trials use them.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class KFold {
+    private final int[] order;
+    private final RowView[] training;
+    private final RowView[] validation;
+
+    /**
+     * Constructor for the KFold class.
+     * @param data the rows to split
+     * @param k the number of folds, from 2 to the number of rows
+     * @param seed the seed of the shuffle
+     */
+    public KFold(FeatureMatrix data, int k, long seed) {
+        int rows = data.getRows();
+        if (k < 2 || k > rows) {
+            throw new IllegalArgumentException("Cannot split " + rows + " rows into " + k + " folds");
+        }
+        this.order = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            this.order[i] = i;
+        }
+        Random rand = new Random(seed);
+        for (int i = rows - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int swap = this.order[i];
+            this.order[i] = this.order[j];
+            this.order[j] = swap;
+        }
+        this.training = new RowView[k];
+        this.validation = new RowView[k];
+        for (int f = 0; f < k; f++) {
+            int from = (int) ((long) rows * f / k);
+            int to = (int) ((long) rows * (f + 1) / k);
+            this.validation[f] = new RowView(data, this.order, from, to);
+            this.training[f] = new RowView(data, this.order, 0, rows, from, to);
+        }
+    }
+
+    /**
+     * Getter method for the number of folds.
+     * @return returns k
+     */
+    public int getFolds() {
+        return this.validation.length;
+    }
+
+    /**
+     * Returns the training rows of a fold.
+     * @param fold the fold, from 0 to k - 1
+     * @return a view of every row outside the fold
+     */
+    public RowView training(int fold) {
+        return this.training[fold];
+    }
+
+    /**
+     * Returns the validation rows of a fold.
+     * @param fold the fold, from 0 to k - 1
+     * @return a view of the rows in the fold
+     */
+    public RowView validation(int fold) {
+        return this.validation[fold];
+    }
+}
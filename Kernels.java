@@ -0,0 +1,89 @@
+/**
+ * The batched numeric kernels behind batch scoring: element-wise activation of a
+ * block of values, and the weighted sums of a block of rows. Two backends exist. The
+ * scalar one, always available and the default, gives results identical to Model.predict.
+ * The SIMD one (VectorKernels, built from the simd folder) uses the jdk.incubator.vector
+ * API. Its weighted sums are bit-identical to the scalar ones, but its activations are
+ * only within ULP_TOLERANCE ulps of them, so batch probabilities would no longer match
+ * Model.predict exactly; it is therefore opt-in, with -Dperceptron.kernels=vector on a
+ * JVM running with --add-modules jdk.incubator.vector. If it cannot be loaded, the scalar
+ * backend is used.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public abstract class Kernels {
+    /**
+     * The largest difference between the SIMD and the scalar activations, in ulps of the
+     * larger of the scalar result and 1.0 (so values near zero are held to an absolute bound).
+     */
+    public static final int ULP_TOLERANCE = 4;
+
+    private static final Kernels SELECTED = select();
+
+    /**
+     * Returns the backend used by Model for batch scoring, chosen once per JVM.
+     * @return the selected kernels
+     */
+    public static Kernels get() {
+        return SELECTED;
+    }
+
+    /**
+     * Loads a backend by name.
+     * @param name "scalar" or "vector"
+     * @return the backend, or null if it is unknown or not available in this JVM
+     */
+    public static Kernels load(String name) {
+        if ("scalar".equals(name)) {
+            return new ScalarKernels();
+        }
+        if ("vector".equals(name)) {
+            try {
+                return (Kernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Kernels select() {
+        String requested = System.getProperty("perceptron.kernels");
+        Kernels kernels = load((requested == null) ? "scalar" : requested);
+        return (kernels == null) ? new ScalarKernels() : kernels;
+    }
+
+    /**
+     * Getter method for the name of the backend.
+     * @return returns "scalar" or "vector"
+     */
+    public abstract String getName();
+
+    /**
+     * Applies one activation function to a run of values, like Activation.activate.
+     * @param type the activation function to apply (ELU uses an alpha of 1.0)
+     * @param src the array holding the input values
+     * @param srcOffset the index of the first input value in src
+     * @param dst the array the activated values are written to; may be src itself
+     * @param dstOffset the index in dst where the first activated value is written
+     * @param length the number of values to activate
+     */
+    public abstract void activate(ActivationType type, double[] src, int srcOffset,
+    double[] dst, int dstOffset, int length);
+
+    /**
+     * Computes the weighted sum plus bias of each row of a row-major block, summing the
+     * features of every row in order exactly as Model does.
+     * @param matrix the array holding the rows
+     * @param offset the index of the first value of the first row
+     * @param rows the number of rows
+     * @param width the number of values in each row
+     * @param weights the weights, width values long
+     * @param bias the bias added to every sum
+     * @param sums the array the sums are written to
+     * @param sumsOffset the index in sums where the sum of the first row is written
+     */
+    public abstract void weightedSums(double[] matrix, int offset, int rows, int width,
+    double[] weights, double bias, double[] sums, int sumsOffset);
+}
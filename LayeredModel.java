@@ -0,0 +1,340 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A feed-forward network of dense hidden layers topped by a Model as the output layer.
+ * Every layer works the way Model does: it activates its inputs with the activation type
+ * of the network, takes weighted sums plus a bias, and passes them on; the output Model
+ * turns its weighted sum into a probability with the sigmoid. With no hidden layers the
+ * network is exactly its output Model.
+ *
+ * Training is mini-batch gradient descent on the log-loss with backpropagation. A batch
+ * goes through every layer at once: the forward pass, the gradient sent back to each
+ * layer's inputs and the weight gradients are each one cache-blocked matrix product
+ * (Matrices) per layer, into activation and gradient buffers allocated once per call.
+ * Scoring reuses per-thread buffers, so it can run from any number of threads; training
+ * must not run concurrently with anything else on the same network.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class LayeredModel {
+    private static final int BLOCK_ROWS = 256;
+
+    private final int[] widths;
+    private final double[][] weights;
+    private final double[][] biases;
+    private final Model output;
+    private final ThreadLocal<Buffers> scoring;
+
+    /**
+     * Constructor for the LayeredModel class. Hidden weights, and the weights of the output
+     * Model, are drawn uniformly from +/- sqrt(6 / (inputs + outputs)) of their layer, so
+     * the signal keeps its scale from layer to layer; all biases start at 0.
+     * @param id the unique id of the output Model
+     * @param activationType the activation every layer applies to its inputs
+     * @param inputs the number of features in each row
+     * @param hidden the number of units in each hidden layer, first layer first; may be empty
+     * @param seed the seed of the random generator the weights are drawn from
+     */
+    public LayeredModel(int id, ActivationType activationType, int inputs, int[] hidden, long seed) {
+        this.widths = new int[hidden.length + 1];
+        this.widths[0] = inputs;
+        for (int l = 0; l < hidden.length; l++) {
+            this.widths[l + 1] = hidden[l];
+        }
+        for (int width : this.widths) {
+            if (width < 1) {
+                throw new IllegalArgumentException("Every layer needs at least one unit, found " +
+                Arrays.toString(this.widths));
+            }
+        }
+        Random rand = new Random(seed);
+        this.weights = new double[hidden.length][];
+        this.biases = new double[hidden.length][];
+        for (int l = 0; l < hidden.length; l++) {
+            this.weights[l] = new double[this.widths[l + 1] * this.widths[l]];
+            this.biases[l] = new double[this.widths[l + 1]];
+            initialize(this.weights[l], this.widths[l], this.widths[l + 1], rand);
+        }
+        this.output = new Model(id, activationType, this.widths[hidden.length], seed);
+        initialize(this.output.getWeights(), this.widths[hidden.length], 1, rand);
+        this.output.setBias(0.0);
+        this.scoring = ThreadLocal.withInitial(() -> new Buffers(this.widths, BLOCK_ROWS, false));
+    }
+
+    private static void initialize(double[] weights, int inputs, int outputs, Random rand) {
+        double range = Math.sqrt(6.0 / (inputs + outputs));
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (rand.nextDouble() * 2.0 - 1.0) * range;
+        }
+    }
+
+    /**
+     * Trains the network with mini-batch gradient descent: every batch of rows is passed
+     * forward and back at once, and the mean gradient of the batch is applied once. Progress
+     * goes to the TrainingListener of the output Model. The passes run on the calling thread,
+     * so the parallelism of the config is not used.
+     * @param data the rows to train on, which must have as many features as the network has inputs
+     * @param epochs the number of passes over the data
+     * @param config the learning rate and batch size to use
+     */
+    public void train(FeatureMatrix data, int epochs, TrainingConfig config) {
+        checkEpochs(epochs);
+        checkWidth(data.getWidth());
+        int rows = data.getRows();
+        int hidden = this.weights.length;
+        int last = this.widths[hidden];
+        double[] outputWeights = this.output.getWeights();
+        Buffers buffers = new Buffers(this.widths, Math.min(config.getBatchSize(), Math.max(1, rows)), true);
+        TrainingMonitor monitor = TrainingMonitor.of(this.output.getTrainingListener());
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            TrainingEpochEvent event = new TrainingEpochEvent();
+            event.begin();
+            if (monitor != null) {
+                monitor.beginEpoch(epoch);
+            }
+            for (int start = 0; start < rows; start += buffers.rows) {
+                int count = Math.min(buffers.rows, rows - start);
+                forward(data, start, count, buffers);
+
+                // The error y - p is the negative gradient of the log-loss with respect to the
+                // output sum, so adding the gradients below moves downhill, as Model does.
+                double loss = 0;
+                double biasGradient = 0;
+                for (int i = 0; i < count; i++) {
+                    int label = data.getLabel(start + i);
+                    double predicted_value = buffers.outputs[i];
+                    if (monitor != null) {
+                        loss += TrainingMonitor.logLoss(predicted_value, label);
+                    }
+                    buffers.errors[i] = label - predicted_value;
+                    biasGradient += buffers.errors[i];
+                }
+                Matrices.multiplyTransposedA(buffers.errors, buffers.activated[hidden], buffers.outputGradient,
+                    1, last, count);
+                if (hidden > 0) {
+                    Matrices.multiply(buffers.errors, outputWeights, buffers.deltas[hidden - 1], count, last, 1);
+                    Activation.backward(this.output.getActivationType(), buffers.sums[hidden - 1],
+                        buffers.activated[hidden], buffers.deltas[hidden - 1], count * last);
+                }
+                for (int l = hidden - 1; l >= 0; l--) {
+                    int in = this.widths[l];
+                    int out = this.widths[l + 1];
+                    Matrices.multiplyTransposedA(buffers.deltas[l], buffers.activated[l], buffers.weightGradients[l],
+                        out, in, count);
+                    Arrays.fill(buffers.biasGradients[l], 0.0);
+                    for (int i = 0; i < count; i++) {
+                        for (int j = 0; j < out; j++) {
+                            buffers.biasGradients[l][j] += buffers.deltas[l][i * out + j];
+                        }
+                    }
+                    if (l > 0) {
+                        Matrices.multiply(buffers.deltas[l], this.weights[l], buffers.deltas[l - 1], count, in, out);
+                        Activation.backward(this.output.getActivationType(), buffers.sums[l - 1],
+                            buffers.activated[l], buffers.deltas[l - 1], count * in);
+                    }
+                }
+
+                double step = config.getLearningRate() / count;
+                for (int l = 0; l < hidden; l++) {
+                    for (int j = 0; j < this.weights[l].length; j++) {
+                        this.weights[l][j] = this.weights[l][j] + (step * buffers.weightGradients[l][j]);
+                    }
+                    for (int j = 0; j < this.biases[l].length; j++) {
+                        this.biases[l][j] = this.biases[l][j] + (step * buffers.biasGradients[l][j]);
+                    }
+                }
+                for (int j = 0; j < last; j++) {
+                    outputWeights[j] = outputWeights[j] + (step * buffers.outputGradient[j]);
+                }
+                this.output.setBias(this.output.getBias() + (step * biasGradient));
+                if (monitor != null) {
+                    monitor.record(count, loss);
+                }
+            }
+            if (monitor != null) {
+                monitor.endEpoch();
+            }
+            event.finish(this.output.getID(), "layered", epoch, rows);
+        }
+    }
+
+    /**
+     * Runs rows [start, start + count) forward through every layer, leaving the activated
+     * inputs and the sums of each layer, and the output probabilities, in the buffers.
+     */
+    private void forward(FeatureMatrix data, int start, int count, Buffers buffers) {
+        int inputs = this.widths[0];
+        if (data instanceof Dataset) {
+            System.arraycopy(((Dataset) data).getFeatures(), start * inputs, buffers.input, 0, count * inputs);
+        } else {
+            for (int i = 0; i < count; i++) {
+                data.copyRow(start + i, buffers.input, i * inputs);
+            }
+        }
+        Kernels kernels = Kernels.get();
+        ActivationType type = this.output.getActivationType();
+        kernels.activate(type, buffers.input, 0, buffers.activated[0], 0, count * inputs);
+        for (int l = 0; l < this.weights.length; l++) {
+            int out = this.widths[l + 1];
+            Matrices.multiplyTransposed(buffers.activated[l], this.weights[l], buffers.sums[l], count, out,
+                this.widths[l]);
+            for (int i = 0; i < count; i++) {
+                for (int j = 0; j < out; j++) {
+                    buffers.sums[l][i * out + j] += this.biases[l][j];
+                }
+            }
+            kernels.activate(type, buffers.sums[l], 0, buffers.activated[l + 1], 0, count * out);
+        }
+        int hidden = this.weights.length;
+        Matrices.multiplyTransposed(buffers.activated[hidden], this.output.getWeights(), buffers.outputs, count, 1,
+            this.widths[hidden]);
+        for (int i = 0; i < count; i++) {
+            buffers.outputs[i] += this.output.getBias();
+        }
+        kernels.activate(ActivationType.SIGMOID, buffers.outputs, 0, buffers.outputs, 0, count);
+    }
+
+    /**
+     * Scores a block of rows of a FeatureMatrix into caller-supplied arrays, a block of rows
+     * through every layer at a time.
+     * @param data the rows to score
+     * @param fromRow the first row to score, inclusive
+     * @param toRow the last row to score, exclusive
+     * @param labels receives the predicted label of row fromRow + i at index i, or null if not needed
+     * @param probabilities receives the sigmoid output of row fromRow + i at index i, or null if not needed
+     */
+    public void predictBatch(FeatureMatrix data, int fromRow, int toRow, int[] labels, double[] probabilities) {
+        checkWidth(data.getWidth());
+        if (fromRow < 0 || toRow > data.getRows() || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Rows " + fromRow + " to " + toRow +
+            " are out of range for " + data.getRows() + " rows");
+        }
+        Buffers buffers = this.scoring.get();
+        for (int start = fromRow; start < toRow; start += BLOCK_ROWS) {
+            int count = Math.min(BLOCK_ROWS, toRow - start);
+            forward(data, start, count, buffers);
+            for (int i = 0; i < count; i++) {
+                double predicted_value = buffers.outputs[i];
+                if (labels != null) {
+                    labels[start - fromRow + i] = (predicted_value > 0.5) ? 1 : 0;
+                }
+                if (probabilities != null) {
+                    probabilities[start - fromRow + i] = predicted_value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the mean log-loss (binary cross-entropy) of the network over a FeatureMatrix.
+     * @param data the rows to evaluate, which must have as many features as the network has inputs
+     * @return the mean log-loss, or 0 if the FeatureMatrix has no rows
+     */
+    public double loss(FeatureMatrix data) {
+        int rows = data.getRows();
+        double[] probabilities = new double[BLOCK_ROWS];
+        double total = 0;
+        for (int start = 0; start < rows; start += BLOCK_ROWS) {
+            int end = Math.min(rows, start + BLOCK_ROWS);
+            predictBatch(data, start, end, null, probabilities);
+            for (int r = start; r < end; r++) {
+                total += TrainingMonitor.logLoss(probabilities[r - start], data.getLabel(r));
+            }
+        }
+        return (rows == 0) ? 0.0 : total / rows;
+    }
+
+    private static void checkEpochs(int epochs) {
+        if (epochs < 1) {
+            throw new IllegalArgumentException("The model must train on data at least once, but epochs was " +
+            epochs);
+        }
+    }
+
+    private void checkWidth(int width) {
+        if (width != this.widths[0]) {
+            throw new IllegalArgumentException("LayeredModel " + this.output.getID() + " expects " +
+            this.widths[0] + " features per row, but the data has " + width);
+        }
+    }
+
+    /**
+     * Getter method for the output layer.
+     * @return returns the Model that scores the last hidden layer, whose weights are trained in place
+     */
+    public Model getOutput() {
+        return this.output;
+    }
+
+    /**
+     * Getter method for the number of hidden layers.
+     * @return returns the number of hidden layers
+     */
+    public int getHiddenLayers() {
+        return this.weights.length;
+    }
+
+    /**
+     * Getter method for the weights of a hidden layer.
+     * @param layer the index of the hidden layer, 0 being the one that reads the features
+     * @return returns the row-major weights of the layer, one row of inputs per unit
+     */
+    public double[] getWeights(int layer) {
+        return this.weights[layer];
+    }
+
+    /**
+     * Getter method for the biases of a hidden layer.
+     * @param layer the index of the hidden layer, 0 being the one that reads the features
+     * @return returns the bias of each unit of the layer
+     */
+    public double[] getBiases(int layer) {
+        return this.biases[layer];
+    }
+
+    /**
+     * The activations and gradients of one batch, for every layer.
+     */
+    private static final class Buffers {
+        private final int rows;
+        private final double[] input;
+        /** activated[l] holds the activated inputs of hidden layer l, or of the output for the last entry. */
+        private final double[][] activated;
+        /** sums[l] holds the weighted sums plus bias of hidden layer l. */
+        private final double[][] sums;
+        private final double[] outputs;
+        private final double[] errors;
+        /** deltas[l] holds the gradient with respect to sums[l]. */
+        private final double[][] deltas;
+        private final double[][] weightGradients;
+        private final double[][] biasGradients;
+        private final double[] outputGradient;
+
+        Buffers(int[] widths, int rows, boolean training) {
+            int hidden = widths.length - 1;
+            this.rows = rows;
+            this.input = new double[rows * widths[0]];
+            this.activated = new double[hidden + 1][];
+            this.sums = new double[hidden][];
+            for (int l = 0; l <= hidden; l++) {
+                this.activated[l] = new double[rows * widths[l]];
+                if (l < hidden) {
+                    this.sums[l] = new double[rows * widths[l + 1]];
+                }
+            }
+            this.outputs = new double[rows];
+            this.errors = training ? new double[rows] : null;
+            this.deltas = training ? new double[hidden][] : null;
+            this.weightGradients = training ? new double[hidden][] : null;
+            this.biasGradients = training ? new double[hidden][] : null;
+            this.outputGradient = training ? new double[widths[hidden]] : null;
+            for (int l = 0; training && l < hidden; l++) {
+                this.deltas[l] = new double[rows * widths[l + 1]];
+                this.weightGradients[l] = new double[widths[l + 1] * widths[l]];
+                this.biasGradients[l] = new double[widths[l + 1]];
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Gives the learning rate of every epoch of a training run. The factory methods cover
+ * the usual schedules: constant, step decay, exponential decay and cosine annealing.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+@FunctionalInterface
+public interface LearningRateSchedule {
+    /**
+     * Returns the learning rate of an epoch.
+     * @param epoch the epoch, counted from 0
+     * @return the step size used for every update of the epoch
+     */
+    double rate(int epoch);
+
+    /**
+     * The same learning rate for every epoch.
+     * @param rate the learning rate, which must be positive and finite
+     * @return the schedule
+     */
+    static LearningRateSchedule constant(double rate) {
+        check(rate, "Learning rate");
+        return epoch -> rate;
+    }
+
+    /**
+     * Multiplies the learning rate by a factor every few epochs.
+     * @param initial the learning rate of epoch 0
+     * @param every the number of epochs between decays, at least 1
+     * @param factor the multiplier applied at each decay, in (0, 1]
+     * @return the schedule
+     */
+    static LearningRateSchedule step(double initial, int every, double factor) {
+        check(initial, "Learning rate");
+        if (every < 1 || !(factor > 0.0 && factor <= 1.0)) {
+            throw new IllegalArgumentException("Invalid step decay: every " + every + " epochs by " + factor);
+        }
+        return epoch -> initial * Math.pow(factor, epoch / every);
+    }
+
+    /**
+     * Multiplies the learning rate by a factor after every epoch.
+     * @param initial the learning rate of epoch 0
+     * @param decay the multiplier applied after every epoch, in (0, 1]
+     * @return the schedule
+     */
+    static LearningRateSchedule exponential(double initial, double decay) {
+        check(initial, "Learning rate");
+        if (!(decay > 0.0 && decay <= 1.0)) {
+            throw new IllegalArgumentException("Decay must be in (0, 1], was " + decay);
+        }
+        return epoch -> initial * Math.pow(decay, epoch);
+    }
+
+    /**
+     * Anneals the learning rate from initial to minimum along half a cosine wave over a
+     * number of epochs, and stays at minimum afterwards.
+     * @param initial the learning rate of epoch 0
+     * @param minimum the learning rate reached at the last epoch, from 0 to initial
+     * @param epochs the number of epochs the annealing lasts, at least 1
+     * @return the schedule
+     */
+    static LearningRateSchedule cosine(double initial, double minimum, int epochs) {
+        check(initial, "Learning rate");
+        if (!(minimum >= 0.0 && minimum <= initial) || epochs < 1) {
+            throw new IllegalArgumentException("Invalid cosine annealing: from " + initial + " to " + minimum +
+            " over " + epochs + " epochs");
+        }
+        return epoch -> minimum + 0.5 * (initial - minimum) *
+            (1.0 + Math.cos(Math.PI * Math.min(epoch, epochs - 1) / Math.max(1, epochs - 1)));
+    }
+
+    private static void check(double rate, String name) {
+        if (!(rate > 0.0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException(name + " must be positive, was " + rate);
+        }
+    }
+}
@@ -0,0 +1,415 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A FeatureMatrix read straight out of a memory-mapped binary file, so a Model
+ * can train on and score datasets far larger than the heap. Rows are read from
+ * the mapping on demand and never copied into the heap as a whole.
+ *
+ * The file format is little-endian:
+ * a 32 byte header (magic "PCPT", version, data type, row count, width,
+ * CRC32C checksum of everything after the header), then the features of every
+ * row packed one after the other as 8 or 4 byte floats, then one byte per row
+ * holding its label.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class MappedDataset implements FeatureMatrix {
+    /**
+     * The precision the features are stored in.
+     */
+    public enum DataType {
+        FLOAT64(8), FLOAT32(4);
+
+        private final int bytes;
+
+        DataType(int bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Getter method for the size of one feature.
+         * @return returns the number of bytes one feature takes in the file
+         */
+        public int getBytes() {
+            return this.bytes;
+        }
+    }
+
+    static final int MAGIC = 0x54504350;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    /** Features are mapped in pieces of at most this many bytes, each holding whole rows. */
+    private static final int SEGMENT_BYTES = 1 << 30;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final int rows;
+    private final int width;
+    private final DataType dataType;
+    private final long checksum;
+    private final int rowsPerSegment;
+    private final MappedByteBuffer[] segments;
+    private final DoubleBuffer[] doubles;
+    private final FloatBuffer[] floats;
+    private final MappedByteBuffer labels;
+
+    private MappedDataset(int rows, int width, DataType dataType, long checksum, int rowsPerSegment,
+    MappedByteBuffer[] segments, MappedByteBuffer labels) {
+        this.rows = rows;
+        this.width = width;
+        this.dataType = dataType;
+        this.checksum = checksum;
+        this.rowsPerSegment = rowsPerSegment;
+        this.segments = segments;
+        this.labels = labels;
+        this.doubles = new DoubleBuffer[segments.length];
+        this.floats = new FloatBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            ByteBuffer segment = segments[i].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            if (dataType == DataType.FLOAT64) {
+                this.doubles[i] = segment.asDoubleBuffer();
+            } else {
+                this.floats[i] = segment.asFloatBuffer();
+            }
+        }
+    }
+
+    /**
+     * Maps a dataset file into memory. The header and the file size are validated;
+     * the checksum is only checked by verifyChecksum(), since that reads the whole file.
+     * @param path the file to open
+     * @return the mapped dataset
+     * @throws IOException if the file cannot be read or is not a valid dataset file
+     */
+    public static MappedDataset open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(path + " is too short to be a dataset file");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                continue;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a dataset file");
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException(path + " has unsupported version " + version);
+            }
+            int type = header.get();
+            if (type < 0 || type >= DataType.values().length) {
+                throw new IOException(path + " has unknown data type " + type);
+            }
+            DataType dataType = DataType.values()[type];
+            header.get();
+            long rows = header.getLong();
+            int width = header.getInt();
+            long checksum = header.getLong();
+            if (rows < 0 || rows > Integer.MAX_VALUE || width < 1) {
+                throw new IOException(path + " has an invalid shape of " + rows + " x " + width);
+            }
+            long rowBytes = (long) width * dataType.getBytes();
+            long featureBytes = rows * rowBytes;
+            if (channel.size() != HEADER_BYTES + featureBytes + rows) {
+                throw new IOException(path + " should be " + (HEADER_BYTES + featureBytes + rows) +
+                " bytes long but is " + channel.size());
+            }
+            int rowsPerSegment = (int) Math.max(1, SEGMENT_BYTES / rowBytes);
+            int count = (int) ((rows + rowsPerSegment - 1) / rowsPerSegment);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long first = (long) i * rowsPerSegment;
+                long segmentRows = Math.min(rowsPerSegment, rows - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * rowBytes,
+                    segmentRows * rowBytes);
+            }
+            MappedByteBuffer labels = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + featureBytes, rows);
+            return new MappedDataset((int) rows, width, dataType, checksum, rowsPerSegment, segments, labels);
+        }
+    }
+
+    /**
+     * Writes any FeatureMatrix to a dataset file.
+     * @param data the rows to write
+     * @param path the file to create or overwrite; it is only replaced once every row is written
+     * @param dataType the precision to store the features in
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(FeatureMatrix data, Path path, DataType dataType) throws IOException {
+        double[] row = new double[data.getWidth()];
+        try (Writer writer = new Writer(path, data.getWidth(), dataType)) {
+            for (int r = 0; r < data.getRows(); r++) {
+                data.copyRow(r, row, 0);
+                writer.append(row, data.getLabel(r));
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Writes the features and labels of an array of Person objects to a dataset file
+     * in double precision. The names are not stored.
+     * @param data contains the Person objects
+     * @param path the file to create or overwrite
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Person[] data, Path path) throws IOException {
+        write(Dataset.fromPeople(data), path, DataType.FLOAT64);
+    }
+
+    /**
+     * Converts a CSV file to a dataset file without holding the rows in memory. The CSV
+     * layout is the one read by CsvStreamReader: the features of a row followed by its
+     * label on every line, with an optional header line.
+     * @param csv the CSV file to read
+     * @param path the dataset file to create or overwrite; it is only replaced once every row is written
+     * @param dataType the precision to store the features in
+     * @throws IOException if a file cannot be read or written, or a line is malformed
+     */
+    public static void fromCsv(Path csv, Path path, DataType dataType) throws IOException {
+        try (CsvStreamReader reader = CsvStreamReader.open(csv)) {
+            if (!reader.next()) {
+                throw new IOException(csv + " holds no rows");
+            }
+            try (Writer writer = new Writer(path, reader.getWidth(), dataType)) {
+                do {
+                    writer.append(reader.getRow(), reader.getLabel());
+                } while (reader.next());
+                writer.finish();
+            }
+        }
+    }
+
+    /**
+     * Reads the whole file and compares it with the checksum stored in the header.
+     * @return true if the features and labels are intact
+     */
+    public boolean verifyChecksum() {
+        CRC32C crc = new CRC32C();
+        for (MappedByteBuffer segment : this.segments) {
+            crc.update(segment.duplicate());
+        }
+        crc.update(this.labels.duplicate());
+        return crc.getValue() == this.checksum;
+    }
+
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows in the file
+     */
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the number of features in each row.
+     * @return returns the number of features in each row
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Getter method for the instance field of dataType.
+     * @return returns the precision the features are stored in
+     */
+    public DataType getDataType() {
+        return this.dataType;
+    }
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row
+     * @return the label (0 or 1) of the row
+     */
+    @Override
+    public int getLabel(int row) {
+        return this.labels.get(row);
+    }
+
+    /**
+     * Copies the features of a single row out of the mapping into an array.
+     * @param row the index of the row
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    @Override
+    public void copyRow(int row, double[] dst, int offset) {
+        int segment = row / this.rowsPerSegment;
+        int index = (row - segment * this.rowsPerSegment) * this.width;
+        if (this.dataType == DataType.FLOAT64) {
+            DoubleBuffer buffer = this.doubles[segment];
+            for (int j = 0; j < this.width; j++) {
+                dst[offset + j] = buffer.get(index + j);
+            }
+        } else {
+            FloatBuffer buffer = this.floats[segment];
+            for (int j = 0; j < this.width; j++) {
+                dst[offset + j] = buffer.get(index + j);
+            }
+        }
+    }
+
+    /**
+     * Streams rows into a new dataset file. The features go straight into a temporary file
+     * next to the target and the labels into a second one, which is appended once the row
+     * count is known. The finished file is moved over the target on close, so a failed
+     * write leaves any previous file untouched.
+     */
+    static class Writer implements AutoCloseable {
+        private final Path path;
+        private final Path temp;
+        private final Path labelPath;
+        private final FileChannel channel;
+        private final FileChannel labelChannel;
+        private final ByteBuffer buffer;
+        private final ByteBuffer labelBuffer;
+        private final CRC32C crc = new CRC32C();
+        private final int width;
+        private final DataType dataType;
+        private long rows;
+        private boolean finished;
+
+        Writer(Path path, int width, DataType dataType) throws IOException {
+            if (width < 1) {
+                throw new IllegalArgumentException("Width must be at least 1, was " + width);
+            }
+            // The buffer always holds at least one whole row, however wide.
+            long rowBytes = (long) width * dataType.getBytes();
+            if (rowBytes > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("A row of " + width + " " + dataType + " features does not fit " +
+                    "in one write buffer");
+            }
+            this.path = path;
+            this.width = width;
+            this.dataType = dataType;
+            Path directory = path.toAbsolutePath().getParent();
+            this.temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            FileChannel features = null;
+            FileChannel labels = null;
+            Path labelFile = null;
+            try {
+                features = FileChannel.open(this.temp, StandardOpenOption.WRITE);
+                labelFile = Files.createTempFile(directory, path.getFileName().toString(), ".labels");
+                labels = FileChannel.open(labelFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException | RuntimeException e) {
+                if (features != null) {
+                    features.close();
+                }
+                if (labelFile != null) {
+                    Files.deleteIfExists(labelFile);
+                }
+                Files.deleteIfExists(this.temp);
+                throw e;
+            }
+            this.channel = features;
+            this.labelPath = labelFile;
+            this.labelChannel = labels;
+            this.channel.position(HEADER_BYTES);
+            this.buffer = ByteBuffer.allocateDirect((int) Math.max(WRITE_BUFFER_BYTES, rowBytes))
+                .order(ByteOrder.LITTLE_ENDIAN);
+            this.labelBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        }
+
+        void append(double[] row, int label) throws IOException {
+            if (label != 0 && label != 1) {
+                throw new IllegalArgumentException("Label must be 0 or 1, was " + label);
+            }
+            if (this.rows == Integer.MAX_VALUE) {
+                throw new IOException(this.path + " cannot hold more than " + Integer.MAX_VALUE + " rows");
+            }
+            if (this.buffer.remaining() < this.width * this.dataType.getBytes()) {
+                flush(this.buffer, this.channel);
+            }
+            if (this.dataType == DataType.FLOAT64) {
+                for (int j = 0; j < this.width; j++) {
+                    this.buffer.putDouble(row[j]);
+                }
+            } else {
+                for (int j = 0; j < this.width; j++) {
+                    this.buffer.putFloat((float) row[j]);
+                }
+            }
+            if (!this.labelBuffer.hasRemaining()) {
+                this.labelBuffer.flip();
+                write(this.labelBuffer, this.labelChannel);
+                this.labelBuffer.clear();
+            }
+            this.labelBuffer.put((byte) label);
+            this.rows++;
+        }
+
+        void finish() throws IOException {
+            flush(this.buffer, this.channel);
+            this.labelBuffer.flip();
+            write(this.labelBuffer, this.labelChannel);
+            this.labelBuffer.clear();
+            long position = 0;
+            int read;
+            while ((read = this.labelChannel.read(this.buffer, position)) > 0) {
+                position += read;
+                flush(this.buffer, this.channel);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).put((byte) this.dataType.ordinal()).put((byte) 0);
+            header.putLong(this.rows).putInt(this.width).putLong(this.crc.getValue());
+            header.flip();
+            while (header.hasRemaining()) {
+                this.channel.write(header, header.position());
+            }
+            this.channel.force(false);
+            this.finished = true;
+        }
+
+        private void flush(ByteBuffer source, FileChannel target) throws IOException {
+            source.flip();
+            this.crc.update(source.duplicate());
+            write(source, target);
+            source.clear();
+        }
+
+        private static void write(ByteBuffer source, FileChannel target) throws IOException {
+            while (source.hasRemaining()) {
+                target.write(source);
+            }
+        }
+
+        /**
+         * Closes both files and, if finish completed, moves the new dataset over the target.
+         * Otherwise the partial file is deleted and the target is left as it was.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                try {
+                    this.channel.close();
+                } finally {
+                    this.labelChannel.close();
+                    Files.deleteIfExists(this.labelPath);
+                }
+                if (this.finished) {
+                    Files.move(this.temp, this.path, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                }
+            } finally {
+                Files.deleteIfExists(this.temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Cache-blocked dense matrix products behind LayeredModel. Matrices are row-major double
+ * arrays. Each product walks the shared dimension in blocks of BLOCK, so the block of the
+ * right-hand matrix being reused stays in cache while every row of the left-hand matrix
+ * passes over it, and the innermost loop always runs over contiguous memory.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+final class Matrices {
+    /** The number of values of the shared dimension handled per block. */
+    static final int BLOCK = 64;
+
+    private Matrices() {
+    }
+
+    /**
+     * Computes C = A * B^T, where A is m x k, B is n x k and C is m x n; a layer's forward
+     * pass, with B holding one row of weights per output.
+     */
+    static void multiplyTransposed(double[] a, double[] b, double[] c, int m, int n, int k) {
+        for (int i = 0; i < m * n; i++) {
+            c[i] = 0.0;
+        }
+        for (int p0 = 0; p0 < k; p0 += BLOCK) {
+            int p1 = Math.min(k, p0 + BLOCK);
+            for (int j0 = 0; j0 < n; j0 += BLOCK) {
+                int j1 = Math.min(n, j0 + BLOCK);
+                int i = 0;
+                // Two rows by four outputs at a time: eight independent sums keep the multipliers
+                // busy and reuse every load twice, and each sum still adds its products in order.
+                for (; i + 2 <= m; i += 2) {
+                    int r0 = i * k;
+                    int r1 = r0 + k;
+                    int j = j0;
+                    for (; j + 4 <= j1; j += 4) {
+                        int c0 = j * k;
+                        int c1 = c0 + k;
+                        int c2 = c1 + k;
+                        int c3 = c2 + k;
+                        double s00 = 0;
+                        double s01 = 0;
+                        double s02 = 0;
+                        double s03 = 0;
+                        double s10 = 0;
+                        double s11 = 0;
+                        double s12 = 0;
+                        double s13 = 0;
+                        for (int p = p0; p < p1; p++) {
+                            double x0 = a[r0 + p];
+                            double x1 = a[r1 + p];
+                            double y0 = b[c0 + p];
+                            double y1 = b[c1 + p];
+                            double y2 = b[c2 + p];
+                            double y3 = b[c3 + p];
+                            s00 += x0 * y0;
+                            s01 += x0 * y1;
+                            s02 += x0 * y2;
+                            s03 += x0 * y3;
+                            s10 += x1 * y0;
+                            s11 += x1 * y1;
+                            s12 += x1 * y2;
+                            s13 += x1 * y3;
+                        }
+                        int o0 = i * n + j;
+                        int o1 = o0 + n;
+                        c[o0] += s00;
+                        c[o0 + 1] += s01;
+                        c[o0 + 2] += s02;
+                        c[o0 + 3] += s03;
+                        c[o1] += s10;
+                        c[o1 + 1] += s11;
+                        c[o1 + 2] += s12;
+                        c[o1 + 3] += s13;
+                    }
+                    for (; j < j1; j++) {
+                        c[i * n + j] += dot(a, r0, b, j * k, p0, p1);
+                        c[(i + 1) * n + j] += dot(a, r1, b, j * k, p0, p1);
+                    }
+                }
+                for (; i < m; i++) {
+                    for (int j = j0; j < j1; j++) {
+                        c[i * n + j] += dot(a, i * k, b, j * k, p0, p1);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double dot(double[] a, int aRow, double[] b, int bRow, int from, int to) {
+        double sum = 0;
+        for (int p = from; p < to; p++) {
+            sum += a[aRow + p] * b[bRow + p];
+        }
+        return sum;
+    }
+
+    /**
+     * Computes C = A * B, where A is m x k, B is k x n and C is m x n; carries the gradient
+     * of a layer's outputs back to its inputs.
+     */
+    static void multiply(double[] a, double[] b, double[] c, int m, int n, int k) {
+        for (int i = 0; i < m * n; i++) {
+            c[i] = 0.0;
+        }
+        for (int p0 = 0; p0 < k; p0 += BLOCK) {
+            int p1 = Math.min(k, p0 + BLOCK);
+            for (int i = 0; i < m; i++) {
+                int row = i * n;
+                int p = p0;
+                // Four rows of B per sweep over the row of C, so C is loaded and stored a quarter as often.
+                for (; p + 4 <= p1; p += 4) {
+                    double x0 = a[i * k + p];
+                    double x1 = a[i * k + p + 1];
+                    double x2 = a[i * k + p + 2];
+                    double x3 = a[i * k + p + 3];
+                    int s0 = p * n;
+                    int s1 = s0 + n;
+                    int s2 = s1 + n;
+                    int s3 = s2 + n;
+                    for (int j = 0; j < n; j++) {
+                        c[row + j] += x0 * b[s0 + j] + x1 * b[s1 + j] + x2 * b[s2 + j] + x3 * b[s3 + j];
+                    }
+                }
+                for (; p < p1; p++) {
+                    double scale = a[i * k + p];
+                    int source = p * n;
+                    for (int j = 0; j < n; j++) {
+                        c[row + j] += scale * b[source + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes C = A^T * B, where A is k x m, B is k x n and C is m x n; sums the weight
+     * gradients of a layer over the rows of a batch.
+     */
+    static void multiplyTransposedA(double[] a, double[] b, double[] c, int m, int n, int k) {
+        for (int i = 0; i < m * n; i++) {
+            c[i] = 0.0;
+        }
+        for (int p0 = 0; p0 < k; p0 += BLOCK) {
+            int p1 = Math.min(k, p0 + BLOCK);
+            for (int i = 0; i < m; i++) {
+                int row = i * n;
+                int p = p0;
+                for (; p + 4 <= p1; p += 4) {
+                    double x0 = a[p * m + i];
+                    double x1 = a[(p + 1) * m + i];
+                    double x2 = a[(p + 2) * m + i];
+                    double x3 = a[(p + 3) * m + i];
+                    int s0 = p * n;
+                    int s1 = s0 + n;
+                    int s2 = s1 + n;
+                    int s3 = s2 + n;
+                    for (int j = 0; j < n; j++) {
+                        c[row + j] += x0 * b[s0 + j] + x1 * b[s1 + j] + x2 * b[s2 + j] + x3 * b[s3 + j];
+                    }
+                }
+                for (; p < p1; p++) {
+                    double scale = a[p * m + i];
+                    int source = p * n;
+                    for (int j = 0; j < n; j++) {
+                        c[row + j] += scale * b[source + j];
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Locale;
+
+/**
+ * The state of one histogram of a MetricsRegistry at the moment it was read.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class MetricSnapshot {
+    private final String name;
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    /**
+     * Reads a Histogram.
+     * @param name the name the histogram is registered under
+     * @param histogram the histogram to read
+     */
+    MetricSnapshot(String name, Histogram histogram) {
+        this.name = name;
+        this.count = histogram.getCount();
+        this.mean = histogram.getMean();
+        this.p50 = histogram.getPercentile(50);
+        this.p90 = histogram.getPercentile(90);
+        this.p99 = histogram.getPercentile(99);
+        this.max = histogram.getMax();
+    }
+
+    /**
+     * Getter method for the instance field of name.
+     * @return returns the name the histogram is registered under
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Getter method for the instance field of count.
+     * @return returns the number of values recorded
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Getter method for the instance field of mean.
+     * @return returns the mean of the values recorded, or 0 if there are none
+     */
+    public double getMean() {
+        return this.mean;
+    }
+
+    /**
+     * Getter method for the instance field of p50.
+     * @return returns the median of the values recorded
+     */
+    public long getP50() {
+        return this.p50;
+    }
+
+    /**
+     * Getter method for the instance field of p90.
+     * @return returns the 90th percentile of the values recorded
+     */
+    public long getP90() {
+        return this.p90;
+    }
+
+    /**
+     * Getter method for the instance field of p99.
+     * @return returns the 99th percentile of the values recorded
+     */
+    public long getP99() {
+        return this.p99;
+    }
+
+    /**
+     * Getter method for the instance field of max.
+     * @return returns the largest value recorded
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * Returns the snapshot as "name_stat value" lines, the format of GET /metrics.
+     * @return one line each for the count, mean, p50, p90, p99 and max
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%1$s_count %2$d%n%1$s_mean %3$.1f%n%1$s_p50 %4$d%n" +
+            "%1$s_p90 %5$d%n%1$s_p99 %6$d%n%1$s_max %7$d%n", this.name, this.count, this.mean, this.p50, this.p90,
+            this.p99, this.max);
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named, fixed-memory Histograms of latencies and sizes, kept by the hot paths of Model and
+ * read through snapshot() or format(). Instrumented code checks isEnabled() before reading
+ * the clock, so a disabled registry costs one volatile read per call. The shared registry
+ * starts disabled unless the JVM runs with -Dperceptron.metrics=true.
+ *
+ * Model records into model_predict_nanos (each predict call), model_predict_batch_nanos
+ * (each predictBatch call) and model_predict_batch_rows (the rows of each predictBatch call).
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class MetricsRegistry {
+    private static final MetricsRegistry SHARED = new MetricsRegistry(Boolean.getBoolean("perceptron.metrics"));
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    /**
+     * Constructor for the MetricsRegistry class.
+     * @param enabled whether instrumented code records into the registry
+     */
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the registry Model records into.
+     * @return the shared registry
+     */
+    public static MetricsRegistry getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the histogram registered under a name, registering an empty one first if there is none.
+     * Callers on a hot path should look a histogram up once and keep it.
+     * @param name the name of the histogram, such as model_predict_nanos
+     * @return the histogram
+     */
+    public Histogram histogram(String name) {
+        return this.histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Reads every histogram.
+     * @return a snapshot of each histogram, sorted by name
+     */
+    public List<MetricSnapshot> snapshot() {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(this.histograms).entrySet()) {
+            snapshots.add(new MetricSnapshot(entry.getKey(), entry.getValue()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Renders a snapshot of every histogram as "name_stat value" lines.
+     * @return the lines of every snapshot, sorted by name
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        for (MetricSnapshot snapshot : snapshot()) {
+            text.append(snapshot);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Getter method for the instance field of enabled.
+     * @return returns whether instrumented code records into the registry
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Setter method for the instance field of enabled. Values already recorded are kept.
+     * @param enabled whether instrumented code records into the registry
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
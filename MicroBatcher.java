@@ -0,0 +1,158 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces single-row prediction requests from many threads into micro-batches that are
+ * scored together with Model.predictBatch. A batch is flushed as soon as it holds
+ * maxBatchSize rows or maxDelayNanos after its first row arrived, whichever comes first;
+ * under load the queue already holds a full batch and no one waits for the deadline.
+ *
+ * Rows are scored by one flusher thread with a copy of the Model taken at construction,
+ * without an ActivationCache, since the batch buffer is reused. The sizes of the batches
+ * are kept in a Histogram.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class MicroBatcher implements AutoCloseable {
+    private final Model model;
+    private final int width;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Request> queue;
+    private final Histogram batchSizes = new Histogram();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for the MicroBatcher class. Starts the flusher thread.
+     * @param model the Model to score with; later changes to it are not seen
+     * @param maxBatchSize the most rows scored together
+     * @param maxDelayNanos the longest a row waits for its batch to fill up
+     * @param queueCapacity the most rows that can wait to be scored before submit rejects new ones
+     */
+    public MicroBatcher(Model model, int maxBatchSize, long maxDelayNanos, int queueCapacity) {
+        if (maxBatchSize < 1 || maxDelayNanos < 0 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Invalid batching settings: batch size " + maxBatchSize +
+            ", delay " + maxDelayNanos + " ns, queue capacity " + queueCapacity);
+        }
+        this.model = new Model(model);
+        this.model.setActivationCache(null);
+        this.width = model.getWeights().length;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelayNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::flushLoop, "micro-batcher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues one row for scoring.
+     * @param features the features of the row, which must not be changed until the result is complete
+     * @return a future completed with the sigmoid output of the Model for the row
+     * @throws RejectedExecutionException if the queue is full or the batcher is closed
+     */
+    public CompletableFuture<Double> submit(double[] features) {
+        if (features.length != this.width) {
+            throw new IllegalArgumentException("Expected " + this.width + " features, got " + features.length);
+        }
+        Request request = new Request(features);
+        if (!this.running) {
+            throw new RejectedExecutionException("The micro-batcher is closed");
+        }
+        if (!this.queue.offer(request)) {
+            throw new RejectedExecutionException("The prediction queue is full");
+        }
+        if (!this.running && this.queue.remove(request)) {
+            throw new RejectedExecutionException("The micro-batcher is closed");
+        }
+        return request.result;
+    }
+
+    private void flushLoop() {
+        Request[] batch = new Request[this.maxBatchSize];
+        double[] features = new double[this.maxBatchSize * this.width];
+        Dataset rows = new Dataset(features, new int[this.maxBatchSize], this.width);
+        double[] probabilities = new double[this.maxBatchSize];
+        try {
+            while (this.running || !this.queue.isEmpty()) {
+                Request first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch[0] = first;
+                int size = 1;
+                long deadline = first.enqueued + this.maxDelayNanos;
+                while (size < this.maxBatchSize) {
+                    long wait = deadline - System.nanoTime();
+                    Request next = (wait <= 0) ? this.queue.poll() : this.queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch[size++] = next;
+                }
+                for (int i = 0; i < size; i++) {
+                    System.arraycopy(batch[i].features, 0, features, i * this.width, this.width);
+                }
+                this.batchSizes.record(size);
+                try {
+                    this.model.predictBatch(rows, 0, size, null, probabilities);
+                    for (int i = 0; i < size; i++) {
+                        batch[i].result.complete(probabilities[i]);
+                    }
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < size; i++) {
+                        batch[i].result.completeExceptionally(e);
+                    }
+                }
+                for (int i = 0; i < size; i++) {
+                    batch[i] = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Request left;
+        while ((left = this.queue.poll()) != null) {
+            left.result.completeExceptionally(new RejectedExecutionException("The micro-batcher is closed"));
+        }
+    }
+
+    /**
+     * Getter method for the sizes of the flushed batches.
+     * @return returns the histogram of the number of rows in each flushed batch
+     */
+    public Histogram getBatchSizes() {
+        return this.batchSizes;
+    }
+
+    /**
+     * Stops accepting rows, scores the rows already queued and stops the flusher thread.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        try {
+            this.flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One queued row and the future its result goes to.
+     */
+    private static final class Request {
+        private final double[] features;
+        private final long enqueued = System.nanoTime();
+        private final CompletableFuture<Double> result = new CompletableFuture<>();
+
+        Request(double[] features) {
+            this.features = features;
+        }
+    }
+}
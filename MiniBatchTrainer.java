@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Data-parallel mini-batch gradient descent for a Model. Every batch is cut into fixed
+ * slices of at least TrainingConfig.getMinRowsPerWorker() rows, at most one per worker,
+ * each worker sums the gradients of its slice into its own buffer, and the buffers are
+ * reduced in slice order before the single update of the batch. A batch too small to
+ * split runs on the calling thread, without the pool. The pools are kept, one per
+ * parallelism, for every later call. Because neither the slicing nor the order of the
+ * reduction depend on thread scheduling, the same starting weights, data and
+ * configuration always give bit-identical results. Rows are read from the ActivationCache of the Model when they fit in it, and
+ * progress is reported to its TrainingListener, with batch callbacks at batch boundaries.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+class MiniBatchTrainer {
+    /** Extra doubles after every gradient buffer, so workers never share a cache line. */
+    private static final int PADDING = 8;
+
+    private static final ConcurrentHashMap<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private MiniBatchTrainer() {
+    }
+
+    /**
+     * Returns the pool shared by every mini-batch training run with a given parallelism,
+     * creating it on first use. Its worker threads are daemons and stop when idle.
+     * @param parallelism the number of worker threads
+     * @return the shared pool
+     */
+    static ForkJoinPool pool(int parallelism) {
+        return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+    }
+
+    /**
+     * Trains the model in place.
+     * @param model the Model whose weights and bias are updated
+     * @param data the rows to train on, already checked to match the width of the model
+     * @param passes the number of passes over the data
+     * @param config the learning rate, batch size and parallelism to use
+     */
+    static void train(Model model, FeatureMatrix data, int passes, TrainingConfig config) {
+        int width = data.getWidth();
+        int rows = data.getRows();
+        int workers = config.getParallelism();
+        int minRows = config.getMinRowsPerWorker();
+        double learningRate = config.getLearningRate();
+        double[] weights = model.getWeights();
+        Dataset cached = model.cachedActivations(data);
+        TrainingMonitor monitor = TrainingMonitor.of(model.getTrainingListener());
+        Slice[] slices = new Slice[workers];
+        for (int w = 0; w < workers; w++) {
+            slices[w] = (cached == null)
+                ? new Slice(model.getActivationType(), data, weights, model.isFastMath(), monitor != null)
+                : new Slice(null, cached, weights, model.isFastMath(), monitor != null);
+        }
+        Batch batch = new Batch(slices);
+        double[] gradient = new double[width + 1];
+        ForkJoinPool pool = (workers > 1) ? pool(workers) : null;
+        for (int pass = 0; pass < passes; pass++) {
+            TrainingEpochEvent event = new TrainingEpochEvent();
+            event.begin();
+            if (monitor != null) {
+                monitor.beginEpoch(pass);
+            }
+            for (int start = 0; start < rows; start += config.getBatchSize()) {
+                int end = Math.min(rows, start + config.getBatchSize());
+                int count = end - start;
+                int active = Math.max(1, Math.min(workers, count / minRows));
+                for (int w = 0; w < active; w++) {
+                    slices[w].reset(start + (int) ((long) count * w / active),
+                        start + (int) ((long) count * (w + 1) / active), model.getBias());
+                }
+                if (active == 1) {
+                    slices[0].compute();
+                } else {
+                    batch.reset(active);
+                    pool.invoke(batch);
+                }
+
+                for (int j = 0; j <= width; j++) {
+                    gradient[j] = 0.0;
+                }
+                for (int w = 0; w < active; w++) {
+                    for (int j = 0; j <= width; j++) {
+                        gradient[j] += slices[w].gradient[j];
+                    }
+                }
+                double step = learningRate / count;
+                for (int j = 0; j < width; j++) {
+                    weights[j] = weights[j] + (step * gradient[j]);
+                }
+                model.setBias(model.getBias() + (step * gradient[width]));
+                if (monitor != null) {
+                    double loss = 0;
+                    for (int w = 0; w < active; w++) {
+                        loss += slices[w].loss;
+                    }
+                    monitor.record(count, loss);
+                }
+            }
+            if (monitor != null) {
+                monitor.endEpoch();
+            }
+            event.finish(model.getID(), "miniBatch", pass, rows);
+        }
+    }
+
+    /**
+     * Runs the first few slices of one batch on the pool.
+     */
+    private static class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Slice[] slices;
+        private int active;
+
+        Batch(Slice[] slices) {
+            this.slices = slices;
+        }
+
+        void reset(int active) {
+            this.active = active;
+            reinitialize();
+        }
+
+        @Override
+        protected void compute() {
+            for (int w = 0; w < this.active; w++) {
+                this.slices[w].reinitialize();
+            }
+            invokeAll(Arrays.asList(this.slices).subList(0, this.active));
+        }
+    }
+
+    /**
+     * Sums the gradients of a contiguous range of rows. The last element of the
+     * gradient holds the gradient of the bias. A null activation type means the rows
+     * are already activated; in fast math mode FastActivation replaces Activation. When
+     * asked to, it also sums the log-loss of the rows before the update.
+     */
+    private static class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ActivationType activationType;
+        private final FeatureMatrix data;
+        private final int width;
+        private final double[] weights;
+        private final double[] activated;
+        private final double[] gradient;
+        private final boolean fastMath;
+        private final boolean trackLoss;
+        private double loss;
+        private int from;
+        private int to;
+        private double bias;
+
+        Slice(ActivationType activationType, FeatureMatrix data, double[] weights, boolean fastMath,
+        boolean trackLoss) {
+            this.activationType = activationType;
+            this.data = data;
+            this.width = data.getWidth();
+            this.weights = weights;
+            this.activated = new double[this.width];
+            this.gradient = new double[this.width + 1 + PADDING];
+            this.fastMath = fastMath;
+            this.trackLoss = trackLoss;
+        }
+
+        void reset(int from, int to, double bias) {
+            this.from = from;
+            this.to = to;
+            this.bias = bias;
+        }
+
+        @Override
+        protected void compute() {
+            for (int j = 0; j <= this.width; j++) {
+                this.gradient[j] = 0.0;
+            }
+            this.loss = 0;
+            for (int r = this.from; r < this.to; r++) {
+                this.data.copyRow(r, this.activated, 0);
+                if (this.activationType != null && this.fastMath) {
+                    FastActivation.activate(this.activationType, this.activated, 0, this.activated, 0, this.width);
+                } else if (this.activationType != null) {
+                    Activation.activate(this.activationType, this.activated, 0, this.activated, 0, this.width);
+                }
+                double weightedSum = 0;
+                for (int j = 0; j < this.width; j++) {
+                    weightedSum += (this.weights[j] * this.activated[j]);
+                }
+                weightedSum += this.bias;
+                double predicted_value = this.fastMath ? FastActivation.sigmoid(weightedSum)
+                    : Activation.sigmoid(weightedSum);
+                double error_value = this.data.getLabel(r) - predicted_value;
+                if (this.trackLoss) {
+                    this.loss += TrainingMonitor.logLoss(predicted_value, this.data.getLabel(r));
+                }
+                for (int j = 0; j < this.width; j++) {
+                    this.gradient[j] += error_value * this.activated[j];
+                }
+                this.gradient[this.width] += error_value;
+            }
+        }
+    }
+}
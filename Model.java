@@ -1,4 +1,8 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Our single-layer perceptron model, the most classic and foundational neural network model.
@@ -16,9 +20,24 @@ public class Model {
     private double[] weights;
     private double bias;
     private ActivationType activationType;
-    private static String modelHistory = "";
-    private static int totalPredictions = 0;
-    private static int correctPredictions = 0;
+    private double[] scratch;
+    private ActivationCache activationCache = ActivationCache.getShared();
+    private boolean fastMath;
+    private TrainingListener trainingListener = TrainingListener.NONE;
+    private final LongAdder predictions = new LongAdder();
+    private final LongAdder correct = new LongAdder();
+    private static final int HISTORY_CAPACITY = 1024;
+    private static final EventLog modelHistory = new EventLog(HISTORY_CAPACITY);
+    private static volatile boolean predictionHistory = Boolean.getBoolean("perceptron.predictionHistory");
+    private static final LongAdder totalPredictions = new LongAdder();
+    private static final LongAdder correctPredictions = new LongAdder();
+    private static final int BLOCK_ROWS = 256;
+    private static final ThreadLocal<double[]> BLOCK = ThreadLocal.withInitial(() -> new double[0]);
+    private static final ThreadLocal<double[]> STAGING = ThreadLocal.withInitial(() -> new double[0]);
+    private static final MetricsRegistry METRICS = MetricsRegistry.getShared();
+    private static final Histogram PREDICT_NANOS = METRICS.histogram("model_predict_nanos");
+    private static final Histogram BATCH_NANOS = METRICS.histogram("model_predict_batch_nanos");
+    private static final Histogram BATCH_ROWS = METRICS.histogram("model_predict_batch_rows");
 
     /**
      * Constructor for the Model class.
@@ -26,16 +45,58 @@ public class Model {
      * @param activationType the activation type for the Model Object
      */
     public Model(int id, ActivationType activationType) {
+        this(id, activationType, 5, new Random());
+    }
+
+    /**
+     * Constructor for the Model class with reproducible starting weights.
+     * @param id the unique id for the specific Model Object
+     * @param activationType the activation type for the Model Object
+     * @param seed the seed of the random generator the weights and bias are drawn from
+     */
+    public Model(int id, ActivationType activationType, long seed) {
+        this(id, activationType, 5, new Random(seed));
+    }
+
+    /**
+     * Constructor for the Model class with any number of input features and reproducible
+     * starting weights. The other constructors take the five personality traits of a Person.
+     * @param id the unique id for the specific Model Object
+     * @param activationType the activation type for the Model Object
+     * @param width the number of features in each row the Model trains on and scores
+     * @param seed the seed of the random generator the weights and bias are drawn from
+     */
+    public Model(int id, ActivationType activationType, int width, long seed) {
+        this(id, activationType, width, new Random(seed));
+    }
+
+    private Model(int id, ActivationType activationType, int width, Random rand) {
+        if (width < 1) {
+            throw new IllegalArgumentException("A Model needs at least one feature, was " + width);
+        }
         this.id = id;
         this.activationType = activationType;
-        this.weights = new double[5];
-        Random rand = new Random();
+        this.weights = new double[width];
         for (int i = 0; i < this.weights.length; i++) {
             this.weights[i] = rand.nextDouble() - 1.0;
         }
         this.bias = rand.nextDouble() - 1.0;
     }
 
+    /**
+     * Constructor for the Model class from saved parameters, used when loading a ModelStore.
+     * @param id the unique id for the specific Model Object
+     * @param activationType the activation type for the Model Object
+     * @param weights the weights, used directly rather than copied
+     * @param bias the bias
+     */
+    Model(int id, ActivationType activationType, double[] weights, double bias) {
+        this.id = id;
+        this.activationType = activationType;
+        this.weights = weights;
+        this.bias = bias;
+    }
+
     /** 
      * No-arg constructor for the Model class.
     */
@@ -55,10 +116,14 @@ public class Model {
             this.weights[i] = otherModel.weights[i];
         }
         this.bias = otherModel.bias;
+        this.activationCache = otherModel.activationCache;
+        this.fastMath = otherModel.fastMath;
+        this.trainingListener = otherModel.trainingListener;
     }
 
     /**
-     * To train on data for a certain number epochs, to improve the weights array
+     * To train on data for a certain number epochs, to improve the weights array.
+     * Progress goes to the TrainingListener of the Model.
      * @param data contains the Person objects
      * @param epochs the number of times you want to train and adjust the weights for maximum precision and accuracy
      */
@@ -68,7 +133,13 @@ public class Model {
             "on data at least once. Please try again.");
             return;
         }
-        for (int i = 0; i <= epochs; i++) {
+        TrainingMonitor monitor = TrainingMonitor.of(this.trainingListener);
+        for (int i = 0; i < epochs; i++) {
+            TrainingEpochEvent event = new TrainingEpochEvent();
+            event.begin();
+            if (monitor != null) {
+                monitor.beginEpoch(i);
+            }
             for (Person p: data) {
                 double[] activated = new double[p.getFeatures().length];
                 for (int j = 0; j < activated.length; j++) {
@@ -96,74 +167,957 @@ public class Model {
                 }
                 this.bias = this.bias + (0.01 * error_value);
 
-                System.out.printf("Epoch %d: Error = %4.2f%n", i, error_value);
+                if (monitor != null) {
+                    monitor.record(predicted_value, p.getLabel());
+                }
+            }
+            if (monitor != null) {
+                monitor.endEpoch();
             }
+            event.finish(this.id, "sequential", i, data.length);
+        }
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, data.length, epochs);
+    }
+
+    /**
+     * To train on a columnar FeatureMatrix, such as a Dataset, a MappedDataset or an OffHeapDataset,
+     * for a certain number of epochs. Performs exactly the same updates as train(Person[], int) on the
+     * same rows, reporting progress to the TrainingListener of the Model. When the Model has an enabled
+     * ActivationCache, the activated features come from it, so they are computed once rather than on every
+     * epoch; otherwise, or if the data is too large to cache, a single scratch row is activated one row at
+     * a time instead.
+     * A SparseMatrix is trained on in time proportional to its non-zeros; see trainSparse.
+     * @param data the rows to train on, which must have as many features as the Model has weights
+     * @param epochs the number of times you want to train and adjust the weights for maximum precision and accuracy
+     */
+    public void train(FeatureMatrix data, int epochs) {
+        checkEpochs(epochs);
+        checkWidth(data.getWidth());
+        int rows = data.getRows();
+        if (data instanceof SparseMatrix) {
+            trainSparse((SparseMatrix) data, epochs);
+            modelHistory.record(this.id, ModelEvent.Kind.TRAINED, rows, epochs);
+            return;
         }
-        modelHistory += "Model " + this.id + ": Trained on " + data.length + " data points for " +
-        epochs + " epochs.\n";
+        passes(data, 0, epochs, 0.01, null);
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, rows, epochs);
+    }
+
+    /**
+     * To train on the rows of an EpochIterator, in the shuffled order it walks them, with the same
+     * per-sample updates and learning rate as train(FeatureMatrix, int). The background thread of the
+     * iterator gathers and activates the next batch while this one trains, and its stall time tells
+     * whether that kept up. Progress goes to the TrainingListener of the Model.
+     * @param batches a new iterator over rows with as many features as the Model has weights;
+     * it is used up, but not closed
+     */
+    public void train(EpochIterator batches) {
+        shuffledPasses(batches, 0, 0.01, null);
+    }
+
+    /**
+     * To train on the rows of an EpochIterator like train(EpochIterator), saving a Checkpoint whenever
+     * the Checkpointer says one is due and after the last epoch. The random state of each checkpoint is
+     * the seed of the iterator: the order of an epoch depends only on the seed and the epoch, so that is
+     * all resume(EpochIterator, Checkpointer) needs to walk the rest of the run in the same order.
+     * @param batches a new iterator over rows with as many features as the Model has weights;
+     * it is used up, but not closed
+     * @param checkpointer where and how often to save checkpoints
+     */
+    public void train(EpochIterator batches, Checkpointer checkpointer) {
+        shuffledPasses(batches, 0, 0.01, checkpointer);
+    }
+
+    /**
+     * To carry on a checkpointed run of train(EpochIterator, Checkpointer) that was cut short. If the
+     * file of the Checkpointer holds a checkpoint, this Model is restored from it and the iterator
+     * skips the epochs it had completed, so the remaining epochs see the same batches in the same
+     * order and the result is the same as if the run had never stopped.
+     * @param batches a new iterator over the same rows, with the same epochs, batch size and seed
+     * @param checkpointer where and how often to save checkpoints, usually at the same file
+     * @return the number of epochs the checkpoint had completed, 0 if there was none
+     * @throws IOException if the checkpoint cannot be read or is not a valid, intact checkpoint
+     */
+    public int resume(EpochIterator batches, Checkpointer checkpointer) throws IOException {
+        Checkpoint checkpoint = checkpointer.readLatest();
+        int first = 0;
+        double learningRate = 0.01;
+        if (checkpoint != null) {
+            checkMatches(checkpoint);
+            if (checkpoint.getRandomState() != batches.getSeed()) {
+                throw new IllegalArgumentException(checkpoint + " was taken with seed " + checkpoint.getRandomState() +
+                    ", but the iterator has seed " + batches.getSeed());
+            }
+            checkpoint.restore(this);
+            first = Math.min(checkpoint.getEpoch(), batches.getEpochs());
+            learningRate = checkpoint.getLearningRate();
+        }
+        if (first < batches.getEpochs()) {
+            shuffledPasses(batches, first, learningRate, checkpointer);
+        }
+        return first;
+    }
+
+    /**
+     * Runs the per-sample updates of the batches of an EpochIterator from epoch first on,
+     * checkpointing after each epoch that is due when there is a Checkpointer.
+     */
+    private void shuffledPasses(EpochIterator batches, int first, double learningRate, Checkpointer checkpointer) {
+        FeatureMatrix data = batches.getData();
+        int width = checkWidth(data.getWidth());
+        batches.activateWith(this.activationType, this.fastMath);
+        batches.startAt(first);
+        TrainingMonitor monitor = TrainingMonitor.of(this.trainingListener);
+        if (checkpointer != null) {
+            checkpointer.begin(first);
+        }
+        TrainingEpochEvent event = null;
+        int epoch = -1;
+        for (EpochIterator.Batch batch = batches.next(); batch != null; batch = batches.next()) {
+            if (batch.getEpoch() != epoch) {
+                endShuffledEpoch(batches, checkpointer, learningRate, monitor, event, epoch);
+                epoch = batch.getEpoch();
+                event = new TrainingEpochEvent();
+                event.begin();
+                if (monitor != null) {
+                    monitor.beginEpoch(epoch);
+                }
+            }
+            double[] activated = batch.getFeatures();
+            int[] labels = batch.getLabels();
+            for (int i = 0; i < batch.getSize(); i++) {
+                double predicted_value = step(activated, i * width, labels[i], learningRate);
+                if (monitor != null) {
+                    monitor.record(predicted_value, labels[i]);
+                }
+            }
+        }
+        endShuffledEpoch(batches, checkpointer, learningRate, monitor, event, epoch);
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, data.getRows(), batches.getEpochs() - first);
+    }
+
+    /**
+     * Reports the end of an epoch of shuffledPasses, if one has started, and checkpoints it if due.
+     */
+    private void endShuffledEpoch(EpochIterator batches, Checkpointer checkpointer, double learningRate,
+    TrainingMonitor monitor, TrainingEpochEvent event, int epoch) {
+        if (event == null) {
+            return;
+        }
+        if (monitor != null) {
+            monitor.endEpoch();
+        }
+        event.finish(this.id, "shuffled", epoch, batches.getData().getRows());
+        if (checkpointer != null && checkpointer.isDue(epoch + 1, epoch + 1 == batches.getEpochs())) {
+            checkpointer.submit(new Checkpoint(this, epoch + 1, learningRate, batches.getSeed()));
+        }
+    }
+
+    /**
+     * To train on a columnar FeatureMatrix like train(FeatureMatrix, int), saving a Checkpoint
+     * whenever the Checkpointer says one is due and after the last epoch. The checkpoint is
+     * written on the thread of the Checkpointer, so the epochs never wait for the disk.
+     * @param data the rows to train on, which must have as many features as the Model has weights;
+     * a SparseMatrix is not supported
+     * @param epochs the number of times you want to train and adjust the weights for maximum precision and accuracy
+     * @param checkpointer where and how often to save checkpoints
+     */
+    public void train(FeatureMatrix data, int epochs, Checkpointer checkpointer) {
+        checkEpochs(epochs);
+        checkDense(data, "Checkpointed training");
+        passes(data, 0, epochs, 0.01, checkpointer);
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, data.getRows(), epochs);
+    }
+
+    /**
+     * To carry on a checkpointed run of train(FeatureMatrix, int, Checkpointer) that was cut short.
+     * If the file of the Checkpointer holds a checkpoint, the weights, bias and fast math setting
+     * of this Model are restored from it and training continues after its last completed epoch,
+     * at its learning rate, so the result is the same as if the run had never stopped. Without a
+     * checkpoint, training starts from the current weights.
+     * @param data the same rows the run was started on
+     * @param epochs the total number of epochs of the run, including those already completed
+     * @param checkpointer where and how often to save checkpoints, usually at the same file
+     * @return the number of epochs the checkpoint had completed, 0 if there was none
+     * @throws IOException if the checkpoint cannot be read or is not a valid, intact checkpoint
+     */
+    public int resume(FeatureMatrix data, int epochs, Checkpointer checkpointer) throws IOException {
+        checkEpochs(epochs);
+        checkDense(data, "Checkpointed training");
+        Checkpoint checkpoint = checkpointer.readLatest();
+        int first = 0;
+        double learningRate = 0.01;
+        if (checkpoint != null) {
+            checkMatches(checkpoint);
+            if (checkpoint.getRandomState() != 0L) {
+                throw new IllegalArgumentException(checkpoint + " was taken by a shuffled run; resume it with " +
+                    "resume(EpochIterator, Checkpointer)");
+            }
+            checkpoint.restore(this);
+            first = Math.min(checkpoint.getEpoch(), epochs);
+            learningRate = checkpoint.getLearningRate();
+        }
+        if (first < epochs) {
+            passes(data, first, epochs, learningRate, checkpointer);
+            modelHistory.record(this.id, ModelEvent.Kind.TRAINED, data.getRows(), epochs - first);
+        }
+        return first;
+    }
+
+    /**
+     * Makes sure a Checkpoint was taken of a Model with the activation type and width of this one.
+     */
+    private void checkMatches(Checkpoint checkpoint) {
+        if (checkpoint.getActivationType() != this.activationType
+            || checkpoint.getWeights().length != this.weights.length) {
+            throw new IllegalArgumentException(checkpoint + " does not match Model " + this.id + " (" +
+                this.weights.length + " weights, " + this.activationType + ")");
+        }
+    }
+
+    /**
+     * Checks the width of the data, and that it is not a SparseMatrix, for the training modes
+     * that read every row through copyRow and so would make each one dense.
+     * @param mode the name of the training mode, for the error message
+     * @return the number of features in each row
+     */
+    private int checkDense(FeatureMatrix data, String mode) {
+        int width = checkWidth(data.getWidth());
+        if (data instanceof SparseMatrix) {
+            throw new IllegalArgumentException(mode + " does not support a SparseMatrix, whose rows would " +
+                "become dense; use train(FeatureMatrix, int)");
+        }
+        return width;
+    }
+
+    /**
+     * Runs the per-sample passes from epoch first up to epoch epochs over dense rows, checkpointing
+     * after each one that is due when there is a Checkpointer.
+     */
+    private void passes(FeatureMatrix data, int first, int epochs, double learningRate, Checkpointer checkpointer) {
+        int rows = data.getRows();
+        Dataset cached = activatedRows(data);
+        double[] activated = (cached == null) ? new double[this.weights.length] : cached.getFeatures();
+        TrainingMonitor monitor = TrainingMonitor.of(this.trainingListener);
+        if (checkpointer != null) {
+            checkpointer.begin(first);
+        }
+        for (int i = first; i < epochs; i++) {
+            pass(data, cached, activated, rows, learningRate, monitor, i, false);
+            if (checkpointer != null && checkpointer.isDue(i + 1, i + 1 == epochs)) {
+                checkpointer.submit(new Checkpoint(this, i + 1, learningRate, 0L));
+            }
+        }
+    }
+
+    /**
+     * To train on a columnar FeatureMatrix for at most maxEpochs epochs, stopping early once the
+     * monitored loss stops improving. The updates are the same per-sample updates as
+     * train(FeatureMatrix, int), at the learning rate the schedule gives each epoch. Without a
+     * validation split, the monitored loss is the mean loss of each training pass, accumulated
+     * while the pass runs, so watching it costs no extra pass over the data. When the EarlyStopping
+     * shuffles, the split and the passes read a RowView of the data in its seeded order.
+     * @param data the rows to train on, which must have as many features as the Model has weights;
+     * with a validation split, the last rows, or the last in the shuffled order, are held out;
+     * a SparseMatrix is not supported
+     * @param maxEpochs the largest number of passes over the training rows
+     * @param stopping the validation split, patience, minimum delta and learning rate schedule to use
+     * @return a report with the epochs run, the best epoch and why training stopped
+     */
+    public EarlyStoppingReport train(FeatureMatrix data, int maxEpochs, EarlyStopping stopping) {
+        checkEpochs(maxEpochs);
+        int width = checkDense(data, "Early stopping");
+        if (stopping.isShuffle()) {
+            data = shuffled(data, stopping.getSeed());
+        }
+        int rows = data.getRows();
+        int held = (int) Math.round(rows * stopping.getValidationFraction());
+        int training = rows - held;
+        if (training < 1) {
+            throw new IllegalArgumentException("A validation fraction of " + stopping.getValidationFraction() +
+            " leaves no rows to train on out of " + rows);
+        }
+        Dataset cached = activatedRows(data);
+        double[] activated = (cached == null) ? new double[width] : cached.getFeatures();
+        TrainingMonitor monitor = TrainingMonitor.of(this.trainingListener);
+        long started = System.nanoTime();
+        double[] losses = new double[maxEpochs];
+        double[] bestWeights = this.weights.clone();
+        double bestBias = this.bias;
+        int bestEpoch = 0;
+        double worst = 0;
+        int stalled = 0;
+        int epochs = 0;
+        EarlyStoppingReport.StopReason reason = EarlyStoppingReport.StopReason.MAX_EPOCHS;
+        while (epochs < maxEpochs) {
+            double rate = stopping.getSchedule().rate(epochs);
+            double trainingLoss = pass(data, cached, activated, training, rate, monitor, epochs, held == 0);
+            double loss = (held == 0) ? trainingLoss / training : loss(data, cached, training, rows) / held;
+            losses[epochs] = loss;
+            if (epochs == 0 || loss < losses[bestEpoch] - stopping.getMinDelta()) {
+                bestEpoch = epochs;
+                worst = loss;
+                stalled = 0;
+                if (stopping.isRestoreBestWeights()) {
+                    System.arraycopy(this.weights, 0, bestWeights, 0, width);
+                    bestBias = this.bias;
+                }
+            } else {
+                worst = Math.max(worst, loss);
+                stalled++;
+            }
+            epochs++;
+            if (stalled >= stopping.getPatience()) {
+                reason = (worst - losses[bestEpoch] <= stopping.getMinDelta())
+                    ? EarlyStoppingReport.StopReason.CONVERGED : EarlyStoppingReport.StopReason.NO_IMPROVEMENT;
+                break;
+            }
+        }
+        if (stopping.isRestoreBestWeights() && bestEpoch != epochs - 1) {
+            System.arraycopy(bestWeights, 0, this.weights, 0, width);
+            this.bias = bestBias;
+        }
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, training, epochs);
+        return new EarlyStoppingReport(maxEpochs, bestEpoch, reason, Arrays.copyOf(losses, epochs),
+            System.nanoTime() - started);
+    }
+
+    /**
+     * Views the rows of a FeatureMatrix in the order EpochIterator.shuffle draws from a seed. A
+     * RowView is looked through, so the new view still reads the rows of its base and shares its
+     * entry in the ActivationCache.
+     */
+    private static RowView shuffled(FeatureMatrix data, long seed) {
+        int[] order = new int[data.getRows()];
+        EpochIterator.shuffle(order, seed);
+        if (data instanceof RowView) {
+            RowView view = (RowView) data;
+            for (int i = 0; i < order.length; i++) {
+                order[i] = view.baseRow(order[i]);
+            }
+            return new RowView(view.getBase(), order, 0, order.length);
+        }
+        return new RowView(data, order, 0, order.length);
+    }
+
+    /**
+     * Runs one epoch of per-sample updates over the first toRow rows of a FeatureMatrix, taking the
+     * activated rows from cached, as returned by activatedRows(data), when it is not null and
+     * activating them into the scratch row otherwise.
+     * @return the summed log-loss of the rows, each scored before its update, if trackLoss is set; 0 otherwise
+     */
+    private double pass(FeatureMatrix data, Dataset cached, double[] activated, int toRow, double learningRate,
+    TrainingMonitor monitor, int epoch, boolean trackLoss) {
+        int width = this.weights.length;
+        RowView view = (data instanceof RowView) ? (RowView) data : null;
+        double loss = 0;
+        TrainingEpochEvent event = new TrainingEpochEvent();
+        event.begin();
+        if (monitor != null) {
+            monitor.beginEpoch(epoch);
+        }
+        for (int r = 0; r < toRow; r++) {
+            int offset = 0;
+            if (cached == null) {
+                data.copyRow(r, activated, 0);
+                activate(activated, 0, activated, 0, width);
+            } else {
+                offset = ((view == null) ? r : view.baseRow(r)) * width;
+            }
+            int label = data.getLabel(r);
+            double predicted_value = step(activated, offset, label, learningRate);
+            if (trackLoss) {
+                loss += TrainingMonitor.logLoss(predicted_value, label);
+            }
+            if (monitor != null) {
+                monitor.record(predicted_value, label);
+            }
+        }
+        if (monitor != null) {
+            monitor.endEpoch();
+        }
+        event.finish(this.id, "sequential", epoch, toRow);
+        return loss;
+    }
+
+    /**
+     * Runs epochs of per-sample updates over a SparseMatrix, touching only the weights of the
+     * non-zeros of each row. A zero feature activates to activation(0): 0 for RELU and ELU,
+     * which leaves its weight alone, so the updates are exactly those of train(FeatureMatrix, int)
+     * on the dense rows. For SIGMOID it is 0.5 and every weight moves on every update; that
+     * shared move is kept in one offset, with the running sum of the weights, and only added
+     * to all the weights at the end, so an update still costs O(non-zeros).
+     */
+    private void trainSparse(SparseMatrix data, int epochs) {
+        int width = this.weights.length;
+        int rows = data.getRows();
+        int[] pointers = data.getRowPointers();
+        int[] indices = data.getIndices();
+        double background = background();
+        double[] activated = new double[data.getNonZeros()];
+        activate(data.getValues(), 0, activated, 0, activated.length);
+        double[] rowSums = null;
+        double weightSum = 0;
+        if (background != 0) {
+            rowSums = new double[rows];
+            for (int r = 0; r < rows; r++) {
+                for (int k = pointers[r]; k < pointers[r + 1]; k++) {
+                    activated[k] -= background;
+                    rowSums[r] += activated[k];
+                }
+            }
+            for (double weight : this.weights) {
+                weightSum += weight;
+            }
+        }
+        double shared = 0;
+        TrainingMonitor monitor = TrainingMonitor.of(this.trainingListener);
+        for (int i = 0; i < epochs; i++) {
+            TrainingEpochEvent event = new TrainingEpochEvent();
+            event.begin();
+            if (monitor != null) {
+                monitor.beginEpoch(i);
+            }
+            for (int r = 0; r < rows; r++) {
+                int from = pointers[r];
+                int to = pointers[r + 1];
+                double weightedSum = SparseKernels.dot(this.weights, indices, activated, from, to);
+                if (rowSums != null) {
+                    weightedSum += background * (weightSum + width * shared) + shared * rowSums[r];
+                }
+                int label = data.getLabel(r);
+                double predicted_value = sigmoid(weightedSum + this.bias);
+                double error_value = label - predicted_value;
+                if (rowSums != null) {
+                    shared += 0.01 * error_value * background;
+                }
+                weightSum += SparseKernels.axpy(this.weights, indices, activated, from, to, 0.01 * error_value);
+                this.bias = this.bias + (0.01 * error_value);
+                if (monitor != null) {
+                    monitor.record(predicted_value, label);
+                }
+            }
+            if (monitor != null) {
+                monitor.endEpoch();
+            }
+            event.finish(this.id, "sparse", i, rows);
+        }
+        if (shared != 0) {
+            for (int j = 0; j < width; j++) {
+                this.weights[j] += shared;
+            }
+        }
+    }
+
+    /**
+     * Returns what a zero feature activates to.
+     */
+    private double background() {
+        double[] zero = new double[1];
+        activate(zero, 0, zero, 0, 1);
+        return zero[0];
+    }
+
+    /**
+     * Makes a single online training update from one row, exactly like one step of
+     * train(FeatureMatrix, int). Meant for feeding rows one at a time from a stream;
+     * like the other training methods, it must not be called from several threads at once.
+     * @param features the array holding the raw features of the row
+     * @param offset the index of the first feature of the row
+     * @param label the label (0 or 1) of the row
+     * @param learningRate the step size of the update
+     * @return the sigmoid output of the Model for the row before the update
+     */
+    public double update(double[] features, int offset, int label, double learningRate) {
+        if (this.scratch == null) {
+            this.scratch = new double[this.weights.length];
+        }
+        activate(features, offset, this.scratch, 0, this.weights.length);
+        return step(this.scratch, 0, label, learningRate);
+    }
+
+    /**
+     * Makes one stochastic gradient descent update from an activated row.
+     * @param activated the array holding the activated features of the row
+     * @param offset the index of the first activated feature of the row
+     * @param label the label (0 or 1) of the row
+     * @param learningRate the step size of the update
+     * @return the sigmoid output of the Model for the row before the update
+     */
+    private double step(double[] activated, int offset, int label, double learningRate) {
+        double predicted_value = sigmoid(activatedSum(activated, offset));
+        double error_value = label - predicted_value;
+
+        for (int j = 0; j < this.weights.length; j++) {
+            this.weights[j] = this.weights[j] + (learningRate * error_value * activated[offset + j]);
+        }
+        this.bias = this.bias + (learningRate * error_value);
+        return predicted_value;
+    }
+
+    /**
+     * To train on a columnar FeatureMatrix with data-parallel mini-batch gradient descent. Each batch
+     * is split across config.getParallelism() fork-join workers and the mean gradient of the
+     * batch is applied once, so the same seed, data and parallelism always produce bit-identical
+     * weights. Like train(FeatureMatrix, int), this makes exactly epochs passes over the data.
+     * @param data the rows to train on, which must have as many features as the Model has weights;
+     * a SparseMatrix is not supported
+     * @param epochs the number of passes over the data
+     * @param config the learning rate, batch size and parallelism to use
+     */
+    public void train(FeatureMatrix data, int epochs, TrainingConfig config) {
+        checkEpochs(epochs);
+        checkDense(data, "Mini-batch training");
+        MiniBatchTrainer.train(this, data, epochs, config);
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, data.getRows(), epochs);
+    }
+
+    /**
+     * To train on a columnar FeatureMatrix with lock-free asynchronous (Hogwild-style) SGD. Each of
+     * config.getParallelism() threads runs per-sample updates over its own slice of the rows
+     * against shared weights and bias, without locks, so the result is not reproducible
+     * between runs. Makes exactly epochs passes over every slice.
+     * @param data the rows to train on, which must have as many features as the Model has weights;
+     * a SparseMatrix is not supported
+     * @param epochs the number of passes over the data
+     * @param config the learning rate and number of threads to use; the batch size is ignored
+     * @return a report with the per-thread throughput and the final loss
+     */
+    public TrainingReport trainAsync(FeatureMatrix data, int epochs, TrainingConfig config) {
+        checkEpochs(epochs);
+        checkDense(data, "Asynchronous training");
+        TrainingReport report = HogwildTrainer.train(this, data, epochs, config);
+        modelHistory.record(this.id, ModelEvent.Kind.TRAINED, data.getRows(), epochs);
+        return report;
+    }
+
+    /**
+     * Computes the mean log-loss (binary cross-entropy) of the Model over a FeatureMatrix,
+     * without touching the prediction counters or the Model history.
+     * @param data the rows to evaluate, which must have as many features as the Model has weights
+     * @return the mean log-loss, or 0 if the FeatureMatrix has no rows
+     */
+    public double loss(FeatureMatrix data) {
+        checkWidth(data.getWidth());
+        int rows = data.getRows();
+        return (rows == 0) ? 0.0 : loss(data, activatedRows(data), 0, rows) / rows;
+    }
+
+    /**
+     * Sums the log-loss of the Model over rows [fromRow, toRow) of a FeatureMatrix, reading the
+     * activated rows from cached, as returned by activatedRows(data), when it is not null.
+     * A SparseMatrix is scored a block at a time by predictSparse.
+     */
+    private double loss(FeatureMatrix data, Dataset cached, int fromRow, int toRow) {
+        int width = this.weights.length;
+        if (data instanceof SparseMatrix) {
+            double[] predicted = new double[Math.min(BLOCK_ROWS, toRow - fromRow)];
+            double total = 0;
+            for (int start = fromRow; start < toRow; start += BLOCK_ROWS) {
+                int end = Math.min(toRow, start + BLOCK_ROWS);
+                predictSparse((SparseMatrix) data, start, end, null, predicted);
+                for (int r = start; r < end; r++) {
+                    total += TrainingMonitor.logLoss(predicted[r - start], data.getLabel(r));
+                }
+            }
+            return total;
+        }
+        RowView view = (data instanceof RowView) ? (RowView) data : null;
+        double[] row = (cached == null) ? new double[width] : cached.getFeatures();
+        double total = 0;
+        for (int r = fromRow; r < toRow; r++) {
+            double predicted_value;
+            if (cached == null) {
+                data.copyRow(r, row, 0);
+                predicted_value = sigmoid(weightedSum(row, 0));
+            } else {
+                predicted_value = sigmoid(activatedSum(row, ((view == null) ? r : view.baseRow(r)) * width));
+            }
+            total += TrainingMonitor.logLoss(predicted_value, data.getLabel(r));
+        }
+        return total;
+    }
+
+    /**
+     * Makes sure a number of epochs is at least 1.
+     * @param epochs the number of epochs to train for
+     */
+    private static void checkEpochs(int epochs) {
+        if (epochs < 1) {
+            throw new IllegalArgumentException("The model must train on data at least once, but epochs was " +
+            epochs);
+        }
+    }
+
+    /**
+     * Makes sure a row width matches the number of weights of this Model.
+     * @param width the number of features in each row of the data
+     * @return the width, once it is known to be valid
+     */
+    private int checkWidth(int width) {
+        if (width != this.weights.length) {
+            throw new IllegalArgumentException("Model " + this.id + " expects " +
+            this.weights.length + " features per row, but the data has " + width);
+        }
+        return width;
     }
 
     /**
      * To predict whether the specific person is a fan or not of ChatGPT,
      * based on their features and the updated weights to minimize deviance
      * from their label instance field, which indicates whether they are
-     * actually a fan of ChatGPT.
+     * actually a fan of ChatGPT. When the MetricsRegistry is enabled, the latency of the
+     * call is recorded in it. The prediction only goes into the Model history when
+     * prediction history is on; see setPredictionHistory.
      * @param p the specific Person object who you want to make the Prediction for
      * @return the integer value of 1 or 0, indicating whether they are a fan of ChatGPT
      */
     public int predict(Person p) {
+        boolean timed = METRICS.isEnabled();
+        long started = timed ? System.nanoTime() : 0L;
         int final_prediction;
-        double[] activated = new double[p.getFeatures().length];
-        for (int i = 0; i < activated.length; i++) {
-            if (this.activationType.name().equals("ELU")) {
-                activated[i] = Activation.elu(p.getFeatures()[i], 1.0);
-            } else if (this.activationType.name().equals("RELU")) {
-                activated[i] = Activation.relu(p.getFeatures()[i]);
-            } else if (this.activationType.name().equals("SIGMOID")) {
-                activated[i] = Activation.sigmoid(p.getFeatures()[i]);
-            } else {
-                System.out.println("Error! You are attempting to use an invalid " +
-                "activation function. Please try again.");
-            }
-        }
-        double weightedSum = 0;
-        for (int i = 0; i < this.weights.length; i++) {
-            weightedSum += (this.weights[i] * activated[i]);
-        }
-        weightedSum += this.bias;
-        double predicted_value = Activation.sigmoid(weightedSum);
+        double predicted_value = probability(p.getFeatures());
         if (predicted_value > 0.5) {
             final_prediction = 1;
         } else {
             final_prediction = 0;
         }
-        totalPredictions++;
+        this.predictions.increment();
+        totalPredictions.increment();
         if (final_prediction == p.getLabel()) {
-            correctPredictions++;
+            this.correct.increment();
+            correctPredictions.increment();
+        }
+        if (predictionHistory) {
+            modelHistory.record(this.id, (final_prediction == 1) ? ModelEvent.Kind.PREDICTED_FAN :
+            ModelEvent.Kind.PREDICTED_NOT_FAN, 1, 0, p.getName());
+        }
+        if (timed) {
+            PREDICT_NANOS.record(System.nanoTime() - started);
         }
-        modelHistory += "Model " + this.id + ": Predicted " + p.getName() + " to " +
-        ((final_prediction == 0) ? "not":"") + " be a fan of ChatGPT.\n";
         return final_prediction;
     }
 
+    /**
+     * Computes the sigmoid output that predict(Person) thresholds at 0.5, without touching the
+     * prediction counters or the Model history.
+     * @param features the raw features of one row
+     * @return the probability that the row is labelled 1
+     */
+    double probability(double[] features) {
+        checkWidth(features.length);
+        return sigmoid(weightedSum(features, 0));
+    }
+
+    /**
+     * Scores every row of a FeatureMatrix. Equivalent to predictBatch(data, 0, data.getRows(), labels, probabilities).
+     * @param data the rows to score
+     * @param labels receives the predicted label (1 or 0) of each row, or null if not needed
+     * @param probabilities receives the sigmoid output of each row, or null if not needed
+     */
+    public void predictBatch(FeatureMatrix data, int[] labels, double[] probabilities) {
+        predictBatch(data, 0, data.getRows(), labels, probabilities);
+    }
+
+    /**
+     * Scores a block of rows of a FeatureMatrix into caller-supplied arrays. Neither the prediction
+     * counters nor the Model history are touched, so a batch can be scored from any number of threads.
+     * Rows are scored through the batched Kernels, reusing a per-thread scratch block. When the
+     * call covers every row and the activated rows are in the ActivationCache of the Model, or the
+     * data is a Dataset or an
+     * OffHeapDataset (copied in a block at a time), each result
+     * is exactly what predict(Person) returns for the same features with the scalar kernels and stays
+     * within Kernels.ULP_TOLERANCE of it with the SIMD kernels; any other FeatureMatrix that is not
+     * read from the cache is scored row by row, exactly like predict(Person). A SparseMatrix is scored
+     * in time proportional to its non-zeros. Every call is a BatchScoredEvent in a flight recording
+     * and, when the MetricsRegistry is enabled, a sample of its latency and row count.
+     * @param data the rows to score
+     * @param fromRow the first row to score, inclusive
+     * @param toRow the last row to score, exclusive
+     * @param labels receives the predicted label of row fromRow + i at index i, or null if not needed
+     * @param probabilities receives the sigmoid output of row fromRow + i at index i, or null if not needed
+     */
+    public void predictBatch(FeatureMatrix data, int fromRow, int toRow, int[] labels, double[] probabilities) {
+        boolean timed = METRICS.isEnabled();
+        long started = timed ? System.nanoTime() : 0L;
+        BatchScoredEvent event = new BatchScoredEvent();
+        event.begin();
+        scoreBatch(data, fromRow, toRow, labels, probabilities);
+        event.finish(this.id, toRow - fromRow);
+        if (timed) {
+            BATCH_NANOS.record(System.nanoTime() - started);
+            BATCH_ROWS.record(toRow - fromRow);
+        }
+    }
+
+    /**
+     * Does the work of predictBatch, without the recording around it.
+     */
+    private void scoreBatch(FeatureMatrix data, int fromRow, int toRow, int[] labels, double[] probabilities) {
+        int width = checkWidth(data.getWidth());
+        if (fromRow < 0 || toRow > data.getRows() || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Rows " + fromRow + " to " + toRow +
+            " are out of range for " + data.getRows() + " rows");
+        }
+        // Only a call over every row uses the cache, so a few rows never activate the whole matrix.
+        Dataset cached = (fromRow == 0 && toRow == data.getRows()) ? activatedRows(data) : null;
+        if (cached != null && data instanceof RowView) {
+            RowView view = (RowView) data;
+            for (int r = fromRow; r < toRow; r++) {
+                double predicted_value = sigmoid(activatedSum(cached.getFeatures(), view.baseRow(r) * width));
+                if (labels != null) {
+                    labels[r - fromRow] = (predicted_value > 0.5) ? 1 : 0;
+                }
+                if (probabilities != null) {
+                    probabilities[r - fromRow] = predicted_value;
+                }
+            }
+            return;
+        }
+        if (cached != null) {
+            predictBlocks(cached.getFeatures(), true, fromRow, toRow, labels, probabilities, 0);
+            return;
+        }
+        if (data instanceof Dataset) {
+            predictBlocks(((Dataset) data).getFeatures(), false, fromRow, toRow, labels, probabilities, 0);
+            return;
+        }
+        if (data instanceof SparseMatrix) {
+            predictSparse((SparseMatrix) data, fromRow, toRow, labels, probabilities);
+            return;
+        }
+        if (data instanceof OffHeapDataset) {
+            OffHeapDataset offHeap = (OffHeapDataset) data;
+            double[] staging = STAGING.get();
+            if (staging.length < BLOCK_ROWS * width) {
+                staging = new double[BLOCK_ROWS * width];
+                STAGING.set(staging);
+            }
+            for (int start = fromRow; start < toRow; start += BLOCK_ROWS) {
+                int count = Math.min(BLOCK_ROWS, toRow - start);
+                offHeap.copyRows(start, count, staging, 0);
+                predictBlocks(staging, false, 0, count, labels, probabilities, start - fromRow);
+            }
+            return;
+        }
+        double[] features = new double[width];
+        for (int r = fromRow; r < toRow; r++) {
+            data.copyRow(r, features, 0);
+            double predicted_value = sigmoid(weightedSum(features, 0));
+            if (labels != null) {
+                labels[r - fromRow] = (predicted_value > 0.5) ? 1 : 0;
+            }
+            if (probabilities != null) {
+                probabilities[r - fromRow] = predicted_value;
+            }
+        }
+    }
+
+    /**
+     * Scores rows of a SparseMatrix, activating the non-zeros of each row into a per-thread
+     * scratch array; zero features contribute activation(0) times the sum of the weights.
+     */
+    private void predictSparse(SparseMatrix data, int fromRow, int toRow, int[] labels, double[] probabilities) {
+        int[] pointers = data.getRowPointers();
+        int[] indices = data.getIndices();
+        double background = background();
+        double backgroundSum = 0;
+        if (background != 0) {
+            for (double weight : this.weights) {
+                backgroundSum += weight;
+            }
+            backgroundSum *= background;
+        }
+        double[] staging = STAGING.get();
+        for (int r = fromRow; r < toRow; r++) {
+            int from = pointers[r];
+            int count = pointers[r + 1] - from;
+            if (staging.length < count) {
+                staging = new double[count];
+                STAGING.set(staging);
+            }
+            activate(data.getValues(), from, staging, 0, count);
+            double weightedSum = 0;
+            for (int k = 0; k < count; k++) {
+                weightedSum += this.weights[indices[from + k]] * (staging[k] - background);
+            }
+            double predicted_value = sigmoid(weightedSum + backgroundSum + this.bias);
+            if (labels != null) {
+                labels[r - fromRow] = (predicted_value > 0.5) ? 1 : 0;
+            }
+            if (probabilities != null) {
+                probabilities[r - fromRow] = predicted_value;
+            }
+        }
+    }
+
+    /**
+     * Scores rows of a row-major feature array block by block with the batched Kernels:
+     * a block of features is activated at once (unless it already is), the weighted sums
+     * of the block are computed at once, and the output sigmoid is applied to all of them
+     * at once. The block lives in a per-thread scratch array, so steady-state scoring
+     * allocates nothing. The result of row fromRow + i goes to index outOffset + i.
+     */
+    private void predictBlocks(double[] features, boolean activated, int fromRow, int toRow,
+    int[] labels, double[] probabilities, int outOffset) {
+        Kernels kernels = Kernels.get();
+        int width = this.weights.length;
+        int sums = BLOCK_ROWS * width;
+        double[] block = BLOCK.get();
+        if (block.length < sums + BLOCK_ROWS) {
+            block = new double[sums + BLOCK_ROWS];
+            BLOCK.set(block);
+        }
+        for (int start = fromRow; start < toRow; start += BLOCK_ROWS) {
+            int count = Math.min(BLOCK_ROWS, toRow - start);
+            if (activated) {
+                kernels.weightedSums(features, start * width, count, width, this.weights, this.bias, block, sums);
+            } else {
+                activate(kernels, this.activationType, features, start * width, block, 0, count * width);
+                kernels.weightedSums(block, 0, count, width, this.weights, this.bias, block, sums);
+            }
+            activate(kernels, ActivationType.SIGMOID, block, sums, block, sums, count);
+            for (int i = 0; i < count; i++) {
+                double predicted_value = block[sums + i];
+                if (labels != null) {
+                    labels[outOffset + start - fromRow + i] = (predicted_value > 0.5) ? 1 : 0;
+                }
+                if (probabilities != null) {
+                    probabilities[outOffset + start - fromRow + i] = predicted_value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies an activation function to a block of values with the batched Kernels, or with
+     * FastActivation in fast math mode.
+     */
+    private void activate(Kernels kernels, ActivationType type, double[] src, int srcOffset,
+    double[] dst, int dstOffset, int length) {
+        if (this.fastMath) {
+            FastActivation.activate(type, src, srcOffset, dst, dstOffset, length);
+        } else {
+            kernels.activate(type, src, srcOffset, dst, dstOffset, length);
+        }
+    }
+
+    /**
+     * Applies the activation function of this Model to a run of raw features, exactly
+     * or, in fast math mode, with FastActivation.
+     */
+    private void activate(double[] src, int srcOffset, double[] dst, int dstOffset, int length) {
+        if (this.fastMath) {
+            FastActivation.activate(this.activationType, src, srcOffset, dst, dstOffset, length);
+        } else {
+            Activation.activate(this.activationType, src, srcOffset, dst, dstOffset, length);
+        }
+    }
+
+    /**
+     * Applies the output sigmoid, exactly or, in fast math mode, with FastActivation.
+     */
+    private double sigmoid(double weightedSum) {
+        return this.fastMath ? FastActivation.sigmoid(weightedSum) : Activation.sigmoid(weightedSum);
+    }
+
+    /**
+     * Computes the weighted sum plus bias of one row whose features are already activated.
+     * @param activated the array holding the activated features of the row
+     * @param offset the index of the first activated feature of the row
+     * @return the value fed to the output sigmoid for the row
+     */
+    private double activatedSum(double[] activated, int offset) {
+        double weightedSum = 0;
+        for (int j = 0; j < this.weights.length; j++) {
+            weightedSum += (this.weights[j] * activated[offset + j]);
+        }
+        return weightedSum + this.bias;
+    }
+
+    /**
+     * Looks up the activated copy of a FeatureMatrix in the ActivationCache of this Model,
+     * computing it on a miss. Used by the training modes as well as by prediction. A RowView
+     * is never cached, since that would copy the rows it shows; see activatedRows. Neither is a
+     * SparseMatrix, which would become dense.
+     * @param data the raw rows
+     * @return the activated rows, or null if there is no cache or the rows do not fit in it
+     */
+    Dataset cachedActivations(FeatureMatrix data) {
+        if (this.activationCache == null || data instanceof RowView || data instanceof SparseMatrix) {
+            return null;
+        }
+        return this.activationCache.get(data, this.activationType, 1.0);
+    }
+
+    /**
+     * Like cachedActivations, but looks through a RowView: for a view, returns the activated
+     * copy of the rows it shows, where row r of the view is row view.baseRow(r).
+     * @param data the raw rows
+     * @return the activated rows, or null if there is no cache or the rows do not fit in it
+     */
+    private Dataset activatedRows(FeatureMatrix data) {
+        return cachedActivations((data instanceof RowView) ? ((RowView) data).getBase() : data);
+    }
+
+    /**
+     * Computes the weighted sum plus bias of one raw row, activating each
+     * feature as it is consumed so no scratch row is needed.
+     * @param features the array holding the raw features of the row
+     * @param offset the index of the first feature of the row
+     * @return the value fed to the output sigmoid for the row
+     */
+    private double weightedSum(double[] features, int offset) {
+        double weightedSum = 0;
+        boolean fast = this.fastMath;
+        switch (this.activationType) {
+            case ELU:
+                for (int j = 0; j < this.weights.length; j++) {
+                    weightedSum += (this.weights[j] * (fast ? FastActivation.elu(features[offset + j], 1.0) :
+                    Activation.elu(features[offset + j], 1.0)));
+                }
+                break;
+            case RELU:
+                for (int j = 0; j < this.weights.length; j++) {
+                    weightedSum += (this.weights[j] * Activation.relu(features[offset + j]));
+                }
+                break;
+            case SIGMOID:
+                for (int j = 0; j < this.weights.length; j++) {
+                    weightedSum += (this.weights[j] * (fast ? FastActivation.sigmoid(features[offset + j]) :
+                    Activation.sigmoid(features[offset + j])));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported activation type " + this.activationType);
+        }
+        return weightedSum + this.bias;
+    }
+
     /**
      * Prints out the stats of the model based on the data stored in the static fields.
+     * Only the most recent events of the history are kept and printed.
      */
     public static void printModelStats() {
+        long total = totalPredictions.sum();
+        long correctTotal = correctPredictions.sum();
         double accuracy;
-        if (totalPredictions < 1) {
+        if (total < 1) {
             accuracy = 0;
         } else {
-            accuracy = (((double) correctPredictions) / totalPredictions) * 100;
+            accuracy = (((double) correctTotal) / total) * 100;
         }
         System.out.println("Model Statistics");
-        System.out.printf("Total Predictions made: %d%n", totalPredictions);
+        System.out.printf("Total Predictions made: %d%n", total);
         System.out.printf("Overall accuracy: %4.2f%%%n", accuracy);
         System.out.println("Model History:");
-        if (modelHistory.trim().isEmpty()) {
+        List<ModelEvent> events = modelHistory.snapshot();
+        if (events.isEmpty()) {
             System.out.println("None!");
         } else {
-            System.out.println(modelHistory);
+            for (ModelEvent event : events) {
+                System.out.println(event);
+            }
         }
     }
 
@@ -200,27 +1154,156 @@ public class Model {
     }
 
     /**
-     * Getter method for the static field of modelHistory.
-     * @return returns the history of the Model class in String format
+     * Getter method for the static field of modelHistory, rendered as text.
+     * @return returns the most recent history of the Model class in String format, one event per line
      */
     public static String getModelHistory() {
-        return modelHistory;
+        StringBuilder history = new StringBuilder();
+        for (ModelEvent event : modelHistory.snapshot()) {
+            history.append(event).append('\n');
+        }
+        return history.toString();
+    }
+
+    /**
+     * Getter method for the static field of modelHistory.
+     * @return returns an immutable snapshot of the most recent events of the Model class, oldest first
+     */
+    public static List<ModelEvent> getModelEvents() {
+        return modelHistory.snapshot();
+    }
+
+    /**
+     * Getter method for the static field of predictionHistory.
+     * @return returns whether every predict(Person) call is recorded in the Model history
+     */
+    public static boolean isPredictionHistory() {
+        return predictionHistory;
+    }
+
+    /**
+     * Setter method for the static field of predictionHistory. It is off unless the JVM runs
+     * with -Dperceptron.predictionHistory=true, because recording claims a sequence number
+     * shared by every thread and allocates a ModelEvent on each predict(Person) call; training
+     * is always recorded, and the prediction counters are kept either way.
+     * @param enabled whether every predict(Person) call is recorded in the Model history
+     */
+    public static void setPredictionHistory(boolean enabled) {
+        predictionHistory = enabled;
     }
 
     /**
      * Getter method for the static field of totalPredictions.
-     * @return returns the integer number of total predictions the Model class has made
+     * @return returns the number of total predictions the Model class has made, capped at
+     * Integer.MAX_VALUE; see getTotalPredictionCount for the exact count
      */
     public static int getTotalPredictions() {
-        return totalPredictions;
+        return (int) Math.min(totalPredictions.sum(), Integer.MAX_VALUE);
     }
 
     /**
      * Getter method for the static field of correctPredictions.
-     * @return returns the integer number of correct predictions the Model class has made
+     * @return returns the number of correct predictions the Model class has made, capped at
+     * Integer.MAX_VALUE; see getCorrectPredictionTotal for the exact count
      */
     public static int getCorrectPredictions() {
-        return correctPredictions;
+        return (int) Math.min(correctPredictions.sum(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Getter method for the static field of totalPredictions, as a long.
+     * @return returns the number of total predictions the Model class has made
+     */
+    public static long getTotalPredictionCount() {
+        return totalPredictions.sum();
+    }
+
+    /**
+     * Getter method for the static field of correctPredictions, as a long.
+     * @return returns the number of correct predictions the Model class has made
+     */
+    public static long getCorrectPredictionTotal() {
+        return correctPredictions.sum();
+    }
+
+    /**
+     * Getter method for the number of predictions made by this Model.
+     * @return returns the number of predictions the specific Model object has made
+     */
+    public long getPredictionCount() {
+        return this.predictions.sum();
+    }
+
+    /**
+     * Getter method for the number of correct predictions made by this Model.
+     * @return returns the number of correct predictions the specific Model object has made
+     */
+    public long getCorrectPredictionCount() {
+        return this.correct.sum();
+    }
+
+    /**
+     * Getter method for the instance field of activationCache.
+     * @return returns the cache of activated features used by the specific Model object, or null if none
+     */
+    public ActivationCache getActivationCache() {
+        return this.activationCache;
+    }
+
+    /**
+     * Setter method for the activationCache instance field. Models share ActivationCache.getShared(),
+     * which is off unless turned on by a system property, unless given another cache. A cache keys
+     * matrices by identity, so a matrix changed in place (for example through Dataset.getFeatures())
+     * must be invalidated in the cache before it is used again.
+     * @param activationCache the cache of activated features to use, or null to activate rows on every pass
+     */
+    public void setActivationCache(ActivationCache activationCache) {
+        this.activationCache = activationCache;
+    }
+
+    /**
+     * Getter method for the instance field of fastMath.
+     * @return returns true if the specific Model object uses the approximate activation functions
+     */
+    public boolean isFastMath() {
+        return this.fastMath;
+    }
+
+    /**
+     * Setter method for the fastMath instance field. In fast math mode, every training mode except
+     * train(Person[], int), and every prediction, computes sigmoid and ELU with FastActivation instead
+     * of Math.exp. Activated features read from the ActivationCache stay exact, as they are only
+     * computed once; the output sigmoid of every row is still approximated.
+     * @param fastMath true to trade at most FastActivation.SIGMOID_MAX_ERROR and ELU_MAX_ERROR per
+     * activation for speed, false (the default) for the exact functions
+     */
+    public void setFastMath(boolean fastMath) {
+        this.fastMath = fastMath;
+    }
+
+    /**
+     * Getter method for the instance field of trainingListener.
+     * @return returns the listener the specific Model object reports training progress to
+     */
+    public TrainingListener getTrainingListener() {
+        return this.trainingListener;
+    }
+
+    /**
+     * Setter method for the trainingListener instance field. Models start with TrainingListener.NONE,
+     * which keeps the training loops free of any bookkeeping, I/O or formatting.
+     * @param trainingListener the listener to report training progress to, or null for none
+     */
+    public void setTrainingListener(TrainingListener trainingListener) {
+        this.trainingListener = (trainingListener == null) ? TrainingListener.NONE : trainingListener;
+    }
+
+    /**
+     * Setter method for the bias instance field, used by the training modes.
+     * @param bias the new bias of the Model
+     */
+    void setBias(double bias) {
+        this.bias = bias;
     }
 
     /**
@@ -260,6 +1343,9 @@ public class Model {
         if (!this.activationType.name().equals(otherModel.activationType.name())) {
             return false;
         }
+        if (this.weights.length != otherModel.weights.length) {
+            return false;
+        }
         for (int i = 0; i < this.weights.length; i++) {
             if (this.weights[i] != otherModel.weights[i]) {
                 return false;
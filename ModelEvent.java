@@ -0,0 +1,139 @@
+/**
+ * An immutable record of something a Model did, kept in the bounded
+ * history of the Model class instead of a growing String.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class ModelEvent {
+    /**
+     * The kinds of events a Model records.
+     */
+    public enum Kind {
+        TRAINED, PREDICTED_FAN, PREDICTED_NOT_FAN
+    }
+
+    private final long sequence;
+    private final int modelId;
+    private final Kind kind;
+    private final long rowCount;
+    private final int epochs;
+    private final long timestamp;
+    private final String subject;
+
+    /**
+     * Constructor for the ModelEvent class.
+     * @param sequence the position of the event in the history it was recorded in
+     * @param modelId the id of the Model the event is about
+     * @param kind what the Model did
+     * @param rowCount the number of rows involved
+     * @param epochs the number of epochs trained, or 0 for predictions
+     * @param timestamp the time of the event in milliseconds since the epoch
+     */
+    public ModelEvent(long sequence, int modelId, Kind kind, long rowCount, int epochs, long timestamp) {
+        this(sequence, modelId, kind, rowCount, epochs, timestamp, null);
+    }
+
+    /**
+     * Constructor for the ModelEvent class, for an event about one named row.
+     * @param sequence the position of the event in the history it was recorded in
+     * @param modelId the id of the Model the event is about
+     * @param kind what the Model did
+     * @param rowCount the number of rows involved
+     * @param epochs the number of epochs trained, or 0 for predictions
+     * @param timestamp the time of the event in milliseconds since the epoch
+     * @param subject the name of the Person predicted for, or null if the event is not about one
+     */
+    public ModelEvent(long sequence, int modelId, Kind kind, long rowCount, int epochs, long timestamp,
+    String subject) {
+        this.sequence = sequence;
+        this.modelId = modelId;
+        this.kind = kind;
+        this.rowCount = rowCount;
+        this.epochs = epochs;
+        this.timestamp = timestamp;
+        this.subject = subject;
+    }
+
+    /**
+     * Getter method for the instance field of sequence.
+     * @return returns the position of the event in its history, starting at 0
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    /**
+     * Getter method for the instance field of modelId.
+     * @return returns the id of the Model the event is about
+     */
+    public int getModelId() {
+        return this.modelId;
+    }
+
+    /**
+     * Getter method for the instance field of kind.
+     * @return returns what the Model did
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Getter method for the instance field of rowCount.
+     * @return returns the number of rows involved in the event
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * Getter method for the instance field of epochs.
+     * @return returns the number of epochs trained, or 0 for predictions
+     */
+    public int getEpochs() {
+        return this.epochs;
+    }
+
+    /**
+     * Getter method for the instance field of timestamp.
+     * @return returns the time of the event in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Getter method for the instance field of subject.
+     * @return returns the name of the Person predicted for, or null if the event is not about one
+     */
+    public String getSubject() {
+        return this.subject;
+    }
+
+    /**
+     * Returns the event as one line of Model history. A prediction for a named Person reads
+     * as it always has, with the name of the Person.
+     * @return a String describing the event
+     */
+    @Override
+    public String toString() {
+        switch (this.kind) {
+            case TRAINED:
+                return "Model " + this.modelId + ": Trained on " + this.rowCount + " data points for " +
+                this.epochs + " epochs.";
+            case PREDICTED_FAN:
+                if (this.subject != null) {
+                    return "Model " + this.modelId + ": Predicted " + this.subject + " to be a fan of ChatGPT.";
+                }
+                return "Model " + this.modelId + ": Predicted " + this.rowCount +
+                " data point(s) to be a fan of ChatGPT.";
+            default:
+                if (this.subject != null) {
+                    return "Model " + this.modelId + ": Predicted " + this.subject + " to not be a fan of ChatGPT.";
+                }
+                return "Model " + this.modelId + ": Predicted " + this.rowCount +
+                " data point(s) to not be a fan of ChatGPT.";
+        }
+    }
+}
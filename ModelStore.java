@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.zip.CRC32C;
+
+/**
+ * A read-only collection of trained Models loaded from one memory-mapped snapshot file,
+ * so a serving process can come up without retraining. Opening a store maps the file
+ * and checks it; each Model is only decoded when it is looked up, through an on-disk
+ * hash index, in constant time.
+ *
+ * The file format is little-endian:
+ * a 32 byte header (magic "PMDL", version, model count, index slots, CRC32C checksum
+ * of everything after the header), then the index, a power-of-two open-addressing
+ * hash table of 16 byte slots (int id, 4 unused bytes, long record offset, 0 when the
+ * slot is empty), then one record per Model: int id, byte activation type, byte flags
+ * (bit 0 set when the Model uses fast math), 2 unused bytes, int width, 4 unused bytes,
+ * double bias, and the weights as doubles. Files written before the flags byte hold 0
+ * there, so their Models load with fast math off, as they were saved.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class ModelStore {
+    static final int MAGIC = 0x4C444D50;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 24;
+    private static final int FAST_MATH_FLAG = 1;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int slots;
+
+    private ModelStore(ByteBuffer buffer, int count, int slots) {
+        this.buffer = buffer;
+        this.count = count;
+        this.slots = slots;
+    }
+
+    /**
+     * Writes a snapshot of Models to a file. The snapshot is written to a temporary file
+     * next to the target and moved over it, so readers never see a partly written file.
+     * @param models the Models to save, with distinct ids
+     * @param path the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Collection<Model> models, Path path) throws IOException {
+        int slots = Integer.highestOneBit(Math.max(1, models.size()) * 2 - 1) << 1;
+        long size = HEADER_BYTES + (long) slots * SLOT_BYTES;
+        for (Model model : models) {
+            size += RECORD_HEADER_BYTES + (long) Double.BYTES * model.getWeights().length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A snapshot cannot be larger than " + Integer.MAX_VALUE + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        int offset = HEADER_BYTES + slots * SLOT_BYTES;
+        for (Model model : models) {
+            int slot = find(buffer, slots, model.getID());
+            if (buffer.getLong(slotPosition(slot) + 8) != 0) {
+                throw new IllegalArgumentException("Model id " + model.getID() + " appears more than once");
+            }
+            buffer.putInt(slotPosition(slot), model.getID());
+            buffer.putLong(slotPosition(slot) + 8, offset);
+
+            double[] weights = model.getWeights();
+            buffer.position(offset);
+            buffer.putInt(model.getID()).put((byte) model.getActivationType().ordinal());
+            buffer.put((byte) (model.isFastMath() ? FAST_MATH_FLAG : 0)).put((byte) 0).put((byte) 0);
+            buffer.putInt(weights.length).putInt(0).putDouble(model.getBias());
+            for (double weight : weights) {
+                buffer.putDouble(weight);
+            }
+            offset = buffer.position();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, (int) size - HEADER_BYTES);
+        buffer.position(0);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+        buffer.putInt(models.size()).putInt(slots).putLong(crc.getValue());
+        buffer.position(0);
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps a snapshot file into memory and validates its header, size and checksum.
+     * @param path the file to open
+     * @return the store
+     * @throws IOException if the file cannot be read or is not a valid, intact snapshot
+     */
+    public static ModelStore open(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " has an invalid size for a model snapshot");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a model snapshot");
+        }
+        short version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported version " + version);
+        }
+        int count = buffer.getInt(8);
+        int slots = buffer.getInt(12);
+        if (count < 0 || Integer.bitCount(slots) != 1 || slots <= count
+            || (long) slots * SLOT_BYTES > buffer.capacity() - HEADER_BYTES) {
+            throw new IOException(path + " has an invalid index of " + slots + " slots for " + count + " models");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(HEADER_BYTES));
+        if (crc.getValue() != buffer.getLong(16)) {
+            throw new IOException(path + " is corrupt: its checksum does not match");
+        }
+        return new ModelStore(buffer, count, slots);
+    }
+
+    /**
+     * Looks up a Model by id and decodes a fresh copy of it.
+     * @param id the id of the Model
+     * @return a new Model with the saved id, activation type, fast math mode, weights and bias, or null if there is none
+     */
+    public Model get(int id) {
+        int slot = find(this.buffer, this.slots, id);
+        long offset = this.buffer.getLong(slotPosition(slot) + 8);
+        if (offset == 0) {
+            return null;
+        }
+        int position = (int) offset;
+        ActivationType type = ActivationType.values()[this.buffer.get(position + 4)];
+        double[] weights = new double[this.buffer.getInt(position + 8)];
+        double bias = this.buffer.getDouble(position + 16);
+        for (int j = 0; j < weights.length; j++) {
+            weights[j] = this.buffer.getDouble(position + RECORD_HEADER_BYTES + j * Double.BYTES);
+        }
+        Model model = new Model(id, type, weights, bias);
+        model.setFastMath((this.buffer.get(position + 5) & FAST_MATH_FLAG) != 0);
+        return model;
+    }
+
+    /**
+     * Tells whether the store holds a Model with an id.
+     * @param id the id of the Model
+     * @return true if get(id) would return a Model
+     */
+    public boolean contains(int id) {
+        return this.buffer.getLong(slotPosition(find(this.buffer, this.slots, id)) + 8) != 0;
+    }
+
+    /**
+     * Getter method for the ids of the stored Models.
+     * @return returns the ids of every Model in the store, in index order
+     */
+    public int[] getIds() {
+        int[] ids = new int[this.count];
+        int next = 0;
+        for (int slot = 0; slot < this.slots; slot++) {
+            if (this.buffer.getLong(slotPosition(slot) + 8) != 0) {
+                ids[next++] = this.buffer.getInt(slotPosition(slot));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Getter method for the number of Models.
+     * @return returns the number of Models in the store
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Finds the slot holding an id, or the empty slot where it would go, by linear probing.
+     */
+    private static int find(ByteBuffer buffer, int slots, int id) {
+        int mask = slots - 1;
+        int slot = mix(id) & mask;
+        while (buffer.getLong(slotPosition(slot) + 8) != 0 && buffer.getInt(slotPosition(slot)) != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    /**
+     * Spreads the bits of an id, so sequential ids do not form long probe runs.
+     */
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
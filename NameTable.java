@@ -0,0 +1,105 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An append-only table of names kept outside the heap, as UTF-8 bytes in one direct buffer
+ * plus a direct buffer of offsets, so a name per row costs no String, char array or object
+ * header until it is read back. Both buffers double in size as names are added. Adding is
+ * not thread-safe; once filled, the table can be read from any number of threads.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class NameTable {
+    /** The most bytes of names one table can hold. */
+    static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+    /** The most names one table can hold, bounded by the offsets fitting in one buffer. */
+    static final int MAX_NAMES = MAX_BYTES / Integer.BYTES - 1;
+
+    private ByteBuffer bytes;
+    private ByteBuffer offsets;
+    private int size;
+
+    /**
+     * Constructor for the NameTable class.
+     * @param expectedNames the number of names to reserve room for; the table grows past it if needed
+     */
+    public NameTable(int expectedNames) {
+        if (expectedNames < 0 || expectedNames >= MAX_NAMES) {
+            throw new IllegalArgumentException("Expected names must be between 0 and " + (MAX_NAMES - 1) +
+            ", was " + expectedNames);
+        }
+        this.bytes = ByteBuffer.allocateDirect((int) Math.min(MAX_BYTES, Math.max(16, expectedNames * 16L)));
+        this.offsets = ByteBuffer.allocateDirect((expectedNames + 1) * Integer.BYTES);
+    }
+
+    /**
+     * Appends a name.
+     * @param name the name to add
+     * @return the index of the name, which is the number of names added before it
+     */
+    public int add(String name) {
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        int start = this.offsets.getInt(this.size * Integer.BYTES);
+        if ((long) start + utf8.length > MAX_BYTES || this.size == MAX_NAMES) {
+            throw new IllegalStateException("The name table is full at " + this.size + " names and " +
+            start + " bytes");
+        }
+        if (start + utf8.length > this.bytes.capacity()) {
+            this.bytes = grow(this.bytes, start, (int) Math.min(MAX_BYTES,
+                Math.max((long) this.bytes.capacity() * 2, (long) start + utf8.length)));
+        }
+        if ((this.size + 2) * Integer.BYTES > this.offsets.capacity()) {
+            this.offsets = grow(this.offsets, (this.size + 1) * Integer.BYTES,
+                (int) Math.min((MAX_NAMES + 1) * Integer.BYTES, this.offsets.capacity() * 2L));
+        }
+        ByteBuffer target = this.bytes.duplicate();
+        target.position(start);
+        target.put(utf8);
+        this.offsets.putInt((this.size + 1) * Integer.BYTES, start + utf8.length);
+        return this.size++;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int used, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        ByteBuffer source = buffer.duplicate();
+        source.position(0).limit(used);
+        grown.put(source);
+        grown.clear();
+        return grown;
+    }
+
+    /**
+     * Returns one name, decoded from the table.
+     * @param index the index add returned for the name
+     * @return the name
+     */
+    public String get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Name " + index + " is out of range for " + this.size + " names");
+        }
+        int start = this.offsets.getInt(index * Integer.BYTES);
+        int end = this.offsets.getInt((index + 1) * Integer.BYTES);
+        byte[] utf8 = new byte[end - start];
+        ByteBuffer source = this.bytes.duplicate();
+        source.position(start);
+        source.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Getter method for the number of names.
+     * @return returns the number of names added
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Getter method for the memory the table holds outside the heap.
+     * @return returns the capacity of the name and offset buffers in bytes
+     */
+    public long getMemoryBytes() {
+        return (long) this.bytes.capacity() + this.offsets.capacity();
+    }
+}
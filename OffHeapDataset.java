@@ -0,0 +1,217 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * A FeatureMatrix whose features and labels live outside the heap, in direct buffers,
+ * so a dataset of hundreds of millions of rows adds nothing for the garbage collector to
+ * trace or copy: the heap holds a handful of buffer objects whatever the row count. Names
+ * are not needed to train or score, so they go in an optional NameTable beside the rows.
+ *
+ * Features are stored as native-order doubles in pieces of at most 1 GiB, each holding
+ * whole rows, and labels as one byte per row. Model.predictBatch copies them a block of
+ * rows at a time into its scratch block and scores them with the batched Kernels, with the
+ * same results as for a Dataset holding the same rows. The memory is given back when the
+ * dataset becomes unreachable, like any direct buffer, and counts against
+ * -XX:MaxDirectMemorySize. Rows are written with setRow and can be read from any number
+ * of threads once written.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class OffHeapDataset implements FeatureMatrix {
+    /** Features are allocated in pieces of at most this many bytes, each holding whole rows. */
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    private final int rows;
+    private final int width;
+    private final int rowsPerSegment;
+    private final DoubleBuffer[] segments;
+    private final ByteBuffer labels;
+    private NameTable names;
+
+    /**
+     * Constructor for the OffHeapDataset class. Every feature and label starts at 0.
+     * @param rows the number of rows
+     * @param width the number of features in each row
+     */
+    public OffHeapDataset(int rows, int width) {
+        this(rows, width, Math.max(1, SEGMENT_BYTES / (Math.max(1, width) * Double.BYTES)));
+    }
+
+    /**
+     * Allocates the rows in pieces of rowsPerSegment rows.
+     */
+    OffHeapDataset(int rows, int width, int rowsPerSegment) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be at least 1, was " + width);
+        }
+        if (rows < 0) {
+            throw new IllegalArgumentException("Rows cannot be negative, was " + rows);
+        }
+        this.rows = rows;
+        this.width = width;
+        this.rowsPerSegment = rowsPerSegment;
+        int count = (rows + rowsPerSegment - 1) / rowsPerSegment;
+        this.segments = new DoubleBuffer[count];
+        for (int i = 0; i < count; i++) {
+            int segmentRows = Math.min(rowsPerSegment, rows - i * rowsPerSegment);
+            this.segments[i] = ByteBuffer.allocateDirect(segmentRows * width * Double.BYTES)
+                .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        this.labels = ByteBuffer.allocateDirect(Math.max(1, rows));
+    }
+
+    /**
+     * Copies the rows of a FeatureMatrix outside the heap.
+     * @param data the rows to copy
+     * @return an OffHeapDataset holding the same rows in the same order
+     */
+    public static OffHeapDataset of(FeatureMatrix data) {
+        OffHeapDataset copy = new OffHeapDataset(data.getRows(), data.getWidth());
+        double[] row = new double[data.getWidth()];
+        for (int r = 0; r < data.getRows(); r++) {
+            data.copyRow(r, row, 0);
+            copy.setRow(r, row, 0, data.getLabel(r));
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the features, labels and names of an array of Person objects outside the heap.
+     * @param data contains the Person objects
+     * @return an OffHeapDataset holding the same rows in the same order, with a NameTable
+     */
+    public static OffHeapDataset fromPeople(Person[] data) {
+        int width = (data.length == 0) ? 5 : data[0].getFeatures().length;
+        OffHeapDataset copy = new OffHeapDataset(data.length, width);
+        NameTable names = new NameTable(data.length);
+        for (int i = 0; i < data.length; i++) {
+            double[] row = data[i].getFeatures();
+            if (row.length != width) {
+                throw new IllegalArgumentException("Person " + i + " has " + row.length +
+                " features, expected " + width);
+            }
+            copy.setRow(i, row, 0, data[i].getLabel());
+            names.add(data[i].getName());
+        }
+        copy.setNames(names);
+        return copy;
+    }
+
+    /**
+     * Writes the features and label of one row.
+     * @param row the index of the row
+     * @param features the array holding the features
+     * @param offset the index in features of the first feature of the row
+     * @param label the label (0 or 1) of the row
+     */
+    public void setRow(int row, double[] features, int offset, int label) {
+        checkRow(row);
+        if (label != 0 && label != 1) {
+            throw new IllegalArgumentException("Label must be 0 or 1, was " + label);
+        }
+        DoubleBuffer segment = this.segments[row / this.rowsPerSegment].duplicate();
+        segment.position((row % this.rowsPerSegment) * this.width);
+        segment.put(features, offset, this.width);
+        this.labels.put(row, (byte) label);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= this.rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of range for " + this.rows + " rows");
+        }
+    }
+
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows in the dataset
+     */
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the instance field of width.
+     * @return returns the number of features in each row
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row
+     * @return the label (0 or 1) of the row
+     */
+    @Override
+    public int getLabel(int row) {
+        return this.labels.get(row);
+    }
+
+    /**
+     * Copies the features of a single row out of its buffer into an array.
+     * @param row the index of the row
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    @Override
+    public void copyRow(int row, double[] dst, int offset) {
+        DoubleBuffer segment = this.segments[row / this.rowsPerSegment];
+        int index = (row % this.rowsPerSegment) * this.width;
+        for (int j = 0; j < this.width; j++) {
+            dst[offset + j] = segment.get(index + j);
+        }
+    }
+
+    /**
+     * Copies the features of consecutive rows into an array with bulk reads, one per piece
+     * of the buffer the rows span.
+     */
+    void copyRows(int fromRow, int count, double[] dst, int offset) {
+        int row = fromRow;
+        int end = fromRow + count;
+        while (row < end) {
+            int segmentIndex = row / this.rowsPerSegment;
+            int first = row - segmentIndex * this.rowsPerSegment;
+            int n = Math.min(end - row, this.rowsPerSegment - first);
+            DoubleBuffer segment = this.segments[segmentIndex].duplicate();
+            segment.position(first * this.width);
+            segment.get(dst, offset + (row - fromRow) * this.width, n * this.width);
+            row += n;
+        }
+    }
+
+    /**
+     * Getter method for the names of the rows.
+     * @return returns the NameTable holding the name of each row, or null if there is none
+     */
+    public NameTable getNames() {
+        return this.names;
+    }
+
+    /**
+     * Setter method for the names of the rows.
+     * @param names a NameTable with one name per row, or null to drop the names
+     */
+    public void setNames(NameTable names) {
+        if (names != null && names.size() != this.rows) {
+            throw new IllegalArgumentException("Expected " + this.rows + " names, found " + names.size());
+        }
+        this.names = names;
+    }
+
+    /**
+     * Getter method for the memory the dataset holds outside the heap.
+     * @return returns the bytes of features, labels and names allocated outside the heap
+     */
+    public long getMemoryBytes() {
+        long bytes = this.labels.capacity();
+        for (DoubleBuffer segment : this.segments) {
+            bytes += (long) segment.capacity() * Double.BYTES;
+        }
+        return bytes + ((this.names == null) ? 0 : this.names.getMemoryBytes());
+    }
+}
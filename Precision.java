@@ -0,0 +1,12 @@
+/**
+ * The number formats a QuantizedModel or QuantizedFeatures can store values in.
+ * FLOAT32 halves the memory of a double and keeps about 7 significant digits;
+ * INT8 stores one byte per value with a scale (and, for activations, a zero point),
+ * an eighth of a double, at about 2 significant digits.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public enum Precision {
+    FLOAT32, INT8
+}
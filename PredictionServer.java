@@ -0,0 +1,191 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves predictions of a Model over HTTP on the loopback interface, using the HTTP server
+ * built into the JDK. Concurrent requests are coalesced by a MicroBatcher, so many clients
+ * asking for one row each are scored a block at a time.
+ *
+ * POST /predict takes the features of one row as comma-separated numbers and answers
+ * "label,probability". GET /metrics answers one "name value" line per metric: the number
+ * of requests, the p50/p99/max latency in microseconds from the request being read to the
+ * answer being ready, and the mean/p50/p99 batch size, followed by the histograms of the shared
+ * MetricsRegistry when it is enabled. Malformed rows get a 400 and rows
+ * that do not fit in the queue a 503.
+ *
+ * Run the JVM with -Dsun.net.httpserver.nodelay=true. Without it the JDK server leaves
+ * Nagle's algorithm on, which holds each small answer back until the client's delayed ACK,
+ * about 40 ms per request on a keep-alive connection. The server does not set the property
+ * itself, since it is read once and applies to every HttpServer in the JVM.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class PredictionServer implements AutoCloseable {
+    /** The most rows that can wait for a batch before requests are turned away. */
+    public static final int QUEUE_CAPACITY = 8192;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MicroBatcher batcher;
+    private final Histogram latency = new Histogram();
+
+    /**
+     * Constructor for the PredictionServer class. The server does not accept connections
+     * until it is started.
+     * @param model the Model to serve; later changes to it are not seen
+     * @param port the port to listen on, or 0 for any free port
+     * @param maxBatchSize the most rows scored together; 1 turns batching off
+     * @param maxDelayMicros the longest a row waits for its batch to fill up, in microseconds
+     * @param threads the number of threads handling connections
+     * @throws IOException if the port cannot be bound
+     */
+    public PredictionServer(Model model, int port, int maxBatchSize, long maxDelayMicros, int threads)
+    throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A server needs at least one thread, was " + threads);
+        }
+        this.batcher = new MicroBatcher(model, maxBatchSize, TimeUnit.MICROSECONDS.toNanos(maxDelayMicros),
+            QUEUE_CAPACITY);
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            this.batcher.close();
+            throw e;
+        }
+        AtomicInteger next = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "prediction-server-" + next.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/predict", this::predict);
+        this.server.createContext("/metrics", this::metrics);
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    private void predict(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "Use POST\n");
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            long start = System.nanoTime();
+            double probability;
+            try {
+                probability = this.batcher.submit(parse(body)).get();
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage() + "\n");
+                return;
+            } catch (RejectedExecutionException e) {
+                respond(exchange, 503, e.getMessage() + "\n");
+                return;
+            } catch (ExecutionException e) {
+                respond(exchange, 500, e.getCause() + "\n");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "Interrupted\n");
+                return;
+            }
+            this.latency.record(System.nanoTime() - start);
+            respond(exchange, 200, ((probability > 0.5) ? 1 : 0) + "," + probability + "\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        try {
+            Histogram batches = this.batcher.getBatchSizes();
+            String text = String.format(Locale.ROOT,
+                "requests %d%nlatency_p50_us %.1f%nlatency_p99_us %.1f%nlatency_max_us %.1f%n" +
+                "batch_size_mean %.2f%nbatch_size_p50 %d%nbatch_size_p99 %d%n",
+                this.latency.getCount(), this.latency.getPercentile(50) / 1e3, this.latency.getPercentile(99) / 1e3,
+                this.latency.getMax() / 1e3, batches.getMean(), batches.getPercentile(50), batches.getPercentile(99));
+            MetricsRegistry registry = MetricsRegistry.getShared();
+            respond(exchange, 200, registry.isEnabled() ? text + registry.format() : text);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Parses a comma-separated row of features.
+     */
+    static double[] parse(String body) {
+        String[] fields = body.trim().split(",");
+        double[] features = new double[fields.length];
+        for (int j = 0; j < fields.length; j++) {
+            try {
+                features[j] = Double.parseDouble(fields[j].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Feature " + j + " is not a number: '" + fields[j].trim() + "'");
+            }
+        }
+        return features;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Getter method for the port the server listens on.
+     * @return returns the bound port, which is useful when the server was created with port 0
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Getter method for the latency of answered predictions.
+     * @return returns the histogram of the nanoseconds from a row being read to its answer being ready
+     */
+    public Histogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * Getter method for the sizes of the scored batches.
+     * @return returns the histogram of the number of rows in each batch
+     */
+    public Histogram getBatchSizes() {
+        return this.batcher.getBatchSizes();
+    }
+
+    /**
+     * Stops accepting connections, answers the rows already queued and stops all threads.
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.batcher.close();
+        this.executor.shutdownNow();
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Arrays;
+
 /**
  * To run predictions for whether the object of the Person
  * class is a fan of LLMs like ChatGPT. Will allow us to test
@@ -17,27 +19,36 @@ public class Predictor {
        Person p2 = new Person();
        Person p3 = new Person("Ronjan Mian", new double[]{0.82, 0.54, -0.23, 0.21, 0.58}, 0);
        Person[] data = new Person[]{p1, p2, p3};
+       Model.setPredictionHistory(true);
 
        Model m1 = new Model(32, ActivationType.ELU);
        Model m2 = new Model(47, ActivationType.SIGMOID);
        Model m3 = new Model(62, ActivationType.RELU);
 
+       m1.setTrainingListener(System.out::println);
        m1.train(data, 10);
        System.out.println(m1.predict(p1));
        System.out.println(m1.predict(p2));
        System.out.println(m1.predict(p3));
        Model.printModelStats();
 
+       m2.setTrainingListener(System.out::println);
        m2.train(data, 20);
        System.out.println(m2.predict(p1));
        System.out.println(m2.predict(p2));
        System.out.println(m2.predict(p3));
        Model.printModelStats();
 
+       m3.setTrainingListener(System.out::println);
        m3.train(data, 30);
        System.out.println(m3.predict(p1));
        System.out.println(m3.predict(p2));
        System.out.println(m3.predict(p3));
        Model.printModelStats();
+
+       Ensemble ensemble = new Ensemble(Arrays.asList(m1, m2, m3));
+       for (Person p : data) {
+           System.out.println(ensemble.predict(p, Ensemble.Combiner.MAJORITY_VOTE));
+       }
     }
 }
@@ -0,0 +1,140 @@
+/**
+ * A read-only, reduced-precision copy of a FeatureMatrix, for keeping large feature
+ * stores in memory. FLOAT32 rows take half the memory of a Dataset, INT8 rows an eighth:
+ * every feature of a Person lies in [-1, 1], so INT8 stores it as a signed byte with a
+ * fixed scale of 1/127 (and saturates anything outside that range). Labels take one byte.
+ *
+ * copyRow returns the dequantized values, so any Model can train on or score the rows;
+ * a QuantizedModel of the same Precision reads the stored values directly.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class QuantizedFeatures implements FeatureMatrix {
+    /** The value of one INT8 step; code c stands for c / 127. */
+    public static final double INT8_SCALE = 1.0 / 127;
+
+    private final Precision precision;
+    private final float[] floats;
+    private final byte[] codes;
+    private final byte[] labels;
+    private final int width;
+    private final int rows;
+
+    private QuantizedFeatures(Precision precision, float[] floats, byte[] codes, byte[] labels, int width) {
+        this.precision = precision;
+        this.floats = floats;
+        this.codes = codes;
+        this.labels = labels;
+        this.width = width;
+        this.rows = labels.length;
+    }
+
+    /**
+     * Builds a reduced-precision copy of the rows of a FeatureMatrix.
+     * @param data the rows to copy
+     * @param precision the format to store the features in
+     * @return the copy
+     */
+    public static QuantizedFeatures of(FeatureMatrix data, Precision precision) {
+        int width = data.getWidth();
+        int rows = data.getRows();
+        float[] floats = (precision == Precision.FLOAT32) ? new float[rows * width] : null;
+        byte[] codes = (precision == Precision.INT8) ? new byte[rows * width] : null;
+        byte[] labels = new byte[rows];
+        double[] row = new double[width];
+        for (int r = 0; r < rows; r++) {
+            data.copyRow(r, row, 0);
+            for (int j = 0; j < width; j++) {
+                if (floats != null) {
+                    floats[r * width + j] = (float) row[j];
+                } else {
+                    codes[r * width + j] = quantize(row[j]);
+                }
+            }
+            labels[r] = (byte) data.getLabel(r);
+        }
+        return new QuantizedFeatures(precision, floats, codes, labels, width);
+    }
+
+    /**
+     * Maps a feature to its INT8 code, rounding to the nearest step and saturating at -1 and 1.
+     */
+    static byte quantize(double feature) {
+        double clamped = Math.max(-1.0, Math.min(1.0, feature));
+        return (byte) Math.round(clamped * 127);
+    }
+
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows stored
+     */
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the number of features in each row.
+     * @return returns the number of features in each row
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row
+     * @return the label (0 or 1) of the row
+     */
+    @Override
+    public int getLabel(int row) {
+        return this.labels[row];
+    }
+
+    /**
+     * Copies the dequantized features of a single row into an array.
+     * @param row the index of the row
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    @Override
+    public void copyRow(int row, double[] dst, int offset) {
+        int base = row * this.width;
+        for (int j = 0; j < this.width; j++) {
+            dst[offset + j] = (this.floats != null) ? this.floats[base + j] : this.codes[base + j] * INT8_SCALE;
+        }
+    }
+
+    /**
+     * Getter method for the instance field of precision.
+     * @return returns the format the features are stored in
+     */
+    public Precision getPrecision() {
+        return this.precision;
+    }
+
+    /**
+     * Getter method for the memory taken by the rows.
+     * @return returns the number of bytes of features and labels stored
+     */
+    public long getMemoryBytes() {
+        long values = (long) this.rows * this.width;
+        return ((this.floats != null) ? Float.BYTES * values : values) + this.rows;
+    }
+
+    /**
+     * The stored FLOAT32 features, row-major, or null for INT8.
+     */
+    float[] getFloats() {
+        return this.floats;
+    }
+
+    /**
+     * The stored INT8 codes, row-major, or null for FLOAT32.
+     */
+    byte[] getCodes() {
+        return this.codes;
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * An inference-only, reduced-precision snapshot of a trained Model, for serving large
+ * fleets of models in little memory. FLOAT32 keeps the weights as floats and scores the
+ * features rounded to float, accumulating in double. INT8 keeps one signed byte per weight with a per-model scale, and
+ * scores every row with an integer dot product:
+ *
+ * the raw features are quantized to INT8 codes like QuantizedFeatures does; since a code
+ * has only 255 values, the activation function becomes a lookup table from code to an
+ * activated value, quantized with the scale and zero point that map the activation's
+ * range over [-1, 1] onto a byte. Each product of a weight and an activation code fits in
+ * an int; they are summed in a long, which cannot overflow at any width, and rescaled in
+ * double once per row.
+ *
+ * Use drift() to measure how far the predictions move from the double-precision Model.
+ * Like Model.predictBatch, scoring does not touch the prediction counters or the Model
+ * history, and can run on any number of threads at once.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class QuantizedModel {
+    private static final int DRIFT_BLOCK = 4096;
+    private static final int BLOCK_ROWS = 256;
+    private static final ThreadLocal<double[]> BLOCK = ThreadLocal.withInitial(() -> new double[0]);
+
+    private final int id;
+    private final ActivationType activationType;
+    private final Precision precision;
+    private final int width;
+    private final float[] floatWeights;
+    private final byte[] weightCodes;
+    private final int[] activatedCodes;
+    private final float scale;
+    private final float bias;
+
+    /**
+     * Constructor for the QuantizedModel class.
+     * @param model the trained Model to take the weights, bias and activation type from
+     * @param precision the format to store the weights in
+     */
+    public QuantizedModel(Model model, Precision precision) {
+        double[] weights = model.getWeights();
+        this.id = model.getID();
+        this.activationType = model.getActivationType();
+        this.precision = precision;
+        this.width = weights.length;
+        this.bias = (float) model.getBias();
+        if (precision == Precision.FLOAT32) {
+            this.floatWeights = new float[this.width];
+            for (int j = 0; j < this.width; j++) {
+                this.floatWeights[j] = (float) weights[j];
+            }
+            this.weightCodes = null;
+            this.activatedCodes = null;
+            this.scale = 1.0f;
+            return;
+        }
+        double largest = 0;
+        for (double weight : weights) {
+            largest = Math.max(largest, Math.abs(weight));
+        }
+        double weightScale = (largest == 0) ? 1.0 : largest / 127;
+        this.floatWeights = null;
+        this.weightCodes = new byte[this.width];
+        for (int j = 0; j < this.width; j++) {
+            this.weightCodes[j] = (byte) Math.round(weights[j] / weightScale);
+        }
+
+        // Every activation function is monotonic, so its range over [-1, 1] is [f(-1), f(1)].
+        double[] ends = {-1.0, 1.0};
+        Activation.activate(this.activationType, ends, 0, ends, 0, 2);
+        double activationScale = (ends[1] - ends[0]) / 255;
+        long zeroPoint = -128 - Math.round(ends[0] / activationScale);
+        this.activatedCodes = new int[256];
+        double[] feature = new double[1];
+        for (int code = -128; code <= 127; code++) {
+            feature[0] = Math.max(-127, code) * QuantizedFeatures.INT8_SCALE;
+            Activation.activate(this.activationType, feature, 0, feature, 0, 1);
+            long q = Math.max(-128, Math.min(127, Math.round(feature[0] / activationScale) + zeroPoint));
+            this.activatedCodes[code + 128] = (int) (q - zeroPoint);
+        }
+        this.scale = (float) (weightScale * activationScale);
+    }
+
+    /**
+     * Computes the sigmoid output for one row of raw features.
+     * @param features the array holding the raw features of the row
+     * @param offset the index of the first feature of the row
+     * @return the sigmoid output, between 0 and 1
+     */
+    public double probability(double[] features, int offset) {
+        if (this.precision == Precision.FLOAT32) {
+            double sum = 0;
+            for (int j = 0; j < this.width; j++) {
+                sum += (this.floatWeights[j] * activate((float) features[offset + j]));
+            }
+            return Activation.sigmoid(sum + this.bias);
+        }
+        long acc = 0;
+        for (int j = 0; j < this.width; j++) {
+            acc += this.weightCodes[j] * this.activatedCodes[QuantizedFeatures.quantize(features[offset + j]) + 128];
+        }
+        return Activation.sigmoid(this.scale * (double) acc + this.bias);
+    }
+
+    /**
+     * Predicts whether a Person is a fan of ChatGPT.
+     * @param p the Person to make the prediction for
+     * @return the integer value of 1 or 0, indicating whether they are a fan of ChatGPT
+     */
+    public int predict(Person p) {
+        checkWidth(p.getFeatures().length);
+        return (probability(p.getFeatures(), 0) > 0.5) ? 1 : 0;
+    }
+
+    /**
+     * Scores a range of rows. Rows of a QuantizedFeatures with the same Precision are read
+     * without converting them to doubles first.
+     * @param data the rows to score, which must have as many features as the Model had weights
+     * @param fromRow the first row to score, inclusive
+     * @param toRow the last row to score, exclusive
+     * @param labels receives the predicted label of row fromRow + i at index i, or null if not needed
+     * @param probabilities receives the sigmoid output of row fromRow + i at index i, or null if not needed
+     */
+    public void predictBatch(FeatureMatrix data, int fromRow, int toRow, int[] labels, double[] probabilities) {
+        checkWidth(data.getWidth());
+        if (fromRow < 0 || toRow > data.getRows() || fromRow > toRow) {
+            throw new IndexOutOfBoundsException("Rows " + fromRow + " to " + toRow +
+            " are out of range for " + data.getRows() + " rows");
+        }
+        QuantizedFeatures stored = (data instanceof QuantizedFeatures
+            && ((QuantizedFeatures) data).getPrecision() == this.precision) ? (QuantizedFeatures) data : null;
+        if (this.precision == Precision.FLOAT32) {
+            predictFloat32(data, stored, fromRow, toRow, labels, probabilities);
+            return;
+        }
+        double[] row = new double[this.width];
+        for (int r = fromRow; r < toRow; r++) {
+            double predicted_value;
+            if (stored != null) {
+                predicted_value = probability(stored.getCodes(), r * this.width);
+            } else {
+                data.copyRow(r, row, 0);
+                predicted_value = probability(row, 0);
+            }
+            output(predicted_value, r - fromRow, labels, probabilities);
+        }
+    }
+
+    /**
+     * Scores FLOAT32 rows a block at a time: the features, rounded to float, are widened into a
+     * scratch block and activated with the batched Kernels, then multiplied by the float weights.
+     * Like Model.predictBatch, this is bit-identical to probability() with the scalar kernels.
+     */
+    private void predictFloat32(FeatureMatrix data, QuantizedFeatures stored, int fromRow, int toRow,
+    int[] labels, double[] probabilities) {
+        Kernels kernels = Kernels.get();
+        int width = this.width;
+        int sums = BLOCK_ROWS * width;
+        double[] block = BLOCK.get();
+        if (block.length < sums + BLOCK_ROWS) {
+            block = new double[sums + BLOCK_ROWS];
+            BLOCK.set(block);
+        }
+        for (int start = fromRow; start < toRow; start += BLOCK_ROWS) {
+            int count = Math.min(BLOCK_ROWS, toRow - start);
+            if (stored != null) {
+                float[] floats = stored.getFloats();
+                for (int k = 0, base = start * width; k < count * width; k++) {
+                    block[k] = floats[base + k];
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    data.copyRow(start + i, block, i * width);
+                }
+                for (int k = 0; k < count * width; k++) {
+                    block[k] = (float) block[k];
+                }
+            }
+            kernels.activate(this.activationType, block, 0, block, 0, count * width);
+            for (int i = 0; i < count; i++) {
+                double sum = 0;
+                for (int j = 0; j < width; j++) {
+                    sum += (this.floatWeights[j] * block[i * width + j]);
+                }
+                block[sums + i] = sum + this.bias;
+            }
+            kernels.activate(ActivationType.SIGMOID, block, sums, block, sums, count);
+            for (int i = 0; i < count; i++) {
+                output(block[sums + i], start - fromRow + i, labels, probabilities);
+            }
+        }
+    }
+
+    private static void output(double predicted_value, int index, int[] labels, double[] probabilities) {
+        if (labels != null) {
+            labels[index] = (predicted_value > 0.5) ? 1 : 0;
+        }
+        if (probabilities != null) {
+            probabilities[index] = predicted_value;
+        }
+    }
+
+    private double probability(byte[] codes, int offset) {
+        long acc = 0;
+        for (int j = 0; j < this.width; j++) {
+            acc += this.weightCodes[j] * this.activatedCodes[codes[offset + j] + 128];
+        }
+        return Activation.sigmoid(this.scale * (double) acc + this.bias);
+    }
+
+    /**
+     * Applies the activation function to a feature rounded to float.
+     */
+    private double activate(float feature) {
+        switch (this.activationType) {
+            case ELU:
+                return Activation.elu(feature, 1.0);
+            case RELU:
+                return Activation.relu(feature);
+            default:
+                return Activation.sigmoid(feature);
+        }
+    }
+
+    /**
+     * Compares the predictions of this QuantizedModel with those of a double-precision Model,
+     * normally the one it was made from, over a set of rows.
+     * @param reference the Model to compare with
+     * @param data the rows to score, which must have as many features as both Models have weights
+     * @return the label agreement, the probability error and the memory saved
+     */
+    public DriftReport drift(Model reference, FeatureMatrix data) {
+        checkWidth(data.getWidth());
+        int rows = data.getRows();
+        int[] expectedLabels = new int[Math.min(rows, DRIFT_BLOCK)];
+        double[] expected = new double[expectedLabels.length];
+        int[] actualLabels = new int[expectedLabels.length];
+        double[] actual = new double[expectedLabels.length];
+        long agreed = 0;
+        double maxError = 0;
+        double totalError = 0;
+        for (int start = 0; start < rows; start += DRIFT_BLOCK) {
+            int end = Math.min(rows, start + DRIFT_BLOCK);
+            reference.predictBatch(data, start, end, expectedLabels, expected);
+            predictBatch(data, start, end, actualLabels, actual);
+            for (int i = 0; i < end - start; i++) {
+                if (expectedLabels[i] == actualLabels[i]) {
+                    agreed++;
+                }
+                double error = Math.abs(expected[i] - actual[i]);
+                maxError = Math.max(maxError, error);
+                totalError += error;
+            }
+        }
+        return new DriftReport(this.precision, rows, agreed, maxError, (rows == 0) ? 0.0 : totalError / rows,
+            (long) Double.BYTES * (reference.getWeights().length + 1), getMemoryBytes());
+    }
+
+    private void checkWidth(int width) {
+        if (width != this.width) {
+            throw new IllegalArgumentException("Model " + this.id + " expects " +
+            this.width + " features per row, but the data has " + width);
+        }
+    }
+
+    /**
+     * Getter method for the memory taken by the parameters.
+     * @return returns the number of bytes of weights, scale and bias stored
+     */
+    public long getMemoryBytes() {
+        return (this.precision == Precision.FLOAT32) ? (long) Float.BYTES * (this.width + 1)
+            : this.width + 2L * Float.BYTES;
+    }
+
+    /**
+     * Getter method for the instance field of id.
+     * @return returns the id of the Model this was made from
+     */
+    public int getID() {
+        return this.id;
+    }
+
+    /**
+     * Getter method for the instance field of activationType.
+     * @return returns the activation type of the Model this was made from
+     */
+    public ActivationType getActivationType() {
+        return this.activationType;
+    }
+
+    /**
+     * Getter method for the instance field of precision.
+     * @return returns the format the weights are stored in
+     */
+    public Precision getPrecision() {
+        return this.precision;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * A zero-copy view of some of the rows of another FeatureMatrix, in a given order. A view
+ * holds only a reference to an index array, which many views can share: the folds of a
+ * KFold are all views over the same shuffled order, each either one contiguous run of it
+ * (a validation fold) or everything but that run (the matching training rows).
+ *
+ * Model looks through a view when it reads activated rows, so every view of the same data
+ * shares one entry in the ActivationCache instead of caching a copy per view.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class RowView implements FeatureMatrix {
+    private final FeatureMatrix base;
+    private final int[] order;
+    private final int start;
+    private final int gapStart;
+    private final int gapLength;
+    private final int rows;
+
+    /**
+     * Constructor for the RowView class, over the rows order[from] to order[to - 1].
+     * @param base the rows to view
+     * @param order the indexes of rows of base, which is used directly, not copied
+     * @param from the first position of order in the view, inclusive
+     * @param to the last position of order in the view, exclusive
+     */
+    public RowView(FeatureMatrix base, int[] order, int from, int to) {
+        this(base, order, from, to, to, to);
+    }
+
+    /**
+     * Constructor for the RowView class, over the rows order[from] to order[to - 1] except
+     * order[skipFrom] to order[skipTo - 1].
+     * @param base the rows to view
+     * @param order the indexes of rows of base, which is used directly, not copied
+     * @param from the first position of order in the view, inclusive
+     * @param to the last position of order in the view, exclusive
+     * @param skipFrom the first position of order left out, inclusive
+     * @param skipTo the last position of order left out, exclusive
+     */
+    public RowView(FeatureMatrix base, int[] order, int from, int to, int skipFrom, int skipTo) {
+        if (from < 0 || to > order.length || from > to || skipFrom < from || skipTo > to || skipFrom > skipTo) {
+            throw new IndexOutOfBoundsException("Invalid view of positions " + from + " to " + to +
+            " skipping " + skipFrom + " to " + skipTo + " of " + order.length);
+        }
+        for (int i = from; i < to; i++) {
+            if (order[i] < 0 || order[i] >= base.getRows()) {
+                throw new IndexOutOfBoundsException("Row " + order[i] + " is out of range for " +
+                base.getRows() + " rows");
+            }
+        }
+        this.base = base;
+        this.order = order;
+        this.start = from;
+        this.gapStart = skipFrom - from;
+        this.gapLength = skipTo - skipFrom;
+        this.rows = to - from - this.gapLength;
+    }
+
+    /**
+     * Maps a row of the view to the row of the base it shows.
+     * @param row the index of the row in the view
+     * @return the index of the same row in the base
+     */
+    public int baseRow(int row) {
+        if (row < 0 || row >= this.rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of range for " + this.rows + " rows");
+        }
+        return this.order[this.start + ((row < this.gapStart) ? row : row + this.gapLength)];
+    }
+
+    /**
+     * Getter method for the instance field of base.
+     * @return returns the FeatureMatrix the view shows rows of
+     */
+    public FeatureMatrix getBase() {
+        return this.base;
+    }
+
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows in the view
+     */
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the number of features in each row.
+     * @return returns the number of features in each row of the base
+     */
+    @Override
+    public int getWidth() {
+        return this.base.getWidth();
+    }
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row in the view
+     * @return the label (0 or 1) of the row
+     */
+    @Override
+    public int getLabel(int row) {
+        return this.base.getLabel(baseRow(row));
+    }
+
+    /**
+     * Copies the features of a single row into an array.
+     * @param row the index of the row in the view
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    @Override
+    public void copyRow(int row, double[] dst, int offset) {
+        this.base.copyRow(baseRow(row), dst, offset);
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * The portable, always available Kernels backend, built on plain loops over
+ * the Activation functions.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class ScalarKernels extends Kernels {
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void activate(ActivationType type, double[] src, int srcOffset,
+    double[] dst, int dstOffset, int length) {
+        Activation.activate(type, src, srcOffset, dst, dstOffset, length);
+    }
+
+    @Override
+    public void weightedSums(double[] matrix, int offset, int rows, int width,
+    double[] weights, double bias, double[] sums, int sumsOffset) {
+        for (int r = 0, base = offset; r < rows; r++, base += width) {
+            double weightedSum = 0;
+            for (int j = 0; j < width; j++) {
+                weightedSum += (weights[j] * matrix[base + j]);
+            }
+            sums[sumsOffset + r] = weightedSum + bias;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * The gather and scatter loops behind training and scoring on a SparseMatrix: the dot
+ * product of a dense weight vector with one sparse row, and the matching update of the
+ * weights the row touches. Both run in time proportional to the non-zeros of the row.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+final class SparseKernels {
+    private SparseKernels() {
+    }
+
+    /**
+     * Computes the sum of weights[indices[k]] * values[k] for k from from to to - 1,
+     * adding in the same order as a dense loop over the same row would.
+     */
+    static double dot(double[] weights, int[] indices, double[] values, int from, int to) {
+        double sum = 0;
+        for (int k = from; k < to; k++) {
+            sum += weights[indices[k]] * values[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Adds scale * values[k] to weights[indices[k]] for k from from to to - 1, and returns
+     * the total added to the weights.
+     */
+    static double axpy(double[] weights, int[] indices, double[] values, int from, int to, double scale) {
+        double added = 0;
+        for (int k = from; k < to; k++) {
+            double delta = scale * values[k];
+            weights[indices[k]] = weights[indices[k]] + delta;
+            added += delta;
+        }
+        return added;
+    }
+}
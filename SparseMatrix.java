@@ -0,0 +1,235 @@
+import java.util.Arrays;
+
+/**
+ * Labelled rows in compressed sparse row (CSR) form, for wide, mostly-zero feature sets
+ * such as hashed categorical features. Row r holds the features at columns
+ * indices[rowPointers[r]] to indices[rowPointers[r + 1] - 1], in increasing order, with
+ * the matching values; every other feature is 0.
+ *
+ * The sparse-aware entry points, whose memory and time grow with the number of non-zeros
+ * rather than the width, are Model.train(FeatureMatrix, int), Model.predictBatch, Model.loss
+ * and EvaluationMetrics.evaluate, which scores through predictBatch. Checkpointed, early
+ * stopping, mini-batch and asynchronous training, EpochIterator and HyperparameterSearch
+ * would read every row dense, so they reject a SparseMatrix. Any other method that takes a
+ * FeatureMatrix, such as LayeredModel, Ensemble or QuantizedFeatures.of, accepts one but
+ * sees it through copyRow as dense rows of the full width.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class SparseMatrix implements FeatureMatrix {
+    private final int width;
+    private final int rows;
+    private final int[] rowPointers;
+    private final int[] indices;
+    private final double[] values;
+    private final int[] labels;
+
+    /**
+     * Constructor for the SparseMatrix class. The arrays are used directly, not copied.
+     * @param width the number of features in each row, zeros included
+     * @param rowPointers where each row starts in indices and values, plus one final entry holding the non-zero count
+     * @param indices the column of each non-zero, increasing within each row
+     * @param values the value of each non-zero
+     * @param labels the label (0 or 1) of each row
+     */
+    public SparseMatrix(int width, int[] rowPointers, int[] indices, double[] values, int[] labels) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be at least 1, was " + width);
+        }
+        if (rowPointers.length != labels.length + 1 || rowPointers[0] != 0) {
+            throw new IllegalArgumentException("Expected " + (labels.length + 1) +
+            " row pointers starting at 0 for " + labels.length + " rows");
+        }
+        int nonZeros = rowPointers[labels.length];
+        if (indices.length < nonZeros || values.length < nonZeros) {
+            throw new IllegalArgumentException("Expected " + nonZeros + " indices and values, found " +
+            indices.length + " and " + values.length);
+        }
+        for (int r = 0; r < labels.length; r++) {
+            if (rowPointers[r + 1] < rowPointers[r]) {
+                throw new IllegalArgumentException("Row pointers decrease at row " + r);
+            }
+            for (int k = rowPointers[r]; k < rowPointers[r + 1]; k++) {
+                if (indices[k] < 0 || indices[k] >= width || (k > rowPointers[r] && indices[k] <= indices[k - 1])) {
+                    throw new IllegalArgumentException("Row " + r + " has column " + indices[k] +
+                    " out of order or out of range for width " + width);
+                }
+            }
+        }
+        this.width = width;
+        this.rows = labels.length;
+        this.rowPointers = rowPointers;
+        this.indices = indices;
+        this.values = values;
+        this.labels = labels;
+    }
+
+    /**
+     * Builds a SparseMatrix holding the non-zero features of a FeatureMatrix.
+     * @param data the rows to copy
+     * @return a SparseMatrix holding the same rows in the same order
+     */
+    public static SparseMatrix of(FeatureMatrix data) {
+        Builder builder = new Builder(data.getWidth());
+        double[] row = new double[data.getWidth()];
+        int[] columns = new int[data.getWidth()];
+        double[] nonZeros = new double[data.getWidth()];
+        for (int r = 0; r < data.getRows(); r++) {
+            data.copyRow(r, row, 0);
+            int count = 0;
+            for (int j = 0; j < row.length; j++) {
+                if (row[j] != 0.0) {
+                    columns[count] = j;
+                    nonZeros[count++] = row[j];
+                }
+            }
+            builder.addRow(columns, nonZeros, count, data.getLabel(r));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Getter method for the number of rows.
+     * @return returns the number of rows in the matrix
+     */
+    @Override
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the instance field of width.
+     * @return returns the number of features in each row, zeros included
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Getter method for the number of stored features.
+     * @return returns the number of non-zero features over all rows
+     */
+    public int getNonZeros() {
+        return this.rowPointers[this.rows];
+    }
+
+    /**
+     * Getter method for the instance field of rowPointers.
+     * @return returns the start of each row in the indices and values, plus the non-zero count
+     */
+    public int[] getRowPointers() {
+        return this.rowPointers;
+    }
+
+    /**
+     * Getter method for the instance field of indices.
+     * @return returns the column of each non-zero
+     */
+    public int[] getIndices() {
+        return this.indices;
+    }
+
+    /**
+     * Getter method for the instance field of values.
+     * @return returns the value of each non-zero
+     */
+    public double[] getValues() {
+        return this.values;
+    }
+
+    /**
+     * Returns the label of a single row.
+     * @param row the index of the row
+     * @return the label (0 or 1) of the row
+     */
+    @Override
+    public int getLabel(int row) {
+        return this.labels[row];
+    }
+
+    /**
+     * Copies the features of a single row into an array as a dense row, zeros included.
+     * @param row the index of the row
+     * @param dst the array the features are copied to
+     * @param offset the index in dst where the first feature is written
+     */
+    @Override
+    public void copyRow(int row, double[] dst, int offset) {
+        Arrays.fill(dst, offset, offset + this.width, 0.0);
+        for (int k = this.rowPointers[row]; k < this.rowPointers[row + 1]; k++) {
+            dst[offset + this.indices[k]] = this.values[k];
+        }
+    }
+
+    /**
+     * Collects rows one at a time into growing arrays, for building a SparseMatrix from a
+     * stream of rows, such as hashed categorical features.
+     */
+    public static class Builder {
+        private final int width;
+        private int[] rowPointers = new int[17];
+        private int[] indices = new int[64];
+        private double[] values = new double[64];
+        private int[] labels = new int[16];
+        private int rows;
+
+        /**
+         * Constructor for the Builder class.
+         * @param width the number of features in each row, zeros included
+         */
+        public Builder(int width) {
+            if (width < 1) {
+                throw new IllegalArgumentException("Width must be at least 1, was " + width);
+            }
+            this.width = width;
+        }
+
+        /**
+         * Appends one row.
+         * @param columns the columns of the non-zero features, in increasing order
+         * @param nonZeros the values of the non-zero features
+         * @param count the number of non-zero features to take from columns and nonZeros
+         * @param label the label (0 or 1) of the row
+         * @return this builder
+         */
+        public Builder addRow(int[] columns, double[] nonZeros, int count, int label) {
+            if (label != 0 && label != 1) {
+                throw new IllegalArgumentException("Label must be 0 or 1, was " + label);
+            }
+            int start = this.rowPointers[this.rows];
+            if (start + count > this.indices.length) {
+                int capacity = Math.max(this.indices.length * 2, start + count);
+                this.indices = Arrays.copyOf(this.indices, capacity);
+                this.values = Arrays.copyOf(this.values, capacity);
+            }
+            if (this.rows == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.rows * 2);
+                this.rowPointers = Arrays.copyOf(this.rowPointers, this.rows * 2 + 1);
+            }
+            for (int k = 0; k < count; k++) {
+                if (columns[k] < 0 || columns[k] >= this.width || (k > 0 && columns[k] <= columns[k - 1])) {
+                    throw new IllegalArgumentException("Column " + columns[k] +
+                    " is out of order or out of range for width " + this.width);
+                }
+            }
+            System.arraycopy(columns, 0, this.indices, start, count);
+            System.arraycopy(nonZeros, 0, this.values, start, count);
+            this.labels[this.rows] = label;
+            this.rowPointers[++this.rows] = start + count;
+            return this;
+        }
+
+        /**
+         * Builds the SparseMatrix holding every row added so far.
+         * @return the matrix, backed by trimmed copies of the builder's arrays
+         */
+        public SparseMatrix build() {
+            int nonZeros = this.rowPointers[this.rows];
+            return new SparseMatrix(this.width, Arrays.copyOf(this.rowPointers, this.rows + 1),
+                Arrays.copyOf(this.indices, nonZeros), Arrays.copyOf(this.values, nonZeros),
+                Arrays.copyOf(this.labels, this.rows));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Trains a Model online, one row at a time, straight from a CSV stream. Rows go
+ * from the reusable buffer of a CsvStreamReader into Model.update and are never
+ * collected, so memory use stays at the size of the read buffer however long the
+ * input is, and a log that is still being written can be followed through a pipe.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class StreamingTrainer {
+    private StreamingTrainer() {
+    }
+
+    /**
+     * Trains on a CSV file with the default buffer size and the usual learning rate of 0.01.
+     * @param model the Model to update
+     * @param csv the CSV file to read
+     * @return a report of the run
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public static TrainingReport train(Model model, Path csv) throws IOException {
+        try (CsvStreamReader reader = CsvStreamReader.open(csv)) {
+            return train(model, reader, 0.01);
+        }
+    }
+
+    /**
+     * Trains on CSV text read from a stream until it ends.
+     * @param model the Model to update
+     * @param in the stream to read; it is not closed
+     * @param bufferBytes the size of the read buffer, which caps the memory used
+     * @param learningRate the step size of every update
+     * @return a report of the run
+     * @throws IOException if the stream cannot be read or a line is malformed
+     */
+    public static TrainingReport train(Model model, InputStream in, int bufferBytes, double learningRate)
+    throws IOException {
+        return train(model, new CsvStreamReader(in, bufferBytes, "stream"), learningRate);
+    }
+
+    /**
+     * Makes one update per row of the reader. The loss in the report is the progressive
+     * (predict-then-update) mean log-loss: every row is scored before the Model learns
+     * from it, which estimates the loss on unseen data without a second pass. The whole stream
+     * counts as epoch 0 for the TrainingListener of the Model.
+     * @param model the Model to update
+     * @param reader the rows to train on
+     * @param learningRate the step size of every update
+     * @return a report with the rows read, the rows per second and the progressive loss
+     * @throws IOException if the input cannot be read or a line is malformed
+     */
+    public static TrainingReport train(Model model, CsvStreamReader reader, double learningRate)
+    throws IOException {
+        long started = System.nanoTime();
+        long rows = 0;
+        double loss = 0;
+        TrainingMonitor monitor = TrainingMonitor.of(model.getTrainingListener());
+        if (monitor != null) {
+            monitor.beginEpoch(0);
+        }
+        while (reader.next()) {
+            if (reader.getWidth() != model.getWeights().length) {
+                throw new IllegalArgumentException("Model " + model.getID() + " expects " +
+                model.getWeights().length + " features per row, but the input has " + reader.getWidth());
+            }
+            double predicted_value = model.update(reader.getRow(), 0, reader.getLabel(), learningRate);
+            double rowLoss = TrainingMonitor.logLoss(predicted_value, reader.getLabel());
+            loss += rowLoss;
+            if (monitor != null) {
+                monitor.record(1, rowLoss);
+            }
+            rows++;
+        }
+        if (monitor != null) {
+            monitor.endEpoch();
+        }
+        long elapsed = System.nanoTime() - started;
+        double rowsPerSecond = (elapsed == 0) ? 0.0 : rows * 1e9 / elapsed;
+        return new TrainingReport(1, rows, elapsed, (rows == 0) ? 0.0 : loss / rows,
+            new double[]{rowsPerSecond});
+    }
+}
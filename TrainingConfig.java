@@ -0,0 +1,118 @@
+/**
+ * The settings used by the mini-batch training mode of Model. The defaults
+ * keep the learning rate of the per-sample training loop (0.01) and use every
+ * available core, giving each worker at least 512 rows of a batch.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class TrainingConfig {
+    private double learningRate;
+    private int batchSize;
+    private int parallelism;
+    private int minRowsPerWorker;
+
+    /**
+     * No-arg constructor for the TrainingConfig class, which uses the default settings.
+     */
+    public TrainingConfig() {
+        this.learningRate = 0.01;
+        this.batchSize = 1024;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.minRowsPerWorker = 512;
+    }
+
+    /**
+     * Copy constructor for the TrainingConfig class.
+     * @param other the other TrainingConfig object, whose settings will be copied
+     */
+    public TrainingConfig(TrainingConfig other) {
+        this.learningRate = other.learningRate;
+        this.batchSize = other.batchSize;
+        this.parallelism = other.parallelism;
+        this.minRowsPerWorker = other.minRowsPerWorker;
+    }
+
+    /**
+     * Getter method for the instance field of learningRate.
+     * @return returns the step size applied to the mean gradient of every batch
+     */
+    public double getLearningRate() {
+        return this.learningRate;
+    }
+
+    /**
+     * Getter method for the instance field of batchSize.
+     * @return returns the number of rows whose gradients are averaged into one update
+     */
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    /**
+     * Getter method for the instance field of parallelism.
+     * @return returns the number of worker threads every batch is split across
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Getter method for the instance field of minRowsPerWorker.
+     * @return returns the fewest rows of a batch handed to one worker
+     */
+    public int getMinRowsPerWorker() {
+        return this.minRowsPerWorker;
+    }
+
+    /**
+     * Setter method for the learningRate instance field.
+     * @param learningRate the step size, which must be positive and finite
+     */
+    public void setLearningRate(double learningRate) {
+        if (!(learningRate > 0.0) || Double.isInfinite(learningRate)) {
+            throw new IllegalArgumentException("Learning rate must be positive, was " + learningRate);
+        }
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Setter method for the batchSize instance field. A batch is split across at most
+     * batchSize / minRowsPerWorker workers, so using all of many threads takes batches
+     * of several thousand rows per thread.
+     * @param batchSize the number of rows per update, at least 1
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1, was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Setter method for the minRowsPerWorker instance field. A batch is only split
+     * across as many workers as can each get this many rows, so small batches do not
+     * spend more time forking and reducing than summing gradients.
+     * @param minRowsPerWorker the fewest rows handed to one worker, at least 1
+     */
+    public void setMinRowsPerWorker(int minRowsPerWorker) {
+        if (minRowsPerWorker < 1) {
+            throw new IllegalArgumentException("Minimum rows per worker must be at least 1, was " +
+                minRowsPerWorker);
+        }
+        this.minRowsPerWorker = minRowsPerWorker;
+    }
+
+    /**
+     * Setter method for the parallelism instance field. Results are bit-identical for
+     * the same starting weights, data, batch size, minimum rows per worker and
+     * parallelism, whatever the machine.
+     * @param parallelism the number of worker threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+}
@@ -0,0 +1,47 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event spanning one epoch of a training loop, from its first row to
+ * its last update, so its start, end and duration show up on the timeline of a recording.
+ * Every training mode emits it, with the mode named in the event. Outside a recording the
+ * event is never committed, and creating it costs next to nothing.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+@Name("perceptron.TrainingEpoch")
+@Label("Training Epoch")
+@Category("Perceptron")
+@Description("One pass of a training loop over its rows")
+final class TrainingEpochEvent extends Event {
+    @Label("Model ID")
+    int modelId;
+
+    @Label("Mode")
+    @Description("sequential, shuffled, sparse, miniBatch, hogwild or layered")
+    String mode;
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Rows")
+    long rows;
+
+    /**
+     * Ends the event and commits it with its fields filled in, if it is being recorded.
+     */
+    void finish(int modelId, String mode, int epoch, long rows) {
+        end();
+        if (shouldCommit()) {
+            this.modelId = modelId;
+            this.mode = mode;
+            this.epoch = epoch;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
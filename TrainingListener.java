@@ -0,0 +1,38 @@
+/**
+ * Receives progress reports while a Model trains. Every training mode calls onEpoch once
+ * at the end of each epoch with aggregated metrics, and, if getBatchInterval is positive,
+ * onBatch roughly every that many rows. Callbacks run on the training thread, so anything
+ * slow (such as I/O) should be handed off, as AsyncFileListener does.
+ *
+ * A Model starts with NONE, which turns the bookkeeping off entirely: the training loops
+ * then compute no losses, read no clocks and format nothing.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+@FunctionalInterface
+public interface TrainingListener {
+    /** The listener that ignores everything; the default of every Model. */
+    TrainingListener NONE = metrics -> { };
+
+    /**
+     * Called at the end of every epoch.
+     * @param metrics the rows, mean loss and duration of the epoch
+     */
+    void onEpoch(TrainingMetrics metrics);
+
+    /**
+     * Called about every getBatchInterval() rows, at the next batch boundary in mini-batch training.
+     * @param metrics the rows, mean loss and duration since the previous batch callback or the start of the epoch
+     */
+    default void onBatch(TrainingMetrics metrics) {
+    }
+
+    /**
+     * Getter method for the sampling interval of the batch callbacks.
+     * @return returns the number of rows between onBatch calls, or 0 (the default) for none
+     */
+    default long getBatchInterval() {
+        return 0;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The aggregated progress of a stretch of training, either a whole epoch or a sampled
+ * batch of rows. The loss is progressive: every row is scored just before the update
+ * it causes, so it tracks the loss on the rows as they were seen.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class TrainingMetrics {
+    private final int epoch;
+    private final long rows;
+    private final double meanLoss;
+    private final long elapsedNanos;
+
+    /**
+     * Constructor for the TrainingMetrics class.
+     * @param epoch the index of the epoch, starting at 0
+     * @param rows the number of rows trained on
+     * @param meanLoss the mean log-loss of those rows before each of their updates
+     * @param elapsedNanos the wall-clock time spent on those rows in nanoseconds
+     */
+    public TrainingMetrics(int epoch, long rows, double meanLoss, long elapsedNanos) {
+        this.epoch = epoch;
+        this.rows = rows;
+        this.meanLoss = meanLoss;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Getter method for the instance field of epoch.
+     * @return returns the index of the epoch, starting at 0
+     */
+    public int getEpoch() {
+        return this.epoch;
+    }
+
+    /**
+     * Getter method for the instance field of rows.
+     * @return returns the number of rows trained on
+     */
+    public long getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Getter method for the instance field of meanLoss.
+     * @return returns the mean progressive log-loss of the rows
+     */
+    public double getMeanLoss() {
+        return this.meanLoss;
+    }
+
+    /**
+     * Getter method for the instance field of elapsedNanos.
+     * @return returns the wall-clock time spent in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Getter method for the throughput.
+     * @return returns the rows trained on per second
+     */
+    public double getRowsPerSecond() {
+        return (this.elapsedNanos == 0) ? 0.0 : this.rows * 1e9 / this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Epoch %d: Loss = %.4f, %d rows in %.2f ms (%.0f rows/s)", this.epoch,
+        this.meanLoss, this.rows, this.elapsedNanos / 1e6, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Accumulates the losses and row counts of a training run and turns them into
+ * TrainingMetrics for a TrainingListener. The training loops only create one when
+ * a real listener is set, so with TrainingListener.NONE they do no bookkeeping at all.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+final class TrainingMonitor {
+    private final TrainingListener listener;
+    private final long batchInterval;
+    private int epoch;
+    private long epochStarted;
+    private long epochRows;
+    private double epochLoss;
+    private long batchStarted;
+    private long batchRows;
+    private double batchLoss;
+
+    private TrainingMonitor(TrainingListener listener) {
+        this.listener = listener;
+        this.batchInterval = listener.getBatchInterval();
+    }
+
+    /**
+     * Creates a monitor for a listener.
+     * @param listener the listener to report to
+     * @return the monitor, or null if the listener is null or TrainingListener.NONE
+     */
+    static TrainingMonitor of(TrainingListener listener) {
+        return (listener == null || listener == TrainingListener.NONE) ? null : new TrainingMonitor(listener);
+    }
+
+    /**
+     * The log-loss of one prediction, clamped so that a confident mistake costs at most about 34.5.
+     * @param predicted_value the sigmoid output for the row
+     * @param label the label (0 or 1) of the row
+     * @return the log-loss of the row
+     */
+    static double logLoss(double predicted_value, int label) {
+        predicted_value = Math.min(Math.max(predicted_value, 1e-15), 1.0 - 1e-15);
+        return (label == 1) ? -Math.log(predicted_value) : -Math.log(1.0 - predicted_value);
+    }
+
+    void beginEpoch(int epoch) {
+        this.epoch = epoch;
+        this.epochStarted = System.nanoTime();
+        this.epochRows = 0;
+        this.epochLoss = 0;
+        this.batchStarted = this.epochStarted;
+        this.batchRows = 0;
+        this.batchLoss = 0;
+    }
+
+    /**
+     * Records one row, scored before its update.
+     */
+    void record(double predicted_value, int label) {
+        record(1, logLoss(predicted_value, label));
+    }
+
+    /**
+     * Records a group of rows with their summed log-loss, such as a mini-batch.
+     */
+    void record(long rows, double loss) {
+        this.epochRows += rows;
+        this.epochLoss += loss;
+        if (this.batchInterval > 0) {
+            this.batchRows += rows;
+            this.batchLoss += loss;
+            if (this.batchRows >= this.batchInterval) {
+                long now = System.nanoTime();
+                this.listener.onBatch(new TrainingMetrics(this.epoch, this.batchRows,
+                    this.batchLoss / this.batchRows, now - this.batchStarted));
+                this.batchStarted = now;
+                this.batchRows = 0;
+                this.batchLoss = 0;
+            }
+        }
+    }
+
+    void endEpoch() {
+        this.listener.onEpoch(new TrainingMetrics(this.epoch, this.epochRows,
+            (this.epochRows == 0) ? 0.0 : this.epochLoss / this.epochRows, System.nanoTime() - this.epochStarted));
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * A summary of one training run: how much work was done, how fast, and how
+ * well the Model fits the training data afterwards.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class TrainingReport {
+    private final int epochs;
+    private final long rowsProcessed;
+    private final long elapsedNanos;
+    private final double finalLoss;
+    private final double[] threadRowsPerSecond;
+
+    /**
+     * Constructor for the TrainingReport class.
+     * @param epochs the number of epochs run
+     * @param rowsProcessed the number of row updates made across all threads
+     * @param elapsedNanos the wall-clock duration of the run in nanoseconds
+     * @param finalLoss the mean log-loss of the Model over the training data after the run
+     * @param threadRowsPerSecond the row updates per second of each training thread
+     */
+    public TrainingReport(int epochs, long rowsProcessed, long elapsedNanos, double finalLoss,
+    double[] threadRowsPerSecond) {
+        this.epochs = epochs;
+        this.rowsProcessed = rowsProcessed;
+        this.elapsedNanos = elapsedNanos;
+        this.finalLoss = finalLoss;
+        this.threadRowsPerSecond = threadRowsPerSecond.clone();
+    }
+
+    /**
+     * Getter method for the instance field of epochs.
+     * @return returns the number of epochs run
+     */
+    public int getEpochs() {
+        return this.epochs;
+    }
+
+    /**
+     * Getter method for the instance field of rowsProcessed.
+     * @return returns the number of row updates made across all threads
+     */
+    public long getRowsProcessed() {
+        return this.rowsProcessed;
+    }
+
+    /**
+     * Getter method for the instance field of elapsedNanos.
+     * @return returns the wall-clock duration of the run in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Getter method for the instance field of finalLoss.
+     * @return returns the mean log-loss over the training data after the run
+     */
+    public double getFinalLoss() {
+        return this.finalLoss;
+    }
+
+    /**
+     * Getter method for the instance field of threadRowsPerSecond.
+     * @return returns a copy of the row updates per second of each training thread
+     */
+    public double[] getThreadRowsPerSecond() {
+        return this.threadRowsPerSecond.clone();
+    }
+
+    /**
+     * Returns the overall throughput of the run.
+     * @return the row updates per second across all threads
+     */
+    public double getRowsPerSecond() {
+        return (this.elapsedNanos == 0) ? 0.0 : this.rowsProcessed * 1e9 / this.elapsedNanos;
+    }
+
+    /**
+     * Returns a formatted String summarising the run.
+     * @return a String with the details of the run
+     */
+    @Override
+    public String toString() {
+        return String.format("Trained %d epochs (%d row updates) in %.3f s at %.0f rows/s " +
+        "on %d thread(s), final loss %.4f", this.epochs, this.rowsProcessed, this.elapsedNanos / 1e9,
+        getRowsPerSecond(), this.threadRowsPerSecond.length, this.finalLoss);
+    }
+}
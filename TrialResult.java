@@ -0,0 +1,126 @@
+/**
+ * The cross-validated score of one set of hyperparameters in a HyperparameterSearch.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public final class TrialResult {
+    private final int trial;
+    private final ActivationType activationType;
+    private final int epochs;
+    private final double learningRate;
+    private final double[] foldLosses;
+    private final double accuracy;
+    private final double meanEpochsRun;
+    private final long wallNanos;
+
+    /**
+     * Constructor for the TrialResult class.
+     * @param trial the index of the trial in the order the search generated them
+     * @param activationType the activation type tried
+     * @param epochs the largest number of epochs tried
+     * @param learningRate the learning rate tried
+     * @param foldLosses the mean validation log-loss of every fold
+     * @param accuracy the fraction of validation rows labelled correctly, over all folds
+     * @param meanEpochsRun the mean number of epochs trained per fold, less than epochs if early stopping kicked in
+     * @param wallNanos the wall-clock time spent training and scoring every fold, added up
+     */
+    public TrialResult(int trial, ActivationType activationType, int epochs, double learningRate,
+    double[] foldLosses, double accuracy, double meanEpochsRun, long wallNanos) {
+        this.trial = trial;
+        this.activationType = activationType;
+        this.epochs = epochs;
+        this.learningRate = learningRate;
+        this.foldLosses = foldLosses.clone();
+        this.accuracy = accuracy;
+        this.meanEpochsRun = meanEpochsRun;
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Getter method for the instance field of trial.
+     * @return returns the index of the trial in the order the search generated them
+     */
+    public int getTrial() {
+        return this.trial;
+    }
+
+    /**
+     * Getter method for the instance field of activationType.
+     * @return returns the activation type tried
+     */
+    public ActivationType getActivationType() {
+        return this.activationType;
+    }
+
+    /**
+     * Getter method for the instance field of epochs.
+     * @return returns the largest number of epochs tried
+     */
+    public int getEpochs() {
+        return this.epochs;
+    }
+
+    /**
+     * Getter method for the instance field of learningRate.
+     * @return returns the learning rate tried
+     */
+    public double getLearningRate() {
+        return this.learningRate;
+    }
+
+    /**
+     * Getter method for the instance field of foldLosses.
+     * @return returns a copy of the mean validation log-loss of every fold
+     */
+    public double[] getFoldLosses() {
+        return this.foldLosses.clone();
+    }
+
+    /**
+     * Returns the cross-validated loss the leaderboard is ranked by.
+     * @return the mean of the validation losses of the folds
+     */
+    public double getMeanLoss() {
+        double total = 0;
+        for (double loss : this.foldLosses) {
+            total += loss;
+        }
+        return total / this.foldLosses.length;
+    }
+
+    /**
+     * Getter method for the instance field of accuracy.
+     * @return returns the fraction of validation rows labelled correctly, over all folds
+     */
+    public double getAccuracy() {
+        return this.accuracy;
+    }
+
+    /**
+     * Getter method for the instance field of meanEpochsRun.
+     * @return returns the mean number of epochs trained per fold
+     */
+    public double getMeanEpochsRun() {
+        return this.meanEpochsRun;
+    }
+
+    /**
+     * Getter method for the instance field of wallNanos.
+     * @return returns the wall-clock time spent training and scoring every fold, added up
+     */
+    public long getWallNanos() {
+        return this.wallNanos;
+    }
+
+    /**
+     * Returns a formatted String summarising the trial.
+     * @return a String with the hyperparameters and scores of the trial
+     */
+    @Override
+    public String toString() {
+        return String.format("%-7s epochs %4d (ran %.1f) lr %.5f: loss %.4f, accuracy %.2f%%, %.1f ms",
+        this.activationType, this.epochs, this.meanEpochsRun, this.learningRate, getMeanLoss(),
+        100.0 * this.accuracy, this.wallNanos / 1e6);
+    }
+}
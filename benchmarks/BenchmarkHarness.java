@@ -0,0 +1,168 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CyclicBarrier;
+import java.util.regex.Pattern;
+
+/**
+ * A small benchmark harness in the spirit of JMH. It has no dependencies, so it builds
+ * with a plain javac like the rest of the project. Every benchmark runs a number of warmup
+ * and measurement iterations of fixed wall-clock length on one or more threads, and reports
+ * throughput, average time per operation and bytes allocated per operation (the same
+ * figures JMH reports with -prof gc).
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class BenchmarkHarness {
+    /**
+     * One benchmarked operation. The returned value is consumed by the harness so
+     * the JIT cannot eliminate the work.
+     */
+    public interface Workload {
+        /**
+         * Runs the operation once.
+         * @param thread the index of the calling benchmark thread, from 0 to threads - 1
+         * @return any value derived from the work done
+         */
+        double run(int thread);
+    }
+
+    private static volatile double sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final Pattern filter;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * Constructor for the BenchmarkHarness class.
+     * @param warmupIterations the number of unmeasured iterations run before measuring
+     * @param measurementIterations the number of measured iterations
+     * @param iterationMillis the wall-clock length of every iteration
+     * @param filter a regular expression; only benchmarks whose name contains a match are run
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis,
+    String filter) {
+        this.warmupIterations = Math.max(0, warmupIterations);
+        this.measurementIterations = Math.max(1, measurementIterations);
+        this.iterationNanos = Math.max(1, iterationMillis) * 1_000_000L;
+        this.filter = Pattern.compile(filter);
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Tells whether a benchmark with the given name would be run, so callers can
+     * skip building data nobody is going to use.
+     * @param name the name of the benchmark
+     * @return true if the name matches the filter
+     */
+    public boolean selects(String name) {
+        return this.filter.matcher(name).find();
+    }
+
+    /**
+     * Prints the header of the result table.
+     */
+    public static void printHeader() {
+        System.out.printf("%-52s %7s %14s %12s %14s %12s %12s%n", "Benchmark", "Threads",
+        "ops/s", "error", "ns/op", "B/op", "MB/s alloc");
+    }
+
+    /**
+     * Runs one benchmark and prints its result line, if its name matches the filter.
+     * @param name the name of the benchmark
+     * @param threads the number of threads running the workload concurrently
+     * @param workload the operation to measure
+     */
+    public void run(String name, int threads, Workload workload) {
+        if (!selects(name)) {
+            return;
+        }
+        for (int i = 0; i < this.warmupIterations; i++) {
+            iteration(threads, workload);
+        }
+        double[] throughput = new double[this.measurementIterations];
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < this.measurementIterations; i++) {
+            long[] result = iteration(threads, workload);
+            ops += result[0];
+            nanos += result[1];
+            bytes += result[2];
+            throughput[i] = result[0] * 1e9 / result[1];
+        }
+        double mean = 0;
+        for (double t : throughput) {
+            mean += t;
+        }
+        mean /= throughput.length;
+        double variance = 0;
+        for (double t : throughput) {
+            variance += (t - mean) * (t - mean);
+        }
+        double error = (throughput.length > 1) ? Math.sqrt(variance / (throughput.length - 1)) : 0.0;
+        double seconds = nanos / 1e9;
+        System.out.printf("%-52s %7d %14.1f %12.1f %14.1f %12.1f %12.1f%n", name, threads, mean, error,
+        (nanos * (double) threads) / ops, ((double) bytes) / ops, bytes / seconds / (1024 * 1024));
+    }
+
+    /**
+     * Runs one iteration on the requested number of threads.
+     * @return the operations completed, the elapsed wall-clock nanoseconds and the bytes allocated
+     */
+    private long[] iteration(int threads, Workload workload) {
+        long[] ops = new long[threads];
+        long[] allocated = new long[threads];
+        double[] sinks = new double[threads];
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                long id = Thread.currentThread().getId();
+                await(start);
+                long deadline = System.nanoTime() + this.iterationNanos;
+                long before = this.threadBean.getThreadAllocatedBytes(id);
+                long count = 0;
+                double local = 0;
+                do {
+                    local += workload.run(index);
+                    count++;
+                } while (System.nanoTime() < deadline);
+                allocated[index] = this.threadBean.getThreadAllocatedBytes(id) - before;
+                ops[index] = count;
+                sinks[index] = local;
+            }, "bench-" + t);
+            workers[t].start();
+        }
+        await(start);
+        long began = System.nanoTime();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while benchmarking", e);
+            }
+        }
+        long elapsed = System.nanoTime() - began;
+        long totalOps = 0;
+        long totalBytes = 0;
+        for (int t = 0; t < threads; t++) {
+            totalOps += ops[t];
+            totalBytes += allocated[t];
+            sink += sinks[t];
+        }
+        return new long[]{totalOps, elapsed, totalBytes};
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception e) {
+            throw new IllegalStateException("Benchmark threads failed to start together", e);
+        }
+    }
+}
@@ -0,0 +1,535 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The benchmark suite for the activation functions, Model training and Model prediction.
+ * Training and batch scoring are measured over generated datasets of every requested size
+ * and for every ActivationType; batch scoring is also measured on several threads, each
+ * scoring its own slice of the rows.
+ *
+ * Options (all optional):
+ * --sizes 1000,100000,1000000,10000000  dataset sizes in rows
+ * --threads 1,4                         thread counts for batch scoring
+ * --warmup 3 --iterations 5             iteration counts
+ * --time 1000                           length of every iteration in milliseconds
+ * --filter regex                        only run benchmarks whose name matches
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class PerceptronBenchmarks {
+    private static final int WIDTH = 5;
+    private static final int ACTIVATION_BLOCK = 1024;
+    private static final int ENSEMBLE_SIZE = 30;
+    private static final int SPARSE_WIDTH = 1 << 20;
+    private static final int SPARSE_NON_ZEROS = 16;
+    private static final int LAYER_WIDTH = 64;
+    private static final int SHUFFLE_BATCH = 4096;
+    private static final ActivationCache CACHE = new ActivationCache(ActivationCache.DEFAULT_CAPACITY_BYTES);
+
+    /**
+     * Runs the suite.
+     * @param args the options listed in the class comment
+     */
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 100_000, 1_000_000, 10_000_000};
+        int[] threadCounts = {1, Runtime.getRuntime().availableProcessors()};
+        int warmup = 3;
+        int iterations = 5;
+        long time = 1000;
+        String filter = "";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = parseList(args[i + 1]);
+                    break;
+                case "--threads":
+                    threadCounts = parseList(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--time":
+                    time = Long.parseLong(args[i + 1]);
+                    break;
+                case "--filter":
+                    filter = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        BenchmarkHarness harness = new BenchmarkHarness(warmup, iterations, time, filter);
+        BenchmarkHarness.printHeader();
+        activationBenchmarks(harness);
+        kernelBenchmarks(harness);
+        predictBenchmarks(harness);
+        modelStoreBenchmarks(harness);
+        for (int rows : sizes) {
+            if (!selectsAny(harness, rows, threadCounts)) {
+                continue;
+            }
+            Dataset data = generate(rows, WIDTH, 42);
+            trainBenchmarks(harness, data);
+            miniBatchBenchmarks(harness, data, threadCounts);
+            predictBatchBenchmarks(harness, data, threadCounts);
+            quantizedBenchmarks(harness, data);
+            evaluateBenchmarks(harness, data, threadCounts);
+            sparseBenchmarks(harness, rows);
+            layeredBenchmarks(harness, data);
+            ensembleBenchmarks(harness, data);
+        }
+    }
+
+    /**
+     * Benchmarks the scalar activation functions, their FastActivation approximations and
+     * Activation.activate over a block of inputs.
+     */
+    private static void activationBenchmarks(BenchmarkHarness harness) {
+        double[] inputs = new double[ACTIVATION_BLOCK];
+        double[] outputs = new double[ACTIVATION_BLOCK];
+        Random rand = new Random(7);
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = rand.nextDouble() * 4.0 - 2.0;
+        }
+        harness.run("activation.relu[" + ACTIVATION_BLOCK + "]", 1, t -> {
+            double sum = 0;
+            for (double x : inputs) {
+                sum += Activation.relu(x);
+            }
+            return sum;
+        });
+        harness.run("activation.elu[" + ACTIVATION_BLOCK + "]", 1, t -> {
+            double sum = 0;
+            for (double x : inputs) {
+                sum += Activation.elu(x, 1.0);
+            }
+            return sum;
+        });
+        harness.run("activation.sigmoid[" + ACTIVATION_BLOCK + "]", 1, t -> {
+            double sum = 0;
+            for (double x : inputs) {
+                sum += Activation.sigmoid(x);
+            }
+            return sum;
+        });
+        harness.run("activation.fastElu[" + ACTIVATION_BLOCK + "]", 1, t -> {
+            double sum = 0;
+            for (double x : inputs) {
+                sum += FastActivation.elu(x, 1.0);
+            }
+            return sum;
+        });
+        harness.run("activation.fastSigmoid[" + ACTIVATION_BLOCK + "]", 1, t -> {
+            double sum = 0;
+            for (double x : inputs) {
+                sum += FastActivation.sigmoid(x);
+            }
+            return sum;
+        });
+        for (ActivationType type : ActivationType.values()) {
+            harness.run("activation.activate[" + type + "," + ACTIVATION_BLOCK + "]", 1, t -> {
+                Activation.activate(type, inputs, 0, outputs, 0, ACTIVATION_BLOCK);
+                return outputs[0];
+            });
+        }
+    }
+
+    /**
+     * Benchmarks every available Kernels backend on a block of activations and on the
+     * weighted sums of a block of rows.
+     */
+    private static void kernelBenchmarks(BenchmarkHarness harness) {
+        Random rand = new Random(13);
+        double[] inputs = new double[ACTIVATION_BLOCK];
+        double[] outputs = new double[ACTIVATION_BLOCK];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = rand.nextDouble() * 4.0 - 2.0;
+        }
+        int rows = ACTIVATION_BLOCK / WIDTH;
+        double[] weights = {0.3, -0.7, 0.11, 0.9, -0.05};
+        double[] sums = new double[rows];
+        for (String name : new String[]{"scalar", "vector"}) {
+            Kernels kernels = Kernels.load(name);
+            if (kernels == null) {
+                continue;
+            }
+            for (ActivationType type : ActivationType.values()) {
+                harness.run("kernels.activate[" + name + "," + type + "," + ACTIVATION_BLOCK + "]", 1, t -> {
+                    kernels.activate(type, inputs, 0, outputs, 0, ACTIVATION_BLOCK);
+                    return outputs[0];
+                });
+            }
+            harness.run("kernels.weightedSums[" + name + "," + rows + "x" + WIDTH + "]", 1, t -> {
+                kernels.weightedSums(inputs, 0, rows, WIDTH, weights, 0.1, sums, 0);
+                return sums[0];
+            });
+        }
+    }
+
+    /**
+     * Benchmarks single-row Model.predict, which also updates the shared statistics.
+     */
+    private static void predictBenchmarks(BenchmarkHarness harness) {
+        Person person = new Person("Bench", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 1);
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type);
+            harness.run("predict[" + type + "]", 1, t -> model.predict(person));
+        }
+    }
+
+    /**
+     * Benchmarks opening (mapping and checksumming) a snapshot of many Models, and looking one up.
+     */
+    private static void modelStoreBenchmarks(BenchmarkHarness harness) {
+        int count = 10_000;
+        if (!harness.selects("modelStore.open[" + count + "]") && !harness.selects("modelStore.get[" + count + "]")) {
+            return;
+        }
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            models.add(new Model(i, ActivationType.values()[i % 3], i));
+        }
+        try {
+            Path file = Files.createTempFile("models", ".bin");
+            try {
+                ModelStore.write(models, file);
+                harness.run("modelStore.open[" + count + "]", 1, t -> {
+                    try {
+                        return ModelStore.open(file).size();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                ModelStore store = ModelStore.open(file);
+                int[] next = new int[1];
+                harness.run("modelStore.get[" + count + "]", 1, t -> {
+                    next[0] = (next[0] + 7919) % count;
+                    return store.get(next[0]).getBias();
+                });
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Benchmarks one call of Model.train(Dataset, 1) over the whole dataset, and one shuffled
+     * epoch through an EpochIterator.
+     */
+    private static void trainBenchmarks(BenchmarkHarness harness, Dataset data) {
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type);
+            model.setActivationCache(CACHE);
+            harness.run("train[" + type + "," + data.getRows() + "]", 1, t -> {
+                model.train(data, 1);
+                return model.getBias();
+            });
+            Model uncached = new Model(1, type);
+            uncached.setActivationCache(null);
+            harness.run("trainUncached[" + type + "," + data.getRows() + "]", 1, t -> {
+                uncached.train(data, 1);
+                return uncached.getBias();
+            });
+            Model fast = new Model(1, type);
+            fast.setActivationCache(null);
+            fast.setFastMath(true);
+            harness.run("trainFast[" + type + "," + data.getRows() + "]", 1, t -> {
+                fast.train(data, 1);
+                return fast.getBias();
+            });
+            Model shuffled = new Model(1, type);
+            harness.run("trainShuffled[" + type + "," + data.getRows() + "]", 1, t -> {
+                try (EpochIterator batches = new EpochIterator(data, 1, SHUFFLE_BATCH, t)) {
+                    shuffled.train(batches);
+                }
+                return shuffled.getBias();
+            });
+        }
+    }
+
+    /**
+     * Benchmarks one pass of parallel mini-batch training and of asynchronous training with
+     * each thread count as the parallelism, to show how the modes scale with cores.
+     */
+    private static void miniBatchBenchmarks(BenchmarkHarness harness, Dataset data, int[] threadCounts) {
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type, 1);
+            model.setActivationCache(CACHE);
+            for (int threads : threadCounts) {
+                TrainingConfig config = new TrainingConfig();
+                config.setBatchSize(Math.max(1024, 4096 * threads));
+                config.setParallelism(threads);
+                harness.run("trainMiniBatch[" + type + "," + data.getRows() + ",p=" + threads + "]", 1, t -> {
+                    model.train(data, 1, config);
+                    return model.getBias();
+                });
+                harness.run("trainAsync[" + type + "," + data.getRows() + ",p=" + threads + "]", 1, t -> {
+                    return model.trainAsync(data, 1, config).getFinalLoss();
+                });
+            }
+        }
+    }
+
+    /**
+     * Benchmarks Model.predictBatch over the whole dataset, split into equal slices
+     * across the given numbers of threads.
+     */
+    private static void predictBatchBenchmarks(BenchmarkHarness harness, Dataset data, int[] threadCounts) {
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type);
+            for (int threads : threadCounts) {
+                String name = "predictBatch[" + type + "," + data.getRows() + "]";
+                if (!harness.selects(name)) {
+                    continue;
+                }
+                int slice = (data.getRows() + threads - 1) / threads;
+                int[][] labels = new int[threads][slice];
+                double[][] probabilities = new double[threads][slice];
+                harness.run(name, threads, t -> {
+                    int from = Math.min(data.getRows(), t * slice);
+                    int to = Math.min(data.getRows(), from + slice);
+                    model.predictBatch(data, from, to, labels[t], probabilities[t]);
+                    return (to > from) ? probabilities[t][0] : 0.0;
+                });
+            }
+        }
+    }
+
+    /**
+     * Benchmarks one epoch of LayeredModel.train, in batches of 128 rows, and a full
+     * LayeredModel.predictBatch for a network with two hidden layers of LAYER_WIDTH units.
+     */
+    private static void layeredBenchmarks(BenchmarkHarness harness, Dataset data) {
+        int rows = data.getRows();
+        TrainingConfig config = new TrainingConfig();
+        config.setBatchSize(128);
+        for (ActivationType type : ActivationType.values()) {
+            String shape = type + "," + rows + ",hidden=" + LAYER_WIDTH + "x" + LAYER_WIDTH;
+            LayeredModel network = new LayeredModel(1, type, WIDTH, new int[]{LAYER_WIDTH, LAYER_WIDTH}, 42);
+            harness.run("trainLayered[" + shape + "]", 1, t -> {
+                network.train(data, 1, config);
+                return network.getOutput().getBias();
+            });
+            double[] probabilities = new double[rows];
+            harness.run("predictLayered[" + shape + "]", 1, t -> {
+                network.predictBatch(data, 0, rows, null, probabilities);
+                return probabilities[0];
+            });
+        }
+    }
+
+    /**
+     * Benchmarks one epoch of Model.train and a full Model.predictBatch over a SparseMatrix of
+     * SPARSE_WIDTH columns with SPARSE_NON_ZEROS random non-zeros per row, as hashed
+     * categorical features would give.
+     */
+    private static void sparseBenchmarks(BenchmarkHarness harness, int rows) {
+        String shape = rows + "x" + SPARSE_WIDTH + ",nnz=" + SPARSE_NON_ZEROS;
+        SparseMatrix data = null;
+        for (ActivationType type : ActivationType.values()) {
+            String train = "trainSparse[" + type + "," + shape + "]";
+            String predict = "predictSparse[" + type + "," + shape + "]";
+            if (!harness.selects(train) && !harness.selects(predict)) {
+                continue;
+            }
+            if (data == null) {
+                data = generateSparse(rows, SPARSE_WIDTH, SPARSE_NON_ZEROS, 42);
+            }
+            SparseMatrix rowsToScore = data;
+            Model model = new Model(1, type, SPARSE_WIDTH, 42);
+            harness.run(train, 1, t -> {
+                model.train(rowsToScore, 1);
+                return model.getBias();
+            });
+            double[] probabilities = new double[rows];
+            harness.run(predict, 1, t -> {
+                model.predictBatch(rowsToScore, 0, rows, null, probabilities);
+                return probabilities[0];
+            });
+        }
+    }
+
+    /**
+     * Generates a SparseMatrix with up to nonZeros features in [-1, 1] at random columns of
+     * each row, labelled by the sign of their sum.
+     * @param rows the number of rows
+     * @param width the number of columns
+     * @param nonZeros the number of columns drawn for each row
+     * @param seed the seed of the random generator
+     * @return the generated matrix
+     */
+    public static SparseMatrix generateSparse(int rows, int width, int nonZeros, long seed) {
+        Random rand = new Random(seed);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(width);
+        double[] values = new double[nonZeros];
+        for (int r = 0; r < rows; r++) {
+            int[] columns = rand.ints(nonZeros, 0, width).sorted().distinct().toArray();
+            double sum = 0;
+            for (int k = 0; k < columns.length; k++) {
+                values[k] = rand.nextDouble() * 2.0 - 1.0;
+                sum += values[k];
+            }
+            builder.addRow(columns, values, columns.length, (sum > 0) ? 1 : 0);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Benchmarks EvaluationMetrics.evaluate, one streaming pass that gathers the confusion
+     * matrix, log-loss and histogram ROC-AUC, on a fork-join pool of each thread count.
+     */
+    private static void evaluateBenchmarks(BenchmarkHarness harness, Dataset data, int[] threadCounts) {
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type, 42);
+            for (int threads : threadCounts) {
+                String name = "evaluate[" + type + "," + data.getRows() + ",p=" + threads + "]";
+                if (!harness.selects(name)) {
+                    continue;
+                }
+                harness.run(name, 1, t -> EvaluationMetrics.evaluate(model, data, threads).getAuc());
+            }
+        }
+    }
+
+    /**
+     * Benchmarks QuantizedModel.predictBatch over QuantizedFeatures of the same precision,
+     * without an ActivationCache, next to Model.predictBatch with no cache on the full-precision rows.
+     */
+    private static void quantizedBenchmarks(BenchmarkHarness harness, Dataset data) {
+        int rows = data.getRows();
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type, 42);
+            model.setActivationCache(null);
+            int[] labels = new int[rows];
+            double[] probabilities = new double[rows];
+            harness.run("quantized[DOUBLE," + type + "," + rows + "]", 1, t -> {
+                model.predictBatch(data, 0, rows, labels, probabilities);
+                return probabilities[0];
+            });
+            for (Precision precision : Precision.values()) {
+                String name = "quantized[" + precision + "," + type + "," + rows + "]";
+                if (!harness.selects(name)) {
+                    continue;
+                }
+                QuantizedModel quantized = new QuantizedModel(model, precision);
+                QuantizedFeatures stored = QuantizedFeatures.of(data, precision);
+                harness.run(name, 1, t -> {
+                    quantized.predictBatch(stored, 0, rows, labels, probabilities);
+                    return probabilities[0];
+                });
+            }
+        }
+    }
+
+    /**
+     * Generates a dataset of uniformly random features in [-1, 1], labelled by a fixed
+     * linear rule so that training has something to learn.
+     * @param rows the number of rows
+     * @param width the number of features per row
+     * @param seed the seed of the random generator
+     * @return the generated dataset
+     */
+    public static Dataset generate(int rows, int width, long seed) {
+        Random rand = new Random(seed);
+        double[] direction = new double[width];
+        for (int j = 0; j < width; j++) {
+            direction[j] = rand.nextDouble() * 2.0 - 1.0;
+        }
+        double[] features = new double[rows * width];
+        int[] labels = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            double sum = 0;
+            for (int j = 0; j < width; j++) {
+                double x = rand.nextDouble() * 2.0 - 1.0;
+                features[r * width + j] = x;
+                sum += direction[j] * x;
+            }
+            labels[r] = (sum > 0) ? 1 : 0;
+        }
+        return new Dataset(features, labels, width);
+    }
+
+    /**
+     * Benchmarks scoring every row against 30 Models (10 of each ActivationType), fused in an
+     * Ensemble and one Model at a time.
+     */
+    private static void ensembleBenchmarks(BenchmarkHarness harness, Dataset data) {
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < ENSEMBLE_SIZE; i++) {
+            Model model = new Model(i, ActivationType.values()[i % 3], i);
+            model.setActivationCache(CACHE);
+            models.add(model);
+        }
+        Ensemble ensemble = new Ensemble(models);
+        ensemble.setActivationCache(CACHE);
+        int[] labels = new int[data.getRows()];
+        double[] scores = new double[data.getRows()];
+        harness.run("ensemble[" + ENSEMBLE_SIZE + "," + data.getRows() + "]", 1, t -> {
+            ensemble.predictBatch(data, 0, data.getRows(), Ensemble.Combiner.MEAN_PROBABILITY, labels, scores);
+            return scores[0];
+        });
+        harness.run("ensembleSeparate[" + ENSEMBLE_SIZE + "," + data.getRows() + "]", 1, t -> {
+            for (Model model : models) {
+                model.predictBatch(data, labels, scores);
+            }
+            return scores[0];
+        });
+    }
+
+    /**
+     * Tells whether any benchmark over a dataset of the given size would run, so the
+     * dataset is only generated when needed.
+     */
+    private static boolean selectsAny(BenchmarkHarness harness, int rows, int[] threadCounts) {
+        for (ActivationType type : ActivationType.values()) {
+            if (harness.selects("train[" + type + "," + rows + "]")
+                || harness.selects("trainUncached[" + type + "," + rows + "]")
+                || harness.selects("trainFast[" + type + "," + rows + "]")
+                || harness.selects("trainShuffled[" + type + "," + rows + "]")
+                || harness.selects("predictBatch[" + type + "," + rows + "]")
+                || harness.selects("quantized[DOUBLE," + type + "," + rows + "]")
+                || harness.selects("quantized[FLOAT32," + type + "," + rows + "]")
+                || harness.selects("quantized[INT8," + type + "," + rows + "]")
+                || harness.selects("ensemble[" + ENSEMBLE_SIZE + "," + rows + "]")
+                || harness.selects("ensembleSeparate[" + ENSEMBLE_SIZE + "," + rows + "]")
+                || harness.selects("trainLayered[" + type + "," + rows + ",hidden=" + LAYER_WIDTH + "x" +
+                    LAYER_WIDTH + "]")
+                || harness.selects("predictLayered[" + type + "," + rows + ",hidden=" + LAYER_WIDTH + "x" +
+                    LAYER_WIDTH + "]")
+                || harness.selects("trainSparse[" + type + "," + rows + "x" + SPARSE_WIDTH + ",nnz=" +
+                    SPARSE_NON_ZEROS + "]")
+                || harness.selects("predictSparse[" + type + "," + rows + "x" + SPARSE_WIDTH + ",nnz=" +
+                    SPARSE_NON_ZEROS + "]")) {
+                return true;
+            }
+            for (int threads : threadCounts) {
+                if (harness.selects("trainMiniBatch[" + type + "," + rows + ",p=" + threads + "]")
+                    || harness.selects("trainAsync[" + type + "," + rows + ",p=" + threads + "]")
+                    || harness.selects("evaluate[" + type + "," + rows + ",p=" + threads + "]")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int[] parseList(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Drives a PredictionServer with many concurrent clients, each sending one row per request
+ * over a keep-alive connection, and compares it with calling Model.predict once per request
+ * in the same process. Every run reports throughput and the p50/p99 latency seen by the
+ * clients, plus the batch sizes the server ended up scoring.
+ *
+ * Usage: java -Dsun.net.httpserver.nodelay=true -cp classes PredictionLoadGenerator
+ * [--clients 64] [--seconds 5] [--batch 64] [--delay 200] [--threads 64], where --delay is
+ * the longest a row waits for its batch in microseconds and --threads the number of threads
+ * handling connections. Without the nodelay flag, every request over HTTP waits for a
+ * delayed ACK; see PredictionServer.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class PredictionLoadGenerator {
+    private static final int ROWS = 4096;
+
+    /**
+     * Runs the comparison.
+     * @param args the options described in the class comment
+     */
+    public static void main(String[] args) throws IOException {
+        int clients = 64;
+        long seconds = 5;
+        int batch = 64;
+        long delay = 200;
+        int threads = 64;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients":
+                    clients = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seconds":
+                    seconds = Long.parseLong(args[i + 1]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--delay":
+                    delay = Long.parseLong(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (!Boolean.getBoolean("sun.net.httpserver.nodelay")) {
+            System.err.println("Warning: -Dsun.net.httpserver.nodelay=true is not set, so HTTP latencies include " +
+                "delayed ACKs");
+        }
+        Model model = new Model(1, ActivationType.SIGMOID, 42);
+        Person[] people = new Person[ROWS];
+        String[] bodies = new String[ROWS];
+        Random rand = new Random(7);
+        for (int i = 0; i < ROWS; i++) {
+            double[] features = new double[5];
+            StringBuilder body = new StringBuilder();
+            for (int j = 0; j < features.length; j++) {
+                features[j] = rand.nextDouble() * 4.0 - 2.0;
+                body.append((j == 0) ? "" : ",").append(features[j]);
+            }
+            people[i] = new Person("client", features, 1);
+            bodies[i] = body.toString();
+        }
+        long nanos = seconds * 1_000_000_000L;
+        System.out.printf("%-34s %8s %12s %12s %12s %14s%n", "Mode", "Clients", "req/s", "p50 us", "p99 us",
+        "mean batch");
+
+        report("inProcess.predict", clients, nanos, drive(clients, nanos, (client, i) -> {
+            model.predict(people[i % ROWS]);
+        }), null);
+        for (int size : new int[]{1, batch}) {
+            try (PredictionServer server = new PredictionServer(model, 0, size, delay, threads)) {
+                server.start();
+                URL url = new URL("http://localhost:" + server.getPort() + "/predict");
+                Histogram latency = drive(clients, nanos, (client, i) -> post(url, bodies[i % ROWS]));
+                report("server[batch=" + size + "]", clients, nanos, latency, server.getBatchSizes());
+            }
+        }
+    }
+
+    /** One request made by a client. */
+    private interface Call {
+        void run(int client, int request) throws IOException;
+    }
+
+    /**
+     * Runs the clients for the given time and returns the latency of every call in nanoseconds.
+     */
+    private static Histogram drive(int clients, long nanos, Call call) {
+        Histogram latency = new Histogram();
+        CyclicBarrier start = new CyclicBarrier(clients);
+        Thread[] workers = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            final int client = c;
+            workers[c] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException("Clients failed to start together", e);
+                }
+                long began = System.nanoTime();
+                long deadline = began + nanos;
+                int request = client;
+                long now = began;
+                while (now < deadline) {
+                    try {
+                        call.run(client, request);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    long end = System.nanoTime();
+                    latency.record(end - now);
+                    now = end;
+                    request += clients;
+                }
+            }, "load-" + c);
+            workers[c].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating load", e);
+            }
+        }
+        return latency;
+    }
+
+    /**
+     * Sends one row and reads the whole answer, so the connection goes back to the keep-alive pool.
+     */
+    private static void post(URL url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        connection.setFixedLengthStreamingMode(bytes.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(bytes);
+        }
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("The server answered " + connection.getResponseCode());
+        }
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream answer = new ByteArrayOutputStream();
+            in.transferTo(answer);
+        }
+    }
+
+    private static void report(String mode, int clients, long nanos, Histogram latency, Histogram batches) {
+        double throughput = latency.getCount() * 1e9 / nanos;
+        System.out.printf("%-34s %8d %12.0f %12.1f %12.1f %14s%n", mode, clients, throughput,
+        latency.getPercentile(50) / 1e3, latency.getPercentile(99) / 1e3,
+        (batches == null) ? "-" : String.format("%.2f", batches.getMean()));
+    }
+}
@@ -0,0 +1,90 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD Kernels backend, built on the jdk.incubator.vector API. It needs JDK 16
+ * or newer, so it lives apart from the other sources and is compiled and run with
+ * --add-modules jdk.incubator.vector; Kernels uses it when -Dperceptron.kernels=vector is set.
+ *
+ * Activations run a whole vector of values at a time. Weighted sums are vectorized
+ * across rows: each lane gathers one row's features, column by column, so every row
+ * is still summed in feature order and the sums match the scalar backend bit for bit.
+ * @author Showmick Das
+ * @version 1.0
+ */
+
+public class VectorKernels extends Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /** The gather offsets of the rows in one vector, followed by the width they were made for. */
+    private volatile int[] rowStarts = new int[]{-1};
+
+    @Override
+    public String getName() {
+        return "vector";
+    }
+
+    @Override
+    public void activate(ActivationType type, double[] src, int srcOffset,
+    double[] dst, int dstOffset, int length) {
+        int i = 0;
+        int upper = SPECIES.loopBound(length);
+        switch (type) {
+            case RELU:
+                for (; i < upper; i += SPECIES.length()) {
+                    DoubleVector.fromArray(SPECIES, src, srcOffset + i).max(0.0).intoArray(dst, dstOffset + i);
+                }
+                break;
+            case SIGMOID:
+                for (; i < upper; i += SPECIES.length()) {
+                    DoubleVector x = DoubleVector.fromArray(SPECIES, src, srcOffset + i);
+                    DoubleVector denominator = x.neg().lanewise(VectorOperators.EXP).add(1.0);
+                    DoubleVector.broadcast(SPECIES, 1.0).div(denominator).intoArray(dst, dstOffset + i);
+                }
+                break;
+            case ELU:
+                for (; i < upper; i += SPECIES.length()) {
+                    DoubleVector x = DoubleVector.fromArray(SPECIES, src, srcOffset + i);
+                    DoubleVector negative = x.lanewise(VectorOperators.EXP).sub(1.0);
+                    negative.blend(x, x.compare(VectorOperators.GT, 0.0)).intoArray(dst, dstOffset + i);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported activation type " + type);
+        }
+        Activation.activate(type, src, srcOffset + i, dst, dstOffset + i, length - i);
+    }
+
+    @Override
+    public void weightedSums(double[] matrix, int offset, int rows, int width,
+    double[] weights, double bias, double[] sums, int sumsOffset) {
+        int lanes = SPECIES.length();
+        int[] rowStarts = this.rowStarts;
+        if (rowStarts[rowStarts.length - 1] != width) {
+            rowStarts = new int[lanes + 1];
+            for (int k = 0; k < lanes; k++) {
+                rowStarts[k] = k * width;
+            }
+            rowStarts[lanes] = width;
+            this.rowStarts = rowStarts;
+        }
+        int r = 0;
+        for (; r + lanes <= rows; r += lanes) {
+            int base = offset + r * width;
+            DoubleVector weightedSum = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < width; j++) {
+                DoubleVector column = DoubleVector.fromArray(SPECIES, matrix, base + j, rowStarts, 0);
+                weightedSum = weightedSum.add(column.mul(weights[j]));
+            }
+            weightedSum.add(bias).intoArray(sums, sumsOffset + r);
+        }
+        for (int base = offset + r * width; r < rows; r++, base += width) {
+            double weightedSum = 0;
+            for (int j = 0; j < width; j++) {
+                weightedSum += (weights[j] * matrix[base + j]);
+            }
+            sums[sumsOffset + r] = weightedSum + bias;
+        }
+    }
+}
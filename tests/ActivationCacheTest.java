@@ -0,0 +1,173 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActivationCacheTest {
+
+    private static Dataset data(int rows, long seed) {
+        return TestData.uniform(rows, 5, 2.0, seed, (x, o, rand) -> (x[o] > x[o + 1]) ? 1 : 0);
+    }
+
+    @Test
+    public void testReusedAcrossEpochsModelsAndPredictions() {
+        ActivationCache cache = new ActivationCache(1 << 20);
+        Dataset data = data(100, 1);
+        Model first = new Model(1, ActivationType.ELU, 4);
+        Model second = new Model(2, ActivationType.ELU, 5);
+        first.setActivationCache(cache);
+        second.setActivationCache(cache);
+
+        first.train(data, 10);
+        second.train(data, 10);
+        first.predictBatch(data, new int[100], null);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(100 * (5 * 8 + 4), cache.getSizeBytes());
+    }
+
+    @Test
+    public void testCachedTrainingMatchesUncached() {
+        Dataset data = data(200, 2);
+        for (ActivationType type : ActivationType.values()) {
+            Model cached = new Model(1, type, 9);
+            Model uncached = new Model(cached);
+            cached.setActivationCache(new ActivationCache(1 << 20));
+            uncached.setActivationCache(null);
+
+            cached.train(data, 3);
+            uncached.train(data, 3);
+            assertArrayEquals(uncached.getWeights(), cached.getWeights(), 0.0);
+            assertEquals(uncached.getBias(), cached.getBias(), 0.0);
+            assertEquals(uncached.loss(data), cached.loss(data), 0.0);
+
+            TrainingConfig config = new TrainingConfig();
+            config.setBatchSize(16);
+            config.setParallelism(2);
+            cached.train(data, 2, config);
+            uncached.train(data, 2, config);
+            assertArrayEquals(uncached.getWeights(), cached.getWeights(), 0.0);
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByBytes() {
+        long entryBytes = 10 * (5 * 8 + 4);
+        ActivationCache cache = new ActivationCache(2 * entryBytes);
+        Dataset a = data(10, 1);
+        Dataset b = data(10, 2);
+        Dataset c = data(10, 3);
+
+        Dataset activatedA = cache.get(a, ActivationType.RELU, 1.0);
+        cache.get(b, ActivationType.RELU, 1.0);
+        assertSame(activatedA, cache.get(a, ActivationType.RELU, 1.0));
+        cache.get(c, ActivationType.RELU, 1.0);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2 * entryBytes, cache.getSizeBytes());
+        assertSame(activatedA, cache.get(a, ActivationType.RELU, 1.0));
+        assertEquals(2, cache.getHits());
+        cache.get(b, ActivationType.RELU, 1.0);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testKeyedByTypeAndAlpha() {
+        ActivationCache cache = new ActivationCache(1 << 20);
+        Dataset data = data(10, 1);
+
+        Dataset elu = cache.get(data, ActivationType.ELU, 1.0);
+        Dataset wideElu = cache.get(data, ActivationType.ELU, 2.0);
+        cache.get(data, ActivationType.RELU, 1.0);
+        cache.get(data, ActivationType.RELU, 2.0);
+
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        for (int i = 0; i < data.getFeatures().length; i++) {
+            double x = data.getFeatures()[i];
+            assertEquals(Activation.elu(x, 1.0), elu.getFeatures()[i], 0.0);
+            assertEquals(Activation.elu(x, 2.0), wideElu.getFeatures()[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testSharedCacheIsOffByDefault() {
+        ActivationCache shared = ActivationCache.getShared();
+        assertEquals(0, shared.getCapacityBytes());
+        Dataset data = data(50, 3);
+        Model model = new Model(1, ActivationType.RELU, 5);
+        assertSame(shared, model.getActivationCache());
+        double before = model.loss(data);
+
+        for (int i = 0; i < data.getFeatures().length; i++) {
+            data.getFeatures()[i] = -data.getFeatures()[i];
+        }
+        assertNotEquals(before, model.loss(data));
+        assertEquals(0, shared.getEntryCount());
+        assertNull(shared.get(data, ActivationType.RELU, 1.0));
+    }
+
+    @Test
+    public void testTooLargeAndInvalidate() {
+        ActivationCache cache = new ActivationCache(100);
+        assertNull(cache.get(data(10, 1), ActivationType.SIGMOID, 1.0));
+        assertEquals(0, cache.getSizeBytes());
+
+        Dataset data = data(2, 1);
+        cache.get(data, ActivationType.SIGMOID, 1.0);
+        assertEquals(1, cache.getEntryCount());
+        cache.invalidate(data);
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSizeBytes());
+        assertThrows(IllegalArgumentException.class, () -> new ActivationCache(-1));
+    }
+
+    @Test
+    public void testRefusesMatricesLargerThanAnArray() {
+        ActivationCache cache = new ActivationCache(Long.MAX_VALUE);
+        FeatureMatrix huge = new FeatureMatrix() {
+            @Override
+            public int getRows() {
+                return 50_000;
+            }
+
+            @Override
+            public int getWidth() {
+                return 50_000;
+            }
+
+            @Override
+            public int getLabel(int row) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void copyRow(int row, double[] dst, int offset) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        assertNull(cache.get(huge, ActivationType.RELU, 1.0));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    public void testPartialPredictionDoesNotFillCache() {
+        ActivationCache cache = new ActivationCache(1 << 20);
+        Dataset data = data(100, 2);
+        Model model = new Model(1, ActivationType.SIGMOID, 6);
+        model.setActivationCache(cache);
+        double[] part = new double[10];
+        model.predictBatch(data, 40, 50, null, part);
+
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getMisses());
+        double[] all = new double[100];
+        model.predictBatch(data, null, all);
+        assertEquals(1, cache.getEntryCount());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(all[40 + i], part[i], 0.0);
+        }
+    }
+}
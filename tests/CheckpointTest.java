@@ -0,0 +1,155 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class CheckpointTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Model model = new Model(12, ActivationType.ELU, 40, 3L);
+        model.setFastMath(true);
+        Path file = dir.resolve("model.ckpt");
+        new Checkpoint(model, 7, 0.05, 99L).write(file);
+
+        Checkpoint read = Checkpoint.read(file);
+        assertEquals(12, read.getID());
+        assertEquals(ActivationType.ELU, read.getActivationType());
+        assertTrue(read.isFastMath());
+        assertArrayEquals(model.getWeights(), read.getWeights(), 0.0);
+        assertEquals(model.getBias(), read.getBias(), 0.0);
+        assertEquals(7, read.getEpoch());
+        assertEquals(0.05, read.getLearningRate(), 0.0);
+        assertEquals(99L, read.getRandomState());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testCorruptFileIsRejected() throws IOException {
+        Path file = dir.resolve("model.ckpt");
+        new Checkpoint(new Model(1, ActivationType.RELU, 5L), 1, 0.01, 0L).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+
+        Files.write(file, new byte[10]);
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+
+    @Test
+    public void testResumeMatchesUninterruptedRun() throws IOException {
+        Dataset data = TestData.linear(3000, 5, 4L);
+        Model uninterrupted = new Model(2, ActivationType.SIGMOID, 8L);
+        uninterrupted.train(data, 10);
+
+        Model crashed = new Model(2, ActivationType.SIGMOID, 8L);
+        crashed.setTrainingListener(metrics -> {
+            if (metrics.getEpoch() == 6) {
+                throw new IllegalStateException("power cut");
+            }
+        });
+        Path file = dir.resolve("run.ckpt");
+        Checkpointer checkpointer = new Checkpointer(file, 2, 0);
+        assertThrows(IllegalStateException.class, () -> crashed.train(data, 10, checkpointer));
+        checkpointer.close();
+        assertEquals(6, Checkpoint.read(file).getEpoch());
+
+        Model resumed = new Model(2, ActivationType.SIGMOID, 1234L);
+        try (Checkpointer again = new Checkpointer(file, 2, 0)) {
+            assertEquals(6, resumed.resume(data, 10, again));
+        }
+        assertArrayEquals(uninterrupted.getWeights(), resumed.getWeights(), 0.0);
+        assertEquals(uninterrupted.getBias(), resumed.getBias(), 0.0);
+        assertEquals(10, Checkpoint.read(file).getEpoch());
+
+        try (Checkpointer done = new Checkpointer(file, 2, 0)) {
+            assertEquals(10, resumed.resume(data, 10, done));
+            assertEquals(0, done.getWrittenCount());
+        }
+    }
+
+    @Test
+    public void testResumeShuffledRunMatchesUninterruptedRun() throws IOException {
+        Dataset data = TestData.linear(2000, 5, 10L);
+        Model uninterrupted = new Model(4, ActivationType.ELU, 3L);
+        try (EpochIterator batches = new EpochIterator(data, 8, 64, 21L)) {
+            uninterrupted.train(batches);
+        }
+
+        Model crashed = new Model(4, ActivationType.ELU, 3L);
+        crashed.setTrainingListener(metrics -> {
+            if (metrics.getEpoch() == 5) {
+                throw new IllegalStateException("power cut");
+            }
+        });
+        Path file = dir.resolve("shuffled.ckpt");
+        try (Checkpointer checkpointer = new Checkpointer(file, 2, 0);
+            EpochIterator batches = new EpochIterator(data, 8, 64, 21L)) {
+            assertThrows(IllegalStateException.class, () -> crashed.train(batches, checkpointer));
+        }
+        Checkpoint checkpoint = Checkpoint.read(file);
+        assertEquals(4, checkpoint.getEpoch());
+        assertEquals(21L, checkpoint.getRandomState());
+
+        try (Checkpointer checkpointer = new Checkpointer(file, 2, 0)) {
+            assertThrows(IllegalArgumentException.class, () -> new Model(4, ActivationType.ELU, 3L)
+                .resume(new EpochIterator(data, 8, 64, 22L), checkpointer));
+            assertThrows(IllegalArgumentException.class, () -> new Model(4, ActivationType.ELU, 3L)
+                .resume(data, 8, checkpointer));
+        }
+        Model resumed = new Model(4, ActivationType.ELU, 99L);
+        try (Checkpointer checkpointer = new Checkpointer(file, 2, 0);
+            EpochIterator batches = new EpochIterator(data, 8, 64, 21L)) {
+            assertEquals(4, resumed.resume(batches, checkpointer));
+        }
+        assertArrayEquals(uninterrupted.getWeights(), resumed.getWeights(), 0.0);
+        assertEquals(uninterrupted.getBias(), resumed.getBias(), 0.0);
+        assertEquals(8, Checkpoint.read(file).getEpoch());
+    }
+
+    @Test
+    public void testResumeWithoutCheckpointStartsFresh() throws IOException {
+        Dataset data = TestData.linear(500, 5, 5L);
+        Model plain = new Model(3, ActivationType.RELU, 9L);
+        plain.train(data, 4);
+        Model checkpointed = new Model(3, ActivationType.RELU, 9L);
+        Checkpointer checkpointer = new Checkpointer(dir.resolve("fresh.ckpt"), 0, 60_000);
+        try {
+            assertEquals(0, checkpointed.resume(data, 4, checkpointer));
+        } finally {
+            checkpointer.close();
+        }
+        assertTrue(checkpointer.getWrittenCount() + checkpointer.getSkippedCount() >= 1);
+        assertArrayEquals(plain.getWeights(), checkpointed.getWeights(), 0.0);
+        assertEquals(4, Checkpoint.read(dir.resolve("fresh.ckpt")).getEpoch());
+    }
+
+    @Test
+    public void testMismatchAndInvalidArguments() throws IOException {
+        Path file = dir.resolve("other.ckpt");
+        new Checkpoint(new Model(1, ActivationType.RELU, 5L), 3, 0.01, 0L).write(file);
+        Dataset data = TestData.linear(100, 5, 6L);
+        try (Checkpointer checkpointer = new Checkpointer(file, 1, 0)) {
+            assertThrows(IllegalArgumentException.class,
+                () -> new Model(1, ActivationType.ELU, 5L).resume(data, 5, checkpointer));
+            assertThrows(IllegalArgumentException.class,
+                () -> new Model(1, ActivationType.RELU, 5L).train(SparseMatrix.of(data), 2, checkpointer));
+            assertThrows(IllegalArgumentException.class,
+                () -> new Model(1, ActivationType.RELU, 5L).train(data, 0, checkpointer));
+            assertThrows(IllegalArgumentException.class,
+                () -> new Model(1, ActivationType.RELU, 5L).resume(data, -1, checkpointer));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(file, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Checkpointer(file, -1, 10));
+    }
+}
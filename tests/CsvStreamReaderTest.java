@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class CsvStreamReaderTest {
+
+    private static CsvStreamReader reader(String text, int bufferBytes) {
+        return new CsvStreamReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+            bufferBytes, "test");
+    }
+
+    @Test
+    public void testReadsRowsAcrossChunks() throws IOException {
+        StringBuilder text = new StringBuilder("x1,x2,label\r\n");
+        Random rand = new Random(3);
+        double[][] expected = new double[500][2];
+        for (int r = 0; r < expected.length; r++) {
+            expected[r][0] = rand.nextDouble() * 2.0 - 1.0;
+            expected[r][1] = Math.round(rand.nextDouble() * 1000) / 1000.0;
+            text.append(expected[r][0]).append(", ").append(expected[r][1]).append(',').append(r % 2).append('\n');
+        }
+        CsvStreamReader reader = reader(text.toString(), 64);
+        for (int r = 0; r < expected.length; r++) {
+            assertTrue(reader.next());
+            assertArrayEquals(expected[r], reader.getRow(), 0.0);
+            assertEquals(r % 2, reader.getLabel());
+        }
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void testNumberFormats() throws IOException {
+        CsvStreamReader reader = reader("1e-3,-2.5E2,+.5,0.1000000000000000055511,7\t,1\n\n -0 ,3,4,5,6,0", 64);
+
+        assertTrue(reader.next());
+        assertArrayEquals(new double[]{1e-3, -250.0, 0.5, 0.1, 7.0}, reader.getRow(), 0.0);
+        assertEquals(1, reader.getLabel());
+        assertTrue(reader.next());
+        assertEquals(-0.0, reader.getRow()[0], 0.0);
+        assertEquals(0, reader.getLabel());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void testRejectsBadInput() {
+        assertThrows(IOException.class, () -> {
+            CsvStreamReader reader = reader("1,2,3\n1,2\n", 64);
+            reader.next();
+            reader.next();
+        });
+        assertThrows(IOException.class, () -> reader("1,abc,1\n", 64).next());
+        assertThrows(IOException.class, () -> reader("1,2,7\n", 64).next());
+        assertThrows(IOException.class, () -> reader("1.0000000000000000000000000000,2.000000000000000000000000000,1\n", 16).next());
+    }
+}
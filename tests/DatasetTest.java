@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetTest {
+
+    @Test
+    public void testFromPeople() {
+        Person[] people = {
+            new Person("A", new double[]{0.1, 0.2, 0.3, 0.4, 0.5}, 0),
+            new Person("B", new double[]{-0.1, -0.2, -0.3, -0.4, -0.5}, 1)
+        };
+        Dataset data = Dataset.fromPeople(people);
+
+        assertEquals(2, data.getRows());
+        assertEquals(5, data.getWidth());
+        assertEquals(-0.3, data.getFeature(1, 2), 0.0);
+        assertEquals(0, data.getLabel(0));
+        assertEquals(1, data.getLabel(1));
+        assertEquals(10, data.getFeatures().length);
+    }
+
+    @Test
+    public void testFromNoPeople() {
+        Dataset data = Dataset.fromPeople(new Person[0]);
+
+        assertEquals(0, data.getRows());
+        assertEquals(5, data.getWidth());
+    }
+
+    @Test
+    public void testMismatchedLengths() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new Dataset(new double[]{0.1, 0.2, 0.3}, new int[]{0, 1}, 2));
+        assertThrows(IllegalArgumentException.class,
+            () -> new Dataset(new double[0], new int[0], 0));
+    }
+}
@@ -0,0 +1,152 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EarlyStoppingTest {
+
+    private static Dataset data(int rows, double noise, long seed) {
+        return TestData.uniform(rows, 5, 1.0, seed, (x, o, rand) -> {
+            int label = (x[o] + x[o + 2] > 0) ? 1 : 0;
+            return (rand.nextDouble() < noise) ? 1 - label : label;
+        });
+    }
+
+    @Test
+    public void testTrainRunsExactlyEpochs() {
+        Dataset data = data(50, 0.0, 1);
+        Model byPasses = new Model(1, ActivationType.ELU, 3);
+        Model byUpdates = new Model(1, ActivationType.ELU, 3);
+        byPasses.train(data, 4);
+        double[] row = new double[5];
+        for (int epoch = 0; epoch < 4; epoch++) {
+            for (int r = 0; r < data.getRows(); r++) {
+                data.copyRow(r, row, 0);
+                byUpdates.update(row, 0, data.getLabel(r), 0.01);
+            }
+        }
+
+        assertArrayEquals(byUpdates.getWeights(), byPasses.getWeights(), 0.0);
+        assertEquals(byUpdates.getBias(), byPasses.getBias(), 0.0);
+    }
+
+    @Test
+    public void testConstantScheduleWithoutStoppingMatchesTrain() {
+        Dataset data = data(200, 0.1, 2);
+        Model plain = new Model(1, ActivationType.SIGMOID, 4);
+        Model watched = new Model(1, ActivationType.SIGMOID, 4);
+        EarlyStopping stopping = new EarlyStopping();
+        stopping.setPatience(1000);
+        stopping.setRestoreBestWeights(false);
+        plain.train(data, 6);
+        EarlyStoppingReport report = watched.train(data, 6, stopping);
+
+        assertArrayEquals(plain.getWeights(), watched.getWeights(), 0.0);
+        assertEquals(plain.getBias(), watched.getBias(), 0.0);
+        assertEquals(6, report.getEpochs());
+        assertEquals(EarlyStoppingReport.StopReason.MAX_EPOCHS, report.getReason());
+        assertTrue(report.getLosses()[5] < report.getLosses()[0]);
+    }
+
+    @Test
+    public void testConvergedRunStopsEarly() {
+        Dataset data = data(2_000, 0.0, 3);
+        Model model = new Model(1, ActivationType.RELU, 5);
+        EarlyStopping stopping = new EarlyStopping();
+        stopping.setSchedule(LearningRateSchedule.exponential(0.5, 0.7));
+        stopping.setMinDelta(1e-3);
+        stopping.setPatience(3);
+        EarlyStoppingReport report = model.train(data, 500, stopping);
+
+        assertEquals(EarlyStoppingReport.StopReason.CONVERGED, report.getReason());
+        assertTrue(report.getEpochs() < 50, report.toString());
+        assertEquals(report.getBestEpoch() + 1 + 3, report.getEpochs());
+        assertEquals(report.getLosses()[report.getBestEpoch()], report.getBestLoss(), 0.0);
+    }
+
+    @Test
+    public void testValidationLossRestoresBestWeights() {
+        Dataset data = data(400, 0.3, 4);
+        Model model = new Model(1, ActivationType.SIGMOID, 6);
+        EarlyStopping stopping = new EarlyStopping();
+        stopping.setValidationFraction(0.25);
+        stopping.setSchedule(LearningRateSchedule.constant(2.0));
+        stopping.setMinDelta(0.0);
+        stopping.setPatience(2);
+        EarlyStoppingReport report = model.train(data, 200, stopping);
+
+        assertNotEquals(EarlyStoppingReport.StopReason.MAX_EPOCHS, report.getReason());
+        double validation = 0;
+        double[] row = new double[5];
+        for (int r = 300; r < 400; r++) {
+            data.copyRow(r, row, 0);
+            double[] activated = new double[5];
+            Activation.activate(ActivationType.SIGMOID, row, 0, activated, 0, 5);
+            double sum = model.getBias();
+            for (int j = 0; j < 5; j++) {
+                sum += model.getWeights()[j] * activated[j];
+            }
+            validation += TrainingMonitor.logLoss(Activation.sigmoid(sum), data.getLabel(r));
+        }
+        assertEquals(report.getBestLoss(), validation / 100, 1e-9);
+    }
+
+    @Test
+    public void testShuffledSplitMatchesPermutedData() {
+        Dataset data = data(300, 0.2, 7);
+        int[] order = new int[300];
+        EpochIterator.shuffle(order, 11L);
+        double[] features = new double[300 * 5];
+        int[] labels = new int[300];
+        for (int i = 0; i < 300; i++) {
+            data.copyRow(order[i], features, i * 5);
+            labels[i] = data.getLabel(order[i]);
+        }
+        Dataset permuted = new Dataset(features, labels, 5);
+        EarlyStopping stopping = new EarlyStopping();
+        stopping.setValidationFraction(0.2);
+        stopping.setSchedule(LearningRateSchedule.constant(0.5));
+        Model plain = new Model(1, ActivationType.ELU, 8);
+        EarlyStoppingReport expected = plain.train(permuted, 20, stopping);
+        stopping.setShuffle(true);
+        stopping.setSeed(11L);
+        Model shuffled = new Model(1, ActivationType.ELU, 8);
+        EarlyStoppingReport report = shuffled.train(data, 20, new EarlyStopping(stopping));
+
+        assertArrayEquals(expected.getLosses(), report.getLosses(), 0.0);
+        assertArrayEquals(plain.getWeights(), shuffled.getWeights(), 0.0);
+        assertEquals(plain.getBias(), shuffled.getBias(), 0.0);
+        stopping.setSeed(12L);
+        assertNotEquals(report.getLosses()[0], new Model(1, ActivationType.ELU, 8).train(data, 20, stopping)
+            .getLosses()[0]);
+    }
+
+    @Test
+    public void testSchedules() {
+        assertEquals(0.1, LearningRateSchedule.constant(0.1).rate(99), 0.0);
+        LearningRateSchedule step = LearningRateSchedule.step(0.8, 3, 0.5);
+        assertEquals(0.8, step.rate(2), 0.0);
+        assertEquals(0.4, step.rate(3), 0.0);
+        assertEquals(0.2, step.rate(7), 0.0);
+        assertEquals(0.8 * 0.9 * 0.9, LearningRateSchedule.exponential(0.8, 0.9).rate(2), 1e-15);
+        LearningRateSchedule cosine = LearningRateSchedule.cosine(1.0, 0.1, 11);
+        assertEquals(1.0, cosine.rate(0), 1e-15);
+        assertEquals(0.55, cosine.rate(5), 1e-15);
+        assertEquals(0.1, cosine.rate(10), 1e-15);
+        assertEquals(0.1, cosine.rate(50), 1e-15);
+        assertThrows(IllegalArgumentException.class, () -> LearningRateSchedule.step(0.1, 0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> LearningRateSchedule.exponential(0.1, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> LearningRateSchedule.constant(-1));
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        EarlyStopping stopping = new EarlyStopping();
+        assertThrows(IllegalArgumentException.class, () -> stopping.setValidationFraction(1.0));
+        assertThrows(IllegalArgumentException.class, () -> stopping.setPatience(0));
+        assertThrows(IllegalArgumentException.class, () -> stopping.setMinDelta(-1e-3));
+        stopping.setValidationFraction(0.9);
+        Model model = new Model(1, ActivationType.RELU, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> model.train(data(10, 0.0, 5), 0, stopping));
+        assertThrows(IllegalArgumentException.class, () -> model.train(data(1, 0.0, 5), 3, stopping));
+    }
+}
@@ -0,0 +1,188 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class EnsembleTest {
+
+    private static Dataset data(int rows) {
+        return TestData.uniform(rows, 5, 2.0, 12, (x, o, rand) -> (x[o] > 0) ? 1 : 0);
+    }
+
+    private static List<Model> models() {
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            models.add(new Model(100 + i, ActivationType.values()[(i * 7) % 3], i));
+        }
+        return models;
+    }
+
+    private static Model byId(List<Model> models, int id) {
+        for (Model model : models) {
+            if (model.getID() == id) {
+                return model;
+            }
+        }
+        throw new AssertionError("No model " + id);
+    }
+
+    @Test
+    public void testProbabilitiesMatchEachModel() {
+        Dataset data = data(700);
+        List<Model> models = models();
+        Ensemble ensemble = new Ensemble(models);
+        double[] probabilities = new double[data.getRows() * ensemble.size()];
+        ensemble.probabilities(data, 0, data.getRows(), probabilities);
+
+        double delta = Kernels.get().getName().equals("scalar") ? 0.0 : 1e-12;
+        int[] ids = ensemble.getIds();
+        double[] expected = new double[data.getRows()];
+        for (int k = 0; k < ids.length; k++) {
+            byId(models, ids[k]).predictBatch(data, null, expected);
+            for (int r = 0; r < data.getRows(); r++) {
+                assertEquals(expected[r], probabilities[r * ids.length + k], delta);
+            }
+        }
+    }
+
+    @Test
+    public void testCombiners() {
+        Dataset data = data(300);
+        Ensemble ensemble = new Ensemble(models());
+        int n = ensemble.size();
+        double[] probabilities = new double[data.getRows() * n];
+        ensemble.probabilities(data, 0, data.getRows(), probabilities);
+        int[] votes = new int[data.getRows()];
+        double[] voteScores = new double[data.getRows()];
+        int[] means = new int[data.getRows()];
+        double[] meanScores = new double[data.getRows()];
+        ensemble.predictBatch(data, 0, data.getRows(), Ensemble.Combiner.MAJORITY_VOTE, votes, voteScores);
+        ensemble.predictBatch(data, 0, data.getRows(), Ensemble.Combiner.MEAN_PROBABILITY, means, meanScores);
+
+        for (int r = 0; r < data.getRows(); r++) {
+            int ones = 0;
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                ones += (probabilities[r * n + k] > 0.5) ? 1 : 0;
+                sum += probabilities[r * n + k];
+            }
+            assertEquals((double) ones / n, voteScores[r], 0.0);
+            assertEquals((ones * 2 > n) ? 1 : 0, votes[r]);
+            assertEquals(sum / n, meanScores[r], 1e-15);
+            assertEquals((meanScores[r] > 0.5) ? 1 : 0, means[r]);
+        }
+    }
+
+    @Test
+    public void testUncachedAndRowRanges() {
+        Dataset data = data(600);
+        Ensemble cached = new Ensemble(models());
+        Ensemble uncached = new Ensemble(models());
+        uncached.setActivationCache(null);
+        FeatureMatrix view = new FeatureMatrix() {
+            public int getRows() {
+                return data.getRows();
+            }
+
+            public int getWidth() {
+                return data.getWidth();
+            }
+
+            public int getLabel(int row) {
+                return data.getLabel(row);
+            }
+
+            public void copyRow(int row, double[] dst, int offset) {
+                data.copyRow(row, dst, offset);
+            }
+        };
+        int n = cached.size();
+        double[] expected = new double[data.getRows() * n];
+        double[] fromDataset = new double[300 * n];
+        double[] fromView = new double[300 * n];
+        cached.probabilities(data, 0, data.getRows(), expected);
+        uncached.probabilities(data, 250, 550, fromDataset);
+        uncached.probabilities(view, 250, 550, fromView);
+
+        for (int i = 0; i < 300 * n; i++) {
+            assertEquals(expected[250 * n + i], fromDataset[i], 0.0);
+            assertEquals(expected[250 * n + i], fromView[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testFastMathModelsStayFast() {
+        Dataset data = data(400);
+        List<Model> models = models();
+        for (int i = 0; i < models.size(); i += 2) {
+            models.get(i).setFastMath(true);
+        }
+        for (Model model : models) {
+            model.setActivationCache(null);
+        }
+        Ensemble ensemble = new Ensemble(models);
+        ensemble.setActivationCache(null);
+        double[] probabilities = new double[data.getRows() * ensemble.size()];
+        ensemble.probabilities(data, 0, data.getRows(), probabilities);
+
+        double delta = Kernels.get().getName().equals("scalar") ? 0.0 : 1e-12;
+        int[] ids = ensemble.getIds();
+        double[] expected = new double[data.getRows()];
+        for (int k = 0; k < ids.length; k++) {
+            byId(models, ids[k]).predictBatch(data, null, expected);
+            for (int r = 0; r < data.getRows(); r++) {
+                assertEquals(expected[r], probabilities[r * ids.length + k], delta);
+            }
+        }
+    }
+
+    @Test
+    public void testViewsAndSparseRowsAreNotCached() {
+        Dataset data = data(200);
+        ActivationCache cache = new ActivationCache(1 << 20);
+        Ensemble ensemble = new Ensemble(models());
+        ensemble.setActivationCache(cache);
+        int[] order = new int[data.getRows()];
+        for (int r = 0; r < order.length; r++) {
+            order[r] = order.length - 1 - r;
+        }
+        RowView view = new RowView(data, order, 0, 100);
+        SparseMatrix sparse = SparseMatrix.of(data);
+        int n = ensemble.size();
+        double[] expected = new double[data.getRows() * n];
+        double[] fromView = new double[100 * n];
+        double[] fromSparse = new double[data.getRows() * n];
+        ensemble.setActivationCache(null);
+        ensemble.probabilities(data, 0, data.getRows(), expected);
+        ensemble.setActivationCache(cache);
+        ensemble.probabilities(view, 0, 100, fromView);
+        ensemble.probabilities(sparse, 0, data.getRows(), fromSparse);
+
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getMisses());
+        for (int r = 0; r < 100; r++) {
+            for (int k = 0; k < n; k++) {
+                assertEquals(expected[order[r] * n + k], fromView[r * n + k], 0.0);
+            }
+        }
+        assertArrayEquals(expected, fromSparse, 0.0);
+    }
+
+    @Test
+    public void testPredictPersonAndValidation() {
+        Ensemble ensemble = new Ensemble(models());
+        Person person = new Person("A", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0);
+        int[] label = new int[1];
+        ensemble.predictBatch(Dataset.fromPeople(new Person[]{person}), 0, 1,
+            Ensemble.Combiner.MEAN_PROBABILITY, label, null);
+
+        assertEquals(label[0], ensemble.predict(person, Ensemble.Combiner.MEAN_PROBABILITY));
+        assertThrows(IllegalArgumentException.class, () -> new Ensemble(Collections.emptyList()));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> ensemble.probabilities(data(10), 5, 11, new double[100]));
+        assertThrows(IllegalArgumentException.class,
+            () -> ensemble.probabilities(new Dataset(new double[4], new int[1], 4), 0, 1, new double[10]));
+    }
+}
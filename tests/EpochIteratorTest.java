@@ -0,0 +1,154 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EpochIteratorTest {
+
+    /**
+     * The rows of data with every label 0 first, then every label 1.
+     */
+    private static Dataset sortedByLabel(Dataset data) {
+        int width = data.getWidth();
+        double[] features = new double[data.getRows() * width];
+        int[] labels = new int[data.getRows()];
+        int next = 0;
+        for (int label = 0; label < 2; label++) {
+            for (int r = 0; r < data.getRows(); r++) {
+                if (data.getLabel(r) == label) {
+                    data.copyRow(r, features, next * width);
+                    labels[next++] = label;
+                }
+            }
+        }
+        return new Dataset(features, labels, width);
+    }
+
+    private static List<int[]> orders(FeatureMatrix data, int epochs, int batchSize, long seed) {
+        List<int[]> orders = new ArrayList<>();
+        try (EpochIterator batches = new EpochIterator(data, epochs, batchSize, seed)) {
+            int[] order = null;
+            int next = 0;
+            for (EpochIterator.Batch batch = batches.next(); batch != null; batch = batches.next()) {
+                if (batch.getEpoch() == orders.size()) {
+                    order = new int[data.getRows()];
+                    orders.add(order);
+                    next = 0;
+                }
+                System.arraycopy(batch.getRows(), 0, order, next, batch.getSize());
+                next += batch.getSize();
+            }
+        }
+        return orders;
+    }
+
+    @Test
+    public void testEveryEpochVisitsEveryRowOnce() {
+        Dataset data = TestData.linear(1000, 5, 1L);
+        double[] row = new double[5];
+        try (EpochIterator batches = new EpochIterator(data, 3, 128, 7L)) {
+            int[] seen = new int[1000];
+            List<Integer> sizes = new ArrayList<>();
+            int lastEpoch = 0;
+            for (EpochIterator.Batch batch = batches.next(); batch != null; batch = batches.next()) {
+                assertTrue(batch.getEpoch() == lastEpoch || batch.getEpoch() == lastEpoch + 1);
+                lastEpoch = batch.getEpoch();
+                sizes.add(batch.getSize());
+                for (int i = 0; i < batch.getSize(); i++) {
+                    int r = batch.getRows()[i];
+                    seen[r]++;
+                    data.copyRow(r, row, 0);
+                    assertArrayEquals(row, Arrays.copyOfRange(batch.getFeatures(), i * 5, i * 5 + 5), 0.0);
+                    assertEquals(data.getLabel(r), batch.getLabels()[i]);
+                }
+            }
+            assertEquals(2, lastEpoch);
+            for (int count : seen) {
+                assertEquals(3, count);
+            }
+            assertEquals(24, batches.getBatchCount());
+            assertEquals(104, (int) sizes.get(7));
+            assertTrue(batches.getStallNanos() >= 0);
+            assertTrue(batches.getGatherNanos() > 0);
+            assertNull(batches.next());
+        }
+    }
+
+    @Test
+    public void testOrderDependsOnlyOnSeedAndEpoch() {
+        Dataset data = TestData.linear(500, 5, 2L);
+        List<int[]> first = orders(data, 2, 64, 42L);
+        List<int[]> again = orders(data, 2, 100, 42L);
+        List<int[]> other = orders(data, 2, 64, 43L);
+        assertArrayEquals(first.get(0), again.get(0));
+        assertArrayEquals(first.get(1), again.get(1));
+        assertFalse(Arrays.equals(first.get(0), first.get(1)));
+        assertFalse(Arrays.equals(first.get(0), other.get(0)));
+        int[] sorted = first.get(0).clone();
+        Arrays.sort(sorted);
+        for (int r = 0; r < sorted.length; r++) {
+            assertEquals(r, sorted[r]);
+        }
+    }
+
+    @Test
+    public void testShuffledTrainingBeatsFixedOrderOnSortedRows() {
+        Dataset data = sortedByLabel(TestData.linear(20000, 5, 3L));
+        Model fixed = new Model(1, ActivationType.SIGMOID, 7L);
+        fixed.train(data, 2);
+        Model shuffled = new Model(1, ActivationType.SIGMOID, 7L);
+        Model repeat = new Model(1, ActivationType.SIGMOID, 7L);
+        try (EpochIterator batches = new EpochIterator(data, 2, 512, 11L);
+            EpochIterator same = new EpochIterator(data, 2, 512, 11L)) {
+            shuffled.train(batches);
+            repeat.train(same);
+            assertEquals(80, batches.getBatchCount());
+        }
+        assertTrue(shuffled.loss(data) < fixed.loss(data) / 2,
+            shuffled.loss(data) + " vs " + fixed.loss(data));
+        assertTrue(EvaluationMetrics.evaluate(shuffled, data, 1).getAccuracy() > 0.9);
+        assertArrayEquals(shuffled.getWeights(), repeat.getWeights(), 0.0);
+        assertEquals(shuffled.getBias(), repeat.getBias(), 0.0);
+    }
+
+    @Test
+    public void testCloseEarlyAndFailures() {
+        Dataset data = TestData.linear(10000, 5, 4L);
+        EpochIterator batches = new EpochIterator(data, 100, 16, 1L);
+        assertNotNull(batches.next());
+        batches.close();
+        assertNull(batches.next());
+
+        FeatureMatrix broken = new FeatureMatrix() {
+            @Override
+            public int getRows() {
+                return 100;
+            }
+
+            @Override
+            public int getWidth() {
+                return 5;
+            }
+
+            @Override
+            public int getLabel(int row) {
+                return 0;
+            }
+
+            @Override
+            public void copyRow(int row, double[] dst, int offset) {
+                throw new IllegalStateException("disk gone");
+            }
+        };
+        try (EpochIterator failing = new EpochIterator(broken, 1, 10, 1L)) {
+            assertThrows(IllegalStateException.class, failing::next);
+        }
+        try (EpochIterator wide = new EpochIterator(TestData.linear(10, 6, 1L), 1, 4, 1L)) {
+            assertThrows(IllegalArgumentException.class, () -> new Model(1, ActivationType.RELU).train(wide));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new EpochIterator(data, 0, 16, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new EpochIterator(data, 1, 0, 1L));
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationMetricsTest {
+
+    private static Dataset data(int rows, long seed) {
+        return TestData.uniform(rows, 5, 1.0, seed,
+            (x, o, rand) -> (x[o] + x[o + 1] + x[o + 2] + x[o + 3] + x[o + 4] + rand.nextGaussian() * 0.5 > 0) ? 1 : 0);
+    }
+
+    /** The exact ROC-AUC by sorting, ties counting half. */
+    private static double exactAuc(double[] probabilities, int[] labels) {
+        Integer[] order = new Integer[probabilities.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(probabilities[a], probabilities[b]));
+        double above = 0;
+        long negativesBelow = 0;
+        long positives = 0;
+        for (int i = 0; i < order.length; ) {
+            int j = i;
+            long tiedPositives = 0;
+            long tiedNegatives = 0;
+            while (j < order.length && probabilities[order[j]] == probabilities[order[i]]) {
+                if (labels[order[j]] == 1) {
+                    tiedPositives++;
+                } else {
+                    tiedNegatives++;
+                }
+                j++;
+            }
+            above += tiedPositives * (negativesBelow + tiedNegatives * 0.5);
+            negativesBelow += tiedNegatives;
+            positives += tiedPositives;
+            i = j;
+        }
+        return above / ((double) positives * negativesBelow);
+    }
+
+    @Test
+    public void testConfusionMatrixAndDerivedMetrics() {
+        EvaluationMetrics metrics = new EvaluationMetrics();
+        metrics.add(1, 0.9);
+        metrics.add(1, 0.8);
+        metrics.add(1, 0.3);
+        metrics.add(0, 0.6);
+        metrics.add(0, 0.2);
+        assertEquals(5, metrics.getCount());
+        assertEquals(2, metrics.getTruePositives());
+        assertEquals(1, metrics.getFalseNegatives());
+        assertEquals(1, metrics.getFalsePositives());
+        assertEquals(1, metrics.getTrueNegatives());
+        assertEquals(0.6, metrics.getAccuracy(), 1e-12);
+        assertEquals(2.0 / 3, metrics.getPrecision(), 1e-12);
+        assertEquals(2.0 / 3, metrics.getRecall(), 1e-12);
+        assertEquals(2.0 / 3, metrics.getF1(), 1e-12);
+        double loss = -(Math.log(0.9) + Math.log(0.8) + Math.log(0.3) + Math.log(0.4) + Math.log(0.8)) / 5;
+        assertEquals(loss, metrics.getLogLoss(), 1e-12);
+        // Positives 0.9, 0.8, 0.3 against negatives 0.6, 0.2: 5 of 6 pairs ranked right.
+        assertEquals(5.0 / 6, metrics.getAuc(), 1e-12);
+    }
+
+    @Test
+    public void testEmptyMetrics() {
+        EvaluationMetrics metrics = new EvaluationMetrics();
+        assertEquals(0, metrics.getCount());
+        assertEquals(0.0, metrics.getAccuracy());
+        assertEquals(0.0, metrics.getF1());
+        assertEquals(0.0, metrics.getLogLoss());
+        assertEquals(0.5, metrics.getAuc());
+    }
+
+    @Test
+    public void testHistogramAucCloseToExact() {
+        Random rand = new Random(3);
+        int n = 20_000;
+        double[] probabilities = new double[n];
+        int[] labels = new int[n];
+        EvaluationMetrics metrics = new EvaluationMetrics();
+        for (int i = 0; i < n; i++) {
+            labels[i] = rand.nextInt(2);
+            probabilities[i] = 1.0 / (1.0 + Math.exp(-(rand.nextGaussian() + labels[i])));
+            metrics.add(labels[i], probabilities[i]);
+        }
+        assertEquals(exactAuc(probabilities, labels), metrics.getAuc(), 1e-3);
+    }
+
+    @Test
+    public void testMergeMatchesSinglePass() {
+        Random rand = new Random(5);
+        EvaluationMetrics whole = new EvaluationMetrics();
+        EvaluationMetrics left = new EvaluationMetrics();
+        EvaluationMetrics right = new EvaluationMetrics();
+        for (int i = 0; i < 1000; i++) {
+            int label = rand.nextInt(2);
+            double p = rand.nextDouble();
+            whole.add(label, p);
+            ((i % 3 == 0) ? left : right).add(label, p);
+        }
+        left.merge(right);
+        assertEquals(whole.getCount(), left.getCount());
+        assertEquals(whole.getTruePositives(), left.getTruePositives());
+        assertEquals(whole.getFalsePositives(), left.getFalsePositives());
+        assertEquals(whole.getAuc(), left.getAuc(), 1e-15);
+        assertEquals(whole.getLogLoss(), left.getLogLoss(), 1e-12);
+    }
+
+    @Test
+    public void testEvaluateMatchesPredictBatch() {
+        Dataset data = data(150_000, 11);
+        Model model = new Model(1, ActivationType.SIGMOID, 42);
+        model.train(data, 2);
+        double[] probabilities = new double[data.getRows()];
+        model.predictBatch(data, 0, data.getRows(), null, probabilities);
+        EvaluationMetrics expected = new EvaluationMetrics();
+        for (int r = 0; r < data.getRows(); r++) {
+            expected.add(data.getLabel(r), probabilities[r]);
+        }
+        for (int parallelism : new int[]{1, 4}) {
+            EvaluationMetrics metrics = EvaluationMetrics.evaluate(model, data, parallelism);
+            assertEquals(data.getRows(), metrics.getCount());
+            assertEquals(expected.getTruePositives(), metrics.getTruePositives());
+            assertEquals(expected.getTrueNegatives(), metrics.getTrueNegatives());
+            assertEquals(expected.getAuc(), metrics.getAuc(), 1e-15);
+            assertEquals(expected.getLogLoss(), metrics.getLogLoss(), 1e-12);
+        }
+        assertEquals(exactAuc(probabilities, data.getLabels()), expected.getAuc(), 1e-3);
+    }
+
+    @Test
+    public void testEvaluateRejectsBadArguments() {
+        Model model = new Model(1, ActivationType.RELU, 1);
+        assertThrows(IllegalArgumentException.class, () -> EvaluationMetrics.evaluate(model, data(10, 1), 0));
+        Dataset wide = new Dataset(new double[6], new int[1], 6);
+        assertThrows(IllegalArgumentException.class, () -> EvaluationMetrics.evaluate(model, wide, 1));
+    }
+}
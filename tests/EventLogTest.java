@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class EventLogTest {
+
+    @Test
+    public void testCapacityRoundsUp() {
+        assertEquals(8, new EventLog(5).getCapacity());
+        assertEquals(1, new EventLog(1).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(0));
+    }
+
+    @Test
+    public void testKeepsMostRecentEvents() {
+        EventLog log = new EventLog(4);
+        for (int i = 0; i < 10; i++) {
+            log.record(i, ModelEvent.Kind.TRAINED, 3, 10);
+        }
+        List<ModelEvent> events = log.snapshot();
+
+        assertEquals(10, log.getRecordedCount());
+        assertEquals(4, events.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(6 + i, events.get(i).getModelId());
+            assertEquals(6 + i, events.get(i).getSequence());
+        }
+        assertEquals("Model 9: Trained on 3 data points for 10 epochs.", events.get(3).toString());
+        assertThrows(UnsupportedOperationException.class, () -> events.remove(0));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        EventLog log = new EventLog(64);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    log.record(id, ModelEvent.Kind.PREDICTED_FAN, 1, 0);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<ModelEvent> events = log.snapshot();
+
+        assertEquals(40_000, log.getRecordedCount());
+        assertEquals(64, events.size());
+        assertEquals(40_000 - 64, events.get(0).getSequence());
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class FastActivationTest {
+
+    @Test
+    public void testWithinDocumentedError() {
+        double sigmoidError = 0;
+        double eluError = 0;
+        for (int i = -2_500_000; i <= 2_500_000; i++) {
+            double x = i * 1e-5 + 1e-7;
+            sigmoidError = Math.max(sigmoidError, Math.abs(FastActivation.sigmoid(x) - Activation.sigmoid(x)));
+            eluError = Math.max(eluError, Math.abs(FastActivation.elu(x, 1.0) - Activation.elu(x, 1.0)));
+        }
+        assertTrue(sigmoidError <= FastActivation.SIGMOID_MAX_ERROR, "sigmoid error " + sigmoidError);
+        assertTrue(eluError <= FastActivation.ELU_MAX_ERROR, "elu error " + eluError);
+        assertEquals(0.5, FastActivation.elu(0.5, 0.3), 0.0);
+        assertEquals(Activation.elu(-2.0, 0.5), FastActivation.elu(-2.0, 0.5), 0.5 * FastActivation.ELU_MAX_ERROR);
+    }
+
+    @Test
+    public void testSaturatesAndKeepsNaN() {
+        assertEquals(0.0, FastActivation.sigmoid(Double.NEGATIVE_INFINITY), 0.0);
+        assertEquals(1.0, FastActivation.sigmoid(Double.POSITIVE_INFINITY), 0.0);
+        assertEquals(1.0, FastActivation.sigmoid(Math.nextDown(FastActivation.RANGE)), FastActivation.SIGMOID_MAX_ERROR);
+        assertEquals(-1.0, FastActivation.elu(-1e9, 1.0), 0.0);
+        assertTrue(Double.isNaN(FastActivation.sigmoid(Double.NaN)));
+        assertTrue(Double.isNaN(FastActivation.elu(Double.NaN, 1.0)));
+    }
+
+    @Test
+    public void testPredictLabelsMatchExactOnHeldOutData() {
+        Random rand = new Random(21);
+        Person[] people = new Person[4000];
+        for (int r = 0; r < people.length; r++) {
+            double[] row = new double[5];
+            for (int j = 0; j < 5; j++) {
+                row[j] = rand.nextDouble() * 2.0 - 1.0;
+            }
+            people[r] = new Person("Person " + r, row, (row[0] + 0.5 * row[2] > 0) ? 1 : 0);
+        }
+        Dataset train = Dataset.fromPeople(Arrays.copyOfRange(people, 0, 3000));
+        Dataset heldOut = Dataset.fromPeople(Arrays.copyOfRange(people, 3000, 4000));
+
+        for (ActivationType type : ActivationType.values()) {
+            Model exact = new Model(1, type, 17);
+            exact.train(train, 5);
+            Model fast = new Model(exact);
+            fast.setFastMath(true);
+            fast.setActivationCache(null);
+
+            double bound = FastActivation.SIGMOID_MAX_ERROR;
+            for (double weight : exact.getWeights()) {
+                bound += 0.25 * Math.abs(weight) * FastActivation.ELU_MAX_ERROR;
+            }
+            double[] exactProbabilities = new double[heldOut.getRows()];
+            double[] fastProbabilities = new double[heldOut.getRows()];
+            exact.predictBatch(heldOut, null, exactProbabilities);
+            fast.predictBatch(heldOut, null, fastProbabilities);
+            for (int r = 0; r < heldOut.getRows(); r++) {
+                assertEquals(exactProbabilities[r], fastProbabilities[r], bound);
+                Person person = people[3000 + r];
+                assertEquals(exact.predict(person), fast.predict(person), type + " row " + r);
+            }
+        }
+    }
+
+    @Test
+    public void testFastTrainingStaysClose() {
+        Random rand = new Random(5);
+        double[] features = new double[2000 * 5];
+        int[] labels = new int[2000];
+        for (int r = 0; r < labels.length; r++) {
+            for (int j = 0; j < 5; j++) {
+                features[r * 5 + j] = rand.nextDouble() * 2.0 - 1.0;
+            }
+            labels[r] = (features[r * 5 + 1] > 0) ? 1 : 0;
+        }
+        Dataset data = new Dataset(features, labels, 5);
+        Model exact = new Model(1, ActivationType.ELU, 3);
+        Model fast = new Model(exact);
+        exact.setActivationCache(null);
+        fast.setActivationCache(null);
+        fast.setFastMath(true);
+
+        exact.train(data, 3);
+        fast.train(data, 3);
+        assertArrayEquals(exact.getWeights(), fast.getWeights(), 1e-3);
+        assertEquals(exact.loss(data), fast.loss(data), 1e-3);
+    }
+}
@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int v = 1; v <= 50; v++) {
+            histogram.record(v);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25.5, histogram.getMean(), 1e-12);
+        assertEquals(25, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(50, histogram.getMax());
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        Histogram histogram = new Histogram();
+        for (long v = 1; v <= 1_000_000; v++) {
+            histogram.record(v * 1000);
+        }
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            double exact = p / 100.0 * 1_000_000_000L;
+            long estimate = histogram.getPercentile(p);
+            assertTrue(estimate >= exact, "p" + p + " = " + estimate);
+            assertTrue(estimate <= exact * (1 + 1.0 / 32), "p" + p + " = " + estimate);
+        }
+        assertEquals(1_000_000_000L, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testBucketsCoverEveryValueInOrder() {
+        long previous = -1;
+        for (int i = 0; Histogram.highestValue(i) > previous && Histogram.highestValue(i) < Long.MAX_VALUE; i++) {
+            long highest = Histogram.highestValue(i);
+            assertEquals(i, Histogram.index(previous + 1));
+            assertEquals(i, Histogram.index(highest));
+            previous = highest;
+        }
+        assertTrue(Histogram.index(Long.MAX_VALUE) > Histogram.index(previous));
+    }
+
+    @Test
+    public void testEmptyAndInvalid() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getPercentile(99));
+        assertEquals(0.0, histogram.getMean());
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+    }
+}
@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HogwildTrainerTest {
+
+    private static Dataset separable(int rows, long seed) {
+        return TestData.uniform(rows, 5, 1.0, seed, (x, o, rand) -> (x[o + 2] + x[o + 3] > 0) ? 1 : 0);
+    }
+
+    @Test
+    public void testReducesLossAndReports() {
+        Dataset data = separable(20_000, 4);
+        Model model = new Model(1, ActivationType.ELU, 3);
+        double before = model.loss(data);
+        TrainingConfig config = new TrainingConfig();
+        config.setLearningRate(0.1);
+        config.setParallelism(4);
+        TrainingReport report = model.trainAsync(data, 5, config);
+
+        assertEquals(5, report.getEpochs());
+        assertEquals(100_000, report.getRowsProcessed());
+        assertEquals(4, report.getThreadRowsPerSecond().length);
+        assertTrue(report.getFinalLoss() < before);
+        assertEquals(model.loss(data), report.getFinalLoss(), 0.0);
+        assertTrue(report.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    public void testSingleThreadMatchesSequentialSgd() {
+        Dataset data = separable(1_000, 5);
+        Model sequential = new Model(1, ActivationType.SIGMOID, 8);
+        Model async = new Model(1, ActivationType.SIGMOID, 8);
+        TrainingConfig config = new TrainingConfig();
+        config.setParallelism(1);
+        sequential.train(data, 2);
+        async.trainAsync(data, 2, config);
+
+        assertArrayEquals(sequential.getWeights(), async.getWeights(), 1e-12);
+        assertEquals(sequential.getBias(), async.getBias(), 1e-12);
+    }
+
+    @Test
+    public void testInvalidEpochs() {
+        Model model = new Model(1, ActivationType.RELU);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> model.trainAsync(separable(10, 1), 0, new TrainingConfig()));
+    }
+}
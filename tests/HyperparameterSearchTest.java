@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class HyperparameterSearchTest {
+
+    private static Dataset data(int rows, long seed) {
+        return TestData.uniform(rows, 5, 1.0, seed, (x, o, rand) -> (x[o + 1] + 0.5 * x[o + 4] > 0) ? 1 : 0);
+    }
+
+    private static Dataset copy(FeatureMatrix view) {
+        double[] features = new double[view.getRows() * 5];
+        int[] labels = new int[view.getRows()];
+        for (int r = 0; r < view.getRows(); r++) {
+            view.copyRow(r, features, r * 5);
+            labels[r] = view.getLabel(r);
+        }
+        return new Dataset(features, labels, 5);
+    }
+
+    @Test
+    public void testFoldsPartitionTheRows() {
+        Dataset data = data(103, 1);
+        KFold folds = new KFold(data, 4, 9);
+        int[] seen = new int[103];
+        for (int f = 0; f < 4; f++) {
+            RowView training = folds.training(f);
+            RowView validation = folds.validation(f);
+            assertEquals(103, training.getRows() + validation.getRows());
+            boolean[] inFold = new boolean[103];
+            for (int r = 0; r < validation.getRows(); r++) {
+                inFold[validation.baseRow(r)] = true;
+                seen[validation.baseRow(r)]++;
+            }
+            for (int r = 0; r < training.getRows(); r++) {
+                assertFalse(inFold[training.baseRow(r)]);
+            }
+        }
+        for (int count : seen) {
+            assertEquals(1, count);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new KFold(data, 1, 0));
+    }
+
+    @Test
+    public void testTrainingOnViewMatchesCopy() {
+        Dataset data = data(500, 2);
+        RowView view = new KFold(data, 5, 3).training(2);
+        for (ActivationCache cache : new ActivationCache[]{new ActivationCache(1L << 20), null}) {
+            Model onView = new Model(1, ActivationType.ELU, 4);
+            Model onCopy = new Model(1, ActivationType.ELU, 4);
+            onView.setActivationCache(cache);
+            onCopy.setActivationCache(null);
+            onView.train(view, 3);
+            onCopy.train(copy(view), 3);
+
+            assertArrayEquals(onCopy.getWeights(), onView.getWeights(), 0.0);
+            assertEquals(onCopy.getBias(), onView.getBias(), 0.0);
+            assertEquals(onCopy.loss(copy(view)), onView.loss(view), 0.0);
+            double[] expected = new double[view.getRows()];
+            double[] actual = new double[view.getRows()];
+            onCopy.predictBatch(copy(view), 0, view.getRows(), null, expected);
+            onView.predictBatch(view, 0, view.getRows(), null, actual);
+            assertArrayEquals(expected, actual, 0.0);
+            if (cache != null) {
+                assertEquals(1, cache.getEntryCount());
+            }
+        }
+    }
+
+    @Test
+    public void testGridLeaderboard() {
+        Dataset data = data(2_000, 3);
+        HyperparameterSearch search = new HyperparameterSearch(data, 4, 5);
+        search.setParallelism(3);
+        List<TrialResult> leaderboard = search.grid(ActivationType.values(), new int[]{1, 4},
+            new double[]{0.001, 0.1});
+
+        assertEquals(12, leaderboard.size());
+        for (int i = 1; i < leaderboard.size(); i++) {
+            assertTrue(leaderboard.get(i - 1).getMeanLoss() <= leaderboard.get(i).getMeanLoss());
+        }
+        TrialResult best = leaderboard.get(0);
+        assertEquals(4, best.getEpochs());
+        assertEquals(0.1, best.getLearningRate(), 0.0);
+        assertTrue(best.getAccuracy() > 0.9, best.toString());
+        assertEquals(4, best.getFoldLosses().length);
+        assertEquals(4.0, best.getMeanEpochsRun(), 0.0);
+        assertTrue(best.getWallNanos() > 0);
+
+        HyperparameterSearch serial = new HyperparameterSearch(data, 4, 5);
+        serial.setParallelism(1);
+        List<TrialResult> again = serial.grid(ActivationType.values(), new int[]{1, 4}, new double[]{0.001, 0.1});
+        for (int i = 0; i < leaderboard.size(); i++) {
+            assertEquals(leaderboard.get(i).getTrial(), again.get(i).getTrial());
+            assertArrayEquals(leaderboard.get(i).getFoldLosses(), again.get(i).getFoldLosses(), 0.0);
+        }
+    }
+
+    @Test
+    public void testRandomSearchWithEarlyStopping() {
+        Dataset data = data(1_000, 4);
+        HyperparameterSearch search = new HyperparameterSearch(data, 3, 6);
+        EarlyStopping stopping = new EarlyStopping();
+        stopping.setPatience(2);
+        stopping.setMinDelta(1e-3);
+        search.setEarlyStopping(stopping);
+        List<TrialResult> leaderboard = search.random(20, ActivationType.values(), 20, 60, 0.05, 0.5);
+
+        assertEquals(20, leaderboard.size());
+        for (TrialResult result : leaderboard) {
+            assertTrue(result.getEpochs() >= 20 && result.getEpochs() <= 60);
+            assertTrue(result.getLearningRate() >= 0.05 && result.getLearningRate() <= 0.5);
+            assertTrue(result.getMeanEpochsRun() <= result.getEpochs());
+        }
+        assertTrue(leaderboard.stream().anyMatch(result -> result.getMeanEpochsRun() < result.getEpochs()));
+        stopping.setValidationFraction(0.2);
+        assertThrows(IllegalArgumentException.class, () -> search.setEarlyStopping(stopping));
+        assertThrows(IllegalArgumentException.class, () ->
+            search.grid(ActivationType.values(), new int[]{0}, new double[]{0.1}));
+    }
+}
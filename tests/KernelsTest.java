@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+public class KernelsTest {
+
+    private static double[] inputs(int count, long seed) {
+        Random rand = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = rand.nextDouble() * 20.0 - 10.0;
+        }
+        values[0] = 0.0;
+        values[1] = -0.0;
+        values[2] = 1e-12;
+        values[3] = -1e-12;
+        return values;
+    }
+
+    private static void assertParity(Kernels kernels, int ulps) {
+        double[] src = inputs(1_003, 17);
+        double[] expected = new double[src.length];
+        double[] actual = new double[src.length];
+        for (ActivationType type : ActivationType.values()) {
+            Activation.activate(type, src, 0, expected, 0, src.length);
+            kernels.activate(type, src, 0, actual, 0, src.length);
+            for (int i = 0; i < src.length; i++) {
+                double bound = ulps * Math.ulp(Math.max(Math.abs(expected[i]), 1.0));
+                assertEquals(expected[i], actual[i], bound, type + " at " + src[i]);
+            }
+        }
+
+        int rows = 37;
+        int width = 5;
+        double[] matrix = inputs(rows * width, 23);
+        double[] weights = {0.3, -0.7, 0.11, 0.9, -0.05};
+        double[] scalar = new double[rows];
+        double[] batched = new double[rows + 2];
+        new ScalarKernels().weightedSums(matrix, 0, rows, width, weights, 0.25, scalar, 0);
+        kernels.weightedSums(matrix, 0, rows, width, weights, 0.25, batched, 2);
+        for (int r = 0; r < rows; r++) {
+            assertEquals(scalar[r], batched[r + 2], 0.0);
+        }
+    }
+
+    @Test
+    public void testScalarKernelsAreExact() {
+        assertParity(new ScalarKernels(), 0);
+    }
+
+    @Test
+    public void testVectorKernelsWithinTolerance() {
+        Kernels vector = Kernels.load("vector");
+        if ("vector".equals(System.getProperty("perceptron.kernels"))) {
+            assertNotNull(vector, "-Dperceptron.kernels=vector was given but the SIMD kernels did not load");
+            assertEquals("vector", Kernels.get().getName());
+        }
+        assumeTrue(vector != null, "the SIMD kernels are not available in this JVM");
+        assertParity(vector, Kernels.ULP_TOLERANCE);
+    }
+
+    @Test
+    public void testSelection() {
+        assertNotNull(Kernels.get());
+        assertEquals("scalar", Kernels.load("scalar").getName());
+        if (System.getProperty("perceptron.kernels") == null) {
+            assertEquals("scalar", Kernels.get().getName());
+        }
+        assertNull(Kernels.load("gpu"));
+    }
+
+    @Test
+    public void testPredictBatchAcrossBlocks() {
+        Random rand = new Random(31);
+        int rows = 1_000;
+        double[] features = new double[rows * 5];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = rand.nextDouble() * 2.0 - 1.0;
+        }
+        Dataset data = new Dataset(features, new int[rows], 5);
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type, 2);
+            double[] probabilities = new double[rows - 3];
+            model.predictBatch(data, 3, rows, null, probabilities);
+            double[] row = new double[5];
+            for (int r = 3; r < rows; r++) {
+                data.copyRow(r, row, 0);
+                double expected = Activation.sigmoid(dot(model, row));
+                double bound = Kernels.ULP_TOLERANCE * Math.ulp(1.0) * 8;
+                assertEquals(expected, probabilities[r - 3], bound);
+            }
+        }
+    }
+
+    private static double dot(Model model, double[] row) {
+        double[] activated = new double[row.length];
+        Activation.activate(model.getActivationType(), row, 0, activated, 0, row.length);
+        double sum = 0;
+        for (int j = 0; j < row.length; j++) {
+            sum += model.getWeights()[j] * activated[j];
+        }
+        return sum + model.getBias();
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LayeredModelTest {
+
+    private static TrainingConfig config(double learningRate, int batchSize) {
+        TrainingConfig config = new TrainingConfig();
+        config.setLearningRate(learningRate);
+        config.setBatchSize(batchSize);
+        config.setParallelism(1);
+        return config;
+    }
+
+    /** Two features in [-1, 1], labelled 1 when they have the same sign, which no single layer can fit. */
+    private static Dataset xor(int rows, long seed) {
+        Random rand = new Random(seed);
+        double[] features = new double[rows * 2];
+        int[] labels = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            features[2 * r] = rand.nextDouble() * 2.0 - 1.0;
+            features[2 * r + 1] = rand.nextDouble() * 2.0 - 1.0;
+            labels[r] = (features[2 * r] * features[2 * r + 1] > 0) ? 1 : 0;
+        }
+        return new Dataset(features, labels, 2);
+    }
+
+    private static double accuracy(LayeredModel model, Dataset data) {
+        int[] labels = new int[data.getRows()];
+        model.predictBatch(data, 0, data.getRows(), labels, null);
+        int correct = 0;
+        for (int r = 0; r < labels.length; r++) {
+            correct += (labels[r] == data.getLabel(r)) ? 1 : 0;
+        }
+        return (double) correct / labels.length;
+    }
+
+    @Test
+    public void testMatrixProducts() {
+        Random rand = new Random(1);
+        int m = 70;
+        int n = 67;
+        int k = 131;
+        double[] a = rand.doubles(m * k).toArray();
+        double[] b = rand.doubles(n * k).toArray();
+        double[] c = new double[m * n];
+        Matrices.multiplyTransposed(a, b, c, m, n, k);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double expected = 0;
+                for (int p = 0; p < k; p++) {
+                    expected += a[i * k + p] * b[j * k + p];
+                }
+                assertEquals(expected, c[i * n + j], 1e-10);
+            }
+        }
+        double[] d = rand.doubles(k * n).toArray();
+        Matrices.multiply(a, d, c, m, n, k);
+        assertEquals(dot(a, 5 * k, 1, d, 3, n, k), c[5 * n + 3], 1e-10);
+        double[] e = rand.doubles(k * m).toArray();
+        double[] f = rand.doubles(k * n).toArray();
+        Matrices.multiplyTransposedA(e, f, c, m, n, k);
+        assertEquals(dot(e, 7, m, f, 11, n, k), c[7 * n + 11], 1e-10);
+    }
+
+    private static double dot(double[] x, int xStart, int xStride, double[] y, int yStart, int yStride, int length) {
+        double sum = 0;
+        for (int p = 0; p < length; p++) {
+            sum += x[xStart + p * xStride] * y[yStart + p * yStride];
+        }
+        return sum;
+    }
+
+    @Test
+    public void testNoHiddenLayersIsTheOutputModel() {
+        Dataset data = TestData.linear(1000, 5, 3);
+        LayeredModel network = new LayeredModel(1, ActivationType.ELU, 5, new int[0], 7);
+        Model model = new Model(network.getOutput());
+        network.train(data, 3, config(0.1, 32));
+        model.train(data, 3, config(0.1, 32));
+        assertArrayEquals(model.getWeights(), network.getOutput().getWeights(), 1e-9);
+        assertEquals(model.getBias(), network.getOutput().getBias(), 1e-9);
+        assertEquals(model.loss(data), network.loss(data), 1e-9);
+    }
+
+    @Test
+    public void testGradientsMatchFiniteDifferences() {
+        Dataset data = TestData.linear(40, 4, 5);
+        for (ActivationType type : ActivationType.values()) {
+            LayeredModel network = new LayeredModel(1, type, 4, new int[]{6, 3}, 11);
+            double rate = 1e-6;
+            double[][] before = {network.getWeights(0).clone(), network.getWeights(1).clone(),
+                network.getOutput().getWeights().clone()};
+            double[][] numeric = new double[3][];
+            double h = 1e-6;
+            for (int l = 0; l < 3; l++) {
+                double[] weights = (l < 2) ? network.getWeights(l) : network.getOutput().getWeights();
+                numeric[l] = new double[weights.length];
+                for (int j = 0; j < weights.length; j++) {
+                    double saved = weights[j];
+                    weights[j] = saved + h;
+                    double up = network.loss(data);
+                    weights[j] = saved - h;
+                    double down = network.loss(data);
+                    weights[j] = saved;
+                    numeric[l][j] = (up - down) / (2 * h);
+                }
+            }
+            network.train(data, 1, config(rate, 40));
+            for (int l = 0; l < 3; l++) {
+                double[] after = (l < 2) ? network.getWeights(l) : network.getOutput().getWeights();
+                for (int j = 0; j < after.length; j++) {
+                    double analytic = -(after[j] - before[l][j]) / rate;
+                    assertEquals(numeric[l][j], analytic, 1e-4 + 1e-3 * Math.abs(numeric[l][j]),
+                        type + " layer " + l + " weight " + j);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testHiddenLayerLearnsXor() {
+        Dataset train = xor(4000, 1);
+        Dataset test = xor(1000, 2);
+        LayeredModel linear = new LayeredModel(1, ActivationType.ELU, 2, new int[0], 3);
+        LayeredModel network = new LayeredModel(2, ActivationType.ELU, 2, new int[]{16}, 3);
+        linear.train(train, 200, config(0.5, 32));
+        network.train(train, 200, config(0.5, 32));
+        assertTrue(accuracy(linear, test) < 0.75, "linear " + accuracy(linear, test));
+        assertTrue(accuracy(network, test) > 0.9, "hidden " + accuracy(network, test));
+    }
+
+    @Test
+    public void testPredictBatchRanges() {
+        Dataset data = TestData.linear(600, 5, 9);
+        LayeredModel network = new LayeredModel(1, ActivationType.RELU, 5, new int[]{8, 8}, 4);
+        double[] all = new double[600];
+        double[] part = new double[300];
+        network.predictBatch(data, 0, 600, null, all);
+        network.predictBatch(data, 250, 550, null, part);
+        for (int i = 0; i < part.length; i++) {
+            assertEquals(all[250 + i], part[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> network.predictBatch(
+            TestData.linear(10, 4, 1), 0, 10, null, part));
+        assertThrows(IndexOutOfBoundsException.class, () -> network.predictBatch(data, 500, 700, null, part));
+        assertThrows(IllegalArgumentException.class, () -> new LayeredModel(1, ActivationType.RELU, 5,
+            new int[]{0}, 1));
+        assertThrows(IllegalArgumentException.class, () -> network.train(data, 0, new TrainingConfig()));
+    }
+}
@@ -0,0 +1,152 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+public class MappedDatasetTest {
+
+    @TempDir
+    Path dir;
+
+    private static Person[] people() {
+        return new Person[]{
+            new Person("A", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0),
+            new Person("B", new double[]{-0.4, 0.1, 0.7, -0.8, 0.3}, 1),
+            new Person("C", new double[]{0.82, 0.54, -0.23, 0.21, 0.58}, 0)
+        };
+    }
+
+    @Test
+    public void testRoundTripPeople() throws IOException {
+        Path file = dir.resolve("people.bin");
+        MappedDataset.write(people(), file);
+        MappedDataset data = MappedDataset.open(file);
+        Dataset expected = Dataset.fromPeople(people());
+
+        assertEquals(3, data.getRows());
+        assertEquals(5, data.getWidth());
+        assertEquals(MappedDataset.DataType.FLOAT64, data.getDataType());
+        assertTrue(data.verifyChecksum());
+        double[] row = new double[5];
+        double[] expectedRow = new double[5];
+        for (int r = 0; r < 3; r++) {
+            data.copyRow(r, row, 0);
+            expected.copyRow(r, expectedRow, 0);
+            assertArrayEquals(expectedRow, row, 0.0);
+            assertEquals(expected.getLabel(r), data.getLabel(r));
+        }
+    }
+
+    @Test
+    public void testRowsWiderThanTheWriteBuffer() throws IOException {
+        Dataset wide = TestData.linear(3, 200_000, 7L);
+        Path file = dir.resolve("wide.bin");
+        MappedDataset.write(wide, file, MappedDataset.DataType.FLOAT64);
+        MappedDataset data = MappedDataset.open(file);
+
+        assertEquals(3, data.getRows());
+        assertTrue(data.verifyChecksum());
+        double[] row = new double[200_000];
+        double[] expected = new double[200_000];
+        for (int r = 0; r < 3; r++) {
+            data.copyRow(r, row, 0);
+            wide.copyRow(r, expected, 0);
+            assertArrayEquals(expected, row, 0.0);
+            assertEquals(wide.getLabel(r), data.getLabel(r));
+        }
+    }
+
+    @Test
+    public void testTrainingOnMappedFileMatchesDataset() throws IOException {
+        Path file = dir.resolve("train.bin");
+        MappedDataset.write(people(), file);
+        MappedDataset mapped = MappedDataset.open(file);
+        Model onFile = new Model(1, ActivationType.ELU, 4);
+        Model inMemory = new Model(1, ActivationType.ELU, 4);
+        onFile.train(mapped, 5);
+        inMemory.train(Dataset.fromPeople(people()), 5);
+
+        assertArrayEquals(inMemory.getWeights(), onFile.getWeights(), 0.0);
+        int[] fromFile = new int[3];
+        int[] fromMemory = new int[3];
+        onFile.predictBatch(mapped, fromFile, null);
+        inMemory.predictBatch(Dataset.fromPeople(people()), fromMemory, null);
+        assertArrayEquals(fromMemory, fromFile);
+    }
+
+    @Test
+    public void testCsvToFloat32() throws IOException {
+        Path csv = dir.resolve("rows.csv");
+        Files.write(csv, "a,b,label\n0.5,-0.25,1\n\n-1,0.125,0\n".getBytes(StandardCharsets.UTF_8));
+        Path file = dir.resolve("rows.bin");
+        MappedDataset.fromCsv(csv, file, MappedDataset.DataType.FLOAT32);
+        MappedDataset data = MappedDataset.open(file);
+
+        assertEquals(2, data.getRows());
+        assertEquals(2, data.getWidth());
+        assertEquals(32 + 2 * 2 * 4 + 2, Files.size(file));
+        double[] row = new double[2];
+        data.copyRow(1, row, 0);
+        assertArrayEquals(new double[]{-1.0, 0.125}, row, 0.0);
+        assertEquals(1, data.getLabel(0));
+        assertEquals(0, data.getLabel(1));
+        assertTrue(data.verifyChecksum());
+    }
+
+    @Test
+    public void testMalformedCsv() throws IOException {
+        Path csv = dir.resolve("bad.csv");
+        Files.write(csv, "0.5,-0.25,1\n0.5,1\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> MappedDataset.fromCsv(csv, dir.resolve("bad.bin"),
+            MappedDataset.DataType.FLOAT64));
+    }
+
+    @Test
+    public void testFailedWriteKeepsPreviousFile() throws IOException {
+        Path file = dir.resolve("kept.bin");
+        MappedDataset.write(people(), file);
+        Path csv = dir.resolve("broken.csv");
+        Files.write(csv, "0.5,-0.25,0.1,0.2,0.3,1\n0.5,1\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> MappedDataset.fromCsv(csv, file, MappedDataset.DataType.FLOAT64));
+        MappedDataset data = MappedDataset.open(file);
+        assertEquals(3, data.getRows());
+        assertTrue(data.verifyChecksum());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testDetectsCorruption() throws IOException {
+        Path file = dir.resolve("corrupt.bin");
+        MappedDataset.write(people(), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 40);
+        }
+
+        assertFalse(MappedDataset.open(file).verifyChecksum());
+    }
+
+    @Test
+    public void testRejectsTruncatedFile() throws IOException {
+        Path file = dir.resolve("short.bin");
+        MappedDataset.write(people(), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 1);
+        }
+
+        assertThrows(IOException.class, () -> MappedDataset.open(file));
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> MappedDataset.open(file));
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class MetricsRegistryTest {
+
+    private static long count(String name) {
+        return MetricsRegistry.getShared().histogram(name).getCount();
+    }
+
+    @Test
+    public void testSnapshotAndFormat() {
+        MetricsRegistry registry = new MetricsRegistry(true);
+        for (int v = 1; v <= 60; v++) {
+            registry.histogram("b_latency").record(v);
+        }
+        registry.histogram("a_rows").record(7);
+        assertSame(registry.histogram("a_rows"), registry.histogram("a_rows"));
+
+        List<MetricSnapshot> snapshots = registry.snapshot();
+        assertEquals(2, snapshots.size());
+        assertEquals("a_rows", snapshots.get(0).getName());
+        MetricSnapshot latency = snapshots.get(1);
+        assertEquals(60, latency.getCount());
+        assertEquals(30.5, latency.getMean(), 1e-12);
+        assertEquals(30, latency.getP50());
+        assertEquals(54, latency.getP90());
+        assertEquals(60, latency.getP99());
+        assertEquals(60, latency.getMax());
+
+        registry.histogram("b_latency").record(1000);
+        assertEquals(60, latency.getCount());
+
+        String text = registry.format();
+        assertTrue(text.startsWith("a_rows_count 1\n"), text);
+        assertTrue(text.contains("b_latency_p50 31\n"), text);
+        assertTrue(text.contains("b_latency_max 1000\n"), text);
+    }
+
+    @Test
+    public void testModelRecordsOnlyWhenEnabled() {
+        MetricsRegistry registry = MetricsRegistry.getShared();
+        boolean was = registry.isEnabled();
+        Model model = new Model(3, ActivationType.SIGMOID, 42L);
+        Dataset data = TestData.linear(1000, 5, 1L);
+        Person person = new Person("Test", new double[]{0.5, 0.3, -0.2, 0.1, 0.4}, 1);
+        int[] labels = new int[1000];
+        double[] probabilities = new double[1000];
+        try {
+            registry.setEnabled(false);
+            long predicts = count("model_predict_nanos");
+            long batches = count("model_predict_batch_nanos");
+            model.predict(person);
+            model.predictBatch(data, labels, probabilities);
+            assertEquals(predicts, count("model_predict_nanos"));
+            assertEquals(batches, count("model_predict_batch_nanos"));
+
+            registry.setEnabled(true);
+            model.predict(person);
+            model.predict(person);
+            model.predictBatch(data, 0, 400, labels, probabilities);
+            assertEquals(predicts + 2, count("model_predict_nanos"));
+            assertEquals(batches + 1, count("model_predict_batch_nanos"));
+            assertTrue(registry.histogram("model_predict_batch_rows").getMax() >= 400);
+            assertTrue(registry.format().contains("model_predict_nanos_p99 "));
+        } finally {
+            registry.setEnabled(was);
+        }
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws Exception {
+        Model model = new Model(9, ActivationType.RELU, 42L);
+        Dataset data = TestData.linear(2000, 5, 2L);
+        Path file = Files.createTempFile("perceptron", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("perceptron.TrainingEpoch");
+            recording.enable("perceptron.BatchScored");
+            recording.start();
+            model.train(data, 3);
+            TrainingConfig config = new TrainingConfig();
+            config.setParallelism(2);
+            model.train(data, 2, config);
+            model.predictBatch(data, 0, 500, new int[500], new double[500]);
+            recording.stop();
+            recording.dump(file);
+
+            Map<String, Integer> epochs = new HashMap<>();
+            int batches = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                String name = event.getEventType().getName();
+                if (name.equals("perceptron.TrainingEpoch") && event.getInt("modelId") == 9) {
+                    epochs.merge(event.getString("mode"), 1, Integer::sum);
+                    assertEquals(2000, event.getLong("rows"));
+                } else if (name.equals("perceptron.BatchScored") && event.getInt("modelId") == 9) {
+                    batches++;
+                    assertEquals(500, event.getInt("rows"));
+                    assertFalse(event.getDuration().isNegative());
+                }
+            }
+            assertEquals(3, epochs.get("sequential"));
+            assertEquals(2, epochs.get("miniBatch"));
+            assertEquals(1, batches);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MiniBatchTrainerTest {
+
+    private static Dataset separable(int rows, long seed) {
+        return TestData.uniform(rows, 5, 1.0, seed, (x, o, rand) -> (x[o] - x[o + 1] > 0) ? 1 : 0);
+    }
+
+    private static TrainingConfig config(int batchSize, int parallelism) {
+        TrainingConfig config = new TrainingConfig();
+        config.setLearningRate(0.5);
+        config.setBatchSize(batchSize);
+        config.setParallelism(parallelism);
+        config.setMinRowsPerWorker(16);
+        return config;
+    }
+
+    @Test
+    public void testSameSeedAndThreadsIsBitIdentical() {
+        Dataset data = separable(5_000, 1);
+        for (ActivationType type : ActivationType.values()) {
+            Model first = new Model(1, type, 99);
+            Model second = new Model(1, type, 99);
+            first.train(data, 3, config(256, 4));
+            second.train(data, 3, config(256, 4));
+
+            assertArrayEquals(first.getWeights(), second.getWeights(), 0.0);
+            assertEquals(first.getBias(), second.getBias(), 0.0);
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSequentialClosely() {
+        Dataset data = separable(5_000, 2);
+        Model sequential = new Model(1, ActivationType.ELU, 5);
+        Model parallel = new Model(1, ActivationType.ELU, 5);
+        sequential.train(data, 2, config(500, 1));
+        parallel.train(data, 2, config(500, 8));
+
+        assertArrayEquals(sequential.getWeights(), parallel.getWeights(), 1e-9);
+        assertEquals(sequential.getBias(), parallel.getBias(), 1e-9);
+    }
+
+    @Test
+    public void testSmallBatchesUseFewerWorkers() {
+        Dataset data = separable(5_000, 4);
+        Model two = new Model(1, ActivationType.SIGMOID, 6);
+        Model many = new Model(1, ActivationType.SIGMOID, 6);
+        TrainingConfig wide = config(1024, 8);
+        wide.setMinRowsPerWorker(512);
+        TrainingConfig narrow = new TrainingConfig(wide);
+        narrow.setParallelism(2);
+        many.train(data, 2, wide);
+        two.train(data, 2, narrow);
+
+        assertArrayEquals(two.getWeights(), many.getWeights(), 0.0);
+        assertEquals(two.getBias(), many.getBias(), 0.0);
+        assertSame(MiniBatchTrainer.pool(8), MiniBatchTrainer.pool(8));
+        assertEquals(512, new TrainingConfig().getMinRowsPerWorker());
+    }
+
+    @Test
+    public void testLearnsSeparableData() {
+        Dataset data = separable(4_000, 3);
+        Model model = new Model(1, ActivationType.ELU, 11);
+        model.train(data, 50, config(64, 4));
+
+        int[] labels = new int[data.getRows()];
+        model.predictBatch(data, labels, null);
+        int correct = 0;
+        for (int r = 0; r < labels.length; r++) {
+            if (labels[r] == data.getLabel(r)) {
+                correct++;
+            }
+        }
+        assertTrue(correct > 0.9 * labels.length, "accuracy was " + correct);
+    }
+
+    @Test
+    public void testInvalidConfig() {
+        TrainingConfig config = new TrainingConfig();
+
+        assertThrows(IllegalArgumentException.class, () -> config.setBatchSize(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setParallelism(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setMinRowsPerWorker(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setLearningRate(-1.0));
+        assertThrows(IllegalArgumentException.class, () -> config.setLearningRate(Double.NaN));
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ModelStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testRoundTripThousandsOfModels() throws IOException {
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            models.add(new Model(i * 7 - 1000, ActivationType.values()[i % 3], i));
+        }
+        Path file = dir.resolve("models.bin");
+        ModelStore.write(models, file);
+        ModelStore store = ModelStore.open(file);
+
+        assertEquals(5000, store.size());
+        for (Model model : models) {
+            Model loaded = store.get(model.getID());
+            assertEquals(model.getID(), loaded.getID());
+            assertEquals(model.getActivationType(), loaded.getActivationType());
+            assertArrayEquals(model.getWeights(), loaded.getWeights(), 0.0);
+            assertEquals(model.getBias(), loaded.getBias(), 0.0);
+        }
+        assertNull(store.get(3));
+        assertFalse(store.contains(-1001));
+        assertTrue(store.contains(-1000));
+        int[] ids = store.getIds();
+        Arrays.sort(ids);
+        assertEquals(-1000, ids[0]);
+        assertEquals(4999 * 7 - 1000, ids[4999]);
+    }
+
+    @Test
+    public void testLoadedModelPredictsLikeOriginal() throws IOException {
+        Model model = new Model(4, ActivationType.ELU, 11);
+        Person[] data = {
+            new Person("A", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0),
+            new Person("B", new double[]{-0.4, 0.1, 0.7, -0.8, 0.3}, 1)
+        };
+        model.train(Dataset.fromPeople(data), 20);
+        Path file = dir.resolve("one.bin");
+        ModelStore.write(Collections.singletonList(model), file);
+        Model loaded = ModelStore.open(file).get(4);
+
+        double[] expected = new double[2];
+        double[] actual = new double[2];
+        model.predictBatch(Dataset.fromPeople(data), null, expected);
+        loaded.predictBatch(Dataset.fromPeople(data), null, actual);
+        assertArrayEquals(expected, actual, 0.0);
+        assertFalse(loaded.isFastMath());
+    }
+
+    @Test
+    public void testKeepsFastMath() throws IOException {
+        Model fast = new Model(1, ActivationType.SIGMOID, 7);
+        fast.setFastMath(true);
+        Model exact = new Model(2, ActivationType.SIGMOID, 7);
+        Path file = dir.resolve("fast.bin");
+        ModelStore.write(Arrays.asList(fast, exact), file);
+        ModelStore store = ModelStore.open(file);
+        Model loaded = store.get(1);
+
+        assertTrue(loaded.isFastMath());
+        assertFalse(store.get(2).isFastMath());
+        Dataset data = TestData.linear(50, 5, 8L);
+        double[] expected = new double[50];
+        double[] actual = new double[50];
+        fast.predictBatch(data, null, expected);
+        loaded.predictBatch(data, null, actual);
+        assertArrayEquals(expected, actual, 0.0);
+    }
+
+    @Test
+    public void testEmptyStoreAndDuplicateIds() throws IOException {
+        Path file = dir.resolve("empty.bin");
+        ModelStore.write(Collections.emptyList(), file);
+        assertEquals(0, ModelStore.open(file).size());
+        assertNull(ModelStore.open(file).get(0));
+
+        List<Model> duplicates = Arrays.asList(new Model(1, ActivationType.RELU), new Model(1, ActivationType.ELU));
+        assertThrows(IllegalArgumentException.class, () -> ModelStore.write(duplicates, dir.resolve("dup.bin")));
+    }
+
+    @Test
+    public void testRejectsCorruptFiles() throws IOException {
+        Path file = dir.resolve("models.bin");
+        ModelStore.write(Arrays.asList(new Model(1, ActivationType.RELU), new Model(2, ActivationType.SIGMOID)), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), channel.size() - 3);
+        }
+        assertThrows(IOException.class, () -> ModelStore.open(file));
+
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> ModelStore.open(file));
+        Files.write(file, new byte[8]);
+        assertThrows(IOException.class, () -> ModelStore.open(file));
+    }
+}
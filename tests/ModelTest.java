@@ -30,6 +30,15 @@ public class ModelTest {
         assertArrayEquals(original.getWeights(), copy.getWeights());
     }
     
+    @Test
+    public void testEqualsComparesWidths() {
+        Model narrow = new Model(1, ActivationType.RELU, new double[]{0.5, 0.5}, 0.0);
+        Model wide = new Model(2, ActivationType.RELU, new double[]{0.5, 0.5, 0.5}, 0.0);
+        assertNotEquals(wide, narrow);
+        assertNotEquals(narrow, wide);
+        assertEquals(narrow, new Model(3, ActivationType.RELU, new double[]{0.5, 0.5}, 0.0));
+    }
+
     @Test
     public void testPredict() {
         Model model = new Model(1, ActivationType.RELU);
@@ -51,12 +60,147 @@ public class ModelTest {
         // No exception should be thrown
         assertTrue(true);
     }
+
+    @Test
+    public void testTrainFeatureMatrixRejectsInvalidEpochs() {
+        Model model = new Model(1, ActivationType.RELU, 5);
+        Dataset data = TestData.linear(10, 5, 3L);
+
+        assertThrows(IllegalArgumentException.class, () -> model.train(data, 0));
+        assertThrows(IllegalArgumentException.class, () -> model.train(data, -5, new TrainingConfig()));
+    }
     
+    @Test
+    public void testTrainDatasetMatchesTrainPeople() {
+        Person[] data = {
+            new Person("A", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0),
+            new Person("B", new double[]{-0.4, 0.1, 0.7, -0.8, 0.3}, 1),
+            new Person("C", new double[]{0.82, 0.54, -0.23, 0.21, 0.58}, 0)
+        };
+        for (ActivationType type : ActivationType.values()) {
+            Model byPeople = new Model(1, type);
+            Model byDataset = new Model(byPeople);
+            byPeople.train(data, 3);
+            byDataset.train(Dataset.fromPeople(data), 3);
+
+            assertArrayEquals(byPeople.getWeights(), byDataset.getWeights(), 0.0);
+            assertEquals(byPeople.getBias(), byDataset.getBias(), 0.0);
+        }
+    }
+
+    @Test
+    public void testTrainDatasetWrongWidth() {
+        Model model = new Model(1, ActivationType.RELU);
+        Dataset data = new Dataset(new double[]{0.1, 0.2, 0.3}, new int[]{1}, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> model.train(data, 1));
+    }
+
+    @Test
+    public void testPredictBatchMatchesPredict() {
+        Person[] data = {
+            new Person("A", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0),
+            new Person("B", new double[]{-0.4, 0.1, 0.7, -0.8, 0.3}, 1),
+            new Person("C", new double[]{-1.0, -0.9, -0.7, -0.8, -0.3}, 1),
+            new Person("D", new double[]{0.82, 0.54, -0.23, 0.21, 0.58}, 0)
+        };
+        Dataset dataset = Dataset.fromPeople(data);
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type);
+            int[] labels = new int[data.length];
+            double[] probabilities = new double[data.length];
+            long before = Model.getTotalPredictionCount();
+            model.predictBatch(dataset, labels, probabilities);
+
+            assertEquals(before, Model.getTotalPredictionCount());
+            for (int i = 0; i < data.length; i++) {
+                assertEquals(model.predict(data[i]), labels[i]);
+                assertEquals(probabilities[i] > 0.5 ? 1 : 0, labels[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testPredictBatchProbabilitiesMatchPredictExactly() {
+        Dataset data = TestData.linear(1000, 5, 8L);
+        double delta = Kernels.get().getName().equals("scalar") ? 0.0 : 1e-12;
+        double[] row = new double[5];
+        for (ActivationType type : ActivationType.values()) {
+            for (boolean fastMath : new boolean[]{false, true}) {
+                Model model = new Model(1, type, 5, 21L);
+                model.setFastMath(fastMath);
+                double[] probabilities = new double[data.getRows()];
+                model.predictBatch(data, null, probabilities);
+                for (int r = 0; r < data.getRows(); r++) {
+                    data.copyRow(r, row, 0);
+                    assertEquals(model.probability(row), probabilities[r], delta, type + " row " + r);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPredictBatchRange() {
+        Model model = new Model(1, ActivationType.SIGMOID);
+        Dataset dataset = new Dataset(new double[10], new int[2], 5);
+        int[] labels = new int[1];
+
+        model.predictBatch(dataset, 1, 2, labels, null);
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> model.predictBatch(dataset, 1, 3, labels, null));
+    }
+
+    @Test
+    public void testConcurrentPredictionCounts() throws InterruptedException {
+        Model model = new Model(3, ActivationType.SIGMOID);
+        Person person = new Person("Test", new double[]{0.5, 0.3, -0.2, 0.1, 0.4}, 1);
+        long before = Model.getTotalPredictionCount();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    model.predict(person);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20_000, model.getPredictionCount());
+        assertTrue(Model.getTotalPredictionCount() - before >= 20_000);
+        assertTrue(model.getCorrectPredictionCount() <= model.getPredictionCount());
+    }
+
+    @Test
+    public void testPredictionHistoryIsOptIn() {
+        Model model = new Model(9041, ActivationType.SIGMOID);
+        Person person = new Person("Test", new double[]{0.5, 0.3, -0.2, 0.1, 0.4}, 1);
+        boolean wasOn = Model.isPredictionHistory();
+        try {
+            Model.setPredictionHistory(false);
+            model.predict(person);
+            assertEquals(0, Model.getModelEvents().stream().filter(e -> e.getModelId() == 9041).count());
+            assertEquals(1, model.getPredictionCount());
+
+            Model.setPredictionHistory(true);
+            model.predict(person);
+            assertEquals(1, Model.getModelEvents().stream().filter(e -> e.getModelId() == 9041).count());
+            assertTrue(Model.getModelHistory().contains("Model 9041: Predicted Test to "));
+            assertEquals(2, model.getPredictionCount());
+        } finally {
+            Model.setPredictionHistory(wasOn);
+        }
+    }
+
     @Test
     public void testModelStats() {
         // Simply test that the method runs without error
         Model.printModelStats();
         assertTrue(Model.getTotalPredictions() >= 0);
         assertTrue(Model.getCorrectPredictions() >= 0);
+        assertEquals(Model.getTotalPredictions(), (int) Math.min(Model.getTotalPredictionCount(), Integer.MAX_VALUE));
+        assertTrue(Model.getCorrectPredictionTotal() <= Model.getTotalPredictionCount());
     }
 }
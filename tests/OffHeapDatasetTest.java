@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapDatasetTest {
+
+    @Test
+    public void testCopiesRowsAndLabels() {
+        Dataset data = TestData.linear(1000, 5, 3);
+        OffHeapDataset offHeap = OffHeapDataset.of(data);
+        assertEquals(1000, offHeap.getRows());
+        assertEquals(5, offHeap.getWidth());
+        double[] expected = new double[5];
+        double[] actual = new double[5];
+        for (int r = 0; r < data.getRows(); r++) {
+            data.copyRow(r, expected, 0);
+            offHeap.copyRow(r, actual, 0);
+            assertArrayEquals(expected, actual);
+            assertEquals(data.getLabel(r), offHeap.getLabel(r));
+        }
+        assertEquals(1000 * 5 * 8 + 1000, offHeap.getMemoryBytes());
+        assertNull(offHeap.getNames());
+    }
+
+    @Test
+    public void testCopyRowsAcrossSegments() {
+        OffHeapDataset offHeap = new OffHeapDataset(10, 2, 3);
+        for (int r = 0; r < 10; r++) {
+            offHeap.setRow(r, new double[]{r, -r}, 0, r % 2);
+        }
+        double[] rows = new double[14];
+        offHeap.copyRows(2, 7, rows, 0);
+        for (int i = 0; i < 7; i++) {
+            assertEquals(2 + i, rows[2 * i]);
+            assertEquals(-(2 + i), rows[2 * i + 1]);
+        }
+        assertEquals(1, offHeap.getLabel(9));
+    }
+
+    @Test
+    public void testPredictBatchMatchesDataset() {
+        Dataset data = TestData.linear(5000, 5, 7);
+        OffHeapDataset offHeap = new OffHeapDataset(5000, 5, 777);
+        double[] row = new double[5];
+        for (int r = 0; r < data.getRows(); r++) {
+            data.copyRow(r, row, 0);
+            offHeap.setRow(r, row, 0, data.getLabel(r));
+        }
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type, 42);
+            model.setActivationCache(null);
+            double[] expected = new double[4000];
+            double[] actual = new double[4000];
+            int[] labels = new int[4000];
+            model.predictBatch(data, 600, 4600, null, expected);
+            model.predictBatch(offHeap, 600, 4600, labels, actual);
+            assertArrayEquals(expected, actual, type.toString());
+            assertEquals((actual[17] > 0.5) ? 1 : 0, labels[17]);
+        }
+    }
+
+    @Test
+    public void testTrainsLikeDataset() {
+        Dataset data = TestData.linear(2000, 5, 11);
+        Model onHeap = new Model(1, ActivationType.ELU, 5);
+        Model offHeap = new Model(onHeap);
+        onHeap.train(data, 3);
+        offHeap.train(OffHeapDataset.of(data), 3);
+        assertArrayEquals(onHeap.getWeights(), offHeap.getWeights());
+        assertEquals(onHeap.getBias(), offHeap.getBias());
+    }
+
+    @Test
+    public void testFromPeopleKeepsNamesOffHeap() {
+        Person[] people = {
+            new Person("Showmick Das", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0),
+            new Person("Zo\u00eb \u00c5ngstr\u00f6m", new double[]{0.1, 0.2, 0.3, 0.4, 0.5}, 1)
+        };
+        OffHeapDataset offHeap = OffHeapDataset.fromPeople(people);
+        assertEquals("Showmick Das", offHeap.getNames().get(0));
+        assertEquals("Zo\u00eb \u00c5ngstr\u00f6m", offHeap.getNames().get(1));
+        assertEquals(1, offHeap.getLabel(1));
+        assertThrows(IllegalArgumentException.class, () -> offHeap.setNames(new NameTable(0)));
+        offHeap.setNames(null);
+        assertNull(offHeap.getNames());
+    }
+
+    @Test
+    public void testNameTableGrows() {
+        NameTable names = new NameTable(1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, names.add("person-" + i));
+        }
+        assertEquals(1000, names.size());
+        assertEquals("person-0", names.get(0));
+        assertEquals("person-999", names.get(999));
+        assertThrows(IndexOutOfBoundsException.class, () -> names.get(1000));
+    }
+
+    @Test
+    public void testRejectsBadRows() {
+        OffHeapDataset offHeap = new OffHeapDataset(2, 3);
+        assertThrows(IndexOutOfBoundsException.class, () -> offHeap.setRow(2, new double[3], 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> offHeap.setRow(0, new double[3], 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapDataset(1, 0));
+    }
+}
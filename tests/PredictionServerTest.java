@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+public class PredictionServerTest {
+
+    private static double[][] rows(int count) {
+        Random rand = new Random(3);
+        double[][] rows = new double[count][5];
+        for (double[] row : rows) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = rand.nextDouble() * 4.0 - 2.0;
+            }
+        }
+        return rows;
+    }
+
+    private static double[] expected(Model model, double[][] rows) {
+        double[] features = new double[rows.length * 5];
+        for (int i = 0; i < rows.length; i++) {
+            System.arraycopy(rows[i], 0, features, i * 5, 5);
+        }
+        double[] probabilities = new double[rows.length];
+        model.predictBatch(new Dataset(features, new int[rows.length], 5), null, probabilities);
+        return probabilities;
+    }
+
+    private static String[] call(URL url, String method, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream stream = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream answer = new ByteArrayOutputStream();
+        try (InputStream in = stream) {
+            in.transferTo(answer);
+        }
+        return new String[]{String.valueOf(status), answer.toString(StandardCharsets.UTF_8).trim()};
+    }
+
+    @Test
+    public void testMicroBatcherCoalescesConcurrentRows() throws Exception {
+        Model model = new Model(1, ActivationType.ELU, 5);
+        double[][] rows = rows(64);
+        double[] expected = expected(model, rows);
+        try (MicroBatcher batcher = new MicroBatcher(model, 16, 1_000_000_000L, 1024)) {
+            List<CompletableFuture<Double>> results = new ArrayList<>();
+            for (double[] row : rows) {
+                results.add(batcher.submit(row));
+            }
+            for (int i = 0; i < rows.length; i++) {
+                assertEquals(expected[i], results.get(i).get(), 0.0);
+            }
+            assertEquals(16, batcher.getBatchSizes().getMax());
+            assertEquals(4, batcher.getBatchSizes().getCount());
+            assertThrows(IllegalArgumentException.class, () -> batcher.submit(new double[3]));
+        }
+    }
+
+    @Test
+    public void testClosedBatcherRejectsRows() {
+        MicroBatcher batcher = new MicroBatcher(new Model(1, ActivationType.RELU, 5), 8, 1000, 8);
+        batcher.close();
+        assertThrows(RejectedExecutionException.class, () -> batcher.submit(new double[5]));
+    }
+
+    @Test
+    public void testServerAnswersConcurrentClients() throws Exception {
+        Model model = new Model(2, ActivationType.SIGMOID, 9);
+        double[][] rows = rows(40);
+        double[] expected = expected(model, rows);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try (PredictionServer server = new PredictionServer(model, 0, 32, 20_000, 16)) {
+            server.start();
+            URL predict = new URL("http://localhost:" + server.getPort() + "/predict");
+            List<Future<String[]>> answers = new ArrayList<>();
+            for (double[] row : rows) {
+                StringBuilder body = new StringBuilder();
+                for (int j = 0; j < row.length; j++) {
+                    body.append((j == 0) ? "" : ", ").append(row[j]);
+                }
+                answers.add(clients.submit(() -> call(predict, "POST", body.toString())));
+            }
+            for (int i = 0; i < rows.length; i++) {
+                String[] answer = answers.get(i).get();
+                assertEquals("200", answer[0]);
+                String[] fields = answer[1].split(",");
+                assertEquals(expected[i], Double.parseDouble(fields[1]), 0.0);
+                assertEquals((expected[i] > 0.5) ? "1" : "0", fields[0]);
+            }
+            assertEquals(rows.length, server.getLatency().getCount());
+            assertEquals(rows.length, Math.round(server.getBatchSizes().getMean() *
+                server.getBatchSizes().getCount()));
+
+            assertEquals("400", call(predict, "POST", "1,2,x,4,5")[0]);
+            assertEquals("400", call(predict, "POST", "1,2")[0]);
+            assertEquals("405", call(predict, "GET", null)[0]);
+
+            String[] metrics = call(new URL("http://localhost:" + server.getPort() + "/metrics"), "GET", null);
+            assertEquals("200", metrics[0]);
+            assertTrue(metrics[1].contains("requests " + rows.length), metrics[1]);
+            assertTrue(metrics[1].contains("latency_p99_us"), metrics[1]);
+            assertTrue(metrics[1].contains("batch_size_p50"), metrics[1]);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+public class QuantizedModelTest {
+
+    private static Dataset data(int rows, long seed) {
+        return TestData.uniform(rows, 5, 1.0, seed, (x, o, rand) -> (x[o] - x[o + 3] > 0) ? 1 : 0);
+    }
+
+    private static Model trained(ActivationType type, Dataset data) {
+        Model model = new Model(7, type, 13);
+        model.train(data, 20);
+        return model;
+    }
+
+    @Test
+    public void testFloat32DriftIsNegligible() {
+        Dataset data = data(20_000, 1);
+        for (ActivationType type : ActivationType.values()) {
+            Model model = trained(type, data);
+            DriftReport report = new QuantizedModel(model, Precision.FLOAT32).drift(model, data);
+
+            assertTrue(report.getMaxError() < 1e-6, type + " " + report);
+            assertTrue(report.getLabelAgreement() > 0.999, type + " " + report);
+            assertEquals(2.0, report.getCompression(), 0.0);
+        }
+    }
+
+    @Test
+    public void testInt8DriftIsSmall() {
+        Dataset data = data(20_000, 2);
+        for (ActivationType type : ActivationType.values()) {
+            Model model = trained(type, data);
+            DriftReport report = new QuantizedModel(model, Precision.INT8).drift(model, data);
+
+            assertTrue(report.getMaxError() < 0.1, type + " " + report);
+            assertTrue(report.getMeanError() < 0.005, type + " " + report);
+            assertTrue(report.getLabelAgreement() > 0.99, type + " " + report);
+            assertEquals(48.0 / 13, report.getCompression(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testQuantizedFeaturesGiveSameScores() {
+        Dataset data = data(1_000, 3);
+        Model model = trained(ActivationType.ELU, data);
+        for (Precision precision : Precision.values()) {
+            QuantizedModel quantized = new QuantizedModel(model, precision);
+            QuantizedFeatures stored = QuantizedFeatures.of(data, precision);
+            double[] direct = new double[1_000];
+            double[] fromStore = new double[1_000];
+            quantized.predictBatch(data, 0, 1_000, null, direct);
+            quantized.predictBatch(stored, 0, 1_000, null, fromStore);
+
+            assertArrayEquals(direct, fromStore, 0.0);
+            assertEquals(direct[5], quantized.probability(data.getFeatures(), 25), 1e-12);
+            assertEquals(data.getLabel(9), stored.getLabel(9));
+        }
+        assertEquals(1_000 * 21, QuantizedFeatures.of(data, Precision.FLOAT32).getMemoryBytes());
+        assertEquals(1_000 * 6, QuantizedFeatures.of(data, Precision.INT8).getMemoryBytes());
+    }
+
+    @Test
+    public void testInt8FeatureCodes() {
+        Dataset data = new Dataset(new double[]{-1.0, -0.5, 0.0, 0.5, 3.0}, new int[]{1}, 5);
+        QuantizedFeatures stored = QuantizedFeatures.of(data, Precision.INT8);
+        double[] row = new double[5];
+        stored.copyRow(0, row, 0);
+
+        assertArrayEquals(new double[]{-1.0, -63 / 127.0, 0.0, 64 / 127.0, 1.0}, row, 1e-15);
+        assertEquals(1, stored.getLabel(0));
+    }
+
+    @Test
+    public void testPredictAndWidthMismatch() {
+        Model model = new Model(3, ActivationType.SIGMOID, 4);
+        QuantizedModel quantized = new QuantizedModel(model, Precision.INT8);
+        Person person = new Person("A", new double[]{0.2, -0.4, 0.9, 0.1, -0.7}, 1);
+        long predictions = model.getPredictionCount();
+
+        assertEquals(model.predict(person), quantized.predict(person));
+        assertEquals(predictions + 1, model.getPredictionCount());
+        assertThrows(IllegalArgumentException.class, () ->
+            quantized.predictBatch(new Dataset(new double[3], new int[1], 3), 0, 1, null, null));
+        assertThrows(IndexOutOfBoundsException.class, () ->
+            quantized.predictBatch(new Dataset(new double[5], new int[1], 5), 0, 2, null, null));
+    }
+
+    @Test
+    public void testWideInt8SumDoesNotOverflow() {
+        int width = 60000;
+        double[] weights = new double[width];
+        double[] features = new double[width];
+        Arrays.fill(weights, 1.0);
+        Arrays.fill(features, 1.0);
+        Model model = new Model(4, ActivationType.SIGMOID, weights, 0.0);
+        QuantizedModel quantized = new QuantizedModel(model, Precision.INT8);
+        Dataset row = new Dataset(features, new int[]{1}, width);
+        double[] expected = new double[1];
+        model.predictBatch(row, null, expected);
+        assertEquals(1.0, expected[0], 1e-12);
+        assertEquals(1.0, quantized.probability(features, 0), 1e-12);
+
+        double[] probabilities = new double[1];
+        quantized.predictBatch(QuantizedFeatures.of(row, Precision.INT8), 0, 1, null, probabilities);
+        assertEquals(1.0, probabilities[0], 1e-12);
+    }
+}
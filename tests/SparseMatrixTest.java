@@ -0,0 +1,142 @@
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SparseMatrixTest {
+
+    /** Rows of width columns with up to nonZeros random features in [-1, 1] each. */
+    private static SparseMatrix sparse(int rows, int width, int nonZeros, long seed) {
+        Random rand = new Random(seed);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(width);
+        int[] columns = new int[nonZeros];
+        double[] values = new double[nonZeros];
+        for (int r = 0; r < rows; r++) {
+            int[] drawn = rand.ints(nonZeros, 0, width).sorted().distinct().toArray();
+            double sum = 0;
+            for (int k = 0; k < drawn.length; k++) {
+                columns[k] = drawn[k];
+                values[k] = rand.nextDouble() * 2.0 - 1.0;
+                sum += values[k];
+            }
+            builder.addRow(columns, values, drawn.length, (sum > 0) ? 1 : 0);
+        }
+        return builder.build();
+    }
+
+    private static Dataset dense(SparseMatrix data) {
+        double[] features = new double[data.getRows() * data.getWidth()];
+        int[] labels = new int[data.getRows()];
+        for (int r = 0; r < data.getRows(); r++) {
+            data.copyRow(r, features, r * data.getWidth());
+            labels[r] = data.getLabel(r);
+        }
+        return new Dataset(features, labels, data.getWidth());
+    }
+
+    @Test
+    public void testCsrLayout() {
+        SparseMatrix data = new SparseMatrix(4, new int[]{0, 2, 2, 3}, new int[]{0, 3, 1},
+            new double[]{0.5, -1.0, 2.0}, new int[]{1, 0, 1});
+        assertEquals(3, data.getRows());
+        assertEquals(4, data.getWidth());
+        assertEquals(3, data.getNonZeros());
+        double[] row = new double[]{9, 9, 9, 9, 9, 9};
+        data.copyRow(0, row, 1);
+        assertArrayEquals(new double[]{9, 0.5, 0, 0, -1.0, 9}, row);
+        data.copyRow(1, row, 0);
+        assertArrayEquals(new double[]{0, 0, 0, 0, -1.0, 9}, row);
+        assertEquals(0, data.getLabel(1));
+    }
+
+    @Test
+    public void testRejectsInvalidRows() {
+        assertThrows(IllegalArgumentException.class, () -> new SparseMatrix(4, new int[]{0, 2},
+            new int[]{3, 1}, new double[2], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> new SparseMatrix(4, new int[]{0, 1},
+            new int[]{4}, new double[1], new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> new SparseMatrix(4, new int[]{0, 1, 0},
+            new int[]{1}, new double[1], new int[2]));
+        assertThrows(IllegalArgumentException.class, () -> new SparseMatrix.Builder(3)
+            .addRow(new int[]{0}, new double[]{1}, 1, 2));
+    }
+
+    @Test
+    public void testOfKeepsNonZeros() {
+        Dataset data = new Dataset(new double[]{0, 1.5, 0, -2, 0, 0}, new int[]{1, 0}, 3);
+        SparseMatrix sparse = SparseMatrix.of(data);
+        assertEquals(2, sparse.getNonZeros());
+        assertArrayEquals(new int[]{0, 1, 2}, sparse.getRowPointers());
+        assertArrayEquals(data.getFeatures(), dense(sparse).getFeatures());
+    }
+
+    @Test
+    public void testArbitraryWidthModel() {
+        Dataset data = TestData.linear(500, 12, 3);
+        Model model = new Model(1, ActivationType.ELU, 12, 9);
+        assertEquals(12, model.getWeights().length);
+        double before = model.loss(data);
+        model.train(data, 5);
+        assertTrue(model.loss(data) < before);
+        assertThrows(IllegalArgumentException.class, () -> model.train(TestData.linear(10, 5, 1), 1));
+        assertThrows(IllegalArgumentException.class, () -> new Model(1, ActivationType.RELU, 0, 1));
+    }
+
+    @Test
+    public void testSparseTrainingMatchesDense() {
+        SparseMatrix data = sparse(2000, 300, 8, 5);
+        Dataset dense = dense(data);
+        for (ActivationType type : ActivationType.values()) {
+            Model sparseModel = new Model(1, type, 300, 11);
+            Model denseModel = new Model(sparseModel);
+            sparseModel.train(data, 3);
+            denseModel.train(dense, 3);
+            if (type == ActivationType.SIGMOID) {
+                assertArrayEquals(denseModel.getWeights(), sparseModel.getWeights(), 1e-9);
+                assertEquals(denseModel.getBias(), sparseModel.getBias(), 1e-9);
+            } else {
+                assertArrayEquals(denseModel.getWeights(), sparseModel.getWeights(), type.toString());
+                assertEquals(denseModel.getBias(), sparseModel.getBias());
+            }
+        }
+    }
+
+    @Test
+    public void testSparsePredictBatchMatchesDense() {
+        SparseMatrix data = sparse(1000, 200, 6, 7);
+        Dataset dense = dense(data);
+        for (ActivationType type : ActivationType.values()) {
+            Model model = new Model(1, type, 200, 13);
+            model.train(data, 2);
+            double[] expected = new double[900];
+            double[] actual = new double[900];
+            int[] labels = new int[900];
+            model.predictBatch(dense, 100, 1000, null, expected);
+            model.predictBatch(data, 100, 1000, labels, actual);
+            assertArrayEquals(expected, actual, 1e-12, type.toString());
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals((actual[i] > 0.5) ? 1 : 0, labels[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testMillionColumns() {
+        SparseMatrix data = sparse(200, 1_000_000, 10, 3);
+        Model model = new Model(1, ActivationType.RELU, 1_000_000, 1);
+        double before = model.loss(data);
+        model.train(data, 20);
+        assertTrue(model.loss(data) < before);
+        assertEquals(200, EvaluationMetrics.evaluate(model, data, 1).getCount());
+    }
+
+    @Test
+    public void testDenseOnlyModesRejectSparseRows() {
+        SparseMatrix data = sparse(50, 1000, 5, 4);
+        Model model = new Model(1, ActivationType.RELU, 1000, 1);
+        assertThrows(IllegalArgumentException.class, () -> model.train(data, 2, new TrainingConfig()));
+        assertThrows(IllegalArgumentException.class, () -> model.trainAsync(data, 2, new TrainingConfig()));
+        assertThrows(IllegalArgumentException.class, () -> model.train(data, 2, new EarlyStopping()));
+        assertThrows(IllegalArgumentException.class, () -> new EpochIterator(data, 1, 10, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new HyperparameterSearch(data, 2, 1L));
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class StreamingTrainerTest {
+
+    @Test
+    public void testMatchesInMemoryTraining() throws IOException {
+        Random rand = new Random(9);
+        int rows = 2_000;
+        double[] features = new double[rows * 5];
+        int[] labels = new int[rows];
+        StringBuilder csv = new StringBuilder();
+        for (int r = 0; r < rows; r++) {
+            for (int j = 0; j < 5; j++) {
+                features[r * 5 + j] = Math.round((rand.nextDouble() * 2.0 - 1.0) * 1e6) / 1e6;
+                csv.append(features[r * 5 + j]).append(',');
+            }
+            labels[r] = (features[r * 5] > features[r * 5 + 4]) ? 1 : 0;
+            csv.append(labels[r]).append('\n');
+        }
+        Model streamed = new Model(1, ActivationType.ELU, 21);
+        Model inMemory = new Model(1, ActivationType.ELU, 21);
+        TrainingReport report = StreamingTrainer.train(streamed,
+            new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), 256, 0.01);
+        Dataset data = new Dataset(features, labels, 5);
+        double[] row = new double[5];
+        for (int r = 0; r < rows; r++) {
+            data.copyRow(r, row, 0);
+            inMemory.update(row, 0, data.getLabel(r), 0.01);
+        }
+
+        assertEquals(rows, report.getRowsProcessed());
+        assertTrue(report.getRowsPerSecond() > 0);
+        assertTrue(report.getFinalLoss() > 0);
+        assertArrayEquals(inMemory.getWeights(), streamed.getWeights(), 0.0);
+        assertEquals(inMemory.getBias(), streamed.getBias(), 0.0);
+    }
+
+    @Test
+    public void testUpdateMatchesTrainStep() {
+        Person[] people = {new Person("A", new double[]{0.9, 0.6, -0.3, 0.2, 0.5}, 0)};
+        Model trained = new Model(2, ActivationType.SIGMOID, 6);
+        Model updated = new Model(2, ActivationType.SIGMOID, 6);
+        trained.train(Dataset.fromPeople(people), 1);
+        updated.update(people[0].getFeatures(), 0, 0, 0.01);
+
+        assertArrayEquals(trained.getWeights(), updated.getWeights(), 0.0);
+    }
+
+    @Test
+    public void testWidthMismatch() {
+        Model model = new Model(1, ActivationType.RELU);
+
+        assertThrows(IllegalArgumentException.class, () -> StreamingTrainer.train(model,
+            new ByteArrayInputStream("0.1,0.2,1\n".getBytes(StandardCharsets.UTF_8)), 64, 0.01));
+    }
+}
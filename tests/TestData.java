@@ -0,0 +1,64 @@
+import java.util.Random;
+
+/**
+ * Generated datasets shared by the tests.
+ */
+final class TestData {
+
+    /**
+     * Decides the label of one generated row.
+     */
+    interface LabelRule {
+        /**
+         * @param features the features generated so far
+         * @param offset the index of the first feature of the row
+         * @param rand the generator of the dataset, for rules that add noise
+         * @return the label (0 or 1) of the row
+         */
+        int label(double[] features, int offset, Random rand);
+    }
+
+    private TestData() {
+    }
+
+    /**
+     * Rows of features drawn uniformly from [-range, range], labelled by a rule that is
+     * applied as soon as the features of its row are drawn.
+     */
+    static Dataset uniform(int rows, int width, double range, long seed, LabelRule rule) {
+        Random rand = new Random(seed);
+        double[] features = new double[rows * width];
+        int[] labels = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            for (int j = 0; j < width; j++) {
+                features[r * width + j] = rand.nextDouble() * (2.0 * range) - range;
+            }
+            labels[r] = rule.label(features, r * width, rand);
+        }
+        return new Dataset(features, labels, width);
+    }
+
+    /**
+     * Rows of features in [-1, 1], labelled by the side of a random hyperplane through the
+     * origin they fall on, so the classes are linearly separable.
+     */
+    static Dataset linear(int rows, int width, long seed) {
+        Random rand = new Random(seed);
+        double[] direction = new double[width];
+        for (int j = 0; j < width; j++) {
+            direction[j] = rand.nextDouble() * 2.0 - 1.0;
+        }
+        double[] features = new double[rows * width];
+        int[] labels = new int[rows];
+        for (int r = 0; r < rows; r++) {
+            double sum = 0;
+            for (int j = 0; j < width; j++) {
+                double x = rand.nextDouble() * 2.0 - 1.0;
+                features[r * width + j] = x;
+                sum += direction[j] * x;
+            }
+            labels[r] = (sum > 0) ? 1 : 0;
+        }
+        return new Dataset(features, labels, width);
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrainingListenerTest {
+
+    private static Dataset data(int rows) {
+        return TestData.uniform(rows, 5, 1.0, 8, (x, o, rand) -> (x[o + 3] > 0) ? 1 : 0);
+    }
+
+    /**
+     * Records every callback it receives.
+     */
+    private static class Recorder implements TrainingListener {
+        private final long batchInterval;
+        private final List<TrainingMetrics> epochs = new ArrayList<>();
+        private final List<TrainingMetrics> batches = new ArrayList<>();
+
+        Recorder(long batchInterval) {
+            this.batchInterval = batchInterval;
+        }
+
+        @Override
+        public void onEpoch(TrainingMetrics metrics) {
+            this.epochs.add(metrics);
+        }
+
+        @Override
+        public void onBatch(TrainingMetrics metrics) {
+            this.batches.add(metrics);
+        }
+
+        @Override
+        public long getBatchInterval() {
+            return this.batchInterval;
+        }
+    }
+
+    @Test
+    public void testEpochAndBatchReports() {
+        Dataset data = data(100);
+        Model model = new Model(1, ActivationType.ELU, 2);
+        Model replay = new Model(model);
+        Recorder recorder = new Recorder(30);
+        model.setTrainingListener(recorder);
+
+        model.train(data, 3);
+
+        assertEquals(3, recorder.epochs.size());
+        assertEquals(9, recorder.batches.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, recorder.epochs.get(i).getEpoch());
+            assertEquals(100, recorder.epochs.get(i).getRows());
+            assertEquals(30, recorder.batches.get(3 * i).getRows());
+        }
+        double loss = 0;
+        double[] row = new double[5];
+        for (int r = 0; r < 100; r++) {
+            data.copyRow(r, row, 0);
+            loss += TrainingMonitor.logLoss(replay.update(row, 0, data.getLabel(r), 0.01), data.getLabel(r));
+        }
+        assertEquals(loss / 100, recorder.epochs.get(0).getMeanLoss(), 1e-12);
+    }
+
+    @Test
+    public void testListenerDoesNotChangeTraining() {
+        Dataset data = data(200);
+        Model quiet = new Model(1, ActivationType.SIGMOID, 3);
+        Model observed = new Model(quiet);
+        observed.setTrainingListener(new Recorder(7));
+        TrainingConfig config = new TrainingConfig();
+        config.setBatchSize(32);
+        config.setParallelism(2);
+
+        quiet.train(data, 2);
+        observed.train(data, 2);
+        quiet.train(data, 3, config);
+        observed.train(data, 3, config);
+
+        assertArrayEquals(quiet.getWeights(), observed.getWeights(), 0.0);
+        assertEquals(quiet.getBias(), observed.getBias(), 0.0);
+    }
+
+    @Test
+    public void testMiniBatchAndAsyncReports() {
+        Dataset data = data(200);
+        Model model = new Model(1, ActivationType.RELU, 4);
+        Recorder recorder = new Recorder(50);
+        model.setTrainingListener(recorder);
+        TrainingConfig config = new TrainingConfig();
+        config.setBatchSize(64);
+        config.setParallelism(2);
+
+        model.train(data, 2, config);
+        assertEquals(2, recorder.epochs.size());
+        assertEquals(200, recorder.epochs.get(1).getRows());
+        assertEquals(64, recorder.batches.get(0).getRows());
+
+        recorder.epochs.clear();
+        model.trainAsync(data, 3, config);
+        assertEquals(1, recorder.epochs.size());
+        assertEquals(2, recorder.epochs.get(0).getEpoch());
+        assertEquals(600, recorder.epochs.get(0).getRows());
+        assertTrue(recorder.epochs.get(0).getMeanLoss() > 0);
+    }
+
+    @Test
+    public void testAsyncFileListener(@TempDir Path dir) throws IOException {
+        Path log = dir.resolve("training.log");
+        Model model = new Model(1, ActivationType.ELU, 5);
+        try (AsyncFileListener listener = new AsyncFileListener(log, 40)) {
+            model.setTrainingListener(listener);
+            model.train(data(100), 5);
+            assertEquals(0, listener.getDroppedCount());
+        }
+        List<String> lines = Files.readAllLines(log);
+
+        assertEquals(5 + 5 * 2, lines.size());
+        assertTrue(lines.get(0).startsWith("  Epoch 0: Loss = "));
+        assertTrue(lines.get(2).startsWith("Epoch 0: Loss = "));
+        assertTrue(lines.get(2).contains("100 rows"));
+        assertTrue(lines.get(14).startsWith("Epoch 4: "));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncFileListener(log, -1));
+    }
+}